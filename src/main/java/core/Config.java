@@ -1,5 +1,6 @@
 package core;
 
+import java.awt.GraphicsEnvironment;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -41,6 +42,25 @@ public class Config {
 	public boolean mute;
 	public float soundVolume;
 	public float musicVolume;
+	public boolean fixedStep;
+	public boolean renderThread;
+	public boolean headless;
+	public int ticks;
+	public String profile;
+	public String record;
+	public String replay;
+	public String inputScript;
+	public String stateOutput;
+	public int workers;
+	public boolean parallelBootstrap;
+	public boolean rasterBlit;
+	public boolean bitmapFont;
+	public String renderBackend;
+	public String capturePath;
+	public int captureEvery;
+	public String mapCache;
+	public boolean mapStreaming;
+	public int mapBudget;
 
 	public Map<String, Object> attributes = new HashMap<>();
 	private final CliManager clm;
@@ -60,6 +80,25 @@ public class Config {
 		this.mute = false;
 		this.soundVolume = 0.0f;
 		this.musicVolume = 0.0f;
+		this.fixedStep = false;
+		this.renderThread = false;
+		this.headless = false;
+		this.ticks = 0;
+		this.profile = "";
+		this.record = "";
+		this.replay = "";
+		this.inputScript = "";
+		this.stateOutput = "";
+		this.workers = 1;
+		this.parallelBootstrap = false;
+		this.rasterBlit = false;
+		this.bitmapFont = false;
+		this.renderBackend = "";
+		this.capturePath = "";
+		this.captureEvery = 1;
+		this.mapCache = "";
+		this.mapStreaming = false;
+		this.mapBudget = 16384;
 		clm = new CliManager(g);
 
 		// Define title attribute.
@@ -94,6 +133,80 @@ public class Config {
 		clm.add(new FloatArgParser("MusicVolume", "mm", "musicVolume", this.musicVolume, 0.0f, 1.0f,
 				"Define the sound volume value.",
 				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the fixed time step game loop mode.
+		clm.add(new BooleanArgParser("FixedStep", "fs", "fixedStep", this.fixedStep, true, false,
+				"Use the fixed time step game loop (updates at UPS, rendering at FPS with interpolation).",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the dedicated render thread mode.
+		clm.add(new BooleanArgParser("RenderThread", "rt", "renderThread", this.renderThread, true, false,
+				"Render frames on a dedicated thread from snapshots published by the game loop.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the headless simulation mode.
+		clm.add(new BooleanArgParser("Headless", "hl", "headless", this.headless, true, false,
+				"Run without window nor audio device (automatically set when no display is available).",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the number of update steps to be run before exiting.
+		clm.add(new IntArgParser("Ticks", "tk", "ticks", this.ticks, 0, Integer.MAX_VALUE,
+				"Define the number of update steps before exiting (0 means no limit).",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the frame profile output.
+		clm.add(new StringArgParser("Profile", "pf", "profile", this.profile,
+				"Path prefix of the .csv and .json frame profile files written on exit.",
+				"the profile must be a simple path string"));
+		// Add the number of update workers.
+		clm.add(new IntArgParser("Workers", "wk", "workers", this.workers, 0, 64,
+				"Define the number of threads running the update stages (1 runs them on the game loop thread, 0 means one per processor).",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the parallel bootstrap mode.
+		clm.add(new BooleanArgParser("ParallelBootstrap", "pb", "parallelBootstrap", this.parallelBootstrap, true, false,
+				"Build the independent systems concurrently and the scenes on their first activation.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the raster blitter mode.
+		clm.add(new BooleanArgParser("RasterBlit", "rb", "rasterBlit", this.rasterBlit, true, false,
+				"Draw tiles and sprites directly into the screen buffer pixels instead of through Java2D.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the bitmap font text rendering.
+		clm.add(new BooleanArgParser("BitmapFont", "bf", "bitmapFont", this.bitmapFont, true, false,
+				"Draw the texts from pre-rasterized glyph atlases instead of through TrueType rendering.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the render backend.
+		clm.add(new StringArgParser("RenderBackend", "be", "backend", this.renderBackend,
+				"Name of the render backend: window, offscreen or counting (default depends on headless mode).",
+				"the backend must be a simple name string"));
+		// Add the frame recording path.
+		clm.add(new StringArgParser("CapturePath", "cap", "capturePath", this.capturePath,
+				"Path prefix of the recorded PNG frames, or path of a .raw file receiving all the frames.",
+				"the capture path must be a simple path string"));
+		// Add the frame recording interval.
+		clm.add(new IntArgParser("CaptureEvery", "ce", "captureEvery", this.captureEvery, 1, Integer.MAX_VALUE,
+				"Record one frame every N rendered frames.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the compiled maps directory.
+		clm.add(new StringArgParser("MapCache", "mc", "mapCache", this.mapCache,
+				"Directory of the compiled binary maps (e.g. ~/.demogame/maps), empty or none to always read the JSON maps.",
+				"the map cache must be a simple path string"));
+		// Add the map streaming mode.
+		clm.add(new BooleanArgParser("MapStreaming", "ms", "mapStreaming", this.mapStreaming, true, false,
+				"Load the chunks of the map around the camera only, in background, instead of the whole map.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the memory budget of the streamed map chunks.
+		clm.add(new IntArgParser("MapBudget", "mb", "mapBudget", this.mapBudget, 256, Integer.MAX_VALUE,
+				"Memory budget in KB of the loaded chunks of a streamed map, before evicting the far ones.",
+				"%s set to %s is wrong, default value is %d and can be between %d and %d"));
+		// Add the input recording file.
+		clm.add(new StringArgParser("Record", "rec", "record", this.record,
+				"Path of the binary input log to be recorded.", "the record must be a simple path string"));
+		// Add the input replay file.
+		clm.add(new StringArgParser("Replay", "rp", "replay", this.replay,
+				"Path of a binary input log to be replayed tick by tick.", "the replay must be a simple path string"));
+		// Add the scripted inputs.
+		clm.add(new StringArgParser("InputScript", "in", "inputScript", this.inputScript,
+				"Scripted key events as KEY@press-release entries, e.g. ENTER@1,RIGHT@10-70.",
+				"the input script must be a comma separated list of KEY@press-release"));
+		// Add the final objects state output.
+		clm.add(new StringArgParser("StateOutput", "so", "stateOutput", this.stateOutput,
+				"Path of the JSON file where the final state of the objects is written on exit.",
+				"the state output must be a simple path string"));
 		// Add the states configuration path.
 		clm.add(new StringArgParser("StatePath", "st", "statePath", this.statesPath, "Path where the game.json file exists",
 		"the state path must be a simple path string"));
@@ -122,9 +235,36 @@ public class Config {
 			config.soundVolume = (Float) (config.clm.getValue("SoundVolume"));
 			config.musicVolume = (Float) (config.clm.getValue("MusicVolume"));
 			config.statesPath = ((String) config.clm.getValue("StatePath"));;
+			config.fixedStep = (Boolean) (config.clm.getValue("FixedStep"));
+			config.renderThread = (Boolean) (config.clm.getValue("RenderThread"));
+			config.headless = (Boolean) (config.clm.getValue("Headless"));
+			config.ticks = (Integer) (config.clm.getValue("Ticks"));
+			config.profile = ((String) config.clm.getValue("Profile"));
+			config.record = ((String) config.clm.getValue("Record"));
+			config.replay = ((String) config.clm.getValue("Replay"));
+			config.inputScript = ((String) config.clm.getValue("InputScript"));
+			config.stateOutput = ((String) config.clm.getValue("StateOutput"));
+			config.workers = (Integer) (config.clm.getValue("Workers"));
+			config.parallelBootstrap = (Boolean) (config.clm.getValue("ParallelBootstrap"));
+			config.rasterBlit = (Boolean) (config.clm.getValue("RasterBlit"));
+			config.bitmapFont = (Boolean) (config.clm.getValue("BitmapFont"));
+			config.renderBackend = ((String) config.clm.getValue("RenderBackend"));
+			config.capturePath = ((String) config.clm.getValue("CapturePath"));
+			config.captureEvery = (Integer) (config.clm.getValue("CaptureEvery"));
+			config.mapCache = ((String) config.clm.getValue("MapCache"));
+			config.mapStreaming = (Boolean) (config.clm.getValue("MapStreaming"));
+			config.mapBudget = (Integer) (config.clm.getValue("MapBudget"));
 		} catch (ArgumentUnknownException e) {
 			log.error(e.getMessage());
 		}
+		if (!config.headless && GraphicsEnvironment.isHeadless()) {
+			log.info("No display available, switch to headless mode");
+			config.headless = true;
+		}
+		if (config.headless) {
+			// no audio device in headless mode.
+			config.mute = true;
+		}
 		return config;
 	}
 
@@ -142,6 +282,25 @@ public class Config {
 		this.soundVolume = Float.parseFloat(cfgFromFile.getString("audio.volume.sound"));
 		this.musicVolume = Float.parseFloat(cfgFromFile.getString("audio.volume.music"));
 		this.statesPath = cfgFromFile.getString("game.states.path");
+		this.fixedStep = Boolean.parseBoolean(cfgFromFile.getString("game.loop.fixed"));
+		this.renderThread = Boolean.parseBoolean(cfgFromFile.getString("render.thread"));
+		this.headless = Boolean.parseBoolean(cfgFromFile.getString("game.headless"));
+		this.ticks = Integer.parseInt(cfgFromFile.getString("game.ticks"));
+		this.profile = cfgFromFile.getString("debug.profile");
+		this.record = cfgFromFile.getString("input.record");
+		this.replay = cfgFromFile.getString("input.replay");
+		this.inputScript = cfgFromFile.getString("input.script");
+		this.stateOutput = cfgFromFile.getString("debug.state.output");
+		this.workers = Integer.parseInt(cfgFromFile.getString("game.workers"));
+		this.parallelBootstrap = Boolean.parseBoolean(cfgFromFile.getString("game.bootstrap.parallel"));
+		this.rasterBlit = Boolean.parseBoolean(cfgFromFile.getString("render.raster"));
+		this.bitmapFont = Boolean.parseBoolean(cfgFromFile.getString("render.bitmapFont"));
+		this.renderBackend = cfgFromFile.getString("render.backend");
+		this.capturePath = cfgFromFile.getString("debug.capture.path");
+		this.captureEvery = Integer.parseInt(cfgFromFile.getString("debug.capture.every"));
+		this.mapCache = cfgFromFile.getString("game.maps.cache");
+		this.mapStreaming = Boolean.parseBoolean(cfgFromFile.getString("game.maps.streaming"));
+		this.mapBudget = Integer.parseInt(cfgFromFile.getString("game.maps.budget"));
 	}
 
 }
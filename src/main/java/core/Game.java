@@ -1,18 +1,32 @@
 package core;
 
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
 import core.audio.SoundSystem;
 import core.collision.CollidingSystem;
 import core.collision.MapCollidingSystem;
+import core.gfx.AnimationClock;
 import core.gfx.Counter;
 import core.gfx.Renderer;
 import core.io.InputHandler;
+import core.io.InputRecorder;
+import core.io.ReplayInputSource;
+import core.io.SyntheticInputSource;
 import core.math.PhysicEngineSystem;
+import core.object.GameObject;
 import core.object.ObjectManager;
 import core.object.World;
 import core.resource.ResourceManager;
 import core.scene.Scene;
 import core.scene.SceneManager;
 import core.scripts.LuaScriptSystem;
+import core.system.DataSet;
+import core.system.FrameProfiler;
+import core.system.FrameProfiler.Phase;
+import core.system.Stage;
 import core.system.SystemManager;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,14 +39,34 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class Game {
 
-	public static long goIndex = 0;
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	// max time accumulated for one loop iteration (250ms).
+	private static final long MAX_FRAME_TIME = 250_000_000L;
+	// max number of update steps processed before rendering a frame.
+	private static final int MAX_UPDATES_PER_FRAME = 5;
+	// under this remaining time (1ms), the loop spins instead of parking.
+	private static final long SPIN_THRESHOLD = 1_000_000L;
+
 	public Config config;
 	public boolean exitRequest = false;
 
+	/**
+	 * Number of update steps processed since the game loop started.
+	 */
+	public long tick = 0;
+
+	/**
+	 * The random generator to be used by game logic; seeded from the input log
+	 * when recording or replaying a session.
+	 */
+	public Random random = new Random();
+
 	/**
 	 * System Manager and Systems.
 	 */
 	public SystemManager sysMan;
+	public ResourceManager resourceManager;
 	public InputHandler inputHandler;
 	public Renderer renderer;
 	public CollidingSystem collidingSystem;
@@ -55,36 +89,53 @@ public class Game {
 	 */
 	public void run() {
 		log.info("Run game");
+		play();
+		System.exit(0);
+	}
+
+	/**
+	 * Initialize the game, loop until an exit is requested and dispose all
+	 * systems, leaving the JVM running: a headless game with
+	 * <code>config.ticks</code> set can be played this way by a test.
+	 */
+	public void play() {
 		initialize();
 		loop();
 		log.info("Game stopped");
 		dispose();
-		System.exit(0);
 	}
 
 	/**
-	 * Initialization of the game.
+	 * Initialization of the game. The systems not depending on each other
+	 * (Renderer, SoundSystem, SceneManager and LuaScriptSystem) are submitted to
+	 * the SystemManager, which builds them concurrently when
+	 * <code>config.parallelBootstrap</code> is set.
 	 */
 	public void initialize() {
 
 		// start System Manager
 		sysMan = SystemManager.initialize(this);
-		sysMan.add(new ResourceManager(this));
-		
-		ResourceManager.add(new String[] { "/res/game.json", "/res/bgf-icon.png" });
+		resourceManager = new ResourceManager(this);
+		sysMan.add(resourceManager);
+
+		resourceManager.add(new String[] { "/res/game.json", "/res/bgf-icon.png" });
 
 
 		// add basic systems
 		inputHandler = new InputHandler(this);
 		sysMan.add(inputHandler);
+		prepareInputLog();
 
 		// GameObject manager system
 		ObjectManager objectManager = new ObjectManager(this);
 		sysMan.add(objectManager);
 
+		// Animation clock advancing the shared animations once per update step
+		AnimationClock animationClock = new AnimationClock(this);
+		sysMan.add(animationClock);
+
 		// Renderer pipeline system
-		renderer = new Renderer(this);
-		sysMan.add(renderer);
+		CompletableFuture<Renderer> futureRenderer = sysMan.submit(() -> new Renderer(this));
 
 		// Colliding System
 		collidingSystem = new CollidingSystem(this);
@@ -95,29 +146,70 @@ public class Game {
 		sysMan.add(physicEngine);
 
 		// Massive Sound system
-		SoundSystem soundSystem = new SoundSystem(this);
-		sysMan.add(soundSystem);
+		CompletableFuture<SoundSystem> futureSoundSystem = sysMan.submit(() -> new SoundSystem(this));
 
 		// Start some more advanced systems.
 		MapCollidingSystem mapCollider = new MapCollidingSystem(this);
 		sysMan.add(mapCollider);
 
 		// start State manager system
-		sceneManager = new SceneManager(this);
-		sysMan.add(sceneManager);
+		CompletableFuture<SceneManager> futureSceneManager = sysMan.submit(() -> new SceneManager(this));
+
+		sysMan.submit(() -> new LuaScriptSystem(this));
 
-		LuaScriptSystem luaSystem = new LuaScriptSystem(this);
-		sysMan.add(luaSystem);
+		sysMan.awaitBootstrap();
+		renderer = futureRenderer.join();
+		sceneManager = futureSceneManager.join();
+		SoundSystem soundSystem = futureSoundSystem.join();
+		sysMan.addStage(new Stage("audio", Phase.AUDIO, (g, elapsed) -> soundSystem.dispatch())
+				.reads(DataSet.AUDIO_QUEUE)
+				.writes(DataSet.AUDIO_QUEUE));
+		sysMan.addStage(new Stage("animations", Phase.UPDATE, (g, elapsed) -> animationClock.tick(elapsed))
+				.writes(DataSet.ANIMATIONS));
 
 	}
 
+	/**
+	 * Start recording the inputs, replay an input log or play the scripted
+	 * inputs, according to configuration.
+	 * <p>
+	 * A recording is only replayable if each update step has the same duration:
+	 * the fixed step loop is forced while recording.
+	 */
+	private void prepareInputLog() {
+		try {
+			if (!config.replay.isEmpty()) {
+				ReplayInputSource replay = new ReplayInputSource(config.replay);
+				if (replay.getUps() != config.ups) {
+					log.warn("Input log recorded at {} UPS, replayed at {} UPS", replay.getUps(), config.ups);
+				}
+				random = new Random(replay.getSeed());
+				inputHandler.setInputSource(replay);
+				if (config.ticks == 0) {
+					config.ticks = (int) replay.getLength();
+				}
+			} else if (!config.record.isEmpty()) {
+				if (!config.fixedStep && !config.headless) {
+					log.info("Recording inputs: switching to the fixed step loop");
+					config.fixedStep = true;
+				}
+				long seed = System.nanoTime();
+				random = new Random(seed);
+				inputHandler.setRecorder(new InputRecorder(config.record, config.ups, seed));
+			}
+			if (config.replay.isEmpty() && !config.inputScript.isEmpty()) {
+				inputHandler.setInputSource(SyntheticInputSource.parse(config.inputScript));
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			log.error("Unable to prepare the inputs", e);
+		}
+	}
+
 	/**
 	 * Main loop for the game.
 	 */
 	private void loop() {
 
-		long startTime = System.currentTimeMillis();
-		long previousTime = startTime;
 		double waitFrameDuration = config.fps * 0.000001f;
 		double waitUpdateDuration = config.fps * 3 * 0.000001f;
 		Counter realUPS = new Counter("UPS", 0, waitUpdateDuration);
@@ -128,6 +220,27 @@ public class Game {
 
 		sceneManager.startState(this);
 
+		if (config.renderThread) {
+			renderer.startRenderThread(this);
+		}
+
+		if (config.headless && !config.fixedStep) {
+			headlessLoop(realFPS, realUPS);
+		} else if (config.fixedStep) {
+			fixedStepLoop(realFPS, realUPS);
+		} else {
+			variableStepLoop(realFPS, realUPS, waitUpdateDuration);
+		}
+	}
+
+	/**
+	 * The historical loop: the measured elapsed time is directly used for update
+	 * and the loop is throttled with a <code>Thread.sleep()</code>.
+	 */
+	private void variableStepLoop(Counter realFPS, Counter realUPS, double waitUpdateDuration) {
+		long startTime = System.currentTimeMillis();
+		long previousTime = startTime;
+
 		while (!exitRequest) {
 			startTime = System.currentTimeMillis();
 
@@ -135,12 +248,9 @@ public class Game {
 
 			Scene current = sceneManager.getCurrent();
 
-			physicEngine.update(this, current, elapsed);
-
-			sceneManager.input(this);
-			sceneManager.update(this, elapsed);
+			update(current, elapsed);
 
-			if (realFPS.isReached()) {
+			if (renderer.isRenderThreadActive() || realFPS.isReached()) {
 				sceneManager.render(this, renderer, elapsed);
 			}
 			double wait = (waitUpdateDuration - elapsed);
@@ -154,6 +264,167 @@ public class Game {
 		}
 	}
 
+	/**
+	 * The fixed time step loop. Time is measured with <code>System.nanoTime()</code>
+	 * and accumulated; the simulation is updated by steps of exactly
+	 * <code>1/config.ups</code> second, while rendering happens at
+	 * <code>config.fps</code> with an interpolation factor between the two last
+	 * updates.
+	 */
+	private void fixedStepLoop(Counter realFPS, Counter realUPS) {
+		final long updateStep = NANOS_PER_SECOND / config.ups;
+		final long frameStep = NANOS_PER_SECOND / config.fps;
+		// Scenes and Physic engine expect an elapsed time in milliseconds.
+		final double dt = updateStep / NANOS_PER_MILLI;
+
+		long previousTime = System.nanoTime();
+		long previousUpdate = previousTime;
+		long previousFrame = previousTime;
+		long nextFrame = previousTime;
+		long accumulator = 0;
+
+		while (!exitRequest) {
+			long now = System.nanoTime();
+			// clamp the measured time to avoid the "spiral of death" after a long stall.
+			accumulator += Math.min(now - previousTime, MAX_FRAME_TIME);
+			previousTime = now;
+
+			int steps = 0;
+			while (accumulator >= updateStep && steps < MAX_UPDATES_PER_FRAME) {
+				Scene current = sceneManager.getCurrent();
+				storePreviousPositions(current);
+
+				update(current, dt);
+
+				accumulator -= updateStep;
+				steps++;
+				realUPS.tick((now - previousUpdate) / NANOS_PER_MILLI);
+				previousUpdate = now;
+			}
+			if (steps == MAX_UPDATES_PER_FRAME) {
+				// the machine can't follow: drop the remaining late updates.
+				accumulator %= updateStep;
+			}
+
+			if (renderer.isRenderThreadActive()) {
+				// only publish the state of the last update step to the render thread.
+				if (steps > 0) {
+					sceneManager.render(this, renderer, dt);
+				}
+			} else if (now >= nextFrame) {
+				double elapsed = (now - previousFrame) / NANOS_PER_MILLI;
+				renderer.setInterpolation((double) accumulator / updateStep);
+				sceneManager.render(this, renderer, elapsed);
+				realFPS.tick(elapsed);
+				previousFrame = now;
+				nextFrame += frameStep;
+				if (nextFrame < now) {
+					nextFrame = now + frameStep;
+				}
+			}
+
+			long nextUpdate = now + (updateStep - accumulator);
+			waitUntil(renderer.isRenderThreadActive() ? nextUpdate : Math.min(nextUpdate, nextFrame));
+		}
+	}
+
+	/**
+	 * The headless simulation loop: nothing is waited for, each iteration
+	 * processes one update step of exactly <code>1/config.ups</code> second and
+	 * draws it offscreen, as fast as the CPU allows.
+	 */
+	private void headlessLoop(Counter realFPS, Counter realUPS) {
+		final double dt = (NANOS_PER_SECOND / config.ups) / NANOS_PER_MILLI;
+
+		long startTime = System.nanoTime();
+		long previousTime = startTime;
+
+		while (!exitRequest) {
+			long now = System.nanoTime();
+			double elapsed = (now - previousTime) / NANOS_PER_MILLI;
+			previousTime = now;
+
+			Scene current = sceneManager.getCurrent();
+			storePreviousPositions(current);
+			update(current, dt);
+
+			sceneManager.render(this, renderer, dt);
+
+			realUPS.tick(elapsed);
+			realFPS.tick(elapsed);
+		}
+		double duration = (System.nanoTime() - startTime) / NANOS_PER_MILLI;
+		log.info("Headless run: {} update steps in {} ms ({} steps/s)", tick, String.format("%.1f", duration),
+				String.format("%.1f", tick * 1000.0 / Math.max(duration, 1)));
+	}
+
+	/**
+	 * Process one update step: physic, inputs and scene update. The game exits
+	 * when <code>config.ticks</code> update steps have been processed.
+	 *
+	 * @param current the current scene.
+	 * @param elapsed the time of the step, in milliseconds.
+	 */
+	private void update(Scene current, double elapsed) {
+		FrameProfiler profiler = sysMan.getProfiler();
+
+		long start = profiler.start();
+		physicEngine.update(this, current, elapsed);
+		profiler.stop(Phase.PHYSIC, start);
+
+		start = profiler.start();
+		inputHandler.poll(tick);
+		sceneManager.input(this);
+		profiler.stop(Phase.INPUT, start);
+
+		sceneManager.update(this, elapsed);
+		sysMan.runStages(current, elapsed);
+		profiler.endStep();
+
+		tick++;
+		if (config.ticks > 0 && tick >= config.ticks) {
+			exitRequest = true;
+		}
+	}
+
+	/**
+	 * Keep the position of all the objects of the scene before the next update
+	 * step, to let the Renderer interpolate between the 2 last steps.
+	 *
+	 * @param scene the current scene.
+	 */
+	private void storePreviousPositions(Scene scene) {
+		if (scene != null) {
+			if (scene.getObjectManager() != null) {
+				for (GameObject go : scene.getObjectManager().getAll()) {
+					go.storePreviousPosition();
+				}
+			}
+			if (scene.getActiveCamera() != null) {
+				scene.getActiveCamera().storePreviousPosition();
+			}
+		}
+	}
+
+	/**
+	 * Wait until the <code>deadline</code> (in nanoseconds) is reached. Thread is
+	 * parked while the remaining time is large, and then spins on
+	 * <code>Thread.yield()</code> for the last part to get a sub-millisecond
+	 * precision that <code>Thread.sleep()</code> can't provide.
+	 *
+	 * @param deadline the <code>System.nanoTime()</code> value to wait for.
+	 */
+	public static void waitUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			if (remaining > SPIN_THRESHOLD) {
+				LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+			} else {
+				Thread.yield();
+			}
+		}
+	}
+
 	private void waitNextFrame(double waitFrameDuration, double wait) {
 		if (wait > 0 && wait < waitFrameDuration) {
 			log.debug("wait for {}ms", wait);
@@ -170,6 +441,9 @@ public class Game {
 	 * Dispose all systems.
 	 */
 	private void dispose() {
+		if (!config.stateOutput.isEmpty()) {
+			sysMan.getSystem(ObjectManager.class).saveState(config.stateOutput);
+		}
 		sysMan.dispose();
 	}
 
@@ -182,4 +456,4 @@ public class Game {
 		Game dg = new Game(argc);
 		dg.run();
 	}
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ import javax.sound.sampled.*;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to play and manage a sound clip from file.
@@ -21,9 +22,9 @@ import java.io.InputStream;
 @Slf4j
 public class SoundClip {
 
-    private static int soundIndex = 0;
+    private static final AtomicInteger soundIndex = new AtomicInteger();
 
-    private String code = "SOUND_" + (soundIndex++);
+    private String code = "SOUND_" + soundIndex.getAndIncrement();
     /**
      * Java Sound clip to be read.
      */
@@ -8,18 +8,17 @@
 package core.audio;
 
 import java.util.Map;
+import java.util.Queue;
 import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.sound.sampled.AudioFileFormat.Type;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Mixer;
 import javax.sound.sampled.Mixer.Info;
 
-import com.google.gson.Gson;
-
 import core.Game;
-import core.resource.ResourceManager;
 import core.system.AbstractSystem;
 import lombok.extern.slf4j.Slf4j;
 
@@ -44,17 +43,22 @@ public class SoundSystem extends AbstractSystem {
      */
     private Map<String, SoundClip> soundBank = new ConcurrentHashMap<String, SoundClip>();
 
+    /**
+     * Sounds requested during the update step, played by {@link #dispatch()}.
+     */
+    private Queue<Runnable> requests = new ConcurrentLinkedQueue<>();
+
     /**
      * mute the full soudsystem
      */
     private boolean mute = false;
 
     /**
-     * Internal constructor.
+     * Internal constructor. The audio device is probed by
+     * {@link #initialize(Game)}, called by the SystemManager.
      */
     public SoundSystem(Game game) {
         super(game);
-        initialize(game);
     }
 
     /**
@@ -66,14 +70,14 @@ public class SoundSystem extends AbstractSystem {
      *         {@link SoundSystem}
      *         <p>
      *         SoundClip coinClip =
-     *         (SoundClip)ResourceManager.get("res/audio/sounds/135936__bradwesson__collectcoin.wav");
-     *         SystemManager.get(SoundSystem.class).add("coin", coinClip);
+     *         (SoundClip)game.resourceManager.getSoundClip("res/audio/sounds/135936__bradwesson__collectcoin.wav");
+     *         game.sysMan.getSystem(SoundSystem.class).add("coin", coinClip);
      *         </p>
      *         .
      */
     public String load(String code, String filename) {
         if (!soundBank.containsKey(code) && !mute) {
-            SoundClip sc = ResourceManager.getSoundClip(filename);
+            SoundClip sc = game.resourceManager.getSoundClip(filename);
             if (sc != null) {
                 soundBank.put(code, sc);
                 log.debug("Load sound {} to sound bank with code {}", filename, code);
@@ -109,8 +113,10 @@ public class SoundSystem extends AbstractSystem {
         if (!mute) {
             if (soundBank.containsKey(code)) {
                 SoundClip sc = soundBank.get(code);
-                sc.play();
-                log.debug("Play sound {}", code);
+                requests.add(() -> {
+                    sc.play();
+                    log.debug("Play sound {}", code);
+                });
             } else {
                 log.error("unable to find the sound {} in the SoundBank !", code);
             }
@@ -130,8 +136,10 @@ public class SoundSystem extends AbstractSystem {
             if (soundBank.containsKey(code)) {
                 SoundClip sc = soundBank.get(code);
                 float soundVolume = ((game != null && game.config != null) ? game.config.soundVolume : 1.0f);
-                sc.play(0.5f, volume * soundVolume);
-                log.debug("Play sound {} with volume {}", code, volume);
+                requests.add(() -> {
+                    sc.play(0.5f, volume * soundVolume);
+                    log.debug("Play sound {} with volume {}", code, volume);
+                });
             } else {
                 log.error("unable to find the sound {} in the SoundBank !", code);
             }
@@ -154,10 +162,12 @@ public class SoundSystem extends AbstractSystem {
             if (soundBank.containsKey(code)) {
                 SoundClip sc = soundBank.get(code);
                 if (loop && sc != null) {
-                    sc.play(pan, volume);
-                    sc.loop();
+                    requests.add(() -> {
+                        sc.play(pan, volume);
+                        sc.loop();
+                        log.debug("Play sound {} with volume {} and pan {}", code, volume, pan);
+                    });
                 }
-                log.debug("Play sound {} with volume {} and pan {}", code, volume, pan);
             } else {
                 log.error("unable to find the sound {} in the SoundBank !", code);
             }
@@ -174,6 +184,18 @@ public class SoundSystem extends AbstractSystem {
         play(code, volume, 0.5f, true);
     }
 
+    /**
+     * Play all the sounds requested since the previous call. Called once per
+     * update step by the audio Stage, so that the systems requesting sounds never
+     * wait for the audio device.
+     */
+    public void dispatch() {
+        Runnable request;
+        while ((request = requests.poll()) != null) {
+            request.run();
+        }
+    }
+
     /**
      * Is the sound code playing right now ?
      *
@@ -205,16 +227,24 @@ public class SoundSystem extends AbstractSystem {
     public int initialize(Game game) {
         this.game = game;
         soundsStack.setSize(MAX_SOUNDS_IN_STACK);
-        log.info("Initialize SoundControl with {} stack places", MAX_SOUNDS_IN_STACK);
-        Type[] supportedFiletypes = AudioSystem.getAudioFileTypes();
-        for (Type t : supportedFiletypes) {
-            log.info("supported file format '{}'", t);
+        if (game.config.headless) {
+            // no audio device: act as a null audio backend.
+            this.mute = true;
+            log.info("Headless mode, SoundControl is muted");
+            return 0;
         }
+        log.info("Initialize SoundControl with {} stack places", MAX_SOUNDS_IN_STACK);
         this.mute = game.config.mute;
-        Mixer.Info[] infos = AudioSystem.getMixerInfo();
-        for (Info info : infos) {
-            Gson gson = new Gson();
-            log.info("Mixer info:{}", gson.toJson(info));
+        if (log.isDebugEnabled()) {
+            Type[] supportedFiletypes = AudioSystem.getAudioFileTypes();
+            for (Type t : supportedFiletypes) {
+                log.debug("supported file format '{}'", t);
+            }
+            Mixer.Info[] infos = AudioSystem.getMixerInfo();
+            for (Info info : infos) {
+                log.debug("Mixer info: {} ({} {}) {}", info.getName(), info.getVendor(), info.getVersion(),
+                        info.getDescription());
+            }
         }
         return 0;
     }
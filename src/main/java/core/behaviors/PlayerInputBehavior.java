@@ -10,7 +10,6 @@ import core.math.Vector2D;
 import core.object.GameObject;
 import core.object.GameObject.GameAction;
 import core.object.World;
-import core.system.SystemManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -20,11 +19,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PlayerInputBehavior implements Behavior {
 
-    private static GameAction idleAction = GameAction.IDLE;
+    private GameAction idleAction = GameAction.IDLE;
     private InputHandler inputHandler;
     private PhysicEngineSystem pes;
-    private static int lastIdleChange = 0;
-    private static int lastIdleChangePace = 120;
+    private int lastIdleChange = 0;
+    private int lastIdleChangePace = 120;
 
     public PlayerInputBehavior() {
         lastIdleChange = 0;
@@ -33,8 +32,8 @@ public class PlayerInputBehavior implements Behavior {
 
     @Override
     public void initialize(Game dg) {
-        inputHandler = SystemManager.get(InputHandler.class);
-        pes = SystemManager.get(PhysicEngineSystem.class);
+        inputHandler = dg.sysMan.getSystem(InputHandler.class);
+        pes = dg.sysMan.getSystem(PhysicEngineSystem.class);
         log.debug("inputHandler and pes system are kept");
     }
 
@@ -89,10 +88,10 @@ public class PlayerInputBehavior implements Behavior {
         // compute next value for Idle
         lastIdleChange++;
         if (lastIdleChange > lastIdleChangePace) {
-            double rndAction = (Math.random() * 1.0) + 0.5;
+            double rndAction = (dg.random.nextDouble() * 1.0) + 0.5;
             idleAction = go.action = (rndAction > 1.0 ? GameAction.IDLE : GameAction.IDLE2);
             lastIdleChange = 0;
-            lastIdleChangePace = (int) ((Math.random() * 100.0) + 100.0);
+            lastIdleChangePace = (int) ((dg.random.nextDouble() * 100.0) + 100.0);
         }
     }
 
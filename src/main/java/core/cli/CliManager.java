@@ -70,10 +70,12 @@ public class CliManager {
 				}
 				System.exit(0);
 			} else {
-				String[] itemValue = arg.split("=");
+				// a value can be empty (e.g. "mc=") or contain '='.
+				String[] itemValue = arg.split("=", 2);
+				String value = itemValue.length > 1 ? itemValue[1] : "";
 				for (IArgParser<?> ap : argParsers.values()) {
 					if (ap.getShortKey().equals(itemValue[0]) || ap.getLongKey().equals(itemValue[0])) {
-						if (ap.validate(itemValue[1])) {
+						if (ap.validate(value)) {
 							values.put(ap.getName(), ap.getValue());
 						} else {
 							log.error(ap.getErrorMessage(null));
@@ -108,4 +110,4 @@ public class CliManager {
 		return values.containsKey(key);
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
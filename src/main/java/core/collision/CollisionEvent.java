@@ -25,6 +25,13 @@ public class CollisionEvent {
 	public Vector2D penetrationVector;
 
 	public CollisionEvent(TileType type, GameObject o1, GameObject o2, MapObject m2, MapLayer map, int x, int y) {
+		set(type, o1, o2, m2, map, x, y);
+	}
+
+	/**
+	 * Reuse the event for another collision with a map tile.
+	 */
+	public void set(TileType type, GameObject o1, GameObject o2, MapObject m2, MapLayer map, int x, int y) {
 		this.tileType = type;
 		this.type = CollisionType.COLLISION_MAP;
 		this.a = o1;
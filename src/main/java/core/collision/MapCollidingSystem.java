@@ -7,6 +7,7 @@ import core.Game;
 import core.map.MapLayer;
 import core.map.MapObject;
 import core.map.MapObjectAsset;
+import core.map.TileGeometry;
 import core.object.GameObject;
 import core.object.GameObject.GameAction;
 import core.system.AbstractSystem;
@@ -14,13 +15,29 @@ import core.system.AbstractSystem;
 /**
  * The MapColliding service is dedicated to check GameObject vs. MapObject from
  * the map tiles.
+ * <p>
+ * The tiles along the side of a tall object are found through the
+ * {@link TileGeometry} of the layer: a run of blocking tiles raises one
+ * collision, at its first tile, instead of one per tile. The sides of the
+ * usual objects, a few tiles high, and the single tiles under or above an
+ * object are read straight from the layer. The CollisionEvent given to the
+ * listeners is reused from one collision to the next.
  *
  * @author Frédéric Delorme<frederic.delorme@gmail.com>
  * @since 2019
  */
 public class MapCollidingSystem extends AbstractSystem {
 
+    /**
+     * Number of tiles above which a side is collected from the TileGeometry:
+     * as each rectangle of the chunks crossed is tested, reading the tiles of
+     * a shorter side one by one is faster.
+     */
+    private static final int TALL_SPAN = 3 * MapLayer.CHUNK_SIZE;
+
     Map<Class<?>, OnCollision> listeners = new HashMap<>();
+    // the event given to the listeners, which must not keep it.
+    private final CollisionEvent event = new CollisionEvent(null, null, null, null, null, 0, 0);
 
     public MapCollidingSystem(Game g) {
         super(g);
@@ -106,15 +123,15 @@ public class MapCollidingSystem extends AbstractSystem {
         // test all tiles from old to new position
         for (int y = y0; y <= y1; y += 1) {
             // get Tile at bottom corners
-            MapObject m1 = getTileInMap(layer, x1, y);
-            MapObject m2 = getTileInMap(layer, x2, y);
+            int id1 = layer.getTileId(x1, y);
+            int id2 = layer.getTileId(x2, y);
             // if no tile on both bottom corners, fall !
-            if (m1 == null && m2 == null) {
+            if (id1 == 0 && id2 == 0) {
                 go.action = GameAction.FALL;
             }
             // add some debugging information on detected tiles
-            createDebugInfo(go, layer, m1, x1, y);
-            createDebugInfo(go, layer, m2, x2, y);
+            createDebugInfo(go, layer, id1, x1, y);
+            createDebugInfo(go, layer, id2, x2, y);
         }
         // if Go is not falling and not on a tile, recompute right Y value according to
         // tile height.
@@ -131,28 +148,40 @@ public class MapCollidingSystem extends AbstractSystem {
         int x2 = (int) ((go.bbox.pos.x + go.bbox.size.x) / map.assetsObjects.get(0).tileWidth);
         int y2 = (int) ((go.bbox.pos.y) / map.assetsObjects.get(0).tileHeight);
 
-        MapObject m1 = getTileInMap(map, x1, y1);
-        MapObject m2 = getTileInMap(map, x2, y2);
+        int id1 = map.getTileId(x1, y1);
+        int id2 = map.getTileId(x2, y2);
 
-        if (m1 != null) {
-            collide(go, map, m1, x1, y1);
-            createDebugInfo(go, map, m1, x1, y1);
+        if (id1 != 0) {
+            collide(go, map, id1, x1, y1);
+            createDebugInfo(go, map, id1, x1, y1);
         }
-        if (m2 != null) {
-            collide(go, map, m2, x2, y2);
-            createDebugInfo(go, map, m2, x2, y2);
+        if (id2 != 0) {
+            collide(go, map, id2, x2, y2);
+            createDebugInfo(go, map, id2, x2, y2);
         }
-        createDebugInfo(go, map, m1, x1, y1);
-        createDebugInfo(go, map, m2, x2, y2);
+        createDebugInfo(go, map, id1, x1, y1);
+        createDebugInfo(go, map, id2, x2, y2);
     }
 
     public void testMoveLeft(MapLayer map, GameObject go, int ox, int oy, int oh) {
-        MapObject mo;
-        for (int iy = oy; iy < oy + oh; iy++) {
-            mo = getTileInMap(map, ox, iy);
-            createDebugInfo(go, map, mo, ox, iy);
-            if (mo != null) {
-                collide(go, map, mo, ox, iy);
+        if (oh <= TALL_SPAN) {
+            for (int iy = oy; iy < oy + oh; iy++) {
+                int id = map.getTileId(ox, iy);
+                if (id != 0) {
+                    collide(go, map, id, ox, iy);
+                }
+                createDebugInfo(go, map, id, ox, iy);
+            }
+            return;
+        }
+        TileGeometry geometry = map.getGeometry();
+        int count = geometry.collect(ox, oy, ox, oy + oh - 1);
+        for (int i = 0; i < count; i++) {
+            collide(go, map, geometry.getHitId(i), geometry.getHitX(i), geometry.getHitY(i));
+        }
+        if (game.config.debug > 3) {
+            for (int iy = oy; iy < oy + oh; iy++) {
+                createDebugInfo(go, map, map.getTileId(ox, iy), ox, iy);
             }
         }
     }
@@ -166,11 +195,11 @@ public class MapCollidingSystem extends AbstractSystem {
      *
      * @param go
      * @param map
-     * @param m1
+     * @param id  the id of the tile, 0 if none
      * @param ox
      * @param oy
      */
-    private void createDebugInfo(GameObject go, MapLayer map, MapObject m1, int ox, int oy) {
+    private void createDebugInfo(GameObject go, MapLayer map, int id, int ox, int oy) {
         if (game.config.debug > 3) {
             MapTileCollision mtc = new MapTileCollision();
             mtc.x = ox;
@@ -179,7 +208,7 @@ public class MapCollidingSystem extends AbstractSystem {
             mtc.h = map.assetsObjects.get(0).tileHeight;
             mtc.rX = mtc.x * mtc.w;
             mtc.rY = mtc.y * mtc.h;
-            mtc.mo = m1;
+            mtc.mo = map.getTileTable().getObject(id);
             go.collidingZone.add(mtc);
         }
     }
@@ -190,28 +219,14 @@ public class MapCollidingSystem extends AbstractSystem {
      *
      * @param go  the `GameObject` that `canCollect`
      * @param map the map where to search for
-     * @param mo  the MapObject to be tested with
+     * @param id  the id of the MapObject to be tested with
      * @param x   the horizontal position in the tiles map
      * @param y   the vertical position in the tiles map
      */
-    private void collide(GameObject go, MapLayer map, MapObject mo, int x, int y) {
+    private void collide(GameObject go, MapLayer map, int id, int x, int y) {
+        MapObject mo = map.getTileTable().getObject(id);
         go.setContact(true);
-        listeners.get(go.getClass()).collide(new CollisionEvent(mo.type, go, null, mo, map, x, y));
-    }
-
-    /**
-     * Retrieve the MapObject from the tiles map. it's also checking that (x,y) is
-     * not out pf the map. return null elsewhere.
-     *
-     * @param map the map to find
-     * @param x   the horizontal position to test
-     * @param y   the vertical position to test
-     * @return
-     */
-    private MapObject getTileInMap(MapLayer map, int x, int y) {
-        if (x < 0 || y < 0 || x > map.tiles.length - 1 || y > map.tiles[0].length - 1) {
-            return null;
-        }
-        return map.tiles[x][y];
+        event.set(mo.type, go, null, mo, map, x, y);
+        listeners.get(go.getClass()).collide(event);
     }
 }
@@ -25,7 +25,7 @@ public class QuadTreeNode {
     private List<Collidable> objects;
     private float posX, posY, width, height;
     private QuadTreeNode[] nodes;
-    private static int identifiedIndex;
+    private int identifiedIndex;
 
     /**
      * ideal constructor for making a quadtree that's empty <br>
@@ -1,58 +1,86 @@
 /**
  * SnapGames
- * 
+ *
  * Game Development Java
- * 
+ *
  * DemoGame
- * 
+ *
  * @year 2019
  */
 package core.gfx;
 
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * TheAnimation component is used to switch between frames according to a
  * sequence of images and wait some frame delay.
- * 
+ * <p>
+ * An Animation only holds its frames: it is advanced by the
+ * {@link AnimationClock} it is registered to, once per update step, whatever
+ * the number of times it is drawn. An Animation not registered stays on its
+ * first frame.
+ *
  * @author Frédéric Delorme <fredric.delorme@gmail.com>
  *
  */
 public class Animation {
 
-	public List<BufferedImage> frameImages = new ArrayList<>();
-	public List<Integer> frameTime = new ArrayList<>();
-	public double elapsed;
-	public int frameIndex = 0;
+	Sprite[] frames = new Sprite[4];
+	// duration of each frame, in frames rendered at the configured fps.
+	int[] frameTimes = new int[4];
+	int frameCount = 0;
+
+	// the clock advancing this animation, and its index in the clock (not
+	// read from the map files).
+	transient AnimationClock clock;
+	transient int clockIndex = -1;
 
-	
-	public  Animation(){
-		reset();
-	}
-	
 	/**
-	 * Compute next frame of animation for the MapObject.
-	 * 
-	 * @param mo      the MapObject to be updated.
-	 * @param elapsed the elapsed time since previous call.
-	 * @return the MapObject with frame and imageBuffer updated.
+	 * Add a frame to the animation.
+	 *
+	 * @param sprite    the image of the frame.
+	 * @param frameTime the duration of the frame, in frames rendered at the
+	 *                  configured fps.
 	 */
-	public BufferedImage animate(double elapsed) {
-		if (this.elapsed>(frameTime.get(frameIndex) * elapsed)) {
-			frameIndex++;
-			if (frameIndex == frameImages.size()) {
-				frameIndex = 0;
-			}
-			this.elapsed = 0;
+	public void addFrame(Sprite sprite, int frameTime) {
+		if (frameCount == frames.length) {
+			frames = Arrays.copyOf(frames, frameCount * 2);
+			frameTimes = Arrays.copyOf(frameTimes, frameCount * 2);
 		}
-		this.elapsed += elapsed;
-		return frameImages.get(frameIndex);
+		frames[frameCount] = sprite;
+		frameTimes[frameCount] = frameTime;
+		frameCount++;
+	}
+
+	/**
+	 * @return the number of frames.
+	 */
+	public int getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * @return the index of the current frame.
+	 */
+	public int getFrameIndex() {
+		AnimationClock c = clock;
+		int index = clockIndex;
+		return c != null && index >= 0 ? c.getFrameIndex(index) : 0;
 	}
-	
+
+	/**
+	 * @return the image of the current frame.
+	 */
+	public Sprite getFrame() {
+		return frames[getFrameIndex()];
+	}
+
+	/**
+	 * Restart the animation from its first frame.
+	 */
 	public void reset() {
-		this.elapsed=0;
-		this.frameIndex=0;
+		if (clock != null) {
+			clock.reset(clockIndex);
+		}
 	}
 }
@@ -0,0 +1,165 @@
+package core.gfx;
+
+import java.util.Arrays;
+
+import core.Game;
+import core.map.MapLayer;
+import core.map.MapLevel;
+import core.map.MapObject;
+import core.map.MapObjectAsset;
+import core.system.AbstractSystem;
+
+/**
+ * The AnimationClock advances all the registered {@link Animation}s exactly
+ * once per update step, so an animation shared by many tiles runs at the same
+ * speed whatever the number of its visible copies. The renderers only read the
+ * current frame of an animation.
+ * <p>
+ * The state of the animations is kept in flat arrays: the durations of all
+ * the frames one after the other, and for each animation its first duration,
+ * frame count, current frame and time spent in it. The time left over when a
+ * frame ends is carried to the next one.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Animation
+ */
+public class AnimationClock extends AbstractSystem {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Animation[] animations = new Animation[INITIAL_CAPACITY];
+	private int[] first = new int[INITIAL_CAPACITY];
+	private int[] counts = new int[INITIAL_CAPACITY];
+	private int[] frameIndex = new int[INITIAL_CAPACITY];
+	private double[] elapsed = new double[INITIAL_CAPACITY];
+	private int size = 0;
+
+	// duration of all the frames, in milliseconds.
+	private double[] durations = new double[INITIAL_CAPACITY * 4];
+	private int durationsSize = 0;
+
+	public AnimationClock(Game game) {
+		super(game);
+	}
+
+	@Override
+	public String getName() {
+		return AnimationClock.class.getCanonicalName();
+	}
+
+	/**
+	 * Register an animation to be advanced by this clock. Its frame times are
+	 * converted from rendered frames at <code>config.fps</code> to milliseconds.
+	 *
+	 * @param animation the animation to be registered.
+	 */
+	public void register(Animation animation) {
+		if (animation.clock == this || animation.frameCount == 0) {
+			return;
+		}
+		if (size == animations.length) {
+			int capacity = size * 2;
+			animations = Arrays.copyOf(animations, capacity);
+			first = Arrays.copyOf(first, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+			frameIndex = Arrays.copyOf(frameIndex, capacity);
+			elapsed = Arrays.copyOf(elapsed, capacity);
+		}
+		if (durationsSize + animation.frameCount > durations.length) {
+			durations = Arrays.copyOf(durations, Math.max(durations.length * 2, durationsSize + animation.frameCount));
+		}
+		double frameDuration = 1000.0 / game.config.fps;
+		for (int i = 0; i < animation.frameCount; i++) {
+			durations[durationsSize + i] = animation.frameTimes[i] * frameDuration;
+		}
+		animations[size] = animation;
+		first[size] = durationsSize;
+		counts[size] = animation.frameCount;
+		frameIndex[size] = 0;
+		elapsed[size] = 0;
+		animation.clock = this;
+		animation.clockIndex = size;
+		durationsSize += animation.frameCount;
+		size++;
+	}
+
+	/**
+	 * Register the animations of all the tiles of a map.
+	 *
+	 * @param map the map level to be animated.
+	 */
+	public void register(MapLevel map) {
+		for (MapLayer layer : map.layers.values()) {
+			for (MapObjectAsset asset : layer.assetsObjects) {
+				for (MapObject mo : asset.objects.values()) {
+					if (mo.animation != null) {
+						register(mo.animation);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Advance all the registered animations.
+	 *
+	 * @param time the time of the update step, in milliseconds.
+	 */
+	public void tick(double time) {
+		for (int i = 0; i < size; i++) {
+			double e = elapsed[i] + time;
+			int index = frameIndex[i];
+			int base = first[i];
+			int count = counts[i];
+			while (e >= durations[base + index] && durations[base + index] > 0) {
+				e -= durations[base + index];
+				index = index + 1 == count ? 0 : index + 1;
+			}
+			elapsed[i] = e;
+			frameIndex[i] = index;
+		}
+	}
+
+	/**
+	 * @param index the index of an animation in this clock.
+	 * @return the current frame of the animation.
+	 */
+	int getFrameIndex(int index) {
+		return frameIndex[index];
+	}
+
+	/**
+	 * Restart an animation from its first frame.
+	 *
+	 * @param index the index of the animation in this clock.
+	 */
+	void reset(int index) {
+		frameIndex[index] = 0;
+		elapsed[index] = 0;
+	}
+
+	/**
+	 * @return the number of registered animations.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Unregister all the animations.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			animations[i].clock = null;
+			animations[i].clockIndex = -1;
+			animations[i] = null;
+		}
+		size = 0;
+		durationsSize = 0;
+	}
+
+	@Override
+	public void dispose() {
+		clear();
+	}
+}
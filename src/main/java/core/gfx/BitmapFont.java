@@ -0,0 +1,341 @@
+package core.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A BitmapFont draws text glyph by glyph from a glyph atlas, instead of
+ * rasterizing the TrueType outlines at each <code>drawString</code>.
+ * <p>
+ * The glyphs of the characters 32 to 255 are rasterized once, with their
+ * outline and shadow baked in: a text drawn with a shadow and an outline
+ * costs one image copy per character instead of seven
+ * <code>drawString</code>. A BitmapFont is built for each font, colors and
+ * antialiasing mode, on its first use, and kept for the next ones in the
+ * {@link Cache} of the Renderer.
+ * <p>
+ * As the glyphs are composed one by one, the outline or the shadow of a
+ * glyph can cover a few pixels of its neighbour. A text holding a character
+ * out of the atlas must be drawn with <code>drawString</code> (see
+ * {@link #canDisplay(String)}).
+ *
+ * <pre>
+ * BitmapFont.Cache fonts = new BitmapFont.Cache(BitmapFont.Cache.MAX_FONTS);
+ * BitmapFont bf = fonts.get(font, Color.WHITE, Color.BLACK, null, true);
+ * bf.draw(g, "Score: 42", 10, 20);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer
+ */
+public class BitmapFont {
+
+	public static final char FIRST = 32;
+	public static final char LAST = 255;
+
+	private static final int PAGE_WIDTH = 256;
+
+	/**
+	 * The BitmapFonts built by a Renderer, on their font, colors and
+	 * antialiasing. Each one holds a full glyph page: only the
+	 * <code>capacity</code> most recently used are kept.
+	 * <p>
+	 * A cache is only used by the thread drawing the frames.
+	 */
+	public static class Cache {
+
+		/**
+		 * Default number of BitmapFonts kept.
+		 */
+		public static final int MAX_FONTS = 32;
+
+		private final Map<Key, BitmapFont> fonts;
+		// the key of the lookups, reused.
+		private final Key probe = new Key();
+
+		/**
+		 * @param capacity the number of BitmapFonts kept.
+		 */
+		public Cache(int capacity) {
+			this.fonts = new LinkedHashMap<Key, BitmapFont>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, BitmapFont> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+
+		/**
+		 * Retrieve the BitmapFont for a font and its colors, building it on first
+		 * use.
+		 *
+		 * @param font         the font.
+		 * @param color        the color of the text.
+		 * @param outlineColor the color of the 1 pixel outline, null for none.
+		 * @param shadowColor  the color of the 2 pixels shadow, null for none.
+		 * @param antialiased  true to antialias the glyphs.
+		 * @return the BitmapFont.
+		 */
+		public BitmapFont get(Font font, Color color, Color outlineColor, Color shadowColor, boolean antialiased) {
+			probe.set(font, color, outlineColor, shadowColor, antialiased);
+			BitmapFont bf = fonts.get(probe);
+			if (bf == null) {
+				bf = new BitmapFont(font, color, outlineColor, shadowColor, antialiased);
+				Key key = new Key();
+				key.set(font, color, outlineColor, shadowColor, antialiased);
+				fonts.put(key, bf);
+			}
+			return bf;
+		}
+
+		/**
+		 * @return the number of BitmapFonts kept.
+		 */
+		public int size() {
+			return fonts.size();
+		}
+	}
+
+	private static class Key {
+		Font font;
+		Color color;
+		Color outlineColor;
+		Color shadowColor;
+		boolean antialiased;
+
+		void set(Font font, Color color, Color outlineColor, Color shadowColor, boolean antialiased) {
+			this.font = font;
+			this.color = color;
+			this.outlineColor = outlineColor;
+			this.shadowColor = shadowColor;
+			this.antialiased = antialiased;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return antialiased == k.antialiased && Objects.equals(font, k.font) && Objects.equals(color, k.color)
+					&& Objects.equals(outlineColor, k.outlineColor) && Objects.equals(shadowColor, k.shadowColor);
+		}
+
+		@Override
+		public int hashCode() {
+			int h = Objects.hashCode(font);
+			h = 31 * h + Objects.hashCode(color);
+			h = 31 * h + Objects.hashCode(outlineColor);
+			h = 31 * h + Objects.hashCode(shadowColor);
+			return 31 * h + (antialiased ? 1 : 0);
+		}
+	}
+
+	private final Font font;
+	private final Color color;
+	private final Color outlineColor;
+	private final Color shadowColor;
+	private final boolean antialiased;
+
+	private final FontMetrics metrics;
+	private final Sprite[] glyphs = new Sprite[LAST - FIRST + 1];
+	// position of the glyph images relative to the pen position.
+	private final int[] offsetX = new int[LAST - FIRST + 1];
+	private final int[] offsetY = new int[LAST - FIRST + 1];
+	private final int[] advances = new int[LAST - FIRST + 1];
+
+	private BitmapFont(Font font, Color color, Color outlineColor, Color shadowColor, boolean antialiased) {
+		this.font = font;
+		this.color = color;
+		this.outlineColor = outlineColor;
+		this.shadowColor = shadowColor;
+		this.antialiased = antialiased;
+
+		BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D sg = scratch.createGraphics();
+		setHints(sg);
+		this.metrics = sg.getFontMetrics(font);
+		FontRenderContext frc = sg.getFontRenderContext();
+		sg.dispose();
+
+		// room needed around a glyph for its outline and shadow.
+		int left = outlineColor != null ? 1 : 0;
+		int top = left;
+		int right = Math.max(left, shadowColor != null ? 2 : 0);
+		int bottom = right;
+
+		// place the glyphs on shelves of the page.
+		Rectangle[] boxes = new Rectangle[glyphs.length];
+		int x = 0;
+		int y = 0;
+		int shelfHeight = 0;
+		for (char c = FIRST; c <= LAST; c++) {
+			int i = c - FIRST;
+			if (!font.canDisplay(c)) {
+				continue;
+			}
+			advances[i] = metrics.charWidth(c);
+			Rectangle bounds = font.createGlyphVector(frc, String.valueOf(c)).getPixelBounds(frc, 0, 0);
+			Rectangle box = new Rectangle(bounds.x - left, bounds.y - top, bounds.width + left + right,
+					bounds.height + top + bottom);
+			if (bounds.isEmpty()) {
+				box.setSize(0, 0);
+			}
+			if (x + box.width > PAGE_WIDTH) {
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+			}
+			offsetX[i] = box.x;
+			offsetY[i] = box.y;
+			box.setLocation(x, y);
+			boxes[i] = box;
+			x += box.width;
+			shelfHeight = Math.max(shelfHeight, box.height);
+		}
+
+		BufferedImage page = CompatibleImage.create(PAGE_WIDTH, Math.max(1, y + shelfHeight),
+				Transparency.TRANSLUCENT);
+		Graphics2D g = page.createGraphics();
+		setHints(g);
+		g.setFont(font);
+		g.setComposite(AlphaComposite.SrcOver);
+		for (int i = 0; i < boxes.length; i++) {
+			Rectangle box = boxes[i];
+			if (box == null) {
+				continue;
+			}
+			glyphs[i] = new Sprite(page, box.x, box.y, box.width, box.height);
+			if (box.width > 0) {
+				bake(g, String.valueOf((char) (FIRST + i)), box.x - offsetX[i], box.y - offsetY[i]);
+			}
+		}
+		g.dispose();
+	}
+
+	private void setHints(Graphics2D g) {
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				antialiased ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+	}
+
+	/**
+	 * Rasterize a glyph with its shadow and outline, in the order the Renderer
+	 * draws them.
+	 */
+	private void bake(Graphics2D g, String glyph, int x, int y) {
+		if (shadowColor != null) {
+			g.setColor(shadowColor);
+			g.drawString(glyph, x + 1, y + 1);
+			g.drawString(glyph, x + 2, y + 2);
+		}
+		if (outlineColor != null) {
+			g.setColor(outlineColor);
+			g.drawString(glyph, x + 1, y);
+			g.drawString(glyph, x, y + 1);
+			g.drawString(glyph, x - 1, y);
+			g.drawString(glyph, x, y - 1);
+		}
+		g.setColor(color);
+		g.drawString(glyph, x, y);
+	}
+
+	/**
+	 * @param text the text to be drawn.
+	 * @return true if all the characters of <code>text</code> are in the atlas.
+	 */
+	public boolean canDisplay(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < FIRST || c > LAST || glyphs[c - FIRST] == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param text a text made of characters of the atlas.
+	 * @return the width of the text, as given by <code>FontMetrics</code>.
+	 */
+	public int stringWidth(String text) {
+		int width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			width += advances[text.charAt(i) - FIRST];
+		}
+		return width;
+	}
+
+	/**
+	 * Draw a text, its baseline starting at (x,y).
+	 *
+	 * @param g    the DrawContext to draw through.
+	 * @param text a text made of characters of the atlas.
+	 * @param x    horizontal position of the text.
+	 * @param y    vertical position of the baseline.
+	 */
+	public void draw(DrawContext g, String text, int x, int y) {
+		for (int i = 0; i < text.length(); i++) {
+			int c = text.charAt(i) - FIRST;
+			Sprite s = glyphs[c];
+			if (s.getWidth() > 0) {
+				s.draw(g, x + offsetX[c], y + offsetY[c]);
+			}
+			x += advances[c];
+		}
+	}
+
+	/**
+	 * Draw a text through a Graphics2D (e.g. the HUD), its baseline starting at
+	 * (x,y).
+	 *
+	 * @param g    the Graphics2D API to draw with.
+	 * @param text a text made of characters of the atlas.
+	 * @param x    horizontal position of the text.
+	 * @param y    vertical position of the baseline.
+	 */
+	public void draw(Graphics2D g, String text, int x, int y) {
+		for (int i = 0; i < text.length(); i++) {
+			int c = text.charAt(i) - FIRST;
+			Sprite s = glyphs[c];
+			if (s.getWidth() > 0) {
+				s.draw(g, x + offsetX[c], y + offsetY[c]);
+			}
+			x += advances[c];
+		}
+	}
+
+	/**
+	 * @param textAntialiasing the value of the
+	 *                         <code>KEY_TEXT_ANTIALIASING</code> hint.
+	 * @return true if the hint asks for antialiased text.
+	 */
+	public static boolean isAntialiased(Object textAntialiasing) {
+		return textAntialiasing != null && textAntialiasing != RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+				&& textAntialiasing != RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT;
+	}
+
+	public Font getFont() {
+		return font;
+	}
+
+	/**
+	 * @return the metrics of the font, as used to build the atlas.
+	 */
+	public FontMetrics getFontMetrics() {
+		return metrics;
+	}
+}
@@ -0,0 +1,511 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CommandBuffer records the drawing operations of a frame as lightweight
+ * commands, then executes them on a {@link DrawContext} in one pass.
+ * <p>
+ * Each command keeps the drawing state it was recorded with (translation,
+ * color, font, composite and rendering hints), so the commands can be
+ * reordered. The commands are drawn in their recording order, except inside
+ * the runs of items of the same layer and priority that do not overlap each
+ * other: there, they are sorted on the state key of their item (its font, its
+ * image or atlas page, ...), then on their recording order. The commands of
+ * one item stay in order, and no command is moved over a {@link #barrier()}.
+ * When executed, a state is only set on the target if it differs from the
+ * current one, and only if the command uses it.
+ * <p>
+ * The commands are pooled and reused from one frame to the next.
+ *
+ * <pre>
+ * buffer.begin(backend);
+ * buffer.beginItem(item.layer, item.priority, item.font);
+ * buffer.setFont(item.font);
+ * buffer.drawString(item.text, x, y);
+ * buffer.execute(backend);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer
+ */
+public class CommandBuffer implements DrawContext {
+
+	private enum Type {
+		IMAGE, SCALED_IMAGE, IMAGE_AREA, FILL_RECT, DRAW_RECT, FILL_OVAL, TEXT
+	}
+
+	/**
+	 * A recorded drawing operation and the state it needs.
+	 */
+	private static class Command {
+		Type type;
+		int layer;
+		int priority;
+		int state;
+		int sequence;
+		int item;
+		int fence;
+		int batch;
+		// bounds on the target, for the overlap tests.
+		boolean bounded;
+		int left;
+		int top;
+		int right;
+		int bottom;
+
+		double tx;
+		double ty;
+		Color color;
+		Font font;
+		Composite composite;
+		Object antialiasing;
+		Object textAntialiasing;
+		Object interpolation;
+
+		Image image;
+		String text;
+		int x;
+		int y;
+		int width;
+		int height;
+		// area of the image, for IMAGE_AREA.
+		int sx;
+		int sy;
+		int sw;
+		int sh;
+	}
+
+	private static final Comparator<Command> ORDER = Comparator.comparingInt((Command c) -> c.batch)
+			.thenComparingInt(c -> c.state).thenComparingInt(c -> c.sequence);
+
+	// maximum number of commands of a run sorted on state, bounding the
+	// overlap tests.
+	private static final int MAX_BATCH = 64;
+
+	private final List<Command> pool = new ArrayList<>();
+	private final List<Command> commands = new ArrayList<>();
+	// the state keys of the frame, numbered in the order they are met.
+	private final Map<Object, Integer> states = new IdentityHashMap<>();
+
+	// the state being recorded.
+	private DrawContext target;
+	private int layer;
+	private int priority;
+	private int state;
+	private int item;
+	private int fence;
+	private double tx;
+	private double ty;
+	private Color color;
+	private Font font;
+	private Composite composite;
+	private Object antialiasing;
+	private Object textAntialiasing;
+	private Object interpolation;
+
+	// statistics of the last execution.
+	private int recordedStateChanges;
+	private int stateChanges;
+	private int drawCalls;
+
+	/**
+	 * Start the recording of a new frame, with the state of <code>target</code>.
+	 *
+	 * @param target the context the commands will be executed on.
+	 */
+	public void begin(DrawContext target) {
+		this.target = target;
+		commands.clear();
+		states.clear();
+		layer = 0;
+		priority = 0;
+		state = 0;
+		item = 0;
+		fence = 0;
+		tx = 0;
+		ty = 0;
+		color = null;
+		font = target.getFont();
+		composite = target.getComposite();
+		antialiasing = target.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+		textAntialiasing = target.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+		interpolation = target.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		recordedStateChanges = 0;
+	}
+
+	/**
+	 * Start the commands of a new item.
+	 *
+	 * @param layer    the layer of the item.
+	 * @param priority the priority of the item in its layer.
+	 * @param stateKey the main state of the item (e.g. its font or image), items
+	 *                 with the same state key are drawn together; may be null.
+	 */
+	public void beginItem(int layer, int priority, Object stateKey) {
+		this.layer = layer;
+		this.priority = priority;
+		this.item++;
+		if (stateKey == null) {
+			this.state = 0;
+		} else {
+			Integer id = states.get(stateKey);
+			if (id == null) {
+				id = states.size() + 1;
+				states.put(stateKey, id);
+			}
+			this.state = id;
+		}
+	}
+
+	/**
+	 * Forbid the reordering of the commands recorded after this call with the
+	 * ones recorded before (e.g. around the composite of the lights, which must
+	 * be drawn over everything recorded before it).
+	 */
+	public void barrier() {
+		fence++;
+	}
+
+	private Command record(Type type) {
+		Command c;
+		if (commands.size() < pool.size()) {
+			c = pool.get(commands.size());
+		} else {
+			c = new Command();
+			pool.add(c);
+		}
+		c.type = type;
+		c.layer = layer;
+		c.priority = priority;
+		c.state = state;
+		c.sequence = commands.size();
+		c.item = item;
+		c.fence = fence;
+		c.tx = tx;
+		c.ty = ty;
+		c.color = color;
+		c.font = font;
+		c.composite = composite;
+		c.antialiasing = antialiasing;
+		c.textAntialiasing = textAntialiasing;
+		c.interpolation = interpolation;
+		c.image = null;
+		c.text = null;
+		commands.add(c);
+		return c;
+	}
+
+	private Command record(Type type, int x, int y, int width, int height) {
+		Command c = record(type);
+		c.x = x;
+		c.y = y;
+		c.width = width;
+		c.height = height;
+		setBounds(c, x, y, width, height);
+		return c;
+	}
+
+	/**
+	 * Set the bounds of a command on the target, with a margin of one pixel for
+	 * the strokes and the antialiasing.
+	 */
+	private void setBounds(Command c, int x, int y, int width, int height) {
+		c.bounded = width >= 0 && height >= 0;
+		c.left = (int) Math.floor(x + tx) - 1;
+		c.top = (int) Math.floor(y + ty) - 1;
+		c.right = (int) Math.ceil(x + tx + width) + 2;
+		c.bottom = (int) Math.ceil(y + ty + height) + 2;
+	}
+
+	/**
+	 * Number the runs of commands to be sorted on their state: a new run starts
+	 * when the layer, the priority or the barrier changes, or when a command
+	 * overlaps a command of another item already in the run.
+	 */
+	private void assignBatches() {
+		int batch = 0;
+		int start = 0;
+		for (int i = 0; i < commands.size(); i++) {
+			Command c = commands.get(i);
+			if (i > 0) {
+				Command p = commands.get(i - 1);
+				boolean split = c.layer != p.layer || c.priority != p.priority || c.fence != p.fence
+						|| i - start >= MAX_BATCH;
+				for (int j = start; !split && j < i; j++) {
+					split = overlaps(c, commands.get(j));
+				}
+				if (split) {
+					batch++;
+					start = i;
+				}
+			}
+			c.batch = batch;
+		}
+	}
+
+	private static boolean overlaps(Command a, Command b) {
+		if (a.item == b.item) {
+			return false;
+		}
+		if (!a.bounded || !b.bounded) {
+			return true;
+		}
+		return a.left < b.right && b.left < a.right && a.top < b.bottom && b.top < a.bottom;
+	}
+
+	/**
+	 * Sort the recorded commands and draw them on <code>target</code>, setting
+	 * only the state changes needed. The translation of the target is restored
+	 * at the end.
+	 *
+	 * @param target the context to draw on.
+	 */
+	public void execute(DrawContext target) {
+		assignBatches();
+		commands.sort(ORDER);
+		stateChanges = 0;
+		drawCalls = 0;
+
+		double cx = 0;
+		double cy = 0;
+		Color cColor = null;
+		Font cFont = target.getFont();
+		Composite cComposite = target.getComposite();
+		Object cAntialiasing = target.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+		Object cTextAntialiasing = target.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+		Object cInterpolation = target.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+
+		for (Command c : commands) {
+			if (c.tx != cx || c.ty != cy) {
+				target.translate(c.tx - cx, c.ty - cy);
+				cx = c.tx;
+				cy = c.ty;
+				stateChanges++;
+			}
+			if (c.composite != cComposite) {
+				target.setComposite(c.composite);
+				cComposite = c.composite;
+				stateChanges++;
+			}
+			if (c.type == Type.IMAGE || c.type == Type.SCALED_IMAGE || c.type == Type.IMAGE_AREA) {
+				if (c.type != Type.IMAGE && c.interpolation != null && c.interpolation != cInterpolation) {
+					target.setRenderingHint(RenderingHints.KEY_INTERPOLATION, c.interpolation);
+					cInterpolation = c.interpolation;
+					stateChanges++;
+				}
+			} else {
+				if (c.color != null && !c.color.equals(cColor)) {
+					target.setColor(c.color);
+					cColor = c.color;
+					stateChanges++;
+				}
+				if (c.type == Type.TEXT) {
+					if (c.font != null && !c.font.equals(cFont)) {
+						target.setFont(c.font);
+						cFont = c.font;
+						stateChanges++;
+					}
+					if (c.textAntialiasing != null && c.textAntialiasing != cTextAntialiasing) {
+						target.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, c.textAntialiasing);
+						cTextAntialiasing = c.textAntialiasing;
+						stateChanges++;
+					}
+				} else if (c.antialiasing != null && c.antialiasing != cAntialiasing) {
+					target.setRenderingHint(RenderingHints.KEY_ANTIALIASING, c.antialiasing);
+					cAntialiasing = c.antialiasing;
+					stateChanges++;
+				}
+			}
+			draw(target, c);
+			drawCalls++;
+		}
+		if (cx != 0 || cy != 0) {
+			target.translate(-cx, -cy);
+		}
+	}
+
+	private void draw(DrawContext target, Command c) {
+		switch (c.type) {
+			case IMAGE:
+				target.drawImage(c.image, c.x, c.y);
+				break;
+			case SCALED_IMAGE:
+				target.drawImage(c.image, c.x, c.y, c.width, c.height);
+				break;
+			case IMAGE_AREA:
+				target.drawImage(c.image, c.x, c.y, c.width, c.height, c.sx, c.sy, c.sw, c.sh);
+				break;
+			case FILL_RECT:
+				target.fillRect(c.x, c.y, c.width, c.height);
+				break;
+			case DRAW_RECT:
+				target.drawRect(c.x, c.y, c.width, c.height);
+				break;
+			case FILL_OVAL:
+				target.fillOval(c.x, c.y, c.width, c.height);
+				break;
+			case TEXT:
+				target.drawString(c.text, c.x, c.y);
+				break;
+		}
+	}
+
+	@Override
+	public void translate(double x, double y) {
+		tx += x;
+		ty += y;
+	}
+
+	@Override
+	public void setColor(Color color) {
+		this.color = color;
+		recordedStateChanges++;
+	}
+
+	@Override
+	public void setFont(Font font) {
+		this.font = font;
+		recordedStateChanges++;
+	}
+
+	@Override
+	public Font getFont() {
+		return font;
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font font) {
+		return target.getFontMetrics(font);
+	}
+
+	/**
+	 * Only the antialiasing, text antialiasing and interpolation hints are
+	 * recorded; any other hint is directly set on the target.
+	 */
+	@Override
+	public void setRenderingHint(RenderingHints.Key key, Object value) {
+		if (key == RenderingHints.KEY_ANTIALIASING) {
+			antialiasing = value;
+		} else if (key == RenderingHints.KEY_TEXT_ANTIALIASING) {
+			textAntialiasing = value;
+		} else if (key == RenderingHints.KEY_INTERPOLATION) {
+			interpolation = value;
+		} else {
+			target.setRenderingHint(key, value);
+		}
+		recordedStateChanges++;
+	}
+
+	@Override
+	public Object getRenderingHint(RenderingHints.Key key) {
+		if (key == RenderingHints.KEY_ANTIALIASING) {
+			return antialiasing;
+		} else if (key == RenderingHints.KEY_TEXT_ANTIALIASING) {
+			return textAntialiasing;
+		} else if (key == RenderingHints.KEY_INTERPOLATION) {
+			return interpolation;
+		}
+		return target.getRenderingHint(key);
+	}
+
+	@Override
+	public void setComposite(Composite composite) {
+		this.composite = composite;
+		recordedStateChanges++;
+	}
+
+	@Override
+	public Composite getComposite() {
+		return composite;
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y) {
+		Command c = record(Type.IMAGE, x, y, 0, 0);
+		c.image = image;
+		setBounds(c, x, y, image.getWidth(null), image.getHeight(null));
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height) {
+		record(Type.SCALED_IMAGE, x, y, width, height).image = image;
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height, int sx, int sy, int sw, int sh) {
+		Command c = record(Type.IMAGE_AREA, x, y, width, height);
+		c.image = image;
+		c.sx = sx;
+		c.sy = sy;
+		c.sw = sw;
+		c.sh = sh;
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		record(Type.FILL_RECT, x, y, width, height);
+	}
+
+	@Override
+	public void drawRect(int x, int y, int width, int height) {
+		record(Type.DRAW_RECT, x, y, width, height);
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		record(Type.FILL_OVAL, x, y, width, height);
+	}
+
+	@Override
+	public void drawString(String text, int x, int y) {
+		Command c = record(Type.TEXT, x, y, 0, 0);
+		c.text = text;
+		if (font != null) {
+			FontMetrics fm = target.getFontMetrics(font);
+			setBounds(c, x, y - fm.getAscent(), fm.stringWidth(text), fm.getAscent() + fm.getDescent());
+		} else {
+			setBounds(c, x, y, -1, 0);
+		}
+	}
+
+	/**
+	 * @return the number of commands recorded for the current frame.
+	 */
+	public int size() {
+		return commands.size();
+	}
+
+	/**
+	 * @return the number of draw calls of the last execution.
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * @return the number of state changes set on the target by the last
+	 *         execution.
+	 */
+	public int getStateChanges() {
+		return stateChanges;
+	}
+
+	/**
+	 * @return the number of state changes asked while recording the frame,
+	 *         before the redundant ones were removed.
+	 */
+	public int getRecordedStateChanges() {
+		return recordedStateChanges;
+	}
+}
@@ -0,0 +1,116 @@
+package core.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Helpers to create images in the format of the screen, so that Java2D can
+ * keep them as managed images in video memory and draw them through its
+ * accelerated pipelines.
+ * <p>
+ * Images decoded by <code>ImageIO</code> come in whatever format the decoder
+ * produces, and sub-images share the raster of their parent, which prevents
+ * their acceleration: both must be converted or copied once, at load time.
+ * Without display, plain <code>INT_RGB</code>/<code>INT_ARGB</code> images are
+ * produced.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+public class CompatibleImage {
+
+	private CompatibleImage() {
+	}
+
+	/**
+	 * Create an empty image in the screen format.
+	 *
+	 * @param width        width of the image.
+	 * @param height       height of the image.
+	 * @param transparency one of the {@link Transparency} constants.
+	 * @return a new image.
+	 */
+	public static BufferedImage create(int width, int height, int transparency) {
+		GraphicsConfiguration gc = getConfiguration();
+		if (gc == null) {
+			return new BufferedImage(width, height,
+					transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		}
+		return gc.createCompatibleImage(width, height, transparency);
+	}
+
+	/**
+	 * Convert an image to the screen format, with the lightest transparency
+	 * mode its pixels need.
+	 *
+	 * @param image the image to be converted.
+	 * @return a new image, or null if <code>image</code> is null.
+	 */
+	public static BufferedImage convert(BufferedImage image) {
+		if (image == null) {
+			return null;
+		}
+		return copy(image, 0, 0, image.getWidth(), image.getHeight());
+	}
+
+	/**
+	 * Copy an area of an image into a new image in the screen format, to be used
+	 * instead of <code>getSubimage</code> which shares its raster with the
+	 * parent image.
+	 *
+	 * @param image  the source image.
+	 * @param x      horizontal position of the area.
+	 * @param y      vertical position of the area.
+	 * @param width  width of the area.
+	 * @param height height of the area.
+	 * @return a new image with a copy of the area.
+	 */
+	public static BufferedImage copy(BufferedImage image, int x, int y, int width, int height) {
+		BufferedImage copy = create(width, height, getTransparency(image, x, y, width, height));
+		Graphics2D g = copy.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.drawImage(image, 0, 0, width, height, x, y, x + width, y + height, null);
+		g.dispose();
+		return copy;
+	}
+
+	/**
+	 * Find the transparency mode really needed by an area of an image: an image
+	 * with an alpha channel only using fully opaque or fully transparent pixels
+	 * is {@link Transparency#BITMASK}, which is better accelerated than
+	 * {@link Transparency#TRANSLUCENT}.
+	 */
+	private static int getTransparency(BufferedImage image, int x, int y, int width, int height) {
+		if (image.getColorModel().getTransparency() != Transparency.TRANSLUCENT) {
+			return image.getColorModel().getTransparency();
+		}
+		int[] row = new int[width];
+		boolean transparent = false;
+		for (int j = y; j < y + height; j++) {
+			image.getRGB(x, j, width, 1, row, 0, width);
+			for (int argb : row) {
+				int alpha = argb >>> 24;
+				if (alpha != 0xFF) {
+					if (alpha != 0) {
+						return Transparency.TRANSLUCENT;
+					}
+					transparent = true;
+				}
+			}
+		}
+		return transparent ? Transparency.BITMASK : Transparency.OPAQUE;
+	}
+
+	/**
+	 * @return the configuration of the default screen, or null without display.
+	 */
+	public static GraphicsConfiguration getConfiguration() {
+		if (GraphicsEnvironment.isHeadless()) {
+			return null;
+		}
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+	}
+}
@@ -0,0 +1,194 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints.Key;
+import java.awt.image.BufferedImage;
+
+import core.Game;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A backend drawing nothing, which only counts the drawing operations. It
+ * measures the cost of the rendering traversal without any pixel work, and
+ * how many operations a frame asks to the other backends.
+ * <p>
+ * The graphics API given to the scene for its HUD draws into a scratch image
+ * which is never displayed.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+@Slf4j
+public class CountingBackend implements RenderBackend {
+
+	private BufferedImage screenBuffer;
+	private Graphics2D scratch;
+
+	private long frames;
+	private long images;
+	private long shapes;
+	private long texts;
+
+	// the state an API user may read back.
+	private Font font;
+	private Composite composite;
+
+	@Override
+	public String getName() {
+		return "counting";
+	}
+
+	@Override
+	public void initialize(Game dg) {
+		screenBuffer = new BufferedImage(dg.config.screenWidth, dg.config.screenHeight, BufferedImage.TYPE_INT_RGB);
+		scratch = screenBuffer.createGraphics();
+		font = scratch.getFont();
+		composite = scratch.getComposite();
+	}
+
+	@Override
+	public BufferedImage getScreenBuffer() {
+		return screenBuffer;
+	}
+
+	@Override
+	public Graphics2D beginFrame(Game dg) {
+		frames++;
+		return scratch;
+	}
+
+	@Override
+	public Graphics2D getGraphics() {
+		return scratch;
+	}
+
+	@Override
+	public void translate(double x, double y) {
+		// nothing is drawn.
+	}
+
+	@Override
+	public void setColor(Color color) {
+		// nothing is drawn.
+	}
+
+	@Override
+	public void setFont(Font font) {
+		this.font = font;
+	}
+
+	@Override
+	public Font getFont() {
+		return font;
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font font) {
+		return scratch.getFontMetrics(font);
+	}
+
+	@Override
+	public void setRenderingHint(Key key, Object value) {
+		// nothing is drawn.
+	}
+
+	@Override
+	public Object getRenderingHint(Key key) {
+		return null;
+	}
+
+	@Override
+	public void setComposite(Composite composite) {
+		this.composite = composite;
+	}
+
+	@Override
+	public Composite getComposite() {
+		return composite;
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y) {
+		images++;
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height) {
+		images++;
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height, int sx, int sy, int sw, int sh) {
+		images++;
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		shapes++;
+	}
+
+	@Override
+	public void drawRect(int x, int y, int width, int height) {
+		shapes++;
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		shapes++;
+	}
+
+	@Override
+	public void drawString(String text, int x, int y) {
+		texts++;
+	}
+
+	@Override
+	public boolean endFrame() {
+		return true;
+	}
+
+	@Override
+	public void present(Game dg, Overlay overlay) {
+		// nothing to display.
+	}
+
+	@Override
+	public void copyFrame(BufferedImage target) {
+		Graphics2D tg = target.createGraphics();
+		tg.drawImage(screenBuffer, 0, 0, null);
+		tg.dispose();
+	}
+
+	@Override
+	public String getInfo() {
+		return String.format("%s, images: %d, shapes: %d, texts: %d", getName(), images, shapes, texts);
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public long getImages() {
+		return images;
+	}
+
+	public long getShapes() {
+		return shapes;
+	}
+
+	public long getTexts() {
+		return texts;
+	}
+
+	@Override
+	public void dispose() {
+		log.info("Counting backend: {} frames, {} images, {} shapes, {} texts", frames, images, shapes, texts);
+		if (scratch != null) {
+			scratch.dispose();
+		}
+	}
+}
@@ -3,9 +3,7 @@ package core.gfx;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
-import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,12 +22,15 @@ public class DebugInfo {
 	public static final Color borderColor = Color.BLACK;
 
 	/**
-	 * display information to an information panel on right of GameObject
+	 * display information to an information panel on right of GameObject, from
+	 * the debug information captured in its RenderItem.
 	 *
 	 * @param g
 	 * @param go
+	 * @param fonts the BitmapFonts to draw the texts from, null to draw them
+	 *              with <code>drawString</code>.
 	 */
-	public static void display(Graphics2D g, GameObject go) {
+	public static void display(DrawContext g, RenderItem go, BitmapFont.Cache fonts) {
 		g.setFont(debugFont);
 		FontMetrics fm = g.getFontMetrics(debugFont);
 
@@ -37,29 +38,33 @@ public class DebugInfo {
 		int maxWidth = 70;
 		int maxLinePerColumn = 5;
 		int fontHeight = fm.getHeight();
-		double offsetX = go.pos.x + go.size.x + 2;
-		double offsetY = go.pos.y;
+		double offsetX = go.x + go.width + 2;
+		double offsetY = go.y;
 
-		List<String> debugInfo = prepareDebugInfo(go);
+		List<String> debugInfo = go.debugLines;
 		int width = (debugInfo.size() % maxLinePerColumn) * (maxWidth);
 		int height = (debugInfo.size() - 1) * (fontHeight - 3);
 
 		drawBackgroundPanel(g, offsetX, offsetY - fontHeight, width, height, borderColor,
 				backgroundColor);
 
-		drawAttributesText(g, debugInfo, offsetX, offsetY, maxWidth, maxLinePerColumn, fontHeight, Color.WHITE);
+		drawAttributesText(g, fonts, debugInfo, offsetX, offsetY, maxWidth, maxLinePerColumn, fontHeight,
+				Color.WHITE);
 
 		// draw object size
 		g.setColor(Color.BLUE);
-		g.drawRect((int) go.pos.x, (int) go.pos.y, (int) go.size.x, (int) go.size.y);
+		g.drawRect((int) go.x, (int) go.y, (int) go.width, (int) go.height);
 		// draw bounding box
 		g.setColor(Color.RED);
 		g.drawRect((int) go.bbox.pos.x, (int) go.bbox.pos.y, (int) go.bbox.size.x, (int) go.bbox.size.y);
 		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 	}
 
-	private static List<String> prepareDebugInfo(GameObject go) {
-		List<String> debugInfo = new ArrayList<>();
+	/**
+	 * Add the lines of debug information of a GameObject to
+	 * <code>debugInfo</code>.
+	 */
+	static void prepareDebugInfo(GameObject go, List<String> debugInfo) {
 		debugInfo.add(String.format("name:%s", go.name));
 		debugInfo.add(String.format("acc:(%03.0f,%03.0f)", go.acc.x, go.acc.y));
 		debugInfo.add(String.format("vel:(%03.0f,%03.0f)", go.vel.x, go.vel.y));
@@ -72,15 +77,13 @@ public class DebugInfo {
 			String debugInfoLine = String.format("%s:%s", e.getKey(), e.getValue().toString());
 			debugInfo.add(debugInfoLine);
 		}
-		return debugInfo;
 	}
 
-	private static void drawAttributesText(Graphics2D g, List<String> debugInfo, double offsetX, double offsetY,
-			int maxWidth, int maxLinePerColumn, int fontHeight, Color textColor) {
-		g.setColor(textColor);
+	private static void drawAttributesText(DrawContext g, BitmapFont.Cache fonts, List<String> debugInfo,
+			double offsetX, double offsetY, int maxWidth, int maxLinePerColumn, int fontHeight, Color textColor) {
 		int x = 0, y = 0;
 		for (String line : debugInfo) {
-			g.drawString(String.format("%s", line), (int) (x + offsetX), (int) ((y * (fontHeight)) + offsetY + 4));
+			drawString(g, fonts, line, (int) (x + offsetX), (int) ((y * (fontHeight)) + offsetY + 4), textColor);
 			y += 1;
 			if (y > maxLinePerColumn) {
 				y = 0;
@@ -89,7 +92,23 @@ public class DebugInfo {
 		}
 	}
 
-	private static void drawBackgroundPanel(Graphics2D g, double offsetX, double offsetY, int width, int height,
+	/**
+	 * Draw a not antialiased text with the current font, from a BitmapFont of
+	 * <code>fonts</code> if any.
+	 */
+	private static void drawString(DrawContext g, BitmapFont.Cache fonts, String text, int x, int y, Color color) {
+		if (fonts != null) {
+			BitmapFont bf = fonts.get(g.getFont(), color, null, null, false);
+			if (bf.canDisplay(text)) {
+				bf.draw(g, text, x, y);
+				return;
+			}
+		}
+		g.setColor(color);
+		g.drawString(text, x, y);
+	}
+
+	private static void drawBackgroundPanel(DrawContext g, double offsetX, double offsetY, int width, int height,
 			Color borderColor, Color backgroundColor) {
 		g.setColor(backgroundColor);
 		g.fillRect((int) offsetX - 4, (int) (offsetY), width, height);
@@ -97,7 +116,7 @@ public class DebugInfo {
 		g.drawRect((int) offsetX - 4, (int) (offsetY), width, height);
 	}
 
-	public static void displayCollisionTest(Graphics2D g, GameObject go) {
+	public static void displayCollisionTest(DrawContext g, RenderItem go, BitmapFont.Cache fonts) {
 		int ox = (int) (go.bbox.pos.x / 16);
 		int ow = (int) (go.bbox.size.x / 16);
 		int oy = (int) (go.bbox.pos.y / 16);
@@ -118,8 +137,7 @@ public class DebugInfo {
 					Font d = g.getFont();
 					g.setFont(d.deriveFont(9.5f));
 					g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-					g.setColor(Color.WHITE);
-					g.drawString(mtc.mo.type.toString(), mtc.rX + 2, mtc.rY + (mtc.h / 2) + 4);
+					drawString(g, fonts, mtc.mo.type.toString(), mtc.rX + 2, mtc.rY + (mtc.h / 2) + 4, Color.WHITE);
 					g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 					g.setFont(d);
 					switch (mtc.mo.type) {
@@ -0,0 +1,65 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Image;
+import java.awt.RenderingHints;
+
+/**
+ * The drawing operations the Renderer, the MapRenderer, the LightMap and the
+ * DebugInfo use to draw a frame, implemented by the {@link RenderBackend} and
+ * recorded by the {@link CommandBuffer}.
+ * <p>
+ * Positions are in the coordinates of the current translation (see
+ * {@link #translate(double, double)}).
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+public interface DrawContext {
+
+	void translate(double x, double y);
+
+	void setColor(Color color);
+
+	void setFont(Font font);
+
+	Font getFont();
+
+	FontMetrics getFontMetrics(Font font);
+
+	void setRenderingHint(RenderingHints.Key key, Object value);
+
+	Object getRenderingHint(RenderingHints.Key key);
+
+	void setComposite(Composite composite);
+
+	Composite getComposite();
+
+	/**
+	 * Draw an image at its own size.
+	 */
+	void drawImage(Image image, int x, int y);
+
+	/**
+	 * Draw an image scaled to a size. A negative width mirrors the image, as
+	 * with <code>Graphics.drawImage</code>.
+	 */
+	void drawImage(Image image, int x, int y, int width, int height);
+
+	/**
+	 * Draw the area (<code>sx</code>, <code>sy</code>, <code>sw</code>,
+	 * <code>sh</code>) of an image, e.g. a {@link Sprite} of an atlas page,
+	 * scaled to a size. A negative width mirrors the area.
+	 */
+	void drawImage(Image image, int x, int y, int width, int height, int sx, int sy, int sw, int sh);
+
+	void fillRect(int x, int y, int width, int height);
+
+	void drawRect(int x, int y, int width, int height);
+
+	void fillOval(int x, int y, int width, int height);
+
+	void drawString(String text, int x, int y);
+}
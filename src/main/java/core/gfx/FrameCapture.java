@@ -0,0 +1,228 @@
+package core.gfx;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The FrameCapture writes rendered frames to files without stalling the
+ * rendering: a frame is only copied into a pooled buffer, and a background
+ * thread encodes it.
+ * <p>
+ * At most <code>capacity</code> buffers exist. When all of them are waiting
+ * to be encoded, the new frames are dropped rather than waiting for the
+ * encoder.
+ * <p>
+ * A frame is written as a PNG image, or appended to a raw file when its file
+ * name ends with <code>.raw</code>: frames are then stored one after the other
+ * as 32-bit big-endian <code>0RGB</code> pixels, readable with e.g.
+ * <code>ffmpeg -f rawvideo -pix_fmt 0rgb -s WxH -i file.raw</code>.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer#saveScreenshot(core.Config)
+ */
+@Slf4j
+public class FrameCapture implements Runnable {
+
+	/**
+	 * Default number of frame buffers.
+	 */
+	public static final int DEFAULT_CAPACITY = 8;
+
+	private static final long POLL_MILLIS = 100;
+	private static final long CLOSE_MILLIS = 5000;
+
+	/**
+	 * A copied frame waiting to be written.
+	 */
+	private static class Frame {
+		final BufferedImage image;
+		final String filename;
+
+		Frame(BufferedImage image, String filename) {
+			this.image = image;
+			this.filename = filename;
+		}
+	}
+
+	private final int width;
+	private final int height;
+	private final int capacity;
+	private final BlockingQueue<BufferedImage> pool;
+	private final BlockingQueue<Frame> pending;
+	private int allocated = 0;
+
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private volatile boolean running = false;
+	private Thread thread;
+
+	// the raw file being written, only used by the encoder thread.
+	private String rawPath;
+	private OutputStream rawStream;
+	private byte[] rawRow;
+
+	/**
+	 * Create a capture of frames of the screen size.
+	 *
+	 * @param width    width of the frames.
+	 * @param height   height of the frames.
+	 * @param capacity maximum number of frames waiting to be written.
+	 */
+	public FrameCapture(int width, int height, int capacity) {
+		this.width = width;
+		this.height = height;
+		this.capacity = capacity;
+		this.pool = new ArrayBlockingQueue<>(capacity);
+		this.pending = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Copy the last frame rendered by a backend and queue it to be written.
+	 * Never waits: if no buffer is free, the frame is dropped.
+	 *
+	 * @param backend  the backend holding the frame.
+	 * @param filename the file to write the frame to.
+	 * @return false if the frame has been dropped.
+	 */
+	public boolean capture(RenderBackend backend, String filename) {
+		BufferedImage image = pool.poll();
+		if (image == null) {
+			if (allocated >= capacity) {
+				dropped.incrementAndGet();
+				return false;
+			}
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			allocated++;
+		}
+		backend.copyFrame(image);
+		start();
+		pending.add(new Frame(image, filename));
+		return true;
+	}
+
+	private void start() {
+		if (!running) {
+			running = true;
+			thread = new Thread(this, "capture");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running || !pending.isEmpty()) {
+			try {
+				Frame frame = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (frame != null) {
+					write(frame);
+					pool.add(frame.image);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		closeRaw();
+	}
+
+	private void write(Frame frame) {
+		try {
+			if (frame.filename.endsWith(".raw")) {
+				writeRaw(frame);
+			} else {
+				File out = new File(frame.filename);
+				if (out.getParentFile() != null) {
+					Files.createDirectories(out.getParentFile().toPath());
+				}
+				ImageIO.write(frame.image, "PNG", out);
+			}
+			written.incrementAndGet();
+		} catch (IOException e) {
+			log.error("Unable to write the frame to {}: {}", frame.filename, e.getMessage());
+		}
+	}
+
+	private void writeRaw(Frame frame) throws IOException {
+		if (!frame.filename.equals(rawPath)) {
+			closeRaw();
+			Path path = Paths.get(frame.filename);
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			rawStream = new BufferedOutputStream(Files.newOutputStream(path));
+			rawPath = frame.filename;
+			rawRow = new byte[width * 4];
+			log.info("Raw frames of {}x{} 0RGB pixels written to {}", width, height, path);
+		}
+		int[] pixels = ((DataBufferInt) frame.image.getRaster().getDataBuffer()).getData();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0, i = y * width; x < width; x++, i++) {
+				int p = pixels[i];
+				rawRow[x * 4] = 0;
+				rawRow[x * 4 + 1] = (byte) (p >> 16);
+				rawRow[x * 4 + 2] = (byte) (p >> 8);
+				rawRow[x * 4 + 3] = (byte) p;
+			}
+			rawStream.write(rawRow);
+		}
+	}
+
+	private void closeRaw() {
+		if (rawStream != null) {
+			try {
+				rawStream.close();
+			} catch (IOException e) {
+				log.error("Unable to close the raw frames file {}", rawPath, e);
+			}
+			rawStream = null;
+			rawPath = null;
+		}
+	}
+
+	/**
+	 * Write the frames still waiting, then stop the encoder thread.
+	 */
+	public void close() {
+		if (running) {
+			running = false;
+			try {
+				thread.join(CLOSE_MILLIS);
+			} catch (InterruptedException e) {
+				log.error("Unable to wait for the capture thread end", e);
+				Thread.currentThread().interrupt();
+			}
+			log.info("Frame capture stopped: {} frames written, {} dropped", written.get(), dropped.get());
+		}
+	}
+
+	/**
+	 * @return the number of frames written.
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * @return the number of frames dropped because the encoder was too slow.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+}
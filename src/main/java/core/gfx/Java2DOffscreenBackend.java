@@ -0,0 +1,208 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints.Key;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import core.Game;
+
+/**
+ * The Java2D backend rendering into a BufferedImage, without display. When
+ * <code>config.rasterBlit</code> is set, the images and image areas drawn at
+ * their own size are copied by the {@link RasterBlitter}.
+ * <p>
+ * The screenBuffer is a <code>TYPE_INT_ARGB</code> image, as the one Java2D
+ * always rendered into, until the RasterBlitter is used: it is then switched,
+ * once, to the <code>TYPE_INT_RGB</code> image the blitter writes into.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+public class Java2DOffscreenBackend implements RenderBackend {
+
+	protected BufferedImage screenBuffer;
+	protected Graphics2D screenGraphics;
+	protected RasterBlitter blitter;
+	protected boolean rasterBlit;
+
+	/**
+	 * The graphics API of the current frame.
+	 */
+	protected Graphics2D g;
+
+	@Override
+	public String getName() {
+		return "offscreen";
+	}
+
+	@Override
+	public void initialize(Game dg) {
+		createScreenBuffer(dg, dg.config.rasterBlit);
+	}
+
+	/**
+	 * Create the screenBuffer, and its RasterBlitter if used.
+	 *
+	 * @param dg         the parent game.
+	 * @param rasterBlit true to create a <code>TYPE_INT_RGB</code> screenBuffer
+	 *                   for the RasterBlitter.
+	 */
+	private void createScreenBuffer(Game dg, boolean rasterBlit) {
+		if (screenGraphics != null) {
+			screenGraphics.dispose();
+		}
+		screenBuffer = new BufferedImage(dg.config.screenWidth, dg.config.screenHeight,
+				rasterBlit ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		screenGraphics = screenBuffer.createGraphics();
+		blitter = rasterBlit ? new RasterBlitter(screenBuffer) : null;
+		g = screenGraphics;
+	}
+
+	@Override
+	public BufferedImage getScreenBuffer() {
+		return screenBuffer;
+	}
+
+	@Override
+	public Graphics2D beginFrame(Game dg) {
+		rasterBlit = dg.config.rasterBlit;
+		if (rasterBlit && blitter == null) {
+			createScreenBuffer(dg, true);
+		}
+		if (blitter != null) {
+			blitter.resetBlits();
+		}
+		g = screenGraphics;
+		return g;
+	}
+
+	@Override
+	public Graphics2D getGraphics() {
+		return g;
+	}
+
+	@Override
+	public void translate(double x, double y) {
+		g.translate(x, y);
+	}
+
+	@Override
+	public void setColor(Color color) {
+		g.setColor(color);
+	}
+
+	@Override
+	public void setFont(Font font) {
+		g.setFont(font);
+	}
+
+	@Override
+	public Font getFont() {
+		return g.getFont();
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font font) {
+		return g.getFontMetrics(font);
+	}
+
+	@Override
+	public void setRenderingHint(Key key, Object value) {
+		g.setRenderingHint(key, value);
+	}
+
+	@Override
+	public Object getRenderingHint(Key key) {
+		return g.getRenderingHint(key);
+	}
+
+	@Override
+	public void setComposite(Composite composite) {
+		g.setComposite(composite);
+	}
+
+	@Override
+	public Composite getComposite() {
+		return g.getComposite();
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y) {
+		if (!rasterBlit || !blitter.draw(g, image, x, y, false)) {
+			g.drawImage(image, x, y, null);
+		}
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height) {
+		if (rasterBlit && image != null && Math.abs(width) == image.getWidth(null)
+				&& height == image.getHeight(null)
+				&& blitter.draw(g, image, width < 0 ? x + width : x, y, width < 0)) {
+			return;
+		}
+		g.drawImage(image, x, y, width, height, null);
+	}
+
+	@Override
+	public void drawImage(Image image, int x, int y, int width, int height, int sx, int sy, int sw, int sh) {
+		if (rasterBlit && Math.abs(width) == sw && height == sh
+				&& blitter.draw(g, image, sx, sy, sw, sh, width < 0 ? x + width : x, y, width < 0)) {
+			return;
+		}
+		g.drawImage(image, x, y, x + width, y + height, sx, sy, sx + sw, sy + sh, null);
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		g.fillRect(x, y, width, height);
+	}
+
+	@Override
+	public void drawRect(int x, int y, int width, int height) {
+		g.drawRect(x, y, width, height);
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		g.fillOval(x, y, width, height);
+	}
+
+	@Override
+	public void drawString(String text, int x, int y) {
+		g.drawString(text, x, y);
+	}
+
+	@Override
+	public boolean endFrame() {
+		return true;
+	}
+
+	@Override
+	public void present(Game dg, Overlay overlay) {
+		// the frame stays in the screenBuffer.
+	}
+
+	@Override
+	public void copyFrame(BufferedImage target) {
+		int[] src = ((DataBufferInt) screenBuffer.getRaster().getDataBuffer()).getData();
+		int[] dst = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+		System.arraycopy(src, 0, dst, 0, Math.min(src.length, dst.length));
+	}
+
+	@Override
+	public String getInfo() {
+		return rasterBlit ? getName() + ", raster blits: " + blitter.getBlits() : getName();
+	}
+
+	@Override
+	public void dispose() {
+		if (screenGraphics != null) {
+			screenGraphics.dispose();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Insets;
+import java.awt.Transparency;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+import javax.swing.JFrame;
+
+import core.Game;
+import core.io.InputHandler;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Java2D backend rendering into a VolatileImage back buffer, scaled to a
+ * window through its BufferStrategy. When the RasterBlitter is used, frames
+ * are rendered into the screenBuffer instead.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+@Slf4j
+public class Java2DWindowBackend extends Java2DOffscreenBackend {
+
+	/**
+	 * The opaque render target in video memory.
+	 */
+	private VolatileImage backBuffer;
+	private JFrame jf;
+
+	@Override
+	public String getName() {
+		return "window";
+	}
+
+	@Override
+	public void initialize(Game dg) {
+		super.initialize(dg);
+		jf = createWindow(dg);
+	}
+
+	/**
+	 * create a WXindow to host the game display according to core.Config object.
+	 *
+	 * @param dg the core.Game object to access the configuration instance.
+	 * @return a JFrame initialized conforming to config attributes.
+	 */
+	private JFrame createWindow(Game dg) {
+		// log.info("Java Library Path: {}", System.getProperty("java.library.path"));
+		log.info(getMonitorSizes());
+
+		jf = new JFrame(dg.config.title);
+		jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		jf.setBackground(Color.BLACK);
+		Insets ins = jf.getInsets();
+		Dimension dim = new Dimension((int) (dg.config.screenWidth * dg.config.screenScale) - (ins.left + ins.right),
+				(int) (dg.config.screenHeight * dg.config.screenScale) - (ins.top + ins.bottom));
+		jf.setSize(dim);
+		jf.setPreferredSize(dim);
+		jf.pack();
+		InputHandler kih = dg.sysMan.getSystem(InputHandler.class);
+		jf.addKeyListener(kih);
+		jf.setIconImage(dg.resourceManager.getImage("/res/bgf-icon.png"));
+		jf.addComponentListener(new ComponentAdapter() {
+			public void componentResized(ComponentEvent componentEvent) {
+				float ratio = (float) dg.config.screenWidth / (float) dg.config.screenHeight;
+				float w = componentEvent.getComponent().getWidth();
+				Dimension dim = new Dimension((int) w, (int) (w / ratio));
+				jf.setSize(dim);
+				jf.setMaximumSize(dim);
+				jf.setMinimumSize(dim);
+				jf.setPreferredSize(dim);
+				jf.pack();
+			}
+		});
+
+		jf.setIgnoreRepaint(true);
+		jf.enableInputMethods(true);
+		jf.setLocationByPlatform(true);
+		jf.setLocationRelativeTo(null);
+		jf.setVisible(true);
+		BufferStrategy bs = jf.getBufferStrategy();
+		if (bs == null) {
+			jf.createBufferStrategy(4);
+		}
+		return jf;
+	}
+
+	private String getMonitorSizes() {
+		GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice[] gs = ge.getScreenDevices();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < gs.length; i++) {
+			DisplayMode dm = gs[i].getDisplayMode();
+			sb.append(i + ", width: " + dm.getWidth() + ", height: " + dm.getHeight() + "\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Select the render target of the frame: the VolatileImage back buffer,
+	 * validated against the window configuration and re-created if it is no
+	 * more compatible (e.g. the window moved to another screen).
+	 */
+	@Override
+	public Graphics2D beginFrame(Game dg) {
+		super.beginFrame(dg);
+		GraphicsConfiguration gc = jf.getGraphicsConfiguration();
+		if (gc == null || rasterBlit) {
+			return g;
+		}
+		if (backBuffer == null || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+			if (backBuffer != null) {
+				backBuffer.flush();
+			}
+			backBuffer = gc.createCompatibleVolatileImage(dg.config.screenWidth, dg.config.screenHeight,
+					Transparency.OPAQUE);
+			log.debug("VolatileImage back buffer created (accelerated: {})",
+					backBuffer.getCapabilities().isAccelerated());
+		}
+		g = backBuffer.createGraphics();
+		return g;
+	}
+
+	/**
+	 * @return false if the content of the back buffer has been lost while
+	 *         rendering; the back buffer is then restored by the next
+	 *         {@link #beginFrame(Game)}.
+	 */
+	@Override
+	public boolean endFrame() {
+		if (g != screenGraphics) {
+			g.dispose();
+			g = screenGraphics;
+			return !backBuffer.contentsLost();
+		}
+		return true;
+	}
+
+	/**
+	 * @return the image holding the last rendered frame.
+	 */
+	private Image getFrameImage() {
+		return backBuffer != null && !rasterBlit ? backBuffer : screenBuffer;
+	}
+
+	@Override
+	public void present(Game dg, Overlay overlay) {
+		BufferStrategy bs = jf.getBufferStrategy();
+		if (bs != null) {
+			Graphics2D sg = (Graphics2D) bs.getDrawGraphics();
+			if (sg != null) {
+				sg.drawImage(getFrameImage(), 0, 0, jf.getWidth(), jf.getHeight(), 0, 0, dg.config.screenWidth,
+						dg.config.screenHeight, Color.BLACK, null);
+				overlay.draw(sg, jf.getWidth(), jf.getHeight());
+				sg.dispose();
+			}
+			bs.show();
+		}
+	}
+
+	@Override
+	public void copyFrame(BufferedImage target) {
+		if (backBuffer != null && !rasterBlit) {
+			Graphics2D tg = target.createGraphics();
+			tg.drawImage(backBuffer, 0, 0, null);
+			tg.dispose();
+		} else {
+			super.copyFrame(target);
+		}
+	}
+}
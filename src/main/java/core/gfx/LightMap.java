@@ -0,0 +1,241 @@
+package core.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.RadialGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The LightMap accumulates all the lights of a frame into one buffer, at a
+ * reduced resolution, which is then drawn over the scene in one composite.
+ * <p>
+ * The gradient of a sphere light is rendered only once into a sprite, cached
+ * on the light radius, color, intensity and gradient fractions. As the
+ * glittering of a light moves its gradient center, a few shifted variants of
+ * the sprite are kept and one of them is picked at each frame.
+ * <p>
+ * Lights are blended with <code>SRC_OVER</code>, as they were when drawn one by
+ * one on the scene, which keeps the lighting look unchanged.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer
+ */
+public class LightMap {
+
+	/**
+	 * Resolution divisor of the light map buffer.
+	 */
+	public static final int SCALE = 2;
+
+	// number of cached shifted gradients of a glittering light.
+	private static final int GLITTER_VARIANTS = 4;
+	// the gradient center of a glittering light moves up to this distance.
+	private static final double GLITTER_DISTANCE = 20.0;
+	// the sprite cache is emptied when it holds more sprites than this.
+	private static final int MAX_SPRITES = 256;
+
+	private static final Color TRANSPARENT = new Color(0.0f, 0.0f, 0.0f, 0.0f);
+
+	/**
+	 * The parameters a light sprite depends on.
+	 */
+	private static class SpriteKey {
+		final int width;
+		final int height;
+		final int rgba;
+		final float intensity;
+		final float glitter;
+		final float[] dist;
+
+		SpriteKey(RenderItem l) {
+			this.width = (int) l.width;
+			this.height = (int) l.height;
+			this.rgba = l.foregroundColor.getRGB();
+			this.intensity = (float) l.intensity;
+			this.glitter = (float) l.glitterEffect;
+			this.dist = l.dist;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SpriteKey)) {
+				return false;
+			}
+			SpriteKey k = (SpriteKey) o;
+			return width == k.width && height == k.height && rgba == k.rgba && intensity == k.intensity
+					&& glitter == k.glitter && Arrays.equals(dist, k.dist);
+		}
+
+		@Override
+		public int hashCode() {
+			int h = 31 * width + height;
+			h = 31 * h + rgba;
+			h = 31 * h + Float.floatToIntBits(intensity);
+			h = 31 * h + Float.floatToIntBits(glitter);
+			return 31 * h + Arrays.hashCode(dist);
+		}
+	}
+
+	private final int width;
+	private final int height;
+	private final BufferedImage buffer;
+	private final Map<SpriteKey, BufferedImage[]> sprites = new HashMap<>();
+	private final Random random = new Random();
+
+	private Graphics2D lg;
+	private int lights;
+
+	/**
+	 * Create a light map for a screen.
+	 *
+	 * @param screenWidth  width of the screen, in pixels.
+	 * @param screenHeight height of the screen, in pixels.
+	 */
+	public LightMap(int screenWidth, int screenHeight) {
+		this.width = screenWidth;
+		this.height = screenHeight;
+		this.buffer = CompatibleImage.create(Math.max(1, screenWidth / SCALE), Math.max(1, screenHeight / SCALE),
+				Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Start the accumulation of the lights of a new frame.
+	 */
+	public void begin() {
+		if (lg == null) {
+			lg = buffer.createGraphics();
+			lg.scale(1.0 / SCALE, 1.0 / SCALE);
+		}
+		lg.setComposite(AlphaComposite.Clear);
+		lg.fillRect(0, 0, width, height);
+		lg.setComposite(AlphaComposite.SrcOver);
+		lights = 0;
+	}
+
+	/**
+	 * Add a light to the light map. Lights out of the screen are skipped.
+	 *
+	 * @param l       the light to be added.
+	 * @param offsetX horizontal screen position of the world origin.
+	 * @param offsetY vertical screen position of the world origin.
+	 */
+	public void add(RenderItem l, double offsetX, double offsetY) {
+		switch (l.lightType) {
+			case LIGHT_SPHERE:
+				addSphere(l, offsetX, offsetY);
+				break;
+			case LIGHT_AMBIANT:
+				lg.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) l.intensity));
+				lg.setColor(l.foregroundColor);
+				lg.fillRect(0, 0, width, height);
+				lg.setComposite(AlphaComposite.SrcOver);
+				lights++;
+				break;
+			case LIGHT_CONE:
+			default:
+				// conical lights are not implemented.
+				break;
+		}
+	}
+
+	private void addSphere(RenderItem l, double offsetX, double offsetY) {
+		int x = (int) (l.x + offsetX);
+		int y = (int) (l.y + offsetY);
+		if (x > width || y > height || x + l.width < 0 || y + l.height < 0) {
+			return;
+		}
+		BufferedImage[] variants = sprites.get(new SpriteKey(l));
+		if (variants == null) {
+			if (sprites.size() >= MAX_SPRITES) {
+				sprites.clear();
+			}
+			variants = createSprites(l);
+			sprites.put(new SpriteKey(l), variants);
+		}
+		lg.drawImage(variants[random.nextInt(variants.length)], x, y, (int) l.width, (int) l.height, null);
+		lights++;
+	}
+
+	/**
+	 * Render the gradient of a sphere light, baking its intensity in the alpha
+	 * channel.
+	 */
+	private BufferedImage[] createSprites(RenderItem l) {
+		int count = l.glitterEffect > 0 ? GLITTER_VARIANTS : 1;
+		BufferedImage[] variants = new BufferedImage[count];
+		int sw = Math.max(1, (int) l.width / SCALE);
+		int sh = Math.max(1, (int) l.height / SCALE);
+		Color color = brighten(l.foregroundColor, l.intensity);
+		Color[] colors = new Color[] { color,
+				new Color(color.getRed() / 2, color.getGreen() / 2, color.getBlue() / 2, color.getAlpha() / 2),
+				TRANSPARENT };
+		for (int i = 0; i < count; i++) {
+			double shift = count > 1 ? GLITTER_DISTANCE * l.glitterEffect * i / (count - 1) : 0;
+			BufferedImage sprite = CompatibleImage.create(sw, sh, Transparency.TRANSLUCENT);
+			Graphics2D sg = sprite.createGraphics();
+			sg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			sg.scale((double) sw / l.width, (double) sh / l.height);
+			sg.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) l.intensity));
+			sg.setPaint(new RadialGradientPaint(new Point((int) shift, (int) shift), (int) (l.width * 2), l.dist,
+					colors));
+			sg.fill(new Ellipse2D.Double(0, 0, l.width, l.height));
+			sg.dispose();
+			variants[i] = sprite;
+		}
+		return variants;
+	}
+
+	/**
+	 * Draw the accumulated lights over the scene.
+	 *
+	 * @param g the DrawContext of the screen, without camera translation.
+	 */
+	public void composite(DrawContext g) {
+		if (lights > 0) {
+			Object interpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(buffer, 0, 0, width, height);
+			if (interpolation != null) {
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+			}
+		}
+	}
+
+	/**
+	 * Make a color brighter, without changing its alpha.
+	 *
+	 * @param color    the color to be brightened.
+	 * @param fraction the fraction of white to add.
+	 * @return a new color.
+	 */
+	public static Color brighten(Color color, double fraction) {
+		int red = (int) Math.round(Math.min(255, color.getRed() + 255 * fraction));
+		int green = (int) Math.round(Math.min(255, color.getGreen() + 255 * fraction));
+		int blue = (int) Math.round(Math.min(255, color.getBlue() + 255 * fraction));
+		return new Color(red, green, blue, color.getAlpha());
+	}
+
+	/**
+	 * @return the number of lights added since {@link #begin()}.
+	 */
+	public int getLights() {
+		return lights;
+	}
+
+	public void dispose() {
+		if (lg != null) {
+			lg.dispose();
+			lg = null;
+		}
+		sprites.clear();
+	}
+}
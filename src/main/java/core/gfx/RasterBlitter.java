@@ -0,0 +1,209 @@
+package core.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * The RasterBlitter copies images directly into the <code>int[]</code> pixels
+ * of an opaque <code>TYPE_INT_RGB</code> image, without going through
+ * <code>Graphics2D.drawImage</code>.
+ * <p>
+ * It only covers the pixel-art case: integer positions, no scaling nor
+ * rotation, an optional horizontal flip, and source images stored as
+ * <code>int</code> pixels. Opaque images are copied row by row with
+ * <code>System.arraycopy</code>; images with an alpha channel go through an
+ * alpha-test loop, blending the few partially transparent pixels. Opaque
+ * areas larger than {@link #MAX_OPAQUE_PIXELS}, such as the map chunks, are
+ * copied faster by Java2D itself. For any other case, {@link #draw(Graphics2D, Image, int, int, boolean)} returns
+ * false and the caller falls back to Java2D. An area of an image, such as a
+ * {@link Sprite} of an atlas page, can be drawn the same way.
+ * <p>
+ * The pixels of an image drawn by the RasterBlitter are accessed directly,
+ * which prevents Java2D to keep this image accelerated in video memory: it
+ * is meant for headless and software-only rendering.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer
+ */
+public class RasterBlitter {
+
+	/**
+	 * Largest opaque area (in pixels) copied by the blitter: beyond about 48x48
+	 * pixels, the Java2D blit loops outrun the row copies.
+	 */
+	public static final int MAX_OPAQUE_PIXELS = 48 * 48;
+
+	private final int[] pixels;
+	private final int width;
+	private final int height;
+
+	// number of images drawn since the last call to resetBlits.
+	private int blits;
+
+	/**
+	 * Create a blitter writing into <code>target</code>.
+	 *
+	 * @param target the image to draw into, must be of type
+	 *               <code>TYPE_INT_RGB</code>.
+	 */
+	public RasterBlitter(BufferedImage target) {
+		if (target.getType() != BufferedImage.TYPE_INT_RGB) {
+			throw new IllegalArgumentException("The RasterBlitter target must be a TYPE_INT_RGB image");
+		}
+		this.pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+		this.width = target.getWidth();
+		this.height = target.getHeight();
+	}
+
+	/**
+	 * Draw an image at its own size.
+	 *
+	 * @param g     the graphics API drawing into the same target, whose
+	 *              translation is applied.
+	 * @param image the image to be drawn.
+	 * @param x     horizontal position, in the coordinates of <code>g</code>.
+	 * @param y     vertical position, in the coordinates of <code>g</code>.
+	 * @param flip  true to mirror the image horizontally.
+	 * @return false if the image can not be drawn by the blitter, and must be
+	 *         drawn through Java2D.
+	 */
+	public boolean draw(Graphics2D g, Image image, int x, int y, boolean flip) {
+		if (!(image instanceof BufferedImage)) {
+			return false;
+		}
+		BufferedImage src = (BufferedImage) image;
+		return draw(g, src, 0, 0, src.getWidth(), src.getHeight(), x, y, flip);
+	}
+
+	/**
+	 * Draw an area of an image at its own size.
+	 *
+	 * @param g     the graphics API drawing into the same target, whose
+	 *              translation is applied.
+	 * @param image the image holding the area.
+	 * @param sx    horizontal position of the area in the image.
+	 * @param sy    vertical position of the area in the image.
+	 * @param sw    width of the area.
+	 * @param sh    height of the area.
+	 * @param x     horizontal position, in the coordinates of <code>g</code>.
+	 * @param y     vertical position, in the coordinates of <code>g</code>.
+	 * @param flip  true to mirror the area horizontally.
+	 * @return false if the area can not be drawn by the blitter, and must be
+	 *         drawn through Java2D.
+	 */
+	public boolean draw(Graphics2D g, Image image, int sx, int sy, int sw, int sh, int x, int y, boolean flip) {
+		if (!(image instanceof BufferedImage) || g.getComposite() != AlphaComposite.SrcOver || g.getClip() != null) {
+			return false;
+		}
+		BufferedImage src = (BufferedImage) image;
+		if (sx < 0 || sy < 0 || sx + sw > src.getWidth() || sy + sh > src.getHeight()) {
+			return false;
+		}
+		int type = src.getType();
+		if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB
+				&& type != BufferedImage.TYPE_INT_ARGB_PRE) {
+			return false;
+		}
+		if (type == BufferedImage.TYPE_INT_RGB && sw * sh > MAX_OPAQUE_PIXELS) {
+			return false;
+		}
+		AffineTransform t = g.getTransform();
+		if ((t.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+			return false;
+		}
+		double tx = x + t.getTranslateX();
+		double ty = y + t.getTranslateY();
+		if (tx != Math.floor(tx) || ty != Math.floor(ty)) {
+			return false;
+		}
+		blit(src, type, sx, sy, sw, sh, (int) tx, (int) ty, flip);
+		blits++;
+		return true;
+	}
+
+	private void blit(BufferedImage src, int type, int sx, int sy, int sw, int sh, int dx, int dy, boolean flip) {
+		int stride = src.getWidth();
+		// the first pixel of the area.
+		int origin = sy * stride + sx;
+		// clip the source area to the target.
+		int x0 = Math.max(0, -dx);
+		int y0 = Math.max(0, -dy);
+		int x1 = Math.min(sw, width - dx);
+		int y1 = Math.min(sh, height - dy);
+		if (x0 >= x1 || y0 >= y1) {
+			return;
+		}
+		int[] srcPixels = ((DataBufferInt) src.getRaster().getDataBuffer()).getData();
+		int count = x1 - x0;
+		for (int y = y0; y < y1; y++) {
+			int d = (dy + y) * width + dx + x0;
+			if (type == BufferedImage.TYPE_INT_RGB) {
+				if (flip) {
+					int s = origin + y * stride + sw - 1 - x0;
+					for (int i = 0; i < count; i++) {
+						pixels[d + i] = srcPixels[s - i];
+					}
+				} else {
+					System.arraycopy(srcPixels, origin + y * stride + x0, pixels, d, count);
+				}
+			} else {
+				int s = origin + y * stride + (flip ? sw - 1 - x0 : x0);
+				int step = flip ? -1 : 1;
+				boolean pre = type == BufferedImage.TYPE_INT_ARGB_PRE;
+				for (int i = 0; i < count; i++, s += step) {
+					int argb = srcPixels[s];
+					int a = argb >>> 24;
+					if (a == 0xFF) {
+						pixels[d + i] = argb;
+					} else if (a != 0) {
+						pixels[d + i] = blend(argb, a, pixels[d + i], pre);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Blend a partially transparent pixel over an opaque one, rounding as the
+	 * Java2D blit loops do.
+	 */
+	private static int blend(int argb, int a, int rgb, boolean premultiplied) {
+		int na = 0xFF - a;
+		int sr = (argb >> 16) & 0xFF;
+		int sg = (argb >> 8) & 0xFF;
+		int sb = argb & 0xFF;
+		if (!premultiplied) {
+			sr = mul8(sr, a);
+			sg = mul8(sg, a);
+			sb = mul8(sb, a);
+		}
+		int r = sr + mul8((rgb >> 16) & 0xFF, na);
+		int g = sg + mul8((rgb >> 8) & 0xFF, na);
+		int b = sb + mul8(rgb & 0xFF, na);
+		return (r << 16) | (g << 8) | b;
+	}
+
+	/**
+	 * @return <code>a * b / 255</code>, rounded to the nearest.
+	 */
+	private static int mul8(int a, int b) {
+		int t = a * b + 0x80;
+		return (t + (t >> 8)) >> 8;
+	}
+
+	/**
+	 * @return the number of images drawn since the last
+	 *         {@link #resetBlits()}.
+	 */
+	public int getBlits() {
+		return blits;
+	}
+
+	public void resetBlits() {
+		blits = 0;
+	}
+}
@@ -0,0 +1,95 @@
+package core.gfx;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import core.Game;
+
+/**
+ * The RenderBackend is the drawing target of the {@link Renderer}: each frame
+ * is drawn through its {@link DrawContext} methods, then it presents the frame
+ * to the screen, if any.
+ * <p>
+ * Backends are found with a {@link java.util.ServiceLoader}, listed in
+ * <code>META-INF/services/core.gfx.RenderBackend</code>, and selected on
+ * their name with the <code>be</code> argument (<code>render.backend</code> in
+ * <code>config.properties</code>). They must have a constructor without
+ * argument. The shipped backends are:
+ * <ul>
+ * <li><code>window</code>: Java2D rendering displayed in a window,</li>
+ * <li><code>offscreen</code>: Java2D rendering into a BufferedImage,</li>
+ * <li><code>counting</code>: draws nothing and counts the drawing
+ * operations.</li>
+ * </ul>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer
+ */
+public interface RenderBackend extends DrawContext {
+
+	/**
+	 * Draws information over the presented frame, at the display size.
+	 */
+	interface Overlay {
+		void draw(Graphics2D g, int width, int height);
+	}
+
+	/**
+	 * @return the name used to select this backend.
+	 */
+	String getName();
+
+	/**
+	 * Create the render targets and the display, if any.
+	 *
+	 * @param dg the parent game.
+	 */
+	void initialize(Game dg);
+
+	/**
+	 * @return the image of the screen size holding the frame rendered offscreen.
+	 */
+	BufferedImage getScreenBuffer();
+
+	/**
+	 * Start the rendering of a new frame.
+	 *
+	 * @param dg the parent game.
+	 * @return the graphics API of the frame, given to the scene to draw its HUD.
+	 */
+	Graphics2D beginFrame(Game dg);
+
+	/**
+	 * @return the graphics API of the current frame.
+	 */
+	Graphics2D getGraphics();
+
+	/**
+	 * Close the frame rendering.
+	 *
+	 * @return false if the frame has been lost and must not be presented.
+	 */
+	boolean endFrame();
+
+	/**
+	 * Display the rendered frame.
+	 *
+	 * @param dg      the parent game.
+	 * @param overlay the information drawn over the displayed frame.
+	 */
+	void present(Game dg, Overlay overlay);
+
+	/**
+	 * Copy the last rendered frame.
+	 *
+	 * @param target a <code>TYPE_INT_RGB</code> image of the screen size.
+	 */
+	void copyFrame(BufferedImage target);
+
+	/**
+	 * @return a short status of the backend, shown on the debug line.
+	 */
+	String getInfo();
+
+	void dispose();
+}
@@ -0,0 +1,180 @@
+package core.gfx;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import core.collision.MapTileCollision;
+import core.object.BBox;
+import core.object.GameObject;
+import core.object.GameObjectType;
+import core.object.Light;
+import core.object.Light.LightType;
+import core.object.TextObject;
+import core.object.TextObject.TextAlign;
+
+/**
+ * A RenderItem is a copy of everything the Renderer needs to draw a
+ * GameObject, taken at the end of an update step. The render thread only reads
+ * those copies, and never the GameObject fields updated by the game loop.
+ * <p>
+ * The items are pooled by their {@link RenderSnapshot}: an item is copied
+ * again from its object each time the snapshot is captured, and must not be
+ * kept once the snapshot is given back to the game loop.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see RenderSnapshot
+ */
+public class RenderItem {
+
+	/**
+	 * The GameObject this item was built from. Only used to know its kind, and
+	 * to delegate the MapLevel rendering to the MapRenderer.
+	 */
+	public GameObject source;
+
+	public int layer;
+	public int priority;
+	public boolean fixed;
+
+	public double x;
+	public double y;
+	public double previousX;
+	public double previousY;
+	public double width;
+	public double height;
+	public int direction;
+
+	public GameObjectType type;
+	public BufferedImage image;
+	public Sprite sprite;
+	public Color foregroundColor;
+
+	// TextObject specific attributes.
+	public String text;
+	public Font font;
+	public TextAlign align;
+	public Color backgroundColor;
+	public Color shadowColor;
+	public Color outlinedColor;
+	public Color borderColor;
+
+	// Light specific attributes.
+	public LightType lightType;
+	public double intensity;
+	public double glitterEffect;
+	// never changed once set, as the LightMap keeps it in its sprite keys.
+	public float[] dist;
+
+	// debug information, only captured when config.debug &gt; 2.
+	public final List<String> debugLines = new ArrayList<>();
+	public final List<MapTileCollision> collidingZone = new ArrayList<>();
+	public final BBox bbox = new BBox();
+
+	/**
+	 * Copy the rendering attributes of the GameObject <code>go</code>.
+	 *
+	 * @param go         the GameObject to be copied.
+	 * @param layerFixed true if the object is in a layer fixed to the screen.
+	 * @param debug      true to copy the debug information too.
+	 */
+	public void set(GameObject go, boolean layerFixed, boolean debug) {
+		this.source = go;
+		this.layer = go.layer;
+		this.priority = go.priority;
+		this.fixed = layerFixed;
+		this.x = go.pos.x;
+		this.y = go.pos.y;
+		this.previousX = go.oldPos != null ? go.oldPos.x : go.pos.x;
+		this.previousY = go.oldPos != null ? go.oldPos.y : go.pos.y;
+		this.width = go.size.x;
+		this.height = go.size.y;
+		this.direction = go.direction;
+		this.type = go.type;
+		this.image = go.image;
+		this.sprite = go.sprite;
+		this.foregroundColor = go.foregroundColor;
+		this.backgroundColor = go.backgroundColor;
+
+		if (go instanceof TextObject) {
+			TextObject to = (TextObject) go;
+			this.text = to.text;
+			this.font = to.font;
+			this.align = to.align;
+			this.shadowColor = to.shadowColor;
+			this.outlinedColor = to.outlinedColor;
+			this.borderColor = to.borderColor;
+		} else {
+			this.text = null;
+			this.font = null;
+			this.align = null;
+			this.shadowColor = null;
+			this.outlinedColor = null;
+			this.borderColor = null;
+		}
+
+		if (go instanceof Light) {
+			Light l = (Light) go;
+			this.lightType = l.lightType;
+			this.intensity = l.intensity;
+			this.glitterEffect = l.glitterEffect;
+			if (!Arrays.equals(dist, l.dist)) {
+				this.dist = l.dist.clone();
+			}
+		} else {
+			this.lightType = null;
+			this.intensity = 0;
+			this.glitterEffect = 0;
+			this.dist = null;
+		}
+
+		debugLines.clear();
+		collidingZone.clear();
+		if (debug) {
+			DebugInfo.prepareDebugInfo(go, debugLines);
+			collidingZone.addAll(go.collidingZone);
+			BBox bb = go.bbox != null ? go.bbox : new BBox(go);
+			bbox.pos.x = bb.pos.x;
+			bbox.pos.y = bb.pos.y;
+			bbox.size.x = bb.size.x;
+			bbox.size.y = bb.size.y;
+			bbox.left = bb.left;
+			bbox.top = bb.top;
+			bbox.right = bb.right;
+			bbox.bottom = bb.bottom;
+		}
+	}
+
+	/**
+	 * Horizontal position interpolated between the previous and the current
+	 * update steps.
+	 *
+	 * @param alpha the interpolation factor, from 0 (previous) to 1 (current).
+	 * @return the horizontal rendering position.
+	 */
+	public double getRenderX(double alpha) {
+		return previousX + (x - previousX) * alpha;
+	}
+
+	/**
+	 * Vertical position interpolated between the previous and the current update
+	 * steps.
+	 *
+	 * @param alpha the interpolation factor, from 0 (previous) to 1 (current).
+	 * @return the vertical rendering position.
+	 */
+	public double getRenderY(double alpha) {
+		return previousY + (y - previousY) * alpha;
+	}
+
+	public boolean isText() {
+		return source instanceof TextObject;
+	}
+
+	public boolean isLight() {
+		return source instanceof Light;
+	}
+}
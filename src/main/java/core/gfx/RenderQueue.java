@@ -0,0 +1,104 @@
+package core.gfx;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+import core.object.GameObject;
+
+/**
+ * The RenderQueue keeps the GameObject to be rendered sorted on their layer,
+ * then their priority, then their insertion order. Insertion and removal cost
+ * O(log n), and objects with the same layer and priority keep the order they
+ * were added in.
+ * <p>
+ * The layer and priority of an object are read when it is added: an object
+ * moved to another layer must be added again to take its new place.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Renderer#add(GameObject)
+ */
+public class RenderQueue implements Iterable<RenderQueue.Entry> {
+
+	/**
+	 * The place of a GameObject in the queue.
+	 */
+	public static class Entry {
+		public final GameObject object;
+		public final int layer;
+		public final int priority;
+		public final boolean fixed;
+		private final long sequence;
+
+		private Entry(GameObject object, boolean fixed, long sequence) {
+			this.object = object;
+			this.layer = object.layer;
+			this.priority = object.priority;
+			this.fixed = fixed;
+			this.sequence = sequence;
+		}
+	}
+
+	private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> e.layer)
+			.thenComparingInt(e -> e.priority).thenComparingLong(e -> e.sequence);
+
+	private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+	private final Map<GameObject, Entry> index = new IdentityHashMap<>();
+	// a layer is fixed to the screen if the first object added to it is.
+	private final Map<Integer, Boolean> fixedLayers = new HashMap<>();
+	private long sequence = 0;
+
+	/**
+	 * Add a GameObject at its place in the queue. An object already in the queue
+	 * is moved to its new place.
+	 *
+	 * @param go the GameObject to be rendered.
+	 */
+	public void add(GameObject go) {
+		remove(go);
+		boolean fixed = fixedLayers.computeIfAbsent(go.layer, l -> go.fixed);
+		Entry e = new Entry(go, fixed, sequence++);
+		entries.add(e);
+		index.put(go, e);
+	}
+
+	/**
+	 * Remove a GameObject from the queue.
+	 *
+	 * @param go the GameObject to be removed.
+	 * @return true if the object was in the queue.
+	 */
+	public boolean remove(GameObject go) {
+		Entry e = index.remove(go);
+		if (e != null) {
+			entries.remove(e);
+			return true;
+		}
+		return false;
+	}
+
+	public boolean contains(GameObject go) {
+		return index.containsKey(go);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+		index.clear();
+		fixedLayers.clear();
+	}
+
+	/**
+	 * @return an iterator on the entries, in the rendering order.
+	 */
+	@Override
+	public Iterator<Entry> iterator() {
+		return entries.iterator();
+	}
+}
@@ -0,0 +1,124 @@
+package core.gfx;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+
+import core.map.MapSnapshot;
+import core.object.Camera;
+import core.object.GameObject;
+import core.scene.Scene;
+
+/**
+ * The RenderSnapshot is the picture of a scene at the end of an update step:
+ * the active camera position, the list of RenderItem, already sorted in the
+ * rendering order, and the tiles of the visible part of the map.
+ * <p>
+ * It is produced by the game loop thread and consumed by the render thread.
+ * The snapshots, and their items, are reused from one step to the next: a
+ * snapshot is only changed by the thread owning it in its
+ * {@link SnapshotBuffer}.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see RenderItem
+ * @see SnapshotBuffer
+ */
+public class RenderSnapshot {
+
+	/**
+	 * <code>System.nanoTime()</code> when the snapshot has been produced.
+	 */
+	public long time;
+
+	/**
+	 * The scene the snapshot was taken from (used to draw its HUD).
+	 */
+	public Scene scene;
+
+	public boolean hasCamera;
+	public String cameraName;
+	public double cameraX;
+	public double cameraY;
+	public double previousCameraX;
+	public double previousCameraY;
+	public Dimension viewport;
+
+	/**
+	 * all the items to be rendered, in the rendering order.
+	 */
+	public final List<RenderItem> items = new ArrayList<>();
+
+	/**
+	 * number of objects left out of the items because out of the camera view.
+	 */
+	public int culled;
+
+	/**
+	 * The tiles of the visible chunks of the map, only captured for the render
+	 * thread (else the map is drawn from its own layers).
+	 */
+	public final MapSnapshot map = new MapSnapshot();
+
+	private final List<RenderItem> pool = new ArrayList<>();
+	private final Dimension cameraViewport = new Dimension();
+
+	/**
+	 * Start a new capture, from the scene and its active camera.
+	 *
+	 * @param scene  the scene the items come from.
+	 * @param camera the active camera (can be null).
+	 */
+	public void begin(Scene scene, Camera camera) {
+		this.time = System.nanoTime();
+		this.scene = scene;
+		this.hasCamera = camera != null;
+		if (camera != null) {
+			this.cameraName = camera.name;
+			this.cameraX = camera.pos.x;
+			this.cameraY = camera.pos.y;
+			this.previousCameraX = camera.oldPos != null ? camera.oldPos.x : camera.pos.x;
+			this.previousCameraY = camera.oldPos != null ? camera.oldPos.y : camera.pos.y;
+			this.cameraViewport.setSize(camera.viewport);
+			this.viewport = cameraViewport;
+		} else {
+			this.cameraName = null;
+			this.cameraX = 0;
+			this.cameraY = 0;
+			this.previousCameraX = 0;
+			this.previousCameraY = 0;
+			this.viewport = null;
+		}
+		this.items.clear();
+		this.culled = 0;
+		this.map.clear();
+	}
+
+	/**
+	 * Add a copy of a GameObject to the items, from the pool.
+	 *
+	 * @param go         the GameObject to be copied.
+	 * @param layerFixed true if the object is in a layer fixed to the screen.
+	 * @param debug      true to copy the debug information too.
+	 * @return the item.
+	 */
+	public RenderItem add(GameObject go, boolean layerFixed, boolean debug) {
+		RenderItem item;
+		if (items.size() < pool.size()) {
+			item = pool.get(items.size());
+		} else {
+			item = new RenderItem();
+			pool.add(item);
+		}
+		item.set(go, layerFixed, debug);
+		items.add(item);
+		return item;
+	}
+
+	public double getCameraX(double alpha) {
+		return previousCameraX + (cameraX - previousCameraX) * alpha;
+	}
+
+	public double getCameraY(double alpha) {
+		return previousCameraY + (cameraY - previousCameraY) * alpha;
+	}
+}
@@ -0,0 +1,110 @@
+package core.gfx;
+
+import core.Game;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The RenderThread draws, at <code>config.fps</code>, the latest RenderSnapshot
+ * published by the game loop. Update and rendering can then run on two
+ * different cores.
+ * <p>
+ * As a snapshot is published at the end of an update step, the objects are
+ * drawn interpolated between this step and the previous one, according to the
+ * time elapsed since the publication.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see SnapshotBuffer
+ */
+@Slf4j
+public class RenderThread implements Runnable {
+
+	private final Game game;
+	private final Renderer renderer;
+	private final SnapshotBuffer buffer;
+	private final Counter realFPS;
+
+	private volatile boolean running = false;
+	private Thread thread;
+
+	/**
+	 * Create the render thread.
+	 *
+	 * @param game     the parent game.
+	 * @param renderer the Renderer to draw snapshots with.
+	 * @param buffer   the buffer where snapshots are published.
+	 * @param realFPS  the FPS counter to be updated.
+	 */
+	public RenderThread(Game game, Renderer renderer, SnapshotBuffer buffer, Counter realFPS) {
+		this.game = game;
+		this.renderer = renderer;
+		this.buffer = buffer;
+		this.realFPS = realFPS;
+	}
+
+	/**
+	 * Start rendering.
+	 */
+	public void start() {
+		running = true;
+		thread = new Thread(this, "render");
+		thread.setDaemon(true);
+		thread.start();
+		log.info("Render thread started");
+	}
+
+	/**
+	 * Stop rendering and wait for the current frame to be finished.
+	 */
+	public void stop() {
+		running = false;
+		if (thread != null) {
+			try {
+				thread.join(1000);
+			} catch (InterruptedException e) {
+				log.error("Unable to wait for the render thread end", e);
+				Thread.currentThread().interrupt();
+			}
+		}
+		log.info("Render thread stopped ({} snapshots dropped)", buffer.getDropped());
+	}
+
+	@Override
+	public void run() {
+		final long frameStep = 1_000_000_000L / game.config.fps;
+		final double updateStep = 1_000_000_000.0 / game.config.ups;
+
+		RenderSnapshot front = null;
+		long previousFrame = System.nanoTime();
+		long nextFrame = previousFrame;
+
+		while (running) {
+			long now = System.nanoTime();
+			RenderSnapshot latest = buffer.acquire();
+			if (latest != null) {
+				front = latest;
+			}
+			if (front != null) {
+				double alpha = Math.min(1.0, (now - front.time) / updateStep);
+				double elapsed = (now - previousFrame) / 1_000_000.0;
+				try {
+					renderer.draw(game, front, elapsed, alpha);
+				} catch (RuntimeException e) {
+					log.error("Unable to render the frame", e);
+				}
+				if (realFPS != null) {
+					realFPS.tick(elapsed);
+				}
+			}
+			previousFrame = now;
+			nextFrame += frameStep;
+			if (nextFrame < now) {
+				nextFrame = now + frameStep;
+			}
+			Game.waitUntil(nextFrame);
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+}
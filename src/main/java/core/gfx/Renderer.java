@@ -1,55 +1,34 @@
 package core.gfx;
 
-import java.awt.AlphaComposite;
 import java.awt.Color;
-import java.awt.Composite;
 import java.awt.Dimension;
-import java.awt.DisplayMode;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.GraphicsDevice;
-import java.awt.GraphicsEnvironment;
-import java.awt.Insets;
-import java.awt.Point;
-import java.awt.RadialGradientPaint;
 import java.awt.RenderingHints;
-import java.awt.event.ComponentAdapter;
-import java.awt.event.ComponentEvent;
-import java.awt.geom.Area;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import javax.imageio.ImageIO;
-import javax.swing.JFrame;
+import java.util.ServiceLoader;
 
 import core.Config;
 import core.Game;
-import core.io.InputHandler;
 import core.map.MapLevel;
 import core.map.MapObject;
 import core.map.MapRenderer;
+import core.object.BBox;
 import core.object.Camera;
 import core.object.GameObject;
 import core.object.Light;
+import core.object.Light.LightType;
 import core.object.TextObject;
-import core.resource.ResourceManager;
 import core.scene.Scene;
 import core.system.AbstractSystem;
+import core.system.FrameProfiler;
+import core.system.FrameProfiler.Phase;
+import core.system.FrameProfiler.PhaseStats;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -62,19 +41,52 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class Renderer extends AbstractSystem {
 
-	private static int screenShotIndex = 0;
+	// objects closer than this margin (in pixels) to the view are not culled.
+	private static final double CULLING_MARGIN = 32.0;
+
+	private int screenShotIndex = 0;
 	public BufferedImage screenBuffer;
-	private JFrame jf;
+	/**
+	 * The target all the frames are drawn through.
+	 */
+	private RenderBackend backend;
+	/**
+	 * The drawing commands of the objects, recorded then executed on the
+	 * backend once sorted.
+	 */
+	private CommandBuffer commandBuffer = new CommandBuffer();
+	private final BitmapFont.Cache bitmapFonts = new BitmapFont.Cache(BitmapFont.Cache.MAX_FONTS);
+	/**
+	 * Writes the screenshots and the recorded frames in background.
+	 */
+	private FrameCapture frameCapture;
+	// file name of the screenshot to be taken at the end of the next frame.
+	private volatile String screenshotRequest;
+	private long frames = 0;
 
-	private Map<Integer, Layer> layers = new HashMap<>();
-	private List<GameObject> renderingObjectPipeline = new ArrayList<>();
+	private RenderQueue renderQueue = new RenderQueue();
 	private MapRenderer mapRenderer;
+	private LightMap lightMap;
 	private boolean renderingPause = false;
 
 	private Counter realFPS;
 	private Counter realUPS;
 
-	private Graphics2D g;
+	/**
+	 * Interpolation factor between the 2 last update steps (1.0 means the current
+	 * positions are drawn).
+	 */
+	private double interpolation = 1.0;
+
+	/**
+	 * Snapshots exchanged with the optional render thread.
+	 */
+	private SnapshotBuffer snapshotBuffer = new SnapshotBuffer();
+	/**
+	 * Snapshot captured and drawn by the game loop without render thread.
+	 */
+	private RenderSnapshot snapshot = new RenderSnapshot();
+	private RenderThread renderThread;
 
 	/**
 	 * Create the Game renderer.
@@ -83,178 +95,362 @@ public class Renderer extends AbstractSystem {
 	 */
 	public Renderer(Game dg) {
 		super(dg);
-		jf = createWindow(dg);
-		screenBuffer = new BufferedImage(dg.config.screenWidth, dg.config.screenHeight, BufferedImage.TYPE_INT_ARGB);
-		g = screenBuffer.createGraphics();
+		backend = createBackend(dg);
+		backend.initialize(dg);
+		screenBuffer = backend.getScreenBuffer();
+		frameCapture = new FrameCapture(dg.config.screenWidth, dg.config.screenHeight, FrameCapture.DEFAULT_CAPACITY);
 	}
 
 	@Override
 	public int initialize(Game game) {
 		mapRenderer = new MapRenderer();
+		lightMap = new LightMap(game.config.screenWidth, game.config.screenHeight);
 		return 0;
 	}
 
 	/**
-	 * create a WXindow to host the game display according to core.Config object.
+	 * Find the RenderBackend named by <code>config.renderBackend</code>. Without
+	 * name, the window backend is used, or the offscreen one in headless mode.
 	 *
-	 * @param dg the core.Game object to access the configuration instance.
-	 * @return a JFrame initialized conforming to config attributes.
-	 */
-	private JFrame createWindow(Game dg) {
-		// log.info("Java Library Path: {}", System.getProperty("java.library.path"));
-		log.info(getMonitorSizes());
-
-		jf = new JFrame(dg.config.title);
-		jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		jf.setBackground(Color.BLACK);
-		Insets ins = jf.getInsets();
-		Dimension dim = new Dimension((int) (dg.config.screenWidth * dg.config.screenScale) - (ins.left + ins.right),
-				(int) (dg.config.screenHeight * dg.config.screenScale) - (ins.top + ins.bottom));
-		jf.setSize(dim);
-		jf.setPreferredSize(dim);
-		jf.pack();
-		InputHandler kih = dg.sysMan.getSystem(InputHandler.class);
-		jf.addKeyListener(kih);
-		jf.setIconImage(ResourceManager.getImage("/res/bgf-icon.png"));
-		jf.addComponentListener(new ComponentAdapter() {
-			public void componentResized(ComponentEvent componentEvent) {
-				float ratio = (float) dg.config.screenWidth / (float) dg.config.screenHeight;
-				float w = componentEvent.getComponent().getWidth();
-				Dimension dim = new Dimension((int) w, (int) (w / ratio));
-				jf.setSize(dim);
-				jf.setMaximumSize(dim);
-				jf.setMinimumSize(dim);
-				jf.setPreferredSize(dim);
-				jf.pack();
+	 * @param dg the parent game.
+	 * @return a new RenderBackend, not initialized.
+	 */
+	private RenderBackend createBackend(Game dg) {
+		String name = dg.config.renderBackend;
+		if (name.isEmpty() || (dg.config.headless && "window".equals(name))) {
+			name = dg.config.headless ? "offscreen" : "window";
+		}
+		if (dg.config.headless) {
+			log.info("Headless mode, rendering offscreen only");
+		}
+		for (RenderBackend rb : ServiceLoader.load(RenderBackend.class)) {
+			if (rb.getName().equals(name)) {
+				log.info("Render backend: {}", name);
+				return rb;
 			}
-		});
-
-		jf.setIgnoreRepaint(true);
-		jf.enableInputMethods(true);
-		jf.setLocationByPlatform(true);
-		jf.setLocationRelativeTo(null);
-		jf.setVisible(true);
-		BufferStrategy bs = jf.getBufferStrategy();
-		if (bs == null) {
-			jf.createBufferStrategy(4);
 		}
-		return jf;
+		log.error("Unknown render backend {}, rendering offscreen", name);
+		return new Java2DOffscreenBackend();
 	}
 
-	private String getMonitorSizes() {
-		GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-		GraphicsDevice[] gs = ge.getScreenDevices();
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < gs.length; i++) {
-			DisplayMode dm = gs[i].getDisplayMode();
-			sb.append(i + ", width: " + dm.getWidth() + ", height: " + dm.getHeight() + "\n");
-		}
-		return sb.toString();
+	/**
+	 * @return the RenderBackend the frames are drawn through.
+	 */
+	public RenderBackend getBackend() {
+		return backend;
 	}
 
 	/**
 	 * Render all objects !
 	 */
 	public void render(Game dg, double elapsed) {
-		if (!renderingPause) {
-			DebugInfo.debugFont = g.getFont().deriveFont(8.0f);
+		render(dg, elapsed, interpolation);
+	}
 
-			Camera camera = dg.sceneManager.getCurrent().getActiveCamera();
+	/**
+	 * Render all objects, at a position interpolated between the previous and
+	 * the current update steps.
+	 * <p>
+	 * If the render thread is active, the objects are only captured and published
+	 * to it.
+	 *
+	 * @param dg      the parent game.
+	 * @param elapsed elapsed time since previous frame.
+	 * @param alpha   the interpolation factor between the 2 last update steps.
+	 */
+	public void render(Game dg, double elapsed, double alpha) {
+		if (isRenderThreadActive()) {
+			publish(dg);
+		} else if (!renderingPause) {
+			draw(dg, capture(dg, snapshot, false), elapsed, alpha);
+		}
+	}
+
+	/**
+	 * Capture the rendering state of the visible objects of the current scene
+	 * into a RenderSnapshot, and the state of the HUD of the scene. Must be
+	 * called from the game loop thread.
+	 * <p>
+	 * The objects not fixed to the screen whose bounding box is out of the
+	 * camera view (plus a margin covering the interpolation) are culled.
+	 *
+	 * @param dg       the parent game.
+	 * @param snapshot the snapshot to capture into, reused.
+	 * @param tiles    true to copy the visible tiles of the map too, for the
+	 *                 render thread.
+	 * @return the snapshot.
+	 */
+	public RenderSnapshot capture(Game dg, RenderSnapshot snapshot, boolean tiles) {
+		Scene current = dg.sceneManager.getCurrent();
+		Camera camera = current != null ? current.getActiveCamera() : null;
+
+		double left = (camera != null ? camera.pos.x : 0) - CULLING_MARGIN;
+		double top = (camera != null ? camera.pos.y : 0) - CULLING_MARGIN;
+		double right = left + (camera != null ? camera.viewport.width : dg.config.screenWidth) + 2 * CULLING_MARGIN;
+		double bottom = top + (camera != null ? camera.viewport.height : dg.config.screenHeight) + 2 * CULLING_MARGIN;
+
+		boolean debug = dg.config.debug > 2;
+		snapshot.begin(current, camera);
+		for (RenderQueue.Entry e : renderQueue) {
+			GameObject go = e.object;
+			if (go.enable && go.displayed) {
+				if (e.fixed || isVisible(go, left, top, right, bottom)) {
+					snapshot.add(go, e.fixed, debug);
+					if (tiles && go instanceof MapLevel) {
+						captureTiles(dg, snapshot, (MapLevel) go);
+					}
+				} else {
+					snapshot.culled++;
+				}
+			}
+		}
+		if (current != null && current.isLoaded()) {
+			current.captureHUD(dg);
+		}
+		return snapshot;
+	}
 
-			// activate Anti-aliasing for image and text rendering.
-			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-			g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_GASP);
+	/**
+	 * Copy the tiles of the map covering the view at both the previous and the
+	 * current camera positions, the render thread drawing it between the two.
+	 */
+	private void captureTiles(Game dg, RenderSnapshot snapshot, MapLevel map) {
+		Dimension viewport = snapshot.viewport != null ? snapshot.viewport
+				: new Dimension(dg.config.screenWidth, dg.config.screenHeight);
+		snapshot.map.capture(map, Math.min(snapshot.previousCameraX, snapshot.cameraX),
+				Math.min(snapshot.previousCameraY, snapshot.cameraY),
+				Math.max(snapshot.previousCameraX, snapshot.cameraX) + viewport.width,
+				Math.max(snapshot.previousCameraY, snapshot.cameraY) + viewport.height);
+	}
 
-			// clear image
-			g.setColor(Color.BLACK);
-			g.fillRect(0, 0, dg.config.screenWidth, dg.config.screenHeight);
-			for (Layer layer : layers.values()) {
-				// if a camera is set, use it.
-				if (camera != null && !layer.fixed) {
-					g.translate(-camera.pos.x, -camera.pos.y);
+	/**
+	 * Test if the bounding box of a GameObject intersects the view. The MapLevel
+	 * and the ambient lights cover the whole view and are never culled.
+	 */
+	private boolean isVisible(GameObject go, double left, double top, double right, double bottom) {
+		if (go instanceof MapLevel || (go instanceof Light && ((Light) go).lightType == LightType.LIGHT_AMBIANT)) {
+			return true;
+		}
+		BBox bb = go.bbox != null ? go.bbox : new BBox(go);
+		return bb.pos.x <= right && bb.pos.x + bb.size.x >= left && bb.pos.y <= bottom
+				&& bb.pos.y + bb.size.y >= top;
+	}
+
+	/**
+	 * Capture the current scene and publish it to the render thread.
+	 *
+	 * @param dg the parent game.
+	 */
+	public void publish(Game dg) {
+		capture(dg, snapshotBuffer.getBack(), true);
+		snapshotBuffer.publish();
+	}
+
+	/**
+	 * Start the dedicated render thread: rendering is then no more done by the
+	 * game loop, which only publish snapshots.
+	 *
+	 * @param dg the parent game.
+	 */
+	public void startRenderThread(Game dg) {
+		if (renderThread == null) {
+			renderThread = new RenderThread(dg, this, snapshotBuffer, realFPS);
+			renderThread.start();
+		}
+	}
+
+	/**
+	 * @return true if a dedicated render thread is drawing the snapshots.
+	 */
+	public boolean isRenderThreadActive() {
+		return renderThread != null && renderThread.isRunning();
+	}
+
+	/**
+	 * Draw a RenderSnapshot to the screen.
+	 *
+	 * @param dg       the parent game.
+	 * @param snapshot the snapshot to be drawn.
+	 * @param elapsed  elapsed time since previous frame.
+	 * @param alpha    the interpolation factor between the 2 last update steps.
+	 */
+	public void draw(Game dg, RenderSnapshot snapshot, double elapsed, double alpha) {
+		if (renderingPause) {
+			return;
+		}
+		FrameProfiler profiler = dg.sysMan.getProfiler();
+		long start = profiler.start();
+
+		RenderBackend backend = this.backend;
+		Graphics2D hud = backend.beginFrame(dg);
+		// the backend switches its screenBuffer when the raster blits start.
+		screenBuffer = backend.getScreenBuffer();
+		DebugInfo.debugFont = backend.getFont().deriveFont(8.0f);
+
+		// activate Anti-aliasing for image and text rendering.
+		backend.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		backend.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+		// clear image
+		backend.setColor(Color.BLACK);
+		backend.fillRect(0, 0, dg.config.screenWidth, dg.config.screenHeight);
+
+		// record the drawing commands of all the items.
+		CommandBuffer g = commandBuffer;
+		g.begin(backend);
+
+		double camX = snapshot.getCameraX(alpha);
+		double camY = snapshot.getCameraY(alpha);
+		boolean translated = false;
+		// the lights are composited over the scene once the last one is added.
+		int lastLight = -1;
+		for (int i = 0; i < snapshot.items.size(); i++) {
+			if (snapshot.items.get(i).isLight()) {
+				lastLight = i;
+			}
+		}
+		lightMap.begin();
+		for (int i = 0; i < snapshot.items.size(); i++) {
+			RenderItem item = snapshot.items.get(i);
+			g.beginItem(item.layer, item.priority, getStateKey(item));
+			// if a camera is set, use it.
+			boolean useCamera = snapshot.hasCamera && !item.fixed;
+			if (useCamera != translated) {
+				if (useCamera) {
+					g.translate(-camX, -camY);
+				} else {
+					g.translate(camX, camY);
+				}
+				translated = useCamera;
+			}
+			renderItem(dg, elapsed, alpha, g, snapshot, camX, camY, item);
+			if (i == lastLight) {
+				if (translated) {
+					g.translate(camX, camY);
 				}
-				renderObjects(dg, elapsed, g, camera, layer);
-				// if a camera is set, use it.
-				if (camera != null && !layer.fixed) {
-					g.translate(camera.pos.x, camera.pos.y);
+				g.barrier();
+				lightMap.composite(g);
+				g.barrier();
+				if (translated) {
+					g.translate(-camX, -camY);
 				}
 			}
+		}
+		if (translated) {
+			g.translate(camX, camY);
+		}
+		g.execute(backend);
 
-			// draw HUD
-			Scene current = dg.sceneManager.getCurrent();
-			if(current.isLoaded()) {
-				current.drawHUD(dg, this, g);
-			}	
-			
-			// render image to real screen (applying scale factor)
-			renderToScreen(dg, realFPS, realUPS);
+		// draw HUD
+		Scene current = snapshot.scene;
+		if (current != null && current.isLoaded()) {
+			current.drawHUD(dg, this, hud);
 		}
-	}
 
-	private void renderObjects(Game dg, double elapsed, Graphics2D g, Camera camera, Layer layer) {
-		// draw all objects
-		for (GameObject go : layer.objects) {
-			if (go.enable && go.displayed) {
-				g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		profiler.stop(Phase.RENDER, start);
+
+		// render image to real screen (applying scale factor)
+		start = profiler.start();
+		if (backend.endFrame()) {
+			captureFrame(dg);
+			backend.present(dg, (og, width, height) -> drawOverlay(dg, og, width, height, snapshot));
+		}
+		profiler.stop(Phase.PRESENT, start);
 
-				if (go instanceof MapLevel) {
+		profiler.endFrame();
+		dg.sysMan.getStartupProfiler().firstFrame(dg.config.profile);
+	}
 
-					// if MapLevel, delegates rendering operation to the MapRenderer.
+	private void renderItem(Game dg, double elapsed, double alpha, DrawContext g, RenderSnapshot snapshot,
+			double camX, double camY, RenderItem item) {
+		if (item.source instanceof MapLevel) {
 
-					mapRenderer.render(dg, g, (MapLevel) go, camera, elapsed);
+			// if MapLevel, delegates rendering operation to the MapRenderer.
+			Dimension viewport = snapshot.viewport != null ? snapshot.viewport
+					: new Dimension(dg.config.screenWidth, dg.config.screenHeight);
+			mapRenderer.render(dg, g, (MapLevel) item.source, camX, camY, viewport, elapsed, snapshot.map);
 
-				} else if (go instanceof TextObject) {
-					TextObject to = (TextObject) go;
-					drawText(g, to);
+		} else if (item.isText()) {
+			drawText(g, item);
 
-				} else if (go instanceof Light) {
-					Light l = (Light) go;
-					drawLight(dg, g, l);
+		} else if (item.isLight()) {
+			// lights are accumulated in the LightMap, in screen coordinates.
+			boolean onScreen = !snapshot.hasCamera || item.fixed;
+			lightMap.add(item, onScreen ? 0 : -camX, onScreen ? 0 : -camY);
 
-				} else if (go instanceof GameObject) {
-					drawObject(dg, g, go);
-				}
+		} else {
+			drawObject(dg, g, item, alpha);
+		}
 
-				// if debug mode activated, draw debug info
-				if (dg.config.debug > 2) {
-					DebugInfo.displayCollisionTest(g, go);
-					DebugInfo.display(g, go);
-				}
-			}
+		// if debug mode activated, draw debug info
+		if (dg.config.debug > 2) {
+			BitmapFont.Cache fonts = dg.config.bitmapFont ? bitmapFonts : null;
+			DebugInfo.displayCollisionTest(g, item, fonts);
+			DebugInfo.display(g, item, fonts);
+		}
+	}
+
+	/**
+	 * The state an item mostly draws with: items sharing it, in their layer and
+	 * priority, are drawn one after the other when they do not overlap.
+	 */
+	private Object getStateKey(RenderItem item) {
+		if (item.isText()) {
+			return item.font;
+		} else if (item.isLight()) {
+			return lightMap;
+		} else if (item.sprite != null) {
+			return item.sprite.getAtlas();
 		}
+		return item.image;
 	}
 
 	/**
+	 * Draw a TextObject, from its BitmapFont when <code>config.bitmapFont</code>
+	 * is set and all its characters are in the glyph atlas.
+	 *
 	 * @param g
 	 * @param to
 	 */
-	private void drawText(Graphics2D g, TextObject to) {
+	private void drawText(DrawContext g, RenderItem to) {
 		if (to.font != null && to.text != null) {
 			Font b = g.getFont();
 			g.setFont(to.font);
 			FontMetrics fm = g.getFontMetrics(to.font);
-			to.size.x = fm.stringWidth(to.text);
-			to.size.y = fm.getHeight();
+			BitmapFont bf = null;
+			if (game.config.bitmapFont) {
+				bf = bitmapFonts.get(to.font, to.foregroundColor, to.outlinedColor, to.shadowColor, true);
+				if (!bf.canDisplay(to.text)) {
+					bf = null;
+				}
+			}
+			int width = bf != null ? bf.stringWidth(to.text) : fm.stringWidth(to.text);
+			int height = fm.getHeight();
 
-			double ox = to.pos.x;
-			double oy = to.pos.y;
+			double ox = to.x;
+			double oy = to.y;
 			switch (to.align) {
 				case CENTER:
-					ox = to.pos.x - (to.size.x / 2);
+					ox = to.x - (width / 2);
 					break;
 				case RIGHT:
-					ox = to.pos.x - to.size.x;
+					ox = to.x - width;
 					break;
 				case LEFT:
 				default:
-					ox = to.pos.x;
+					ox = to.x;
 					break;
 			}
 			int boxPadding = 4;
 
 			// draw Background rectangle.
-			drawBackgroundBox(g, to, fm, ox, oy, boxPadding);
+			drawBackgroundBox(g, to, fm, ox, oy, width, height, boxPadding);
+
+			if (bf != null) {
+				bf.draw(g, to.text, (int) ox, (int) oy);
+				g.setFont(b);
+				return;
+			}
 
 			if (to.shadowColor != null) {
 				g.setColor(to.shadowColor);
@@ -282,117 +478,87 @@ public class Renderer extends AbstractSystem {
 	 * @param fm
 	 * @param ox
 	 * @param oy
+	 * @param width
+	 * @param height
 	 * @param boxPadding
 	 */
-	public void drawBackgroundBox(Graphics2D g, TextObject to, FontMetrics fm, double ox, double oy, int boxPadding) {
+	public void drawBackgroundBox(DrawContext g, RenderItem to, FontMetrics fm, double ox, double oy, int width,
+			int height, int boxPadding) {
 		if (to.backgroundColor != null) {
 			g.setColor(to.shadowColor);
-			g.fillRect((int) (ox), (int) (oy - (fm.getMaxAscent())), (int) (to.size.x + boxPadding * 2),
-					(int) (to.size.y + boxPadding * 2));
+			g.fillRect((int) (ox), (int) (oy - (fm.getMaxAscent())), width + boxPadding * 2,
+					height + boxPadding * 2);
 			g.setColor(to.backgroundColor);
 			g.fillRect((int) (ox - boxPadding), (int) (oy - boxPadding - (fm.getMaxAscent())),
-					(int) (to.size.x + boxPadding * 2), (int) (to.size.y + boxPadding * 2));
+					width + boxPadding * 2, height + boxPadding * 2);
 		}
 		if (to.borderColor != null) {
 			g.setColor(to.borderColor);
 			g.drawRect((int) (ox - boxPadding), (int) (oy - boxPadding - (fm.getMaxAscent())),
-					(int) (to.size.x + boxPadding * 2), (int) (to.size.y + boxPadding * 2));
+					width + boxPadding * 2, height + boxPadding * 2);
 
 			g.setColor(to.shadowColor);
 			g.drawRect((int) (ox - boxPadding + 1), (int) (oy - boxPadding - (fm.getMaxAscent()) + 1),
-					(int) (to.size.x - 2 + boxPadding * 2), (int) (to.size.y - 2 + boxPadding * 2));
+					width - 2 + boxPadding * 2, height - 2 + boxPadding * 2);
 
 			g.setColor(Color.BLACK);
 			g.drawRect((int) (ox - (boxPadding + 1)), (int) (oy - (boxPadding + 1) - (fm.getMaxAscent())),
-					(int) (to.size.x + (boxPadding * 2) + 2), (int) (to.size.y + (boxPadding * 2) + 2));
+					width + (boxPadding * 2) + 2, height + (boxPadding * 2) + 2);
 		}
 	}
 
-	/**
-	 * rendering of a Light object.
-	 *
-	 * @param dg the core.Game containing the object.
-	 * @param g  the graphics API.
-	 * @param l  the Light to be rendered.
-	 */
-	private void drawLight(Game dg, Graphics2D g, Light l) {
-		Composite c = g.getComposite();
-		g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) l.intensity));
-		switch (l.lightType) {
-			case LIGHT_SPHERE:
-				drawLightSphere(g, l);
-				break;
-			case LIGHT_AMBIANT:
-				drawLightAmbient(dg, g, l);
-				break;
-			case LIGHT_CONE:
-				drawLightCone(dg, g, l);
-				break;
-			default:
-				break;
-		}
-
-		g.setComposite(c);
-	}
-
-	private void drawLightSphere(Graphics2D g, Light l) {
-		l.foregroundColor = brighten(l.foregroundColor, l.intensity);
-		l.colors = new Color[] { l.foregroundColor,
-				new Color(l.foregroundColor.getRed() / 2, l.foregroundColor.getGreen() / 2,
-						l.foregroundColor.getBlue() / 2, l.foregroundColor.getAlpha() / 2),
-				new Color(0.0f, 0.0f, 0.0f, 0.0f) };
-		l.rgp = new RadialGradientPaint(
-				new Point((int) (l.pos.x + (20 * Math.random() * l.glitterEffect)),
-						(int) (l.pos.y + (20 * Math.random() * l.glitterEffect))),
-				(int) (l.size.x * 2), l.dist, l.colors);
-		g.setPaint(l.rgp);
-		g.fill(new Ellipse2D.Double(l.pos.x, l.pos.y, l.size.x, l.size.y));
-	}
-
-	private void drawLightAmbient(Game dg, Graphics2D g, Light l) {
-		final Area ambientArea = new Area(new Rectangle2D.Double(dg.sceneManager.getCurrent().getActiveCamera().pos.x,
-				dg.sceneManager.getCurrent().getActiveCamera().pos.y, dg.config.screenWidth, dg.config.screenHeight));
-		g.setColor(l.foregroundColor);
-		g.fill(ambientArea);
-
-	}
-
-	/**
-	 * TODO implements the Conical Light drawing.
-	 */
-	private void drawLightCone(Game dg, Graphics2D g, Light l) {
-		log.debug("draw Light cone {}", l.name);
-	}
-
 	/**
 	 * Rendering of the object (will be delegated to another component in a next
 	 * version.
 	 *
-	 * @param dg the core.Game containing the object.
-	 * @param g  the graphics API.
-	 * @param go the GameObject to be rendered.
+	 * @param dg    the core.Game containing the object.
+	 * @param g     the graphics API.
+	 * @param go    the item to be rendered.
+	 * @param alpha the interpolation factor between the 2 last update steps.
 	 */
-	private void drawObject(Game dg, Graphics2D g, GameObject go) {
+	private void drawObject(Game dg, DrawContext g, RenderItem go, double alpha) {
+		int x = (int) go.getRenderX(alpha);
+		int y = (int) go.getRenderY(alpha);
 		switch (go.type) {
 			case RECTANGLE:
 				g.setColor(go.foregroundColor);
-				g.fillRect((int) go.pos.x, (int) go.pos.y, (int) go.size.x, (int) go.size.y);
+				g.fillRect(x, y, (int) go.width, (int) go.height);
 				break;
 			case CIRCLE:
 				g.setColor(go.foregroundColor);
-				g.fillOval((int) go.pos.x, (int) go.pos.y, (int) go.size.x, (int) go.size.y);
+				g.fillOval(x, y, (int) go.width, (int) go.height);
 				break;
 			case IMAGE:
-				if (go.direction < 0) {
-					g.drawImage(go.image, (int) (go.pos.x + go.size.x), (int) go.pos.y, (int) (-go.size.x),
-							(int) go.size.y, null);
+				if (go.sprite != null) {
+					drawSprite(g, go, x, y);
+				} else if (go.direction < 0) {
+					g.drawImage(go.image, (int) (x + go.width), y, (int) (-go.width), (int) go.height);
 				} else {
-					g.drawImage(go.image, (int) go.pos.x, (int) go.pos.y, (int) go.size.x, (int) go.size.y, null);
+					g.drawImage(go.image, x, y, (int) go.width, (int) go.height);
 				}
 				break;
 		}
 	}
 
+	/**
+	 * Draw the sprite of an item, using its mirrored copy from the atlas when
+	 * the item turns left.
+	 */
+	private void drawSprite(DrawContext g, RenderItem go, int x, int y) {
+		Sprite s = go.sprite;
+		int width = (int) go.width;
+		int height = (int) go.height;
+		if (go.direction < 0) {
+			if (s.getMirrored() != null) {
+				s = s.getMirrored();
+			} else {
+				x += width;
+				width = -width;
+			}
+		}
+		g.drawImage(s.getAtlas(), x, y, width, height, s.getX(), s.getY(), s.getWidth(), s.getHeight());
+	}
+
 	public void setRealFPS(Counter realFPS) {
 		this.realFPS = realFPS;
 	}
@@ -401,47 +567,93 @@ public class Renderer extends AbstractSystem {
 		this.realUPS = realUPS;
 	}
 
-	public class Layer {
-		int index;
-		boolean fixed;
-		List<GameObject> objects = new ArrayList<>();
+	/**
+	 * Set the interpolation factor used by the next rendering.
+	 *
+	 * @param alpha value between 0.0 (previous update step) and 1.0 (current
+	 *              one).
+	 */
+	public void setInterpolation(double alpha) {
+		this.interpolation = alpha;
 	}
 
-	private void renderToScreen(Game dg, Counter realFPS, Counter realUPS) {
-		BufferStrategy bs = jf.getBufferStrategy();
-		Camera camera = dg.sceneManager.getCurrent().getActiveCamera();
-		if (bs != null) {
-			Graphics2D g = (Graphics2D) bs.getDrawGraphics();
-			float sX = jf.getWidth() / dg.config.screenWidth;
-			float sY = jf.getHeight() / dg.config.screenHeight;
-
-			if (g != null) {
-				g.drawImage(screenBuffer, 0, 0, jf.getWidth(), jf.getHeight(), 0, 0, dg.config.screenWidth,
-						dg.config.screenHeight, Color.BLACK, null);
-
-				if (dg.config.debug > 0) {
+	/**
+	 * Draw the debug information over the presented frame.
+	 *
+	 * @param dg       the parent game.
+	 * @param g        the graphics API of the display.
+	 * @param width    width of the display.
+	 * @param height   height of the display.
+	 * @param snapshot the snapshot of the presented frame.
+	 */
+	private void drawOverlay(Game dg, Graphics2D g, int width, int height, RenderSnapshot snapshot) {
+		float sX = width / dg.config.screenWidth;
+		float sY = height / dg.config.screenHeight;
+		if (dg.config.debug > 0) {
+			g.setColor(Color.ORANGE);
+			if (snapshot.hasCamera) {
+				drawString(g, String.format(
+						"debug:%01d | FPS: %03f | UPS: %03f | cam:(%03.1f,%03.1f) | map draws: %d | drawn: %d culled: %d | %s",
+						dg.config.debug, realFPS.getCounter(), realUPS.getCounter(), snapshot.cameraX,
+						snapshot.cameraY, mapRenderer.getDrawCalls(), snapshot.items.size(), snapshot.culled,
+						backend.getInfo()), 4, height - 20);
+				drawString(g, String.format("commands: %d | state changes: %d (%d asked)",
+						commandBuffer.getDrawCalls(), commandBuffer.getStateChanges(),
+						commandBuffer.getRecordedStateChanges()), 4, height - 6);
+				if (dg.config.debug > 2) {
 					g.setColor(Color.ORANGE);
-					if (camera != null) {
-						g.drawString(String.format("debug:%01d | FPS: %03f | UPS: %03f | cam:(%03.1f,%03.1f)",
-								dg.config.debug, realFPS.getCounter(), realUPS.getCounter(), camera.pos.x,
-								camera.pos.y), 4, jf.getHeight() - 20);
-						if (dg.config.debug > 2) {
-							g.setColor(Color.ORANGE);
-							g.drawString("cam:" + camera.name, (int) (20 + sX), (int) (20 * sY));
-							g.drawRect((int) ((10) * sX), (int) ((10) * sY), (int) ((dg.config.screenWidth - 20) * sX),
-									(int) ((dg.config.screenHeight - 20) * sY));
-						}
-					}else{
-						g.drawString(String.format("debug:%01d | FPS: %03f | UPS: %03f",
-								dg.config.debug, realFPS.getCounter(), realUPS.getCounter()), 4, jf.getHeight() - 20);
-					}
+					drawString(g, "cam:" + snapshot.cameraName, (int) (20 + sX), (int) (20 * sY));
+					g.drawRect((int) ((10) * sX), (int) ((10) * sY), (int) ((dg.config.screenWidth - 20) * sX),
+							(int) ((dg.config.screenHeight - 20) * sY));
 				}
+			} else {
+				drawString(g, String.format("debug:%01d | FPS: %03f | UPS: %03f",
+						dg.config.debug, realFPS.getCounter(), realUPS.getCounter()), 4, height - 20);
+			}
+			if (dg.config.debug > 1) {
+				drawProfile(g, dg.sysMan.getProfiler(), width - 220, 40);
 			}
-			bs.show();
+		}
+	}
 
+	/**
+	 * Draw the per phase frame profile: p50/p95/p99/max in milliseconds.
+	 *
+	 * @param g        the graphics API.
+	 * @param profiler the FrameProfiler to read statistics from.
+	 * @param x        horizontal position of the panel.
+	 * @param y        vertical position of the panel.
+	 */
+	private void drawProfile(Graphics2D g, FrameProfiler profiler, int x, int y) {
+		Map<Phase, PhaseStats> stats = profiler.getStatistics();
+		int lineHeight = 14;
+		g.setColor(DebugInfo.backgroundColor);
+		g.fillRect(x - 4, y - lineHeight, 216, (stats.size() + 1) * lineHeight + 6);
+		g.setColor(Color.ORANGE);
+		drawString(g, String.format("%-16s %5s %5s %5s %5s", "ms", "p50", "p95", "p99", "max"), x, y);
+		for (PhaseStats ps : stats.values()) {
+			y += lineHeight;
+			drawString(g, String.format("%-16s %5.2f %5.2f %5.2f %5.2f", ps.phase, ps.p50, ps.p95, ps.p99, ps.max), x,
+					y);
 		}
 	}
 
+	/**
+	 * Draw a text with the current font and color of <code>g</code>, from a
+	 * BitmapFont when <code>config.bitmapFont</code> is set.
+	 */
+	private void drawString(Graphics2D g, String text, int x, int y) {
+		if (game.config.bitmapFont) {
+			BitmapFont bf = bitmapFonts.get(g.getFont(), g.getColor(), null, null,
+					BitmapFont.isAntialiased(g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING)));
+			if (bf.canDisplay(text)) {
+				bf.draw(g, text, x, y);
+				return;
+			}
+		}
+		g.drawString(text, x, y);
+	}
+
 	/**
 	 * draw an outline text at (x,y) with textColor and a borderColor.
 	 *
@@ -453,6 +665,14 @@ public class Renderer extends AbstractSystem {
 	 * @param borderColor
 	 */
 	public void drawOutLinedText(Graphics2D g, String text, int x, int y, Color textColor, Color borderColor) {
+		if (game.config.bitmapFont) {
+			BitmapFont bf = bitmapFonts.get(g.getFont(), textColor, borderColor, null,
+					BitmapFont.isAntialiased(g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING)));
+			if (bf.canDisplay(text)) {
+				bf.draw(g, text, x, y);
+				return;
+			}
+		}
 		g.setColor(borderColor);
 		g.drawString(text, x - 1, y);
 		g.drawString(text, x, y - 1);
@@ -480,38 +700,19 @@ public class Renderer extends AbstractSystem {
 		drawOutLinedText(g, text, x, y, textColor, borderColor);
 	}
 
+	/**
+	 * Add the GameObject and its children to the RenderQueue, at their place
+	 * according to their layer and priority.
+	 *
+	 * @param go the GameObject to be rendered.
+	 */
 	public void add(GameObject go) {
-		disptachToLayer(go);
+		renderQueue.add(go);
 		if (!go.child.isEmpty()) {
 			putAll(go.child);
 		}
 	}
 
-	/**
-	 * Dispatch the GameObject to the right layer and sort its rendering pipeline.
-	 * 
-	 * @param go
-	 */
-	private void disptachToLayer(GameObject go) {
-		Layer l;
-		if (layers.get(go.layer) == null) {
-			l = new Layer();
-			l.index = go.layer;
-			if (go.fixed) {
-				l.fixed = true;
-			}
-			;
-			layers.put(go.layer, l);
-		}
-		l = layers.get(go.layer);
-		l.objects.add(go);
-		Collections.sort(l.objects, new Comparator<GameObject>() {
-			public int compare(GameObject g1, GameObject g2) {
-				return g1.layer < g2.layer ? -1 : (g1.priority < g2.priority ? -1 : 1);
-			}
-		});
-	}
-
 	/**
 	 * Add all object from collection to the rendering pipeline.
 	 * 
@@ -534,38 +735,65 @@ public class Renderer extends AbstractSystem {
 		}
 	}
 
+	/**
+	 * Remove the GameObject and its children from the RenderQueue.
+	 *
+	 * @param go the GameObject to be removed.
+	 */
 	public void remove(GameObject go) {
-		renderingObjectPipeline.remove(go);
+		renderQueue.remove(go);
+		if (!go.child.isEmpty()) {
+			for (GameObject child : go.child.values()) {
+				remove(child);
+			}
+		}
 	}
 
 	public void removeAll(List<GameObject> toBeRemoved) {
-		renderingObjectPipeline.removeAll(toBeRemoved);
+		for (GameObject go : toBeRemoved) {
+			remove(go);
+		}
 	}
 
 	/**
-	 * Save a screenshot of the current buffer.
+	 * Save a screenshot of the next rendered frame. The frame is copied at the
+	 * end of its rendering and written to a PNG file in background.
 	 */
 	public void saveScreenshot(Config config) {
 		final String path = this.getClass().getResource("/").getFile();
-		Path targetDir = Paths.get(path + File.separator);
 		String filename = path + File.separator + config.title + "-screenshot-" + java.lang.System.nanoTime() + "-"
 				+ (screenShotIndex++) + ".png";
+		screenshotRequest = filename;
+		log.info("Screenshot requested to {}", filename);
+	}
 
-		try {
-			if (!Files.exists(targetDir)) {
-				Files.createDirectory(targetDir);
+	/**
+	 * Capture the frame just rendered if a screenshot has been requested, and
+	 * every <code>config.captureEvery</code> frame when a frame recording is
+	 * set with <code>config.capturePath</code>: to a PNG sequence, or to a
+	 * single raw file if the path ends with <code>.raw</code>.
+	 *
+	 * @param dg the parent game.
+	 */
+	private void captureFrame(Game dg) {
+		String screenshot = screenshotRequest;
+		if (screenshot != null) {
+			screenshotRequest = null;
+			if (!frameCapture.capture(backend, screenshot)) {
+				log.warn("Screenshot {} dropped, the frame capture is busy", screenshot);
 			}
-			File out = new File(filename);
-			renderingPause = true;
-			ImageIO.write(screenBuffer, "PNG", out);
-			renderingPause = false;
-		} catch (IOException e) {
-			log.error("Unable to write screenshot to {}:{}", filename, e.getMessage());
 		}
+		String path = dg.config.capturePath;
+		if (!path.isEmpty() && frames % dg.config.captureEvery == 0) {
+			frameCapture.capture(backend, path.endsWith(".raw") ? path : String.format("%s-%06d.png", path, frames));
+		}
+		frames++;
 	}
 
 	public void renderMapObject(MapObject mo, float x, float y) {
-		g.drawImage(mo.imageBuffer, (int) x, (int) y, null);
+		if (mo.sprite != null) {
+			mo.sprite.draw(backend, (int) x, (int) y);
+		}
 	}
 
 	@Override
@@ -575,7 +803,15 @@ public class Renderer extends AbstractSystem {
 
 	@Override
 	public void dispose() {
-
+		if (renderThread != null) {
+			renderThread.stop();
+			renderThread = null;
+		}
+		if (lightMap != null) {
+			lightMap.dispose();
+		}
+		frameCapture.close();
+		backend.dispose();
 	}
 
 	/**
@@ -586,15 +822,7 @@ public class Renderer extends AbstractSystem {
 	 * @return Lighter color.
 	 */
 	public Color brighten(Color color, double fraction) {
-
-		int red = (int) Math.round(Math.min(255, color.getRed() + 255 * fraction));
-		int green = (int) Math.round(Math.min(255, color.getGreen() + 255 * fraction));
-		int blue = (int) Math.round(Math.min(255, color.getBlue() + 255 * fraction));
-
-		int alpha = color.getAlpha();
-
-		return new Color(red, green, blue, alpha);
-
+		return LightMap.brighten(color, fraction);
 	}
 
 	/**
@@ -611,17 +839,20 @@ public class Renderer extends AbstractSystem {
 	 * Clear all rendering pipeline and objects.
 	 */
 	public void clear() {
-		layers.clear();
-		renderingObjectPipeline.clear();
+		renderQueue.clear();
 	}
 
 	public void drawImage(BufferedImage image, int x, int y, int width, int height) {
-		g.drawImage(image, x, y, width, height, null);
+		backend.drawImage(image, x, y, width, height);
 	}
 
 	public void drawImage(BufferedImage image, int x, int y) {
-		g.drawImage(image, x, y, null);
+		backend.drawImage(image, x, y);
+
+	}
 
+	public void drawSprite(Sprite sprite, int x, int y) {
+		sprite.draw(backend, x, y);
 	}
 
 }
@@ -0,0 +1,89 @@
+package core.gfx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SnapshotBuffer is the triple buffer exchanging RenderSnapshot between
+ * the game loop and the render thread. It owns three snapshots, reused from
+ * one update step to the next:
+ * <ul>
+ * <li>the <em>back</em> snapshot is captured by the game loop at the end of an
+ * update step,</li>
+ * <li>the <em>ready</em> snapshot is the latest published one,</li>
+ * <li>the <em>front</em> snapshot is the one kept and drawn by the render
+ * thread.</li>
+ * </ul>
+ * Publishing swaps the back and the ready snapshots, acquiring swaps the ready
+ * and the front ones: each side only ever changes the snapshot it owns, and
+ * neither waits for the other. A snapshot not acquired before the next one is
+ * published is simply dropped, and captured again.
+ *
+ * <pre>
+ * // game loop
+ * renderer.capture(game, buffer.getBack(), true);
+ * buffer.publish();
+ * // render thread
+ * RenderSnapshot latest = buffer.acquire();
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ */
+public class SnapshotBuffer {
+
+	// set in ready when its snapshot has not been acquired yet.
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+
+	private final RenderSnapshot[] snapshots = { new RenderSnapshot(), new RenderSnapshot(),
+			new RenderSnapshot() };
+	private final AtomicInteger ready = new AtomicInteger(2);
+	private final AtomicLong dropped = new AtomicLong();
+
+	// only used by the game loop.
+	private int back = 0;
+	// only used by the render thread.
+	private int front = 1;
+
+	/**
+	 * @return the snapshot to be captured by the game loop, before
+	 *         {@link #publish()}.
+	 */
+	public RenderSnapshot getBack() {
+		return snapshots[back];
+	}
+
+	/**
+	 * Publish the back snapshot, replacing the not-yet acquired one if any.
+	 */
+	public void publish() {
+		int previous = ready.getAndSet(back | FRESH);
+		if ((previous & FRESH) != 0) {
+			dropped.incrementAndGet();
+		}
+		back = previous & INDEX;
+	}
+
+	/**
+	 * Retrieve the latest published snapshot. It belongs to the render thread
+	 * until the next call returning a snapshot.
+	 *
+	 * @return the latest snapshot, or null if nothing new has been published
+	 *         since the previous call.
+	 */
+	public RenderSnapshot acquire() {
+		if ((ready.get() & FRESH) == 0) {
+			return null;
+		}
+		front = ready.getAndSet(front) & INDEX;
+		return snapshots[front];
+	}
+
+	/**
+	 * @return the number of snapshots dropped because the render thread was too
+	 *         slow.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+}
@@ -0,0 +1,105 @@
+package core.gfx;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A Sprite is an area of a page of a {@link SpriteAtlas}: drawing it draws
+ * this area of the page, so that all the sprites of a level share a few large
+ * images instead of one small image each.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see SpriteAtlas
+ */
+public class Sprite {
+
+	private final BufferedImage atlas;
+	private final int x;
+	private final int y;
+	private final int width;
+	private final int height;
+
+	// the horizontally mirrored copy of this sprite, if packed.
+	Sprite mirrored;
+
+	Sprite(BufferedImage atlas, int x, int y, int width, int height) {
+		this.atlas = atlas;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * @return the atlas page holding the sprite.
+	 */
+	public BufferedImage getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * @return horizontal position of the sprite in its page.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @return vertical position of the sprite in its page.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the horizontally mirrored copy of this sprite, or null if it has
+	 *         not been packed.
+	 */
+	public Sprite getMirrored() {
+		return mirrored;
+	}
+
+	/**
+	 * Draw the sprite at its own size.
+	 *
+	 * @param g the DrawContext to draw through.
+	 * @param x horizontal position.
+	 * @param y vertical position.
+	 */
+	public void draw(DrawContext g, int x, int y) {
+		g.drawImage(atlas, x, y, width, height, this.x, this.y, width, height);
+	}
+
+	/**
+	 * Draw the sprite at its own size, through a Graphics2D (e.g. the HUD).
+	 *
+	 * @param g the Graphics2D API to draw with.
+	 * @param x horizontal position.
+	 * @param y vertical position.
+	 */
+	public void draw(Graphics2D g, int x, int y) {
+		draw(g, x, y, width, height);
+	}
+
+	/**
+	 * Draw the sprite scaled to a new size, through a Graphics2D.
+	 *
+	 * @param g      the Graphics2D API to draw with.
+	 * @param x      horizontal position.
+	 * @param y      vertical position.
+	 * @param width  width of the drawn sprite.
+	 * @param height height of the drawn sprite.
+	 */
+	public void draw(Graphics2D g, int x, int y, int width, int height) {
+		g.drawImage(atlas, x, y, x + width, y + height, this.x, this.y, this.x + this.width, this.y + this.height,
+				null);
+	}
+}
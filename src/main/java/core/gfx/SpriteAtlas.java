@@ -0,0 +1,193 @@
+package core.gfx;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SpriteAtlas packs the sprites of a level (tiles, animation frames, HUD
+ * icons, mirrored variants) into a few large pages, at load time. Each sprite
+ * is then drawn as an area of its page, which keeps the number of images and
+ * of image switches low, and avoids hundreds of small images in the heap.
+ * <p>
+ * Sprites are placed as they are added, on horizontal shelves: a sprite goes
+ * on the shelf of the current page wasting the least height, or on a new
+ * shelf, or on a new page. A sprite bigger than a page gets a page of its own.
+ * An area of a source image already added returns the same Sprite.
+ *
+ * <pre>
+ * SpriteAtlas atlas = new SpriteAtlas(SpriteAtlas.DEFAULT_PAGE_SIZE);
+ * Sprite coin = atlas.add(tileset, 10 * 16, 16, 16, 16);
+ * coin.draw(g, x, y);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Sprite
+ */
+public class SpriteAtlas {
+
+	/**
+	 * Default width and height of a page.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 256;
+
+	// empty pixels around each sprite, so that a scaled sprite does not bleed.
+	private static final int PADDING = 1;
+
+	/**
+	 * A row of sprites of a page, all at most <code>height</code> high.
+	 */
+	private static class Shelf {
+		final int y;
+		final int height;
+		int x = 0;
+
+		Shelf(int y, int height) {
+			this.y = y;
+			this.height = height;
+		}
+	}
+
+	private final int pageSize;
+	private final List<BufferedImage> pages = new ArrayList<>();
+	private final List<Shelf> shelves = new ArrayList<>();
+	private BufferedImage page;
+	private int pageHeight;
+
+	// sprites already packed, by source image and area.
+	private final Map<BufferedImage, Map<Long, Sprite>> sprites = new IdentityHashMap<>();
+	private int spriteCount;
+
+	/**
+	 * Create an empty atlas.
+	 *
+	 * @param pageSize width and height of the pages.
+	 */
+	public SpriteAtlas(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Pack an area of an image.
+	 *
+	 * @param source the source image.
+	 * @param x      horizontal position of the area.
+	 * @param y      vertical position of the area.
+	 * @param width  width of the area.
+	 * @param height height of the area.
+	 * @return the sprite drawing this area.
+	 */
+	public Sprite add(BufferedImage source, int x, int y, int width, int height) {
+		Map<Long, Sprite> areas = sprites.computeIfAbsent(source, s -> new HashMap<>());
+		long key = ((long) x << 48) | ((long) y << 32) | ((long) width << 16) | height;
+		Sprite sprite = areas.get(key);
+		if (sprite == null) {
+			sprite = pack(source, x, y, width, height, false);
+			areas.put(key, sprite);
+		}
+		return sprite;
+	}
+
+	/**
+	 * Pack an area of an image and its horizontally mirrored copy, available
+	 * through {@link Sprite#getMirrored()}.
+	 *
+	 * @param source the source image.
+	 * @param x      horizontal position of the area.
+	 * @param y      vertical position of the area.
+	 * @param width  width of the area.
+	 * @param height height of the area.
+	 * @return the sprite drawing this area.
+	 */
+	public Sprite addMirrored(BufferedImage source, int x, int y, int width, int height) {
+		Sprite sprite = add(source, x, y, width, height);
+		if (sprite.mirrored == null) {
+			sprite.mirrored = pack(source, x, y, width, height, true);
+			sprite.mirrored.mirrored = sprite;
+		}
+		return sprite;
+	}
+
+	private Sprite pack(BufferedImage source, int x, int y, int width, int height, boolean mirror) {
+		int w = width + PADDING * 2;
+		int h = height + PADDING * 2;
+		BufferedImage target;
+		int px;
+		int py;
+		if (w > pageSize || h > pageSize) {
+			target = newPage(w, h);
+			px = 0;
+			py = 0;
+		} else {
+			Shelf shelf = findShelf(w, h);
+			if (shelf == null) {
+				if (page == null || pageHeight + h > pageSize) {
+					page = newPage(pageSize, pageSize);
+					shelves.clear();
+					pageHeight = 0;
+				}
+				shelf = new Shelf(pageHeight, h);
+				shelves.add(shelf);
+				pageHeight += h;
+			}
+			target = page;
+			px = shelf.x;
+			py = shelf.y;
+			shelf.x += w;
+		}
+		px += PADDING;
+		py += PADDING;
+
+		Graphics2D g = target.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		if (mirror) {
+			g.drawImage(source, px + width, py, px, py + height, x, y, x + width, y + height, null);
+		} else {
+			g.drawImage(source, px, py, px + width, py + height, x, y, x + width, y + height, null);
+		}
+		g.dispose();
+		spriteCount++;
+		return new Sprite(target, px, py, width, height);
+	}
+
+	/**
+	 * Find the shelf of the current page having room for a sprite, wasting the
+	 * least height.
+	 */
+	private Shelf findShelf(int width, int height) {
+		Shelf best = null;
+		for (Shelf shelf : shelves) {
+			if (shelf.height >= height && shelf.x + width <= pageSize
+					&& (best == null || shelf.height < best.height)) {
+				best = shelf;
+			}
+		}
+		return best;
+	}
+
+	private BufferedImage newPage(int width, int height) {
+		BufferedImage newPage = CompatibleImage.create(width, height, Transparency.TRANSLUCENT);
+		pages.add(newPage);
+		return newPage;
+	}
+
+	/**
+	 * @return the pages of the atlas.
+	 */
+	public List<BufferedImage> getPages() {
+		return pages;
+	}
+
+	/**
+	 * @return the number of sprites packed, mirrored copies included.
+	 */
+	public int getSpriteCount() {
+		return spriteCount;
+	}
+}
@@ -2,6 +2,7 @@ package core.io;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,6 +35,8 @@ public class InputHandler extends AbstractSystem implements KeyListener {
     public boolean alt;
     // flag to represent state f the ALTGr key
     public boolean altGr;
+    // extended modifiers of the last key event (InputEvent.*_DOWN_MASK)
+    public int modifiers;
 
     /**
      * The previous state of each keys.
@@ -50,6 +53,16 @@ public class InputHandler extends AbstractSystem implements KeyListener {
      */
     public Game game;
 
+    /**
+     * An optional source of key events not coming from the window.
+     */
+    private InputSource inputSource;
+
+    /**
+     * An optional recorder of the key state changes.
+     */
+    private InputRecorder recorder;
+
     /**
      * Create the InputHandler system.
      *
@@ -82,7 +95,14 @@ public class InputHandler extends AbstractSystem implements KeyListener {
 
     @Override
     public void dispose() {
-
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                log.error("Unable to close the input recording", e);
+            }
+            recorder = null;
+        }
     }
 
     /**
@@ -99,11 +119,15 @@ public class InputHandler extends AbstractSystem implements KeyListener {
     public void keyPressed(KeyEvent e) {
         this.previousKeys[e.getKeyCode()] = this.keys[e.getKeyCode()];
         this.keys[e.getKeyCode()] = true;
+        if (recorder != null) {
+            recorder.touch(e.getKeyCode());
+        }
 
-        control = e.getModifiersEx() == KeyEvent.CTRL_DOWN_MASK;
-        shift = e.getModifiersEx() == KeyEvent.SHIFT_DOWN_MASK;
-        alt = e.getModifiersEx() == KeyEvent.ALT_DOWN_MASK;
-        altGr = e.getModifiersEx() == KeyEvent.ALT_GRAPH_DOWN_MASK;
+        modifiers = e.getModifiersEx();
+        control = modifiers == KeyEvent.CTRL_DOWN_MASK;
+        shift = modifiers == KeyEvent.SHIFT_DOWN_MASK;
+        alt = modifiers == KeyEvent.ALT_DOWN_MASK;
+        altGr = modifiers == KeyEvent.ALT_GRAPH_DOWN_MASK;
 
         for (KeyListener kl : listeners) {
             kl.keyPressed(e);
@@ -119,11 +143,15 @@ public class InputHandler extends AbstractSystem implements KeyListener {
     public void keyReleased(KeyEvent e) {
         this.previousKeys[e.getKeyCode()] = this.keys[e.getKeyCode()];
         this.keys[e.getKeyCode()] = false;
+        if (recorder != null) {
+            recorder.touch(e.getKeyCode());
+        }
 
-        control = e.getModifiersEx() == KeyEvent.CTRL_DOWN_MASK;
-        shift = e.getModifiersEx() == KeyEvent.SHIFT_DOWN_MASK;
-        alt = e.getModifiersEx() == KeyEvent.ALT_DOWN_MASK;
-        altGr = e.getModifiersEx() == KeyEvent.ALT_GRAPH_DOWN_MASK;
+        modifiers = e.getModifiersEx();
+        control = modifiers == KeyEvent.CTRL_DOWN_MASK;
+        shift = modifiers == KeyEvent.SHIFT_DOWN_MASK;
+        alt = modifiers == KeyEvent.ALT_DOWN_MASK;
+        altGr = modifiers == KeyEvent.ALT_GRAPH_DOWN_MASK;
 
         for (KeyListener kl : listeners) {
             kl.keyReleased(e);
@@ -131,6 +159,43 @@ public class InputHandler extends AbstractSystem implements KeyListener {
         log.debug("key {}:{} released", e.getKeyCode(), e.getKeyChar());
     }
 
+    /**
+     * Set the source of synthetic key events polled at each update step.
+     *
+     * @param inputSource the InputSource to be polled (null to remove it).
+     */
+    public void setInputSource(InputSource inputSource) {
+        this.inputSource = inputSource;
+    }
+
+    public InputSource getInputSource() {
+        return inputSource;
+    }
+
+    /**
+     * Set the recorder of the key state changes.
+     *
+     * @param recorder the InputRecorder to be used (null to stop recording).
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Poll the InputSource, if any, for the update step <code>tick</code>, and
+     * record the resulting key state changes if a recorder is set.
+     *
+     * @param tick the index of the current update step.
+     */
+    public void poll(long tick) {
+        if (inputSource != null) {
+            inputSource.poll(this, tick);
+        }
+        if (recorder != null) {
+            recorder.record(tick, this);
+        }
+    }
+
     /**
      * Add a game key listener to the system.
      *
@@ -0,0 +1,134 @@
+package core.io;
+
+import java.awt.event.InputEvent;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The InputRecorder writes to a compact binary log every key state change, as
+ * seen by the game loop at each update step (tick), with the modifier flags.
+ * <p>
+ * Log format (big endian, <code>DataOutputStream</code>):
+ * <ul>
+ * <li>header: <code>int</code> magic, <code>short</code> version,
+ * <code>int</code> UPS, <code>long</code> random seed,</li>
+ * <li>one record per key change: <code>int</code> tick, <code>short</code> key
+ * code, <code>byte</code> flags (pressed, ctrl, shift, alt, altGr),</li>
+ * <li>end: <code>int</code> -1, <code>long</code> number of recorded
+ * ticks.</li>
+ * </ul>
+ *
+ * @author Frédéric Delorme <frederic.delorme@gmail.com>
+ * @see ReplayInputSource
+ */
+@Slf4j
+public class InputRecorder implements Closeable {
+
+    public static final int MAGIC = 0x42474952;
+    public static final short VERSION = 1;
+    public static final int END = -1;
+
+    public static final int FLAG_PRESSED = 0x01;
+    public static final int FLAG_CTRL = 0x02;
+    public static final int FLAG_SHIFT = 0x04;
+    public static final int FLAG_ALT = 0x08;
+    public static final int FLAG_ALTGR = 0x10;
+
+    private final DataOutputStream out;
+    private final Path path;
+
+    /**
+     * Key codes changed since the previous tick (filled from the AWT thread).
+     */
+    private final Queue<Integer> touched = new ConcurrentLinkedQueue<>();
+    private final boolean[] recorded = new boolean[65536];
+    private long lastTick = -1;
+    private long records = 0;
+
+    /**
+     * Create a new input log.
+     *
+     * @param filename the path of the log file.
+     * @param ups      the update rate of the recorded session.
+     * @param seed     the seed of the game random generator.
+     * @throws IOException if the file can't be created.
+     */
+    public InputRecorder(String filename, int ups, long seed) throws IOException {
+        this.path = Paths.get(filename);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(ups);
+        out.writeLong(seed);
+        log.info("Record inputs to {}", path);
+    }
+
+    /**
+     * Notify a key event; the new key state is recorded at the next tick.
+     *
+     * @param keyCode the changed key.
+     */
+    public void touch(int keyCode) {
+        touched.add(keyCode);
+    }
+
+    /**
+     * Record the key changes seen at update step <code>tick</code>.
+     *
+     * @param tick    the current update step.
+     * @param handler the InputHandler to read key states from.
+     */
+    public void record(long tick, InputHandler handler) {
+        lastTick = tick;
+        Integer keyCode;
+        while ((keyCode = touched.poll()) != null) {
+            boolean pressed = handler.keys[keyCode];
+            if (pressed != recorded[keyCode]) {
+                recorded[keyCode] = pressed;
+                write(tick, keyCode, flags(pressed, handler));
+            }
+        }
+    }
+
+    private void write(long tick, int keyCode, int flags) {
+        try {
+            out.writeInt((int) tick);
+            out.writeShort(keyCode);
+            out.writeByte(flags);
+            records++;
+        } catch (IOException e) {
+            log.error("Unable to record input to {}", path, e);
+        }
+    }
+
+    private static int flags(boolean pressed, InputHandler handler) {
+        int m = handler.modifiers;
+        return (pressed ? FLAG_PRESSED : 0) | ((m & InputEvent.CTRL_DOWN_MASK) != 0 ? FLAG_CTRL : 0)
+                | ((m & InputEvent.SHIFT_DOWN_MASK) != 0 ? FLAG_SHIFT : 0)
+                | ((m & InputEvent.ALT_DOWN_MASK) != 0 ? FLAG_ALT : 0)
+                | ((m & InputEvent.ALT_GRAPH_DOWN_MASK) != 0 ? FLAG_ALTGR : 0);
+    }
+
+    /**
+     * Write the end of the log and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeInt(END);
+        out.writeLong(lastTick + 1);
+        out.close();
+        log.info("{} key changes over {} ticks recorded to {}", records, lastTick + 1, path);
+    }
+}
@@ -0,0 +1,24 @@
+package core.io;
+
+/**
+ * An InputSource feeds the InputHandler with key events that do not come from
+ * the game window: scripted inputs for a headless simulation, recorded inputs,
+ * etc.
+ * <p>
+ * The source is polled by the game loop once per update step, before the
+ * scenes process their inputs.
+ *
+ * @author Frédéric Delorme <frederic.delorme@gmail.com>
+ * @see InputHandler#setInputSource(InputSource)
+ */
+public interface InputSource {
+
+    /**
+     * Fire to the <code>handler</code> all the key events of the update step
+     * <code>tick</code>.
+     *
+     * @param handler the InputHandler to be fed.
+     * @param tick    the index of the current update step.
+     */
+    void poll(InputHandler handler, long tick);
+}
@@ -0,0 +1,126 @@
+package core.io;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An InputSource replaying, tick by tick, an input log written by the
+ * InputRecorder. Replayed with a fixed update step, the same session produces
+ * the same workload after each engine change.
+ *
+ * @author Frédéric Delorme <frederic.delorme@gmail.com>
+ * @see InputRecorder
+ */
+@Slf4j
+public class ReplayInputSource implements InputSource {
+
+    private int ups;
+    private long seed;
+    private long length;
+
+    private int size = 0;
+    private int[] ticks = new int[256];
+    private short[] keyCodes = new short[256];
+    private byte[] flags = new byte[256];
+
+    private int cursor = 0;
+
+    /**
+     * Load an input log.
+     *
+     * @param filename the path of the log file.
+     * @throws IOException if the file can't be read or is not an input log.
+     */
+    public ReplayInputSource(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(Paths.get(filename))))) {
+            if (in.readInt() != InputRecorder.MAGIC) {
+                throw new IOException(filename + " is not an input log");
+            }
+            short version = in.readShort();
+            if (version != InputRecorder.VERSION) {
+                throw new IOException(String.format("input log version %d is not supported", version));
+            }
+            ups = in.readInt();
+            seed = in.readLong();
+            int tick;
+            while ((tick = in.readInt()) != InputRecorder.END) {
+                if (size == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, size * 2);
+                    keyCodes = Arrays.copyOf(keyCodes, size * 2);
+                    flags = Arrays.copyOf(flags, size * 2);
+                }
+                ticks[size] = tick;
+                keyCodes[size] = in.readShort();
+                flags[size] = in.readByte();
+                size++;
+            }
+            length = in.readLong();
+        }
+        log.info("Replay {} key changes over {} ticks from {}", size, length, filename);
+    }
+
+    @Override
+    public void poll(InputHandler handler, long tick) {
+        while (cursor < size && ticks[cursor] <= tick) {
+            int f = flags[cursor];
+            int keyCode = keyCodes[cursor] & 0xFFFF;
+            int id = (f & InputRecorder.FLAG_PRESSED) != 0 ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED;
+            SyntheticInputSource.fire(handler, id, keyCode, modifiers(f));
+            cursor++;
+        }
+    }
+
+    private static int modifiers(int f) {
+        int modifiers = 0;
+        if ((f & InputRecorder.FLAG_CTRL) != 0) {
+            modifiers |= InputEvent.CTRL_DOWN_MASK;
+        }
+        if ((f & InputRecorder.FLAG_SHIFT) != 0) {
+            modifiers |= InputEvent.SHIFT_DOWN_MASK;
+        }
+        if ((f & InputRecorder.FLAG_ALT) != 0) {
+            modifiers |= InputEvent.ALT_DOWN_MASK;
+        }
+        if ((f & InputRecorder.FLAG_ALTGR) != 0) {
+            modifiers |= InputEvent.ALT_GRAPH_DOWN_MASK;
+        }
+        return modifiers;
+    }
+
+    /**
+     * @return the update rate of the recorded session.
+     */
+    public int getUps() {
+        return ups;
+    }
+
+    /**
+     * @return the seed of the game random generator during the recording.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of recorded ticks.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return true if all the key changes have been replayed.
+     */
+    public boolean isFinished() {
+        return cursor >= size;
+    }
+}
@@ -0,0 +1,151 @@
+package core.io;
+
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A scripted InputSource: key presses and releases are registered for a given
+ * update step, and fired to the InputHandler when the game loop reaches this
+ * step. Used to drive a game without any window (headless mode).
+ *
+ * <pre>
+ * SyntheticInputSource input = new SyntheticInputSource();
+ * input.press(10, KeyEvent.VK_RIGHT).release(70, KeyEvent.VK_RIGHT);
+ * game.inputHandler.setInputSource(input);
+ * </pre>
+ * <p>
+ * The same script can be given on the command line, as in
+ * <code>hl=true in=ENTER@1,RIGHT@10-70</code> (see {@link #parse(String)}).
+ *
+ * @author Frédéric Delorme <frederic.delorme@gmail.com>
+ */
+public class SyntheticInputSource implements InputSource {
+
+    /**
+     * KeyEvent needs a source component; a lightweight one can be created
+     * without any display.
+     */
+    private static final Component EVENT_SOURCE = new Canvas();
+
+    private Map<Long, List<int[]>> events = new TreeMap<>();
+
+    /**
+     * Press the key <code>keyCode</code> at update step <code>tick</code>.
+     *
+     * @param tick    the update step.
+     * @param keyCode the KeyEvent.VK_* code.
+     * @return this source.
+     */
+    public SyntheticInputSource press(long tick, int keyCode) {
+        return add(tick, KeyEvent.KEY_PRESSED, keyCode);
+    }
+
+    /**
+     * Release the key <code>keyCode</code> at update step <code>tick</code>.
+     *
+     * @param tick    the update step.
+     * @param keyCode the KeyEvent.VK_* code.
+     * @return this source.
+     */
+    public SyntheticInputSource release(long tick, int keyCode) {
+        return add(tick, KeyEvent.KEY_RELEASED, keyCode);
+    }
+
+    /**
+     * Build a source from a script of comma separated
+     * <code>KEY@press-release</code> entries, where <code>KEY</code> is a
+     * KeyEvent.VK_* name without its prefix: <code>RIGHT@10-70</code> presses
+     * the right arrow at update step 10 and releases it at step 70, while
+     * <code>ENTER@1</code> releases it on the step following the press.
+     *
+     * @param script the scripted key events.
+     * @return the new source.
+     * @throws IllegalArgumentException if an entry can not be parsed.
+     */
+    public static SyntheticInputSource parse(String script) {
+        SyntheticInputSource source = new SyntheticInputSource();
+        for (String entry : script.split(",")) {
+            String[] keyTicks = entry.trim().split("@");
+            if (keyTicks.length != 2) {
+                throw new IllegalArgumentException("Input script entry '" + entry + "' is not KEY@press-release");
+            }
+            int keyCode = keyCode(keyTicks[0]);
+            String[] ticks = keyTicks[1].split("-");
+            try {
+                long press = Long.parseLong(ticks[0]);
+                long release = ticks.length > 1 ? Long.parseLong(ticks[1]) : press + 1;
+                if (ticks.length > 2 || release <= press) {
+                    throw new IllegalArgumentException("Input script entry '" + entry + "' has wrong ticks");
+                }
+                source.press(press, keyCode).release(release, keyCode);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Input script entry '" + entry + "' has wrong ticks", e);
+            }
+        }
+        return source;
+    }
+
+    private static int keyCode(String key) {
+        try {
+            return KeyEvent.class.getField("VK_" + key.toUpperCase()).getInt(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown key '" + key + "' in input script", e);
+        }
+    }
+
+    private SyntheticInputSource add(long tick, int id, int keyCode) {
+        events.computeIfAbsent(tick, t -> new ArrayList<>()).add(new int[] { id, keyCode });
+        return this;
+    }
+
+    @Override
+    public void poll(InputHandler handler, long tick) {
+        List<int[]> tickEvents = events.remove(tick);
+        if (tickEvents != null) {
+            for (int[] e : tickEvents) {
+                fire(handler, e[0], e[1]);
+            }
+        }
+    }
+
+    /**
+     * Fire a synthetic key event to the InputHandler.
+     *
+     * @param handler the InputHandler to be fed.
+     * @param id      KeyEvent.KEY_PRESSED or KeyEvent.KEY_RELEASED.
+     * @param keyCode the KeyEvent.VK_* code.
+     */
+    public static void fire(InputHandler handler, int id, int keyCode) {
+        fire(handler, id, keyCode, 0);
+    }
+
+    /**
+     * Fire a synthetic key event with modifiers to the InputHandler.
+     *
+     * @param handler   the InputHandler to be fed.
+     * @param id        KeyEvent.KEY_PRESSED or KeyEvent.KEY_RELEASED.
+     * @param keyCode   the KeyEvent.VK_* code.
+     * @param modifiers the extended modifiers (InputEvent.*_DOWN_MASK).
+     */
+    public static void fire(InputHandler handler, int id, int keyCode, int modifiers) {
+        KeyEvent ke = new KeyEvent(EVENT_SOURCE, id, System.currentTimeMillis(), modifiers, keyCode,
+                KeyEvent.CHAR_UNDEFINED);
+        if (id == KeyEvent.KEY_PRESSED) {
+            handler.keyPressed(ke);
+        } else {
+            handler.keyReleased(ke);
+        }
+    }
+
+    /**
+     * @return true if no more event is waiting to be fired.
+     */
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
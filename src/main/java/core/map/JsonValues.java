@@ -0,0 +1,210 @@
+package core.map;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Readers of the values of the map and asset JSON files, shared by their
+ * readers.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapLevelReader
+ * @see MapObjectAssetReader
+ */
+final class JsonValues {
+
+	private JsonValues() {
+	}
+
+	/**
+	 * @return the next string, or null for a JSON null.
+	 */
+	static String nextString(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextString();
+	}
+
+	/**
+	 * @return the next array of strings, or null for a JSON null.
+	 */
+	static List<String> nextStrings(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		List<String> strings = new ArrayList<>();
+		in.beginArray();
+		while (in.hasNext()) {
+			strings.add(nextString(in));
+		}
+		in.endArray();
+		return strings;
+	}
+
+	/**
+	 * @return the constant of the enum named by the next string, null for a JSON
+	 *         null or an unknown name.
+	 */
+	static <E extends Enum<E>> E nextEnum(JsonReader in, Class<E> type) throws IOException {
+		String name = nextString(in);
+		if (name != null) {
+			for (E e : type.getEnumConstants()) {
+				if (e.name().equals(name)) {
+					return e;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Read a value of any type, as Gson does for an <code>Object</code>: a
+	 * Double, String, Boolean, List or Map.
+	 */
+	static Object nextValue(JsonReader in) throws IOException {
+		switch (in.peek()) {
+		case BEGIN_ARRAY:
+			List<Object> list = new ArrayList<>();
+			in.beginArray();
+			while (in.hasNext()) {
+				list.add(nextValue(in));
+			}
+			in.endArray();
+			return list;
+		case BEGIN_OBJECT:
+			return nextMap(in);
+		case STRING:
+			return in.nextString();
+		case NUMBER:
+			return in.nextDouble();
+		case BOOLEAN:
+			return in.nextBoolean();
+		case NULL:
+			in.nextNull();
+			return null;
+		default:
+			throw new IllegalStateException("Unexpected " + in.peek() + " at " + in.getPath());
+		}
+	}
+
+	/**
+	 * @return the next object, its values read by
+	 *         {@link #nextValue(JsonReader)}.
+	 */
+	static Map<String, Object> nextMap(JsonReader in) throws IOException {
+		Map<String, Object> map = new LinkedHashMap<>();
+		in.beginObject();
+		while (in.hasNext()) {
+			String key = in.nextName();
+			map.put(key, nextValue(in));
+		}
+		in.endObject();
+		return map;
+	}
+
+	/**
+	 * Read <code>count</code> integers, given as an array or as a
+	 * <code>"x,y"</code> string.
+	 */
+	static int[] nextInts(JsonReader in, int count) throws IOException {
+		if (in.peek() == JsonToken.BEGIN_ARRAY) {
+			int[] values = new int[count];
+			in.beginArray();
+			for (int i = 0; i < count; i++) {
+				values[i] = in.nextInt();
+			}
+			in.endArray();
+			return values;
+		}
+		return parseInts(in.nextString(), count);
+	}
+
+	/**
+	 * Parse the <code>count</code> integers of a <code>"x,y,..."</code> string,
+	 * without splitting it.
+	 */
+	static int[] parseInts(String s, int count) {
+		int[] values = new int[count];
+		int k = 0;
+		int value = 0;
+		boolean negative = false;
+		for (int i = 0; i <= s.length(); i++) {
+			char c = i < s.length() ? s.charAt(i) : ',';
+			if (c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+			} else if (c == '-') {
+				negative = true;
+			} else if (c == ',') {
+				if (k == count) {
+					break;
+				}
+				values[k++] = negative ? -value : value;
+				value = 0;
+				negative = false;
+			} else if (c != ' ') {
+				throw new NumberFormatException("Not an integer list: " + s);
+			}
+		}
+		if (k != count) {
+			throw new NumberFormatException(count + " integers expected: " + s);
+		}
+		return values;
+	}
+
+	/**
+	 * Read a color, given as an array of 4 float components, as the same array
+	 * in a string (e.g. <code>"[0.6,0.5,0.12,0.5]"</code>), or as a name (e.g.
+	 * <code>"RED"</code>).
+	 *
+	 * @return the color, null for a JSON null, an empty string or an unknown
+	 *         name.
+	 */
+	static Color nextColor(JsonReader in) throws IOException {
+		switch (in.peek()) {
+		case NULL:
+			in.nextNull();
+			return null;
+		case BEGIN_ARRAY:
+			float[] v = new float[4];
+			int i = 0;
+			in.beginArray();
+			while (in.hasNext()) {
+				v[i++] = (float) in.nextDouble();
+			}
+			in.endArray();
+			return new Color(v[0], v[1], v[2], v[3]);
+		default:
+			String color = in.nextString();
+			if (color.startsWith("[")) {
+				return nextColor(new JsonReader(new StringReader(color)));
+			}
+			switch (color) {
+			case "RED":
+				return Color.RED;
+			case "YELLOW":
+				return Color.YELLOW;
+			case "BLUE":
+				return Color.BLUE;
+			case "GREEN":
+				return Color.GREEN;
+			case "WHITE":
+				return Color.WHITE;
+			case "BLACK":
+				return Color.BLACK;
+			default:
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package core.map;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The MapCompiler turns a map JSON file and its assets into a binary
+ * {@link MapFile}, read by the {@link MapReader} without any text parsing.
+ * <p>
+ * The MapReader compiles the maps it reads into its cache directory
+ * (<code>game.maps.cache</code> in the configuration), and reads them from
+ * there as long as their sources are not modified. The compiler can also be
+ * run at build time to prepare this directory:
+ *
+ * <pre>
+ * java core.map.MapCompiler target/maps /res/maps/map_2.json
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapFile
+ * @see MapReader
+ */
+@Slf4j
+public class MapCompiler {
+
+	/**
+	 * Extension of the compiled map files.
+	 */
+	public static final String EXTENSION = ".bmap";
+
+	private MapCompiler() {
+	}
+
+	/**
+	 * @param cacheDir the directory of the compiled maps.
+	 * @param fileMap  the resource path of a map JSON file.
+	 * @return the path of the compiled file of this map.
+	 */
+	public static Path getCompiledPath(File cacheDir, String fileMap) {
+		String name = fileMap.startsWith("/") ? fileMap.substring(1) : fileMap;
+		if (name.endsWith(".json")) {
+			name = name.substring(0, name.length() - ".json".length());
+		}
+		return new File(cacheDir, name + EXTENSION).toPath();
+	}
+
+	/**
+	 * Compile a map JSON file and its assets.
+	 *
+	 * @param fileMap the resource path of the map JSON file.
+	 * @param output  the compiled file to be written.
+	 * @return true if the map has been compiled.
+	 */
+	public static boolean compile(String fileMap, Path output) {
+		MapReader reader = new MapReader(null);
+		MapLevel mapLevel = reader.parse(fileMap);
+		if (mapLevel == null) {
+			log.error("Unable to read the map {}", fileMap);
+			return false;
+		}
+		try {
+			MapFile.write(mapLevel, MapReader.getSources(fileMap, mapLevel), output);
+			log.info("Map {} compiled into {}", fileMap, output);
+			return true;
+		} catch (IOException e) {
+			log.error("Unable to write the compiled map {}", output, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Compile map JSON files into a directory.
+	 *
+	 * @param args the output directory, then the resource paths of the maps.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("usage: MapCompiler <output directory> <map.json>...");
+			System.exit(1);
+		}
+		File cacheDir = new File(args[0]);
+		int errors = 0;
+		for (int i = 1; i < args.length; i++) {
+			if (!compile(args[i], getCompiledPath(cacheDir, args[i]))) {
+				errors++;
+			}
+		}
+		System.exit(errors > 0 ? 1 : 0);
+	}
+}
@@ -0,0 +1,629 @@
+package core.map;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import core.map.MapLayer.LayerType;
+import core.map.MapReader.TileType;
+import core.object.BBox;
+import core.object.Light.LightType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The MapFile is the compiled, binary form of a map JSON file and of its
+ * assets, as written by the {@link MapCompiler}. It is read through a memory
+ * mapped file, without any text parsing.
+ * <p>
+ * All values are big endian:
+ *
+ * <pre>
+ * header  : magic "DGMP", version (short), sources count (short),
+ *           sources (path, last modified (long), length (long))
+ * level   : name, description, next level,
+ *           player initial position (double, double), layers count (short)
+ * layer   : key, name, index (int), type, background, assets paths,
+ *           and for a tilemap layer :
+ *           width (int), height (int), assets definitions,
+ *           first spawn ordinal (int), spawns count (int),
+ *           chunk directory (int offset of each chunk, row-major), chunks
+ * chunk   : tile ids (short[CHUNK_SIZE*CHUNK_SIZE], row-major),
+ *           spawns count (short),
+ *           spawns (ordinal (int), object (short), x (int), y (int))
+ * asset   : name, image, tileWidth (int), tileHeight (int),
+ *           objects count (short), objects (code, MapObject definition)
+ * </pre>
+ *
+ * Strings are an int length (-1 for null) followed by UTF-8 bytes. A compiled
+ * file of another version, or older than one of its sources, is ignored.
+ * <p>
+ * The tiles and the objects of a chunk are stored together, at the offset
+ * given by the chunk directory, so that a streamed map decodes each chunk on
+ * its own (see {@link #open(Path)} and {@link MapStreamer}).
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapCompiler
+ * @see MapReader
+ */
+@Slf4j
+final class MapFile {
+
+	static final int MAGIC = 0x44474D50;
+	static final short VERSION = 3;
+
+	private static final int CHUNK_TILES = MapLayer.CHUNK_SIZE * MapLayer.CHUNK_SIZE;
+	// size of a spawn in a chunk: ordinal, object, x and y.
+	private static final int SPAWN_BYTES = 4 + 2 + 4 + 4;
+
+	// tags of the values of the MapObject attributes.
+	private static final byte NULL = 0;
+	private static final byte NUMBER = 1;
+	private static final byte STRING = 2;
+	private static final byte BOOLEAN = 3;
+	private static final byte LIST = 4;
+	private static final byte MAP = 5;
+
+	/**
+	 * The tiles and objects of one chunk of a tilemap layer.
+	 */
+	static final class Chunk {
+		final short[] block;
+		// (ordinal, index in the first asset, x, y) quadruplets.
+		final int[] spawns;
+
+		Chunk(short[] block, int[] spawns) {
+			this.block = block;
+			this.spawns = spawns;
+		}
+	}
+
+	private MapFile() {
+	}
+
+	/**
+	 * Write the compiled form of a map level, as parsed from its JSON files.
+	 * The file is written aside and then moved to <code>output</code>.
+	 *
+	 * @param mapLevel the parsed map level, its tilemap layers encoded.
+	 * @param sources  the resource paths of the map and asset files.
+	 * @param output   the compiled file to be written.
+	 * @throws IOException if the file can't be written.
+	 */
+	static void write(MapLevel mapLevel, List<String> sources, Path output) throws IOException {
+		if (output.getParent() != null) {
+			Files.createDirectories(output.getParent());
+		}
+		Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeShort(sources.size());
+			for (String source : sources) {
+				long[] stamp = stamp(source);
+				writeString(out, source);
+				out.writeLong(stamp[0]);
+				out.writeLong(stamp[1]);
+			}
+			writeString(out, mapLevel.name);
+			writeString(out, mapLevel.description);
+			writeString(out, mapLevel.nextLevel);
+			double[] player = getPlayerPosition(mapLevel);
+			out.writeDouble(player[0]);
+			out.writeDouble(player[1]);
+			out.writeShort(mapLevel.layers.size());
+			for (Map.Entry<String, MapLayer> e : mapLevel.layers.entrySet()) {
+				writeString(out, e.getKey());
+				writeLayer(out, e.getValue());
+			}
+		}
+		Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void writeLayer(DataOutputStream out, MapLayer ml) throws IOException {
+		writeString(out, ml.name);
+		out.writeInt(ml.index);
+		writeString(out, ml.type != null ? ml.type.name() : null);
+		writeString(out, ml.background);
+		writeStrings(out, ml.assets);
+		if (ml.type == LayerType.LAYER_TILEMAP) {
+			out.writeInt((int) ml.width);
+			out.writeInt((int) ml.height);
+			out.writeShort(ml.assetsObjects.size());
+			for (MapObjectAsset asset : ml.assetsObjects) {
+				writeAsset(out, asset);
+			}
+			int count = ml.spawns.length / 4;
+			out.writeInt(count > 0 ? ml.spawns[0] : 0);
+			out.writeInt(count);
+
+			// spawns of each chunk.
+			int chunkColumns = ml.getChunkColumns();
+			int chunks = chunkColumns * ml.getChunkRows();
+			int[] chunkSpawns = new int[chunks];
+			for (int i = 0; i < count; i++) {
+				chunkSpawns[getChunk(ml, chunkColumns, i)]++;
+			}
+			int offset = out.size() + chunks * 4;
+			for (int c = 0; c < chunks; c++) {
+				out.writeInt(offset);
+				offset += CHUNK_TILES * 2 + 2 + chunkSpawns[c] * SPAWN_BYTES;
+			}
+			for (int c = 0; c < chunks; c++) {
+				short[] block = ml.blocks[c];
+				for (int i = 0; i < CHUNK_TILES; i++) {
+					out.writeShort(block != null ? block[i] : 0);
+				}
+				out.writeShort(chunkSpawns[c]);
+				for (int i = 0; i < count; i++) {
+					if (getChunk(ml, chunkColumns, i) == c) {
+						out.writeInt(ml.spawns[i * 4]);
+						out.writeShort(ml.spawns[i * 4 + 1]);
+						out.writeInt(ml.spawns[i * 4 + 2]);
+						out.writeInt(ml.spawns[i * 4 + 3]);
+					}
+				}
+			}
+		}
+	}
+
+	private static int getChunk(MapLayer ml, int chunkColumns, int spawn) {
+		return (ml.spawns[spawn * 4 + 3] / MapLayer.CHUNK_SIZE) * chunkColumns
+				+ ml.spawns[spawn * 4 + 2] / MapLayer.CHUNK_SIZE;
+	}
+
+	/**
+	 * @return the position of the player object, as the MapReader sets it, so
+	 *         that a streamed map knows where to start from.
+	 */
+	private static double[] getPlayerPosition(MapLevel mapLevel) {
+		for (MapLayer ml : mapLevel.layers.values()) {
+			if (ml.type == LayerType.LAYER_TILEMAP) {
+				MapObjectAsset asset = ml.assetsObjects.get(0);
+				MapObject[] objects = asset.objects.values().toArray(new MapObject[0]);
+				for (int i = 0; i < ml.spawns.length; i += 4) {
+					if (objects[ml.spawns[i + 1]].type == TileType.PLAYER) {
+						return new double[] { (ml.spawns[i + 2] - 1) * asset.tileWidth,
+								(ml.spawns[i + 3] - 1) * asset.tileHeight };
+					}
+				}
+			}
+		}
+		return new double[] { 0, 0 };
+	}
+
+	private static void writeAsset(DataOutputStream out, MapObjectAsset asset) throws IOException {
+		writeString(out, asset.name);
+		writeString(out, asset.image);
+		out.writeInt(asset.tileWidth);
+		out.writeInt(asset.tileHeight);
+		out.writeShort(asset.objects.size());
+		for (Map.Entry<String, MapObject> e : asset.objects.entrySet()) {
+			writeString(out, e.getKey());
+			writeObject(out, e.getValue());
+		}
+	}
+
+	private static void writeObject(DataOutputStream out, MapObject mo) throws IOException {
+		writeString(out, mo.id);
+		writeString(out, mo.image);
+		writeString(out, mo.type != null ? mo.type.name() : null);
+		writeString(out, mo.name);
+		writeString(out, mo.clazz);
+		out.writeBoolean(mo.color != null);
+		if (mo.color != null) {
+			out.writeInt(mo.color.getRGB());
+		}
+		out.writeInt(mo.sizeX);
+		out.writeInt(mo.sizeY);
+		out.writeInt(mo.priority);
+		out.writeInt(mo.layer);
+		out.writeDouble(mo.friction);
+		writeString(out, mo.lightType != null ? mo.lightType.name() : null);
+		out.writeDouble(mo.intensity);
+		out.writeDouble(mo.radius);
+		out.writeInt(mo.frameSet.length);
+		for (int value : mo.frameSet) {
+			out.writeInt(value);
+		}
+		out.writeInt(mo.mapX);
+		out.writeInt(mo.mapY);
+		out.writeBoolean(mo.bbox != null);
+		if (mo.bbox != null) {
+			out.writeDouble(mo.bbox.top);
+			out.writeDouble(mo.bbox.bottom);
+			out.writeDouble(mo.bbox.left);
+			out.writeDouble(mo.bbox.right);
+		}
+		writeString(out, mo.description);
+		writeString(out, mo.usage);
+		out.writeInt(mo.offsetX);
+		out.writeInt(mo.offsetY);
+		out.writeInt(mo.width);
+		out.writeInt(mo.height);
+		out.writeBoolean(mo.collectible);
+		out.writeBoolean(mo.hit);
+		out.writeBoolean(mo.block);
+		out.writeBoolean(mo.canCollect);
+		out.writeBoolean(mo.can);
+		out.writeBoolean(mo.climbable);
+		out.writeInt(mo.money);
+		out.writeInt(mo.damage);
+		out.writeInt(mo.energy);
+		writeValue(out, mo.attributes);
+		out.writeBoolean(mo.levelOutput);
+		writeString(out, mo.nextLevel);
+	}
+
+	/**
+	 * Write an attribute value, as built by Gson for an <code>Object</code>:
+	 * Double, String, Boolean, List or Map.
+	 */
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Number) {
+			out.writeByte(NUMBER);
+			out.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			out.writeByte(LIST);
+			out.writeInt(list.size());
+			for (Object item : list) {
+				writeValue(out, item);
+			}
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			out.writeByte(MAP);
+			out.writeInt(map.size());
+			for (Map.Entry<?, ?> e : map.entrySet()) {
+				writeString(out, e.getKey().toString());
+				writeValue(out, e.getValue());
+			}
+		} else {
+			out.writeByte(STRING);
+			writeString(out, value.toString());
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+		out.writeInt(strings != null ? strings.size() : -1);
+		if (strings != null) {
+			for (String s : strings) {
+				writeString(out, s);
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Read a compiled map level through a memory mapped file. The MapObjects
+	 * and MapObjectAssets are read as their JSON definition: their images are
+	 * not loaded.
+	 *
+	 * @param file the compiled file.
+	 * @return the map level, or null if the file does not exist, is of another
+	 *         version or is older than one of its sources.
+	 */
+	static MapLevel read(Path file) {
+		return read(file, false);
+	}
+
+	/**
+	 * Open a compiled map level to be streamed: its definitions are read, but
+	 * none of its chunks. The chunks are then read through
+	 * {@link #readChunk(MapLevel, MapLayer, int)}.
+	 *
+	 * @param file the compiled file.
+	 * @return the map level, its chunks not loaded, or null if the file does not
+	 *         exist, is of another version or is older than one of its sources.
+	 */
+	static MapLevel open(Path file) {
+		return read(file, true);
+	}
+
+	private static MapLevel read(Path file, boolean streamed) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (in.remaining() < 8 || in.getInt() != MAGIC || in.getShort() != VERSION) {
+				log.info("The compiled map {} is of another version", file);
+				return null;
+			}
+			int sources = in.getShort();
+			for (int i = 0; i < sources; i++) {
+				String source = readString(in);
+				long[] stamp = stamp(source);
+				if (in.getLong() != stamp[0] || in.getLong() != stamp[1]) {
+					log.info("The compiled map {} is older than {}", file, source);
+					return null;
+				}
+			}
+			MapLevel mapLevel = new MapLevel();
+			mapLevel.name = readString(in);
+			mapLevel.description = readString(in);
+			mapLevel.nextLevel = readString(in);
+			mapLevel.playerInitialX = in.getDouble();
+			mapLevel.playerInitialY = in.getDouble();
+			int layers = in.getShort();
+			for (int i = 0; i < layers; i++) {
+				String key = readString(in);
+				mapLevel.layers.put(key, readLayer(in, streamed));
+			}
+			if (streamed) {
+				mapLevel.data = in;
+			}
+			return mapLevel;
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to read the compiled map {}", file, e);
+			return null;
+		}
+	}
+
+	private static MapLayer readLayer(ByteBuffer in, boolean streamed) {
+		MapLayer ml = new MapLayer();
+		ml.name = readString(in);
+		ml.index = in.getInt();
+		String type = readString(in);
+		ml.type = type != null ? LayerType.valueOf(type) : null;
+		ml.background = readString(in);
+		ml.assets = readStrings(in);
+		if (ml.type == LayerType.LAYER_TILEMAP) {
+			int width = in.getInt();
+			int height = in.getInt();
+			ml.width = width;
+			ml.height = height;
+			int assets = in.getShort();
+			for (int i = 0; i < assets; i++) {
+				ml.assetsObjects.add(readAsset(in));
+			}
+			int first = in.getInt();
+			int count = in.getInt();
+			int chunks = ml.getChunkColumns() * ml.getChunkRows();
+			ml.chunkDirectory = in.position();
+			ml.blocks = new short[chunks][];
+			if (streamed) {
+				// only go to the end of the last chunk.
+				if (chunks > 0) {
+					readChunk(in, ml.chunkDirectory, chunks - 1);
+				}
+			} else {
+				ml.spawns = new int[count * 4];
+				for (int c = 0; c < chunks; c++) {
+					Chunk chunk = readChunk(in, ml.chunkDirectory, c);
+					ml.blocks[c] = chunk.block;
+					// back to the global order of the spawns.
+					for (int i = 0; i < chunk.spawns.length; i += 4) {
+						System.arraycopy(chunk.spawns, i, ml.spawns, (chunk.spawns[i] - first) * 4, 4);
+					}
+				}
+			}
+		}
+		return ml;
+	}
+
+	/**
+	 * Read a chunk of a streamed map level. Can be called from any thread.
+	 *
+	 * @param mapLevel a map level opened with {@link #open(Path)}.
+	 * @param layer    one of its tilemap layers.
+	 * @param chunk    index of the chunk, row-major.
+	 * @return the tiles and objects of the chunk.
+	 */
+	static Chunk readChunk(MapLevel mapLevel, MapLayer layer, int chunk) {
+		return readChunk(mapLevel.data.duplicate(), layer.chunkDirectory, chunk);
+	}
+
+	/**
+	 * Read the objects of a chunk of a streamed map level, without its tiles.
+	 * Can be called from any thread.
+	 *
+	 * @param mapLevel a map level opened with {@link #open(Path)}.
+	 * @param layer    one of its tilemap layers.
+	 * @param chunk    index of the chunk, row-major.
+	 * @return the (ordinal, index in the first asset, x, y) quadruplets of the
+	 *         objects of the chunk.
+	 */
+	static int[] readSpawns(MapLevel mapLevel, MapLayer layer, int chunk) {
+		ByteBuffer in = mapLevel.data.duplicate();
+		in.position(in.getInt(layer.chunkDirectory + chunk * 4) + CHUNK_TILES * 2);
+		return readSpawns(in);
+	}
+
+	/**
+	 * Read a chunk, leaving <code>in</code> at its end.
+	 */
+	private static Chunk readChunk(ByteBuffer in, int directory, int chunk) {
+		in.position(in.getInt(directory + chunk * 4));
+		short[] block = new short[CHUNK_TILES];
+		in.asShortBuffer().get(block);
+		in.position(in.position() + CHUNK_TILES * 2);
+		return new Chunk(block, readSpawns(in));
+	}
+
+	private static int[] readSpawns(ByteBuffer in) {
+		int count = in.getShort();
+		int[] spawns = new int[count * 4];
+		for (int i = 0; i < count; i++) {
+			spawns[i * 4] = in.getInt();
+			spawns[i * 4 + 1] = in.getShort();
+			spawns[i * 4 + 2] = in.getInt();
+			spawns[i * 4 + 3] = in.getInt();
+		}
+		return spawns;
+	}
+
+	private static MapObjectAsset readAsset(ByteBuffer in) {
+		MapObjectAsset asset = new MapObjectAsset();
+		asset.name = readString(in);
+		asset.image = readString(in);
+		asset.tileWidth = in.getInt();
+		asset.tileHeight = in.getInt();
+		int count = in.getShort();
+		asset.objects = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			String code = readString(in);
+			asset.objects.put(code, readObject(in));
+		}
+		return asset;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static MapObject readObject(ByteBuffer in) {
+		MapObject mo = new MapObject();
+		mo.id = readString(in);
+		mo.image = readString(in);
+		String type = readString(in);
+		mo.type = type != null ? TileType.valueOf(type) : null;
+		mo.name = readString(in);
+		mo.clazz = readString(in);
+		mo.color = in.get() != 0 ? new Color(in.getInt(), true) : null;
+		mo.sizeX = in.getInt();
+		mo.sizeY = in.getInt();
+		mo.priority = in.getInt();
+		mo.layer = in.getInt();
+		mo.friction = in.getDouble();
+		String lightType = readString(in);
+		mo.lightType = lightType != null ? LightType.valueOf(lightType) : null;
+		mo.intensity = in.getDouble();
+		mo.radius = in.getDouble();
+		mo.frameSet = new int[in.getInt()];
+		in.asIntBuffer().get(mo.frameSet);
+		in.position(in.position() + mo.frameSet.length * 4);
+		mo.mapX = in.getInt();
+		mo.mapY = in.getInt();
+		if (in.get() != 0) {
+			mo.bbox = new BBox();
+			mo.bbox.top = in.getDouble();
+			mo.bbox.bottom = in.getDouble();
+			mo.bbox.left = in.getDouble();
+			mo.bbox.right = in.getDouble();
+		}
+		mo.description = readString(in);
+		mo.usage = readString(in);
+		mo.offsetX = in.getInt();
+		mo.offsetY = in.getInt();
+		mo.width = in.getInt();
+		mo.height = in.getInt();
+		mo.collectible = in.get() != 0;
+		mo.hit = in.get() != 0;
+		mo.block = in.get() != 0;
+		mo.canCollect = in.get() != 0;
+		mo.can = in.get() != 0;
+		mo.climbable = in.get() != 0;
+		mo.money = in.getInt();
+		mo.damage = in.getInt();
+		mo.energy = in.getInt();
+		mo.attributes = (Map<String, Object>) readValue(in);
+		mo.levelOutput = in.get() != 0;
+		mo.nextLevel = readString(in);
+		return mo;
+	}
+
+	private static Object readValue(ByteBuffer in) {
+		byte tag = in.get();
+		switch (tag) {
+		case NUMBER:
+			return in.getDouble();
+		case STRING:
+			return readString(in);
+		case BOOLEAN:
+			return in.get() != 0;
+		case LIST:
+			int size = in.getInt();
+			List<Object> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readValue(in));
+			}
+			return list;
+		case MAP:
+			int count = in.getInt();
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < count; i++) {
+				String key = readString(in);
+				map.put(key, readValue(in));
+			}
+			return map;
+		default:
+			return null;
+		}
+	}
+
+	private static List<String> readStrings(ByteBuffer in) {
+		int size = in.getInt();
+		if (size < 0) {
+			return null;
+		}
+		List<String> strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add(readString(in));
+		}
+		return strings;
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param path a resource path in the classpath.
+	 * @return the last modification time and the length of the resource, or
+	 *         (-1,-1) if it can't be found.
+	 */
+	private static long[] stamp(String path) throws IOException {
+		URL url = MapFile.class.getResource(path);
+		if (url == null) {
+			return new long[] { -1, -1 };
+		}
+		if ("file".equals(url.getProtocol())) {
+			try {
+				File file = new File(url.toURI());
+				return new long[] { file.lastModified(), file.length() };
+			} catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+		URLConnection connection = url.openConnection();
+		connection.setUseCaches(false);
+		long[] stamp = { connection.getLastModified(), connection.getContentLengthLong() };
+		// without cache, a jar connection only releases its jar file with its
+		// stream.
+		connection.getInputStream().close();
+		return stamp;
+	}
+}
@@ -10,12 +10,20 @@ import java.util.List;
  * @author Frédéric Delorme <frederic.delorme@gmail.com>
  * @since 2019
  */
-public class MapLayer {
+public class MapLayer implements TileGrid {
 
 	public enum LayerType {
 		LAYER_BACKGROUND_IMAGE, LAYER_TILEMAP
 	}
 
+	/**
+	 * Size, in tiles, of the square chunks a tilemap layer is stored, streamed
+	 * and rendered by.
+	 */
+	public static final int CHUNK_SIZE = 16;
+	private static final int CHUNK_SHIFT = 4;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
 	public LayerType type;
 	public int index;
 	public String name;
@@ -34,7 +42,232 @@ public class MapLayer {
 
 	// raw text format for the map.
 	public List<String> map;
-	// All tiles of the level.
-	public MapObject[][] tiles;
+
+	// ids of the tiles of each chunk, chunks and tiles in row-major order: 0
+	// for none, else the id of the tile in the TileTable of the first asset. A
+	// chunk not loaded is null (not read from the map files).
+	transient short[][] blocks;
+	// objects to be created, as (ordinal, index in the first asset, x, y)
+	// quadruplets, ordered by ordinal.
+	transient int[] spawns;
+	// position of the chunk directory in the compiled map of a streamed level.
+	transient int chunkDirectory;
+	// the table of the tiles of the first asset.
+	private transient TileTable tileTable;
+	private transient int columns;
+	private transient int rows;
+	private transient int chunkColumns;
+
+	// version of each chunk, increased each time one of its tiles is changed,
+	// allocated with the tiles by initTiles().
+	private transient int[] chunkVersions;
+	// number of chunks unloaded so far.
+	private transient volatile int unloads;
+	// merged collision geometry of the layer, built on first use.
+	private transient TileGeometry geometry;
+
+	/**
+	 * Change the tile at (x,y) and invalidate the chunk containing it, so that
+	 * the MapRenderer draws it again.
+	 *
+	 * @param x  horizontal position of the tile in the layer.
+	 * @param y  vertical position of the tile in the layer.
+	 * @param mo the new tile (can be null to remove it).
+	 * @throws IndexOutOfBoundsException if (x,y) is out of the layer.
+	 */
+	public void setTile(int x, int y, MapObject mo) {
+		setTileId(x, y, tileTable.getId(mo));
+	}
+
+	/**
+	 * Change the id of the tile at (x,y) and invalidate the chunk containing it.
+	 *
+	 * @param x  horizontal position of the tile in the layer.
+	 * @param y  vertical position of the tile in the layer.
+	 * @param id the id of the new tile in the {@link TileTable}, 0 to remove it.
+	 * @throws IndexOutOfBoundsException if (x,y) is out of the layer.
+	 * @throws IllegalArgumentException  if the id is not in the TileTable.
+	 */
+	public void setTileId(int x, int y, int id) {
+		if (x < 0 || y < 0 || x >= columns || y >= rows) {
+			throw new IndexOutOfBoundsException(
+					"Tile (" + x + "," + y + ") out of the " + columns + "x" + rows + " layer " + name);
+		}
+		setTileIdUnchecked(x, y, id);
+	}
+
+	/**
+	 * Fast path of {@link #setTileId(int, int, int)}, for loops already bounded
+	 * to the layer.
+	 *
+	 * @param x  horizontal position of the tile, between 0 and width-1.
+	 * @param y  vertical position of the tile, between 0 and height-1.
+	 * @param id the id of the new tile in the {@link TileTable}, 0 to remove it.
+	 * @throws IllegalArgumentException if the id is not in the TileTable.
+	 */
+	public void setTileIdUnchecked(int x, int y, int id) {
+		if (id < 0 || id >= tileTable.size()) {
+			throw new IllegalArgumentException("Tile id " + id + " out of the tile table of the layer " + name);
+		}
+		int chunk = (y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT);
+		if (blocks[chunk] == null) {
+			blocks[chunk] = new short[CHUNK_SIZE * CHUNK_SIZE];
+		}
+		blocks[chunk][((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] = (short) id;
+		chunkVersions[chunk]++;
+	}
+
+	/**
+	 * Build the tile tables of the assets, once their images are loaded, and
+	 * bind the tiles to the table of the first one.
+	 */
+	void initTiles() {
+		for (MapObjectAsset asset : assetsObjects) {
+			asset.tileTable = new TileTable(asset);
+		}
+		tileTable = assetsObjects.get(0).tileTable;
+		columns = (int) width;
+		rows = (int) height;
+		chunkColumns = getChunkColumns();
+		if (blocks == null) {
+			blocks = new short[chunkColumns * getChunkRows()][];
+		}
+		chunkVersions = new int[chunkColumns * getChunkRows()];
+	}
+
+	/**
+	 * @return the table of the tiles ids of this layer.
+	 */
+	public TileTable getTileTable() {
+		return tileTable;
+	}
+
+	/**
+	 * @return the collision geometry of the layer, its blocking tiles merged
+	 *         into rectangles.
+	 */
+	public TileGeometry getGeometry() {
+		if (geometry == null) {
+			geometry = new TileGeometry(this);
+		}
+		return geometry;
+	}
+
+	/**
+	 * @param x horizontal position of the tile in the layer.
+	 * @param y vertical position of the tile in the layer.
+	 * @return the id of the tile at (x,y), 0 if none, out of the layer or in a
+	 *         chunk not loaded.
+	 */
+	@Override
+	public int getTileId(int x, int y) {
+		if (x < 0 || y < 0 || x >= columns || y >= rows) {
+			return 0;
+		}
+		return getTileIdUnchecked(x, y);
+	}
+
+	/**
+	 * Fast path of {@link #getTileId(int, int)}, for loops already bounded to
+	 * the layer.
+	 *
+	 * @param x horizontal position of the tile, between 0 and width-1.
+	 * @param y vertical position of the tile, between 0 and height-1.
+	 * @return the id of the tile at (x,y), 0 if none or in a chunk not loaded.
+	 */
+	@Override
+	public int getTileIdUnchecked(int x, int y) {
+		short[] block = blocks[(y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT)];
+		return block != null ? block[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] : 0;
+	}
+
+	/**
+	 * @param x horizontal position of the tile in the layer.
+	 * @param y vertical position of the tile in the layer.
+	 * @return the MapObject of the tile at (x,y), null if none or out of the
+	 *         layer.
+	 */
+	public MapObject getTile(int x, int y) {
+		return tileTable.getObject(getTileId(x, y));
+	}
+
+	/**
+	 * Fast path of {@link #getTile(int, int)}, for loops already bounded to the
+	 * layer.
+	 *
+	 * @param x horizontal position of the tile, between 0 and width-1.
+	 * @param y vertical position of the tile, between 0 and height-1.
+	 * @return the MapObject of the tile at (x,y), null if none.
+	 */
+	public MapObject getTileUnchecked(int x, int y) {
+		return tileTable.getObject(getTileIdUnchecked(x, y));
+	}
+
+	/**
+	 * @param cx horizontal index of the chunk.
+	 * @param cy vertical index of the chunk.
+	 * @return true if the tiles of the chunk are loaded.
+	 */
+	@Override
+	public boolean isChunkLoaded(int cx, int cy) {
+		return blocks[cy * chunkColumns + cx] != null;
+	}
+
+	/**
+	 * @param chunk index of a chunk, row-major.
+	 * @return the tile ids of the chunk, null if not loaded.
+	 */
+	short[] getBlock(int chunk) {
+		return blocks[chunk];
+	}
+
+	/**
+	 * Load or unload the tiles of a chunk, and invalidate it.
+	 *
+	 * @param chunk index of the chunk, row-major.
+	 * @param block the tile ids of the chunk, null to unload it.
+	 */
+	void setBlock(int chunk, short[] block) {
+		blocks[chunk] = block;
+		chunkVersions[chunk]++;
+		if (block == null) {
+			unloads++;
+		}
+	}
+
+	/**
+	 * @return the number of chunks unloaded so far, to release what is kept for
+	 *         them.
+	 */
+	int getUnloadCount() {
+		return unloads;
+	}
+
+	/**
+	 * @param chunk index of a chunk, row-major.
+	 * @return the version of the chunk.
+	 */
+	int getChunkVersion(int chunk) {
+		return chunkVersions[chunk];
+	}
+
+	/**
+	 * @param cx horizontal index of the chunk.
+	 * @param cy vertical index of the chunk.
+	 * @return the version of the chunk, increased each time one of its tiles is
+	 *         changed through {@link #setTile(int, int, MapObject)}.
+	 */
+	@Override
+	public int getChunkVersion(int cx, int cy) {
+		return chunkVersions[cy * chunkColumns + cx];
+	}
+
+	public int getChunkColumns() {
+		return ((int) width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	public int getChunkRows() {
+		return ((int) height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
 
 }
@@ -1,11 +1,13 @@
 package core.map;
 
 import java.awt.Dimension;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import core.gfx.SpriteAtlas;
 import core.math.PhysicEngineSystem.PhysicType;
 import core.math.Vector2D;
 import core.object.GameObject;
@@ -48,6 +50,12 @@ public class MapLevel extends GameObject {
 	// Lights in the level.
 	public List<Light> lights = new ArrayList<>();
 
+	// the atlas holding the sprites of the level (not read from the map file).
+	public transient SpriteAtlas atlas;
+
+	// the compiled map the chunks of a streamed level are read from.
+	transient ByteBuffer data;
+
 	/**
 	 * THE map level object is the container for all the level design.
 	 * 
@@ -85,4 +93,12 @@ public class MapLevel extends GameObject {
 	public Dimension getMaxSize() {
 		return maxSize;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @return true if the chunks of this level are loaded by a MapStreamer
+	 *         (see {@link MapReader#open(String)}).
+	 */
+	public boolean isStreamed() {
+		return data != null;
+	}
+}
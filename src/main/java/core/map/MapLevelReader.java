@@ -0,0 +1,107 @@
+package core.map;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import core.map.MapLayer.LayerType;
+
+/**
+ * The MapLevelReader reads a map JSON file straight from a
+ * {@link JsonReader}, without reflection: the level, its layers and their raw
+ * text maps. The assets of the layers are read by the
+ * {@link MapObjectAssetReader}, and the compiled form of the level is written
+ * by the {@link MapFile}.
+ *
+ * <pre>
+ * MapLevel mapLevel = MapLevelReader.read(new JsonReader(reader));
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapReader#parse(String)
+ */
+final class MapLevelReader {
+
+	private MapLevelReader() {
+	}
+
+	/**
+	 * @return the map level, or null for a JSON null.
+	 */
+	static MapLevel read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		MapLevel mapLevel = new MapLevel();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "name":
+				mapLevel.name = JsonValues.nextString(in);
+				break;
+			case "description":
+				mapLevel.description = JsonValues.nextString(in);
+				break;
+			case "nextLevel":
+				mapLevel.nextLevel = JsonValues.nextString(in);
+				break;
+			case "layers":
+				// the layers are drawn in the order of the file.
+				mapLevel.layers = new LinkedHashMap<>();
+				in.beginObject();
+				while (in.hasNext()) {
+					String name = in.nextName();
+					mapLevel.layers.put(name, readLayer(in));
+				}
+				in.endObject();
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return mapLevel;
+	}
+
+	private static MapLayer readLayer(JsonReader in) throws IOException {
+		MapLayer ml = new MapLayer();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "type":
+				ml.type = JsonValues.nextEnum(in, LayerType.class);
+				break;
+			case "index":
+				ml.index = in.nextInt();
+				break;
+			case "name":
+				ml.name = JsonValues.nextString(in);
+				break;
+			case "width":
+				ml.width = in.nextDouble();
+				break;
+			case "height":
+				ml.height = in.nextDouble();
+				break;
+			case "assets":
+				ml.assets = JsonValues.nextStrings(in);
+				break;
+			case "background":
+				ml.background = JsonValues.nextString(in);
+				break;
+			case "map":
+				ml.map = JsonValues.nextStrings(in);
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return ml;
+	}
+}
@@ -1,12 +1,11 @@
 package core.map;
 
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.awt.Color;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import core.gfx.Animation;
+import core.gfx.Sprite;
 import core.map.MapReader.TileType;
 import core.object.BBox;
 import core.object.Light.LightType;
@@ -25,10 +24,8 @@ public class MapObject {
     public TileType type;
     public String name;
     public String clazz;
-    public String color;
+    public Color color;
 
-    public String offset;
-    public String size;
     public int priority;
     public int layer;
 
@@ -42,7 +39,9 @@ public class MapObject {
 
     public Animation animation;
 
-    public List<String> frameSet = new ArrayList<>();
+    // frames of the animation, as (x, y, time) triplets, x and y being the
+    // 1-based tile position of the frame in the asset image.
+    public int[] frameSet = new int[0];
 
     public int mapX, mapY;
 
@@ -51,9 +50,12 @@ public class MapObject {
     public String description;
     public String usage;
 
+    // 1-based tile position of the image in the asset image, 0 if none.
     public int offsetX, offsetY, width, height;
+    // size of the image of the GameObject created from it, 0 if none.
+    public int sizeX, sizeY;
 
-    public BufferedImage imageBuffer;
+    public Sprite sprite;
 
     public boolean collectible;
     public boolean hit;
@@ -18,4 +18,8 @@ public class MapObjectAsset {
 	public int tileWidth, tileHeight;
 
 	public Map<String, MapObject> objects;
-}
\ No newline at end of file
+
+	// the flyweight table of the objects, by tile id (not read from the asset
+	// files).
+	public transient TileTable tileTable;
+}
\ No newline at end of file
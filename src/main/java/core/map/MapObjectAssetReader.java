@@ -0,0 +1,236 @@
+package core.map;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import core.map.MapReader.TileType;
+import core.object.BBox;
+import core.object.Light.LightType;
+
+/**
+ * The MapObjectAssetReader reads an asset JSON file straight from a
+ * {@link JsonReader}, without reflection.
+ * <p>
+ * The values written as strings in the asset files are decoded once, here,
+ * into the typed fields of the MapObjects: the <code>"x,y"</code> offset and
+ * size into int pairs, the color into a <code>Color</code> and the
+ * <code>"x,y,time"</code> frames into an int array. The compiled form of the
+ * assets is written by the {@link MapFile}.
+ *
+ * <pre>
+ * MapObjectAsset asset = MapObjectAssetReader.read(new JsonReader(reader));
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapObject
+ */
+final class MapObjectAssetReader {
+
+	private MapObjectAssetReader() {
+	}
+
+	/**
+	 * @return the asset, or null for a JSON null.
+	 */
+	static MapObjectAsset read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		MapObjectAsset asset = new MapObjectAsset();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "name":
+				asset.name = JsonValues.nextString(in);
+				break;
+			case "image":
+				asset.image = JsonValues.nextString(in);
+				break;
+			case "tileWidth":
+				asset.tileWidth = in.nextInt();
+				break;
+			case "tileHeight":
+				asset.tileHeight = in.nextInt();
+				break;
+			case "objects":
+				asset.objects = new LinkedHashMap<>();
+				in.beginObject();
+				while (in.hasNext()) {
+					String code = in.nextName();
+					asset.objects.put(code, readObject(in));
+				}
+				in.endObject();
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return asset;
+	}
+
+	private static MapObject readObject(JsonReader in) throws IOException {
+		MapObject mo = new MapObject();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "id":
+				mo.id = JsonValues.nextString(in);
+				break;
+			case "image":
+				mo.image = JsonValues.nextString(in);
+				break;
+			case "type":
+				mo.type = JsonValues.nextEnum(in, TileType.class);
+				break;
+			case "name":
+				mo.name = JsonValues.nextString(in);
+				break;
+			case "clazz":
+				mo.clazz = JsonValues.nextString(in);
+				break;
+			case "color":
+				mo.color = JsonValues.nextColor(in);
+				break;
+			case "offset":
+				int[] offset = JsonValues.nextInts(in, 2);
+				mo.offsetX = offset[0];
+				mo.offsetY = offset[1];
+				break;
+			case "size":
+				int[] size = JsonValues.nextInts(in, 2);
+				mo.sizeX = size[0];
+				mo.sizeY = size[1];
+				break;
+			case "priority":
+				mo.priority = in.nextInt();
+				break;
+			case "layer":
+				mo.layer = in.nextInt();
+				break;
+			case "friction":
+				mo.friction = in.nextDouble();
+				break;
+			case "lightType":
+				mo.lightType = JsonValues.nextEnum(in, LightType.class);
+				break;
+			case "intensity":
+				mo.intensity = in.nextDouble();
+				break;
+			case "radius":
+				mo.radius = in.nextDouble();
+				break;
+			case "frameSet":
+				mo.frameSet = readFrames(in);
+				break;
+			case "mapX":
+				mo.mapX = in.nextInt();
+				break;
+			case "mapY":
+				mo.mapY = in.nextInt();
+				break;
+			case "bbox":
+				mo.bbox = readBBox(in);
+				break;
+			case "description":
+				mo.description = JsonValues.nextString(in);
+				break;
+			case "usage":
+				mo.usage = JsonValues.nextString(in);
+				break;
+			case "collectible":
+				mo.collectible = in.nextBoolean();
+				break;
+			case "hit":
+				mo.hit = in.nextBoolean();
+				break;
+			case "block":
+				mo.block = in.nextBoolean();
+				break;
+			case "canCollect":
+				mo.canCollect = in.nextBoolean();
+				break;
+			case "can":
+				mo.can = in.nextBoolean();
+				break;
+			case "climbable":
+				mo.climbable = in.nextBoolean();
+				break;
+			case "money":
+				mo.money = in.nextInt();
+				break;
+			case "damage":
+				mo.damage = in.nextInt();
+				break;
+			case "energy":
+				mo.energy = in.nextInt();
+				break;
+			case "attributes":
+				mo.attributes = JsonValues.nextMap(in);
+				break;
+			case "levelOutput":
+				mo.levelOutput = in.nextBoolean();
+				break;
+			case "nextLevel":
+				mo.nextLevel = JsonValues.nextString(in);
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return mo;
+	}
+
+	/**
+	 * Read the <code>"x,y,time"</code> frames of an animation into
+	 * (x, y, time) triplets.
+	 */
+	private static int[] readFrames(JsonReader in) throws IOException {
+		int[] frames = new int[3 * 8];
+		int count = 0;
+		in.beginArray();
+		while (in.hasNext()) {
+			if (count + 3 > frames.length) {
+				frames = Arrays.copyOf(frames, frames.length * 2);
+			}
+			System.arraycopy(JsonValues.nextInts(in, 3), 0, frames, count, 3);
+			count += 3;
+		}
+		in.endArray();
+		return Arrays.copyOf(frames, count);
+	}
+
+	private static BBox readBBox(JsonReader in) throws IOException {
+		BBox bbox = new BBox();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "top":
+				bbox.top = in.nextDouble();
+				break;
+			case "bottom":
+				bbox.bottom = in.nextDouble();
+				break;
+			case "left":
+				bbox.left = in.nextDouble();
+				break;
+			case "right":
+				bbox.right = in.nextDouble();
+				break;
+			default:
+				in.skipValue();
+				break;
+			}
+		}
+		in.endObject();
+		return bbox;
+	}
+}
@@ -1,26 +1,31 @@
 package core.map;
 
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.imageio.ImageIO;
-
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 
 import core.behaviors.Behavior;
 import core.gfx.Animation;
+import core.gfx.SpriteAtlas;
+import core.map.MapLayer.LayerType;
 import core.math.Material;
 import core.math.PhysicEngineSystem.PhysicType;
 import core.object.GameObject;
 import core.object.GameObjectType;
 import core.object.Light;
+import core.resource.ResourceCache;
 import core.resource.ResourceManager;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,7 +40,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class MapReader {
 
-	private static List<String> resources = new ArrayList<>();
+	private final ResourceManager resourceManager;
+	private final List<String> resources = new ArrayList<>();
+	// the atlas packing all the sprites of the level.
+	private final SpriteAtlas atlas = new SpriteAtlas(SpriteAtlas.DEFAULT_PAGE_SIZE);
+	// the directory of the compiled maps, null to always read the JSON files.
+	private final File cacheDir;
 
 	public enum TileType {
 		PLAYER("player"), ENEMY("enemy"), LIGHT("light"), OBJECT("object"), ITEM("item"), TILE("tile");
@@ -52,121 +62,357 @@ public class MapReader {
 
 	}
 
-	private static int idxEnemy = 0;
+	/**
+	 * Reads the content of a JSON file.
+	 */
+	private interface JsonParser<T> {
+		T read(JsonReader in) throws IOException;
+	}
+
+	private int idxEnemy = 0;
+	// ordinal of the next object found while encoding the tilemap layers.
+	private int spawnOrdinal = 0;
+
+	/**
+	 * Create a reader loading its resources through the ResourceManager of a game.
+	 *
+	 * @param resourceManager the ResourceManager of the game the map is read for.
+	 */
+	public MapReader(ResourceManager resourceManager) {
+		this(resourceManager, null);
+	}
+
+	/**
+	 * Create a reader loading its resources through the ResourceManager of a
+	 * game, and keeping the compiled maps into a cache directory.
+	 *
+	 * @param resourceManager the ResourceManager of the game the map is read for.
+	 * @param cachePath       the directory of the compiled maps (a leading
+	 *                        <code>~</code> is the user home), null, empty or
+	 *                        <code>none</code> to always read the JSON files.
+	 */
+	public MapReader(ResourceManager resourceManager, String cachePath) {
+		this.resourceManager = resourceManager;
+		if (cachePath == null || cachePath.equals("") || cachePath.equalsIgnoreCase("none")) {
+			this.cacheDir = null;
+		} else if (cachePath.startsWith("~")) {
+			this.cacheDir = new File(System.getProperty("user.home"), cachePath.substring(1));
+		} else {
+			this.cacheDir = new File(cachePath);
+		}
+	}
 
 	/**
 	 * Return the list of resources to be loaded.
 	 * 
 	 * @return list of string correspong to path to resources.
 	 */
-	public static List<String> detectResourcesToLoad() {
+	public List<String> detectResourcesToLoad() {
 		return resources;
 	}
 
 	/**
 	 * Read the json file fileMap to renegare al tiles and object for a level map.
 	 *
+	 * @param resourceManager the ResourceManager of the game the map is read for.
+	 * @param fileMap         the json file to ne read.
+	 * @return a fully ready to play a MapLevel
+	 */
+	public static MapLevel readFromFile(ResourceManager resourceManager, String fileMap) {
+		return new MapReader(resourceManager).read(fileMap);
+	}
+
+	/**
+	 * Read a level map, from its compiled file in <code>cachePath</code> if it is
+	 * up to date, else from its json file, compiling it for the next time.
+	 *
+	 * @param resourceManager the ResourceManager of the game the map is read for.
+	 * @param fileMap         the json file to ne read.
+	 * @param cachePath       the directory of the compiled maps.
+	 * @return a fully ready to play a MapLevel
+	 * @see MapCompiler
+	 */
+	public static MapLevel readFromFile(ResourceManager resourceManager, String fileMap, String cachePath) {
+		return new MapReader(resourceManager, cachePath).read(fileMap);
+	}
+
+	/**
+	 * Read the json file fileMap to renegare al tiles and object for a level map.
+	 * With a cache directory, the compiled map is read instead if it is up to
+	 * date, or written for the next time.
+	 *
 	 * @param fileMap the json file to ne read.
 	 * @return a fully ready to play a MapLevel
 	 */
-	public static MapLevel readFromFile(String fileMap) {
+	public MapLevel read(String fileMap) {
 		MapLevel mapLevel = null;
-		// load level from json file
-		String jsonDataString = ResourceManager.getString(fileMap);
-
-		if (jsonDataString != null && !jsonDataString.equals("")) {
+		Path compiled = cacheDir != null ? MapCompiler.getCompiledPath(cacheDir, fileMap) : null;
+		if (compiled != null) {
+			mapLevel = MapFile.read(compiled);
+			if (mapLevel != null) {
+				log.debug("read the {} map from its compiled file {}", fileMap, compiled);
+			}
+		}
+		if (mapLevel == null) {
+			mapLevel = parse(fileMap);
+			if (mapLevel != null && compiled != null) {
+				try {
+					MapFile.write(mapLevel, getSources(fileMap, mapLevel), compiled);
+				} catch (IOException e) {
+					log.warn("Unable to write the compiled map {}", compiled, e);
+				}
+			}
+		}
+		if (mapLevel != null) {
+			build(mapLevel);
+		}
+		return mapLevel;
+	}
 
-			log.debug("parse the {} json file as e map level", fileMap);
+	/**
+	 * Open a level map to be streamed: its assets are loaded, but none of its
+	 * chunks, which are then loaded by a {@link MapStreamer}. The map is
+	 * compiled first if needed, into the cache directory if any, else into a
+	 * temporary file.
+	 *
+	 * @param fileMap the json file to ne read.
+	 * @return a MapLevel without tiles nor objects, or a fully loaded MapLevel if
+	 *         the map can't be compiled.
+	 * @see MapLevel#isStreamed()
+	 */
+	public MapLevel open(String fileMap) {
+		Path compiled = cacheDir != null ? MapCompiler.getCompiledPath(cacheDir, fileMap) : null;
+		MapLevel mapLevel = compiled != null ? MapFile.open(compiled) : null;
+		if (mapLevel == null) {
+			MapLevel parsed = parse(fileMap);
+			if (parsed == null) {
+				return null;
+			}
+			try {
+				if (compiled == null) {
+					compiled = Files.createTempFile("map", MapCompiler.EXTENSION);
+					compiled.toFile().deleteOnExit();
+				}
+				MapFile.write(parsed, getSources(fileMap, parsed), compiled);
+				mapLevel = MapFile.open(compiled);
+			} catch (IOException e) {
+				log.warn("Unable to write the compiled map {}, the map is not streamed", compiled, e);
+			}
+			if (mapLevel == null) {
+				mapLevel = parsed;
+			}
+		}
+		build(mapLevel);
+		return mapLevel;
+	}
 
-			Gson gson = new Gson();
-			mapLevel = gson.fromJson(jsonDataString, MapLevel.class);
+	/**
+	 * Parse the json file of a map and of its assets, and encode the tiles of its
+	 * tilemap layers, without loading any image.
+	 *
+	 * @param fileMap the json file to be read.
+	 * @return the map level definition, or null if the file can't be read.
+	 */
+	MapLevel parse(String fileMap) {
+		log.debug("parse the {} json file as e map level", fileMap);
+		// load level from json file
+		MapLevel mapLevel = readJson(fileMap, MapLevelReader::read);
 
+		if (mapLevel != null) {
 			for (MapLayer ml : mapLevel.layers.values()) {
-
-				switch (ml.type) {
-
-				case LAYER_BACKGROUND_IMAGE:
-					if (ml.background != null && !ml.background.equals("")) {
-						ml.backgroundImage = ResourceManager.getImage(ml.background);
-						log.debug("Load a specific background image {}", ml.background);
-					}
-					break;
-
-				case LAYER_TILEMAP:
+				if (ml.type == LayerType.LAYER_TILEMAP) {
 					ml.width = ml.map.get(0).length();
 					ml.height = ml.map.size();
 					// load asset from json file.
 					for (String assetStr : ml.assets) {
-						createAsset(gson, ml, assetStr);
+						createAsset(ml, assetStr);
 					}
-					// generate tiles
-					mapLevel = generateTilesAndObject(mapLevel, ml);
-					mapLevel.maxSize = new Dimension(
-						(int)ml.width*ml.assetsObjects.get(0).tileWidth,
-						(int)ml.height*ml.assetsObjects.get(0).tileHeight);
-					break;
+					encodeTiles(ml);
+				}
+			}
+		}
+		return mapLevel;
+	}
 
-				default:
-					break;
+	/**
+	 * Parse a json file straight from its resource stream.
+	 *
+	 * @param path   the json file to be read.
+	 * @param parser the reader of its content.
+	 * @return the object read, or null if the file can't be read.
+	 */
+	private <T> T readJson(String path, JsonParser<T> parser) {
+		Reader reader = resourceManager != null ? resourceManager.getReader(path) : ResourceCache.getReader(path);
+		if (reader == null) {
+			return null;
+		}
+		try (JsonReader in = new JsonReader(reader)) {
+			return parser.read(in);
+		} catch (IOException | IllegalStateException | JsonParseException | NumberFormatException e) {
+			log.error("Unable to parse the json file {}", path, e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param fileMap  the json file of a map.
+	 * @param mapLevel the map level parsed from it.
+	 * @return the json files the map level is built from.
+	 */
+	static List<String> getSources(String fileMap, MapLevel mapLevel) {
+		List<String> sources = new ArrayList<>();
+		sources.add(fileMap);
+		for (MapLayer ml : mapLevel.layers.values()) {
+			if (ml.assets != null) {
+				for (String asset : ml.assets) {
+					if (!sources.contains(asset)) {
+						sources.add(asset);
+					}
 				}
 			}
+		}
+		return sources;
+	}
+
+	/**
+	 * Load the images of a parsed map level, then create its tiles and objects.
+	 *
+	 * @param mapLevel the map level definition.
+	 */
+	private void build(MapLevel mapLevel) {
+		mapLevel.atlas = atlas;
+
+		for (MapLayer ml : mapLevel.layers.values()) {
 
+			switch (ml.type) {
+
+			case LAYER_BACKGROUND_IMAGE:
+				if (ml.background != null && !ml.background.equals("")) {
+					ml.backgroundImage = resourceManager.getImage(ml.background);
+					log.debug("Load a specific background image {}", ml.background);
+				}
+				break;
+
+			case LAYER_TILEMAP:
+				// generate tiles
+				generateTilesAndObject(mapLevel, ml);
+				mapLevel.maxSize = new Dimension(
+					(int)ml.width*ml.assetsObjects.get(0).tileWidth,
+					(int)ml.height*ml.assetsObjects.get(0).tileHeight);
+				break;
+
+			default:
+				break;
+			}
 		}
-		return mapLevel;
+		log.debug("{} sprites packed into {} atlas pages", atlas.getSpriteCount(), atlas.getPages().size());
 	}
 
 	/**
-	 * @param gson
 	 * @param ml
 	 * @param assetStr
 	 */
-	private static void createAsset(Gson gson, MapLayer ml, String assetStr) {
-		String jsonAssetString = ResourceManager.getString(assetStr);
-		if (jsonAssetString != null && !jsonAssetString.equals("")) {
-			MapObjectAsset mop = gson.fromJson(jsonAssetString, MapObjectAsset.class);
+	private void createAsset(MapLayer ml, String assetStr) {
+		MapObjectAsset mop = readJson(assetStr, MapObjectAssetReader::read);
+		if (mop != null) {
 			ml.assetsObjects.add(mop);
 		}
 	}
 
+	/**
+	 * Encode the raw text map of a tilemap layer into its tile ids grid and its
+	 * list of objects to be created.
+	 *
+	 * @param ml the MapLayer to be encoded, its first asset loaded.
+	 */
+	private void encodeTiles(MapLayer ml) {
+		int width = (int) ml.width;
+		int height = (int) ml.height;
+		int chunkColumns = ml.getChunkColumns();
+		// index of the MapObjects of the first asset, by their one character code.
+		Map<Character, Integer> codes = new HashMap<>();
+		List<MapObject> objects = new ArrayList<>();
+		for (Entry<String, MapObject> emo : ml.assetsObjects.get(0).objects.entrySet()) {
+			if (emo.getKey().length() == 1) {
+				codes.put(emo.getKey().charAt(0), objects.size());
+			}
+			objects.add(emo.getValue());
+		}
+		short[][] blocks = new short[chunkColumns * ml.getChunkRows()][];
+		for (int c = 0; c < blocks.length; c++) {
+			blocks[c] = new short[MapLayer.CHUNK_SIZE * MapLayer.CHUNK_SIZE];
+		}
+		int[] spawns = new int[4 * 16];
+		int spawnCount = 0;
+		for (int y = 0; y < height; y++) {
+			String line = ml.map.get(y);
+			for (int x = 0; x < width && x < line.length(); x++) {
+				Integer index = codes.get(line.charAt(x));
+				if (index == null) {
+					// no tile or object on tile place.
+					continue;
+				}
+				switch (objects.get(index).type) {
+				case PLAYER:
+				case LIGHT:
+				case ENEMY:
+					if ((spawnCount + 1) * 4 > spawns.length) {
+						spawns = Arrays.copyOf(spawns, spawns.length * 2);
+					}
+					spawns[spawnCount * 4] = spawnOrdinal++;
+					spawns[spawnCount * 4 + 1] = index;
+					spawns[spawnCount * 4 + 2] = x;
+					spawns[spawnCount * 4 + 3] = y;
+					spawnCount++;
+					break;
+				default:
+					blocks[(y / MapLayer.CHUNK_SIZE) * chunkColumns + x / MapLayer.CHUNK_SIZE][(y
+							% MapLayer.CHUNK_SIZE) * MapLayer.CHUNK_SIZE + x % MapLayer.CHUNK_SIZE] = (short) (index + 1);
+					break;
+				}
+			}
+		}
+		ml.blocks = blocks;
+		ml.spawns = Arrays.copyOf(spawns, spawnCount * 4);
+	}
+
 	/**
 	 * Generate Tiles and Objects in the map.
 	 * 
 	 * @param mapLevel the MapLevel object to be created.
 	 * @param ml       the MapLevel where to create the tiles and objects.
 	 */
-	public static MapLevel generateTilesAndObject(MapLevel mapLevel, MapLayer ml) {
-		ml.tiles = new MapObject[(int) ml.width][(int) ml.height];
-
+	public MapLevel generateTilesAndObject(MapLevel mapLevel, MapLayer ml) {
 		// generate all objects.
 		ml = createAssetMapObjects(ml);
+		// the tiles grid is bound to the tile table of the first asset.
+		ml.initTiles();
 
-		// build Map
-		for (int y = 0; y < ml.height; y++) {
-			String line = ml.map.get(y);
-			for (int x = 0; x < ml.width; x++) {
-				String code = "" + line.charAt(x);
-				if (ml.assetsObjects.get(0).objects.containsKey(code)) {
-					MapObject mo = ml.assetsObjects.get(0).objects.get(code);
-					// those MapObject is tile
-					switch (mo.type) {
-					case PLAYER:
-					case LIGHT:
-					case ENEMY:
-						createGameObject(mapLevel, ml, x, y, mo);
-						break;
-					default:
-						ml.tiles[x][y] = mo;
-						break;
-					}
-				} else {
-					// no tile or object on tile place.
-					ml.tiles[x][y] = null;
-				}
+		// a streamed level creates its objects chunk by chunk.
+		if (ml.spawns != null) {
+			for (int i = 0; i < ml.spawns.length; i += 4) {
+				spawn(mapLevel, ml, ml.spawns[i], ml.spawns[i + 1], ml.spawns[i + 2], ml.spawns[i + 3]);
 			}
 		}
 		return mapLevel;
 	}
 
+	/**
+	 * Create one of the objects of a tilemap layer.
+	 *
+	 * @param mapLevel the map where to generate object from
+	 * @param ml       the MapLayer object to extract the MapObject from
+	 * @param ordinal  the ordinal of the object in the map, numbering its name.
+	 * @param object   the index of its MapObject in the first asset of the layer.
+	 * @param x        the x coordinate in MapLayer
+	 * @param y        the y coordinate in MapLayer
+	 * @return the GameObject, or null if it can't be created.
+	 */
+	GameObject spawn(MapLevel mapLevel, MapLayer ml, int ordinal, int object, int x, int y) {
+		idxEnemy = ordinal;
+		return createGameObject(mapLevel, ml, x, y, ml.getTileTable().getObject(object + 1));
+	}
+
 	/**
 	 * Create a GameObject from a MapObject int the MapLevel at (x,y)
 	 * 
@@ -175,8 +421,9 @@ public class MapReader {
 	 * @param x        the x coordinate in MapLayer
 	 * @param y        the y coordinate in MapLayer
 	 * @param mo       the MapObject containing the MapObject definition.
+	 * @return the GameObject, or null if it can't be created.
 	 */
-	public static void createGameObject(MapLevel mapLevel, MapLayer ml, int x, int y, MapObject mo) {
+	public GameObject createGameObject(MapLevel mapLevel, MapLayer ml, int x, int y, MapObject mo) {
 		// Initialize MapLevel.child attribute if not.
 		if (mapLevel.child == null) {
 			mapLevel.child = new HashMap<String, GameObject>();
@@ -207,9 +454,11 @@ public class MapReader {
 				log.error(String.format("Unknown object type %s", mo.type));
 				break;
 			}
+			return go;
 
 		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
 			log.error("Unable to instantiate the {}  object.", mo.clazz);
+			return null;
 		}
 	}
 
@@ -226,7 +475,7 @@ public class MapReader {
 	 * @throws InstantiationException
 	 * @throws IllegalAccessException
 	 */
-	private static GameObject createObjectFromClass(MapLayer layer, MapObject mo, int x, int y)
+	private GameObject createObjectFromClass(MapLayer layer, MapObject mo, int x, int y)
 			throws ClassNotFoundException, InstantiationException, IllegalAccessException {
 
 		GameObject go;
@@ -248,89 +497,77 @@ public class MapReader {
 	 * @param mapLevel the map level where to load the MapObject asset.
 	 * @return the MapLevel with its asset initialized.
 	 */
-	private static MapLayer createAssetMapObjects(MapLayer mapLayer) {
-		try {
-			for (MapObjectAsset asset : mapLayer.assetsObjects) {
-				asset.imageBuffer = ImageIO.read(MapReader.class.getResourceAsStream(asset.image));
-				for (Entry<String, MapObject> emo : asset.objects.entrySet()) {
-					MapObject mo = emo.getValue();
-					mo.asset = asset;
-					if (mo != null) {
-						switch (mo.type) {
-						case TILE:
-						case OBJECT:
-						default:
-							if (mo.size != null && !mo.size.equals("")) {
-								String[] sizeValue = mo.offset.split(",");
-								mo.width = Integer.parseInt(sizeValue[0]);
-								mo.height = Integer.parseInt(sizeValue[1]);
-							} else {
-								mo.width = asset.tileWidth;
-								mo.height = asset.tileHeight;
-							}
-							if (mo.offset != null && !mo.offset.equals("")) {
-								String[] offsetValue = mo.offset.split(",");
-								mo.offsetX = Integer.parseInt(offsetValue[0]);
-								mo.offsetY = Integer.parseInt(offsetValue[1]);
-								mo = getImageBufferFromAsset(asset, mo, mo.offsetX, mo.offsetY);
-							}
-							if (mo.frameSet.size() > 0) {
-								mo = createAnimation(asset, mo);
-							}
-
-							asset.objects.put(emo.getKey(), mo);
-							break;
+	private MapLayer createAssetMapObjects(MapLayer mapLayer) {
+		for (MapObjectAsset asset : mapLayer.assetsObjects) {
+			asset.imageBuffer = resourceManager.getImage(asset.image);
+			for (Entry<String, MapObject> emo : asset.objects.entrySet()) {
+				MapObject mo = emo.getValue();
+				mo.asset = asset;
+				if (mo != null) {
+					switch (mo.type) {
+					case TILE:
+					case OBJECT:
+					default:
+						if (mo.sizeX != 0) {
+							mo.width = mo.sizeX;
+							mo.height = mo.sizeY;
+						} else {
+							mo.width = asset.tileWidth;
+							mo.height = asset.tileHeight;
+						}
+						if (mo.offsetX != 0) {
+							mo = getSpriteFromAsset(asset, mo, mo.offsetX, mo.offsetY);
 						}
+						if (mo.frameSet.length > 0) {
+							mo = createAnimation(asset, mo);
+						}
+
+						asset.objects.put(emo.getKey(), mo);
+						break;
 					}
 				}
 			}
-		} catch (IOException e) {
-			System.out.println("unable to intantiate " + e.getMessage() + "Stack:" + e.getStackTrace());
 		}
 		return mapLayer;
 	}
 
 	/**
-	 * Create frames from a list of offset(frameSet) and build list of frameImages
+	 * Create frames from a list of offset(frameSet) and pack their images into
+	 * the level atlas.
 	 * 
 	 * @param asset
 	 * @param mo
 	 */
-	private static MapObject createAnimation(MapObjectAsset asset, MapObject mo) {
+	private MapObject createAnimation(MapObjectAsset asset, MapObject mo) {
 		mo.animation = new Animation();
-		for (String frame : mo.frameSet) {
-			String[] frameItem = frame.split(",");
-			int ox = Integer.parseInt(frameItem[0]);
-			int oy = Integer.parseInt(frameItem[1]);
-			int timeFrame = Integer.parseInt(frameItem[2]);
-			BufferedImage img = asset.imageBuffer.getSubimage((ox - 1) * mo.width, (oy - 1) * mo.height, mo.width,
-					mo.height);
-			mo.animation.frameImages.add(img);
-			mo.animation.frameTime.add(timeFrame);
+		for (int i = 0; i < mo.frameSet.length; i += 3) {
+			int ox = mo.frameSet[i];
+			int oy = mo.frameSet[i + 1];
+			int timeFrame = mo.frameSet[i + 2];
+			mo.animation.addFrame(
+					atlas.add(asset.imageBuffer, (ox - 1) * mo.width, (oy - 1) * mo.height, mo.width, mo.height),
+					timeFrame);
 		}
-		mo.animation.reset();
 		return mo;
 	}
 
-	public static MapObject getImageBufferFromAsset(MapObjectAsset asset, MapObject mo, int x, int y) {
+	private MapObject getSpriteFromAsset(MapObjectAsset asset, MapObject mo, int x, int y) {
 		int ix = (x - 1) * asset.tileWidth;
 		int iy = (y - 1) * asset.tileHeight;
-		mo.imageBuffer = asset.imageBuffer.getSubimage(ix, iy, mo.width, mo.height);
+		mo.sprite = atlas.add(asset.imageBuffer, ix, iy, mo.width, mo.height);
 		return mo;
 	}
 
-	private static GameObject populateGameObjectAttributes(MapObjectAsset moa, GameObject go, MapObject mo) {
-		if (mo.offset != null && !mo.offset.equals("") && mo.size != null && !mo.size.equals("")) {
-			String[] values = mo.offset.split(",");
-			int ox = Integer.parseInt(values[1]);
-			int oy = Integer.parseInt(values[0]);
-			values = mo.size.split(",");
-			go.size.x = Integer.parseInt(values[0]);
-			go.size.y = Integer.parseInt(values[1]);
-			// get image
-
-			go.image = moa.imageBuffer.getSubimage((ox - 1) * moa.tileWidth, (oy - 1) * moa.tileHeight, (int) go.size.x,
-					(int) go.size.y);
+	private GameObject populateGameObjectAttributes(MapObjectAsset moa, GameObject go, MapObject mo) {
+		if (mo.offsetX != 0 && mo.sizeX != 0) {
+			// the offset of an object image is given as (row, column).
+			int ox = mo.offsetY;
+			int oy = mo.offsetX;
+			go.size.x = mo.sizeX;
+			go.size.y = mo.sizeY;
+			// get image, and its mirrored copy for the objects turning left.
+			go.sprite = atlas.addMirrored(moa.imageBuffer, (ox - 1) * moa.tileWidth, (oy - 1) * moa.tileHeight,
+					(int) go.size.x, (int) go.size.y);
 			go.type = GameObjectType.IMAGE;
 			// go.bbox = mo.bbox;
 			go.bbox.fromGameObject(go);
@@ -340,41 +577,8 @@ public class MapReader {
 		// the GameObject can collect items (or not !)
 		go.canCollect = mo.canCollect;
 
-		if (!mo.color.equals("")) {
-			if (mo.color.startsWith("[")) {
-				String[] color = mo.color.substring(1, mo.color.length() - 1).split(",");
-				float[] v = new float[4];
-				int i = 0;
-				for (String c : color) {
-					v[i++] = Float.parseFloat(c);
-				}
-				go.foregroundColor = new Color(v[0], v[1], v[2], v[3]);
-			} else {
-				switch (mo.color) {
-				case "RED":
-					go.foregroundColor = Color.RED;
-					break;
-				case "YELLOW":
-					go.foregroundColor = Color.YELLOW;
-					break;
-				case "BLUE":
-					go.foregroundColor = Color.BLUE;
-					break;
-				case "GREEN":
-					go.foregroundColor = Color.GREEN;
-					break;
-				case "WHITE":
-					go.foregroundColor = Color.WHITE;
-					break;
-				case "BLACK":
-					go.foregroundColor = Color.BLACK;
-					break;
-				default:
-					go.foregroundColor = null;
-					break;
-
-				}
-			}
+		if (mo.color != null) {
+			go.foregroundColor = mo.color;
 		}
 		if (mo.name != null && !mo.name.equals("")) {
 			go.name = mo.name.replace("#", "" + (++idxEnemy));
@@ -467,4 +671,4 @@ public class MapReader {
 
 	}
 
-}
\ No newline at end of file
+}
@@ -1,9 +1,18 @@
 package core.map;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import core.Game;
+import core.gfx.CompatibleImage;
+import core.gfx.DrawContext;
+import core.gfx.Sprite;
 import core.object.Camera;
 
 /**
@@ -15,20 +24,67 @@ import core.object.Camera;
 public class MapRenderer {
 	Color backTransparent = new Color(0.0f, 0.0f, 0.0f, 0.0f);
 
+	/**
+	 * The pre-rendered chunks of each tilemap layer.
+	 */
+	private final Map<MapLayer, TileChunk[]> chunks = new WeakHashMap<>();
+	// number of unloaded chunks of each layer when its chunk images were last
+	// released.
+	private final Map<MapLayer, Integer> unloads = new WeakHashMap<>();
+
+	// number of images drawn by the last call to render.
+	private int drawCalls;
+
 	/**
 	 * Rendering the core.map.MapLevel according to the camera position.
 	 *
 	 * @param dg      the core.Game container
-	 * @param g       The graphics API to be used
+	 * @param g       The DrawContext to draw through
 	 * @param map     The core.map.MapLevel to be rendered
 	 * @param camera  the camera to be used as a point of view.
 	 * @param elapsed time elapsed since previous call.
 	 */
-	public void render(Game dg, Graphics2D g, MapLevel map, Camera camera, double elapsed) {
+	public void render(Game dg, DrawContext g, MapLevel map, Camera camera, double elapsed) {
+		render(dg, g, map, camera.pos.x, camera.pos.y, camera.viewport, elapsed);
+	}
 
+	/**
+	 * Rendering the core.map.MapLevel according to a camera position captured in
+	 * a RenderSnapshot.
+	 *
+	 * @param dg       the core.Game container
+	 * @param g        The DrawContext to draw through
+	 * @param map      The core.map.MapLevel to be rendered
+	 * @param camX     horizontal position of the point of view.
+	 * @param camY     vertical position of the point of view.
+	 * @param viewport the size of the point of view.
+	 * @param elapsed  time elapsed since previous call.
+	 */
+	public void render(Game dg, DrawContext g, MapLevel map, double camX, double camY, Dimension viewport,
+			double elapsed) {
+		render(dg, g, map, camX, camY, viewport, elapsed, null);
+	}
+
+	/**
+	 * Rendering the core.map.MapLevel from the tiles captured in a MapSnapshot,
+	 * as done by the render thread.
+	 *
+	 * @param dg       the core.Game container
+	 * @param g        The DrawContext to draw through
+	 * @param map      The core.map.MapLevel to be rendered
+	 * @param camX     horizontal position of the point of view.
+	 * @param camY     vertical position of the point of view.
+	 * @param viewport the size of the point of view.
+	 * @param elapsed  time elapsed since previous call.
+	 * @param snapshot the tiles captured with the view, null to draw the tiles
+	 *                 of the layers.
+	 */
+	public void render(Game dg, DrawContext g, MapLevel map, double camX, double camY, Dimension viewport,
+			double elapsed, MapSnapshot snapshot) {
+
+		drawCalls = 0;
 		MapLayer frontLayer = map.layers.get("front");
-		int mHeight = frontLayer.map.size();
-		int mWidth = frontLayer.map.get(0).length();
+		int mWidth = (int) frontLayer.width;
 		int tileWidth = frontLayer.assetsObjects.get(0).tileWidth;
 
 		for (MapLayer mapLayer : map.layers.values()) {
@@ -36,11 +92,12 @@ public class MapRenderer {
 			switch (mapLayer.type) {
 
 			case LAYER_BACKGROUND_IMAGE:
-				drawBackgroundLayer(g, camera, mWidth, tileWidth, mapLayer);
+				drawBackgroundLayer(g, camX, camY, mWidth, tileWidth, mapLayer);
 				break;
 
 			case LAYER_TILEMAP:
-				drawTilemapLayer(dg, g, elapsed, camera, mHeight, mWidth, mapLayer);
+				drawTilemapLayer(dg, g, camX, camY, viewport, mapLayer,
+						snapshot != null ? snapshot.getTiles(mapLayer) : mapLayer);
 				break;
 			}
 
@@ -49,83 +106,185 @@ public class MapRenderer {
 	}
 
 	/**
-	 * @param dg
-	 * @param g
-	 * @param elapsed
-	 * @param mHeight
-	 * @param mWidth
-	 * @param mapLayer
+	 * Draw the visible chunks of a tilemap layer: each chunk is a pre-rendered
+	 * image of its static tiles, drawn in one call, then its animated tiles are
+	 * drawn over it, at the current frame of their animation. A chunk image is
+	 * rendered again only when one of its tiles has been changed through
+	 * {@link MapLayer#setTile(int, int, MapObject)}.
+	 *
+	 * @param dg       the core.Game container
+	 * @param g        The DrawContext to draw through
+	 * @param camX     horizontal position of the point of view.
+	 * @param camY     vertical position of the point of view.
+	 * @param viewport the size of the point of view.
+	 * @param mapLayer the tilemap layer to be drawn.
+	 * @param tiles    the tiles of the layer: the layer or their snapshot.
 	 */
-	private void drawTilemapLayer(Game dg, Graphics2D g, double elapsed, Camera camera, int mHeight, int mWidth,
-			MapLayer mapLayer) {
-
-		int cx = (int) (camera.pos.x / mapLayer.assetsObjects.get(0).tileWidth);
-		int cy = (int) (camera.pos.y / mapLayer.assetsObjects.get(0).tileHeight);
-		int offCx = (int) (camera.viewport.width / (mapLayer.assetsObjects.get(0).tileWidth)) + 2;
-		int offCy = (int) (camera.viewport.height / (mapLayer.assetsObjects.get(0).tileHeight)) + 2;
-
-		int top = (cy < 0 ? 0 : cy);
-		int bottom = (cy + offCy > mHeight ? mHeight : cy + offCy);
-		int left = (cx < 0 ? 0 : cx);
-		int right = (cx + offCx > mHeight ? mWidth : cx + offCx);
-
-		for (int y = top; y < bottom; y++) {
-			for (int x = left; x < right; x++) {
-				MapObject mo = getTile(mapLayer, x, y);
-				if (mo != null) {
-					if (mo.frameSet.size() > 0) {
-						animateMapObject(mo, elapsed);
+	private void drawTilemapLayer(Game dg, DrawContext g, double camX, double camY, Dimension viewport,
+			MapLayer mapLayer, TileGrid tiles) {
+
+		int tileWidth = mapLayer.assetsObjects.get(0).tileWidth;
+		int tileHeight = mapLayer.assetsObjects.get(0).tileHeight;
+		int chunkWidth = tileWidth * MapLayer.CHUNK_SIZE;
+		int chunkHeight = tileHeight * MapLayer.CHUNK_SIZE;
+		int columns = mapLayer.getChunkColumns();
+		int rows = mapLayer.getChunkRows();
+
+		int left = Math.max(0, Math.floorDiv((int) camX, chunkWidth));
+		int right = Math.min(columns - 1, Math.floorDiv((int) camX + viewport.width, chunkWidth));
+		int top = Math.max(0, Math.floorDiv((int) camY, chunkHeight));
+		int bottom = Math.min(rows - 1, Math.floorDiv((int) camY + viewport.height, chunkHeight));
+
+		TileChunk[] layerChunks = chunks.computeIfAbsent(mapLayer, l -> new TileChunk[columns * rows]);
+		releaseUnloadedChunks(mapLayer, layerChunks);
+
+		for (int cy = top; cy <= bottom; cy++) {
+			for (int cx = left; cx <= right; cx++) {
+				if (!tiles.isChunkLoaded(cx, cy)) {
+					continue;
+				}
+				TileChunk chunk = layerChunks[cy * columns + cx];
+				if (chunk == null) {
+					chunk = new TileChunk(cx, cy);
+					layerChunks[cy * columns + cx] = chunk;
+				}
+				int version = tiles.getChunkVersion(cx, cy);
+				if (chunk.image == null || chunk.version != version) {
+					renderChunk(mapLayer, tiles, chunk, chunkWidth, chunkHeight);
+					chunk.version = version;
+				}
+				drawImage(g, chunk.image, cx * chunkWidth, cy * chunkHeight);
+
+				// animated tiles are drawn over the chunk image.
+				TileTable table = mapLayer.getTileTable();
+				for (int i = 0; i < chunk.animatedCount; i++) {
+					int x = chunk.animated[i * 2];
+					int y = chunk.animated[i * 2 + 1];
+					int id = tiles.getTileIdUnchecked(x, y);
+					if (id != 0) {
+						MapObject mo = table.getObject(id);
+						drawSprite(g, table.getAnimation(id).getFrame(), x * mo.width, y * mo.height);
 					}
-					g.drawImage(mo.imageBuffer, x * mo.width, y * mo.height, null);
 				}
+
 				if (dg.config.debug > 4) {
-					if (mo != null) {
-						g.setColor(Color.GRAY);
-					} else {
-						g.setColor(Color.BLUE);
+					drawChunkGrid(g, tiles, chunk, tileWidth, tileHeight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Release the images of the chunks unloaded by a {@link MapStreamer} since
+	 * the last call.
+	 *
+	 * @param mapLayer    the tilemap layer.
+	 * @param layerChunks the pre-rendered chunks of the layer.
+	 */
+	private void releaseUnloadedChunks(MapLayer mapLayer, TileChunk[] layerChunks) {
+		int count = mapLayer.getUnloadCount();
+		if (unloads.getOrDefault(mapLayer, 0) != count) {
+			for (TileChunk chunk : layerChunks) {
+				if (chunk != null && chunk.image != null && !mapLayer.isChunkLoaded(chunk.cx, chunk.cy)) {
+					chunk.image = null;
+				}
+			}
+			unloads.put(mapLayer, count);
+		}
+	}
+
+	/**
+	 * Render the static tiles of a chunk into its image, and list its animated
+	 * tiles.
+	 *
+	 * @param mapLayer    the tilemap layer the chunk belongs to.
+	 * @param tiles       the tiles of the layer.
+	 * @param chunk       the chunk to be rendered.
+	 * @param chunkWidth  width of a chunk, in pixels.
+	 * @param chunkHeight height of a chunk, in pixels.
+	 */
+	private void renderChunk(MapLayer mapLayer, TileGrid tiles, TileChunk chunk, int chunkWidth, int chunkHeight) {
+		if (chunk.image == null) {
+			chunk.image = CompatibleImage.create(chunkWidth, chunkHeight, Transparency.TRANSLUCENT);
+		}
+		Graphics2D cg = chunk.image.createGraphics();
+		cg.setComposite(AlphaComposite.Clear);
+		cg.fillRect(0, 0, chunkWidth, chunkHeight);
+		cg.setComposite(AlphaComposite.SrcOver);
+		cg.translate(-chunk.cx * chunkWidth, -chunk.cy * chunkHeight);
+
+		chunk.animatedCount = 0;
+		TileTable table = mapLayer.getTileTable();
+		int x0 = chunk.cx * MapLayer.CHUNK_SIZE;
+		int y0 = chunk.cy * MapLayer.CHUNK_SIZE;
+		int x1 = Math.min(x0 + MapLayer.CHUNK_SIZE, (int) mapLayer.width);
+		int y1 = Math.min(y0 + MapLayer.CHUNK_SIZE, (int) mapLayer.height);
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				int id = tiles.getTileIdUnchecked(x, y);
+				if (id != 0) {
+					if (table.is(id, TileTable.ANIMATED)) {
+						chunk.addAnimated(x, y);
+					} else if (table.getSprite(id) != null) {
+						MapObject mo = table.getObject(id);
+						table.getSprite(id).draw(cg, x * mo.width, y * mo.height);
 					}
-					g.drawRect((int) x * mapLayer.assetsObjects.get(0).tileWidth,
-							(int) y * mapLayer.assetsObjects.get(0).tileHeight, mapLayer.assetsObjects.get(0).tileWidth,
-							mapLayer.assetsObjects.get(0).tileHeight);
 				}
 			}
 		}
+		cg.dispose();
+	}
+
+	private void drawChunkGrid(DrawContext g, TileGrid tiles, TileChunk chunk, int tileWidth, int tileHeight) {
+		int x0 = chunk.cx * MapLayer.CHUNK_SIZE;
+		int y0 = chunk.cy * MapLayer.CHUNK_SIZE;
+		for (int y = y0; y < y0 + MapLayer.CHUNK_SIZE; y++) {
+			for (int x = x0; x < x0 + MapLayer.CHUNK_SIZE; x++) {
+				if (tiles.getTileId(x, y) != 0) {
+					g.setColor(Color.GRAY);
+				} else {
+					g.setColor(Color.BLUE);
+				}
+				g.drawRect(x * tileWidth, y * tileHeight, tileWidth, tileHeight);
+			}
+		}
+		g.setColor(Color.ORANGE);
+		g.drawRect(x0 * tileWidth, y0 * tileHeight, MapLayer.CHUNK_SIZE * tileWidth, MapLayer.CHUNK_SIZE * tileHeight);
 	}
 
 	/**
 	 * @param g
-	 * @param camera
+	 * @param camX
+	 * @param camY
 	 * @param mWidth
 	 * @param tileWidth
 	 * @param mapLayer
 	 */
-	private void drawBackgroundLayer(Graphics2D g, Camera camera, int mWidth, int tileWidth, MapLayer mapLayer) {
+	private void drawBackgroundLayer(DrawContext g, double camX, double camY, int mWidth, int tileWidth, MapLayer mapLayer) {
 		if (mapLayer.backgroundImage != null) {
-			double bx = camera.pos.x * mapLayer.backgroundImage.getWidth() / (mWidth * tileWidth);
-			double by = camera.pos.y;
+			double bx = camX * mapLayer.backgroundImage.getWidth() / (mWidth * tileWidth);
+			double by = camY;
 			for (int x = (int) (bx - (1 * mapLayer.backgroundImage.getWidth())); x <= (bx
 					+ (2 * mapLayer.backgroundImage.getWidth())); x += mapLayer.backgroundImage.getWidth()) {
-				g.drawImage(mapLayer.backgroundImage, (int) x, (int) by, null);
+				drawImage(g, mapLayer.backgroundImage, (int) x, (int) by);
 			}
 		}
 	}
 
-	/**
-	 * Compute next frame of animation for the MapObject.
-	 * 
-	 * @param mo      the MapObject to be updated.
-	 * @param elapsed the elapsed time since previous call.
-	 * @return the MapObject with frame and imageBuffer updated.
-	 */
-	private MapObject animateMapObject(MapObject mo, double elapsed) {
-		mo.imageBuffer = mo.animation.animate(elapsed);
-		return mo;
+	private void drawImage(DrawContext g, BufferedImage image, int x, int y) {
+		g.drawImage(image, x, y);
+		drawCalls++;
 	}
 
-	private MapObject getTile(MapLayer layer, int x, int y) {
-		if (x >= 0 && x < layer.width && y >= 0 && y < layer.height) {
-			return layer.tiles[x][y];
-		}
-		return null;
+	private void drawSprite(DrawContext g, Sprite sprite, int x, int y) {
+		sprite.draw(g, x, y);
+		drawCalls++;
+	}
+
+	/**
+	 * @return the number of images drawn to render the map at the last frame.
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package core.map;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MapSnapshot is the copy of the tiles of the visible chunks of a
+ * MapLevel, captured by the game loop with a RenderSnapshot. The render thread
+ * draws the map from this copy, and never reads the tiles changed meanwhile by
+ * the update steps (collected items, chunks loaded or evicted by the
+ * {@link MapStreamer}).
+ * <p>
+ * The copies are reused from one capture to the next: only the tile ids of
+ * the chunks in the view are copied, a few KB per step.
+ *
+ * <pre>
+ * snapshot.map.capture(mapLevel, left, top, right, bottom);
+ * // on the render thread
+ * mapRenderer.render(game, g, mapLevel, camX, camY, viewport, elapsed, snapshot.map);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapRenderer
+ */
+public class MapSnapshot {
+
+	/**
+	 * The copy of the visible chunks of one tilemap layer.
+	 */
+	private static class LayerTiles implements TileGrid {
+		int columns;
+		int rows;
+		// range of the copied chunks.
+		int left;
+		int top;
+		int right;
+		int bottom;
+		// tile ids of the copied chunks, null if not loaded, and their version.
+		short[][] blocks = new short[0][];
+		int[] versions = new int[0];
+		// the arrays the tile ids are copied into.
+		final List<short[]> pool = new ArrayList<>();
+
+		void capture(MapLayer layer, int left, int top, int right, int bottom) {
+			this.columns = (int) layer.width;
+			this.rows = (int) layer.height;
+			this.left = left;
+			this.top = top;
+			this.right = right;
+			this.bottom = bottom;
+			int size = Math.max(0, (right - left + 1) * (bottom - top + 1));
+			if (blocks.length < size) {
+				blocks = new short[size][];
+				versions = new int[size];
+			}
+			int used = 0;
+			int chunkColumns = layer.getChunkColumns();
+			for (int cy = top; cy <= bottom; cy++) {
+				for (int cx = left; cx <= right; cx++) {
+					int chunk = cy * chunkColumns + cx;
+					int i = (cy - top) * (right - left + 1) + (cx - left);
+					short[] block = layer.getBlock(chunk);
+					versions[i] = layer.getChunkVersion(chunk);
+					if (block == null) {
+						blocks[i] = null;
+					} else {
+						if (used == pool.size()) {
+							pool.add(new short[MapLayer.CHUNK_SIZE * MapLayer.CHUNK_SIZE]);
+						}
+						blocks[i] = pool.get(used++);
+						System.arraycopy(block, 0, blocks[i], 0, block.length);
+					}
+				}
+			}
+		}
+
+		private int index(int cx, int cy) {
+			if (cx < left || cx > right || cy < top || cy > bottom) {
+				return -1;
+			}
+			return (cy - top) * (right - left + 1) + (cx - left);
+		}
+
+		@Override
+		public int getTileId(int x, int y) {
+			if (x < 0 || y < 0 || x >= columns || y >= rows) {
+				return 0;
+			}
+			return getTileIdUnchecked(x, y);
+		}
+
+		@Override
+		public int getTileIdUnchecked(int x, int y) {
+			int i = index(x / MapLayer.CHUNK_SIZE, y / MapLayer.CHUNK_SIZE);
+			short[] block = i >= 0 ? blocks[i] : null;
+			return block != null
+					? block[(y % MapLayer.CHUNK_SIZE) * MapLayer.CHUNK_SIZE + (x % MapLayer.CHUNK_SIZE)]
+					: 0;
+		}
+
+		@Override
+		public boolean isChunkLoaded(int cx, int cy) {
+			int i = index(cx, cy);
+			return i >= 0 && blocks[i] != null;
+		}
+
+		@Override
+		public int getChunkVersion(int cx, int cy) {
+			int i = index(cx, cy);
+			return i >= 0 ? versions[i] : 0;
+		}
+	}
+
+	// the copies of the layers of the owner level, kept from one capture to the
+	// next.
+	private final Map<MapLayer, LayerTiles> layers = new IdentityHashMap<>();
+	private MapLevel owner;
+	// the level captured, null if none.
+	private MapLevel level;
+
+	/**
+	 * Copy the tiles of the chunks of the tilemap layers of <code>level</code>
+	 * covering an area of the map.
+	 *
+	 * @param level  the map level.
+	 * @param left   left of the area, in pixels.
+	 * @param top    top of the area, in pixels.
+	 * @param right  right of the area, in pixels.
+	 * @param bottom bottom of the area, in pixels.
+	 */
+	public void capture(MapLevel level, double left, double top, double right, double bottom) {
+		if (owner != level) {
+			layers.clear();
+			owner = level;
+		}
+		this.level = level;
+		for (MapLayer layer : level.layers.values()) {
+			if (layer.type != MapLayer.LayerType.LAYER_TILEMAP) {
+				continue;
+			}
+			int chunkWidth = layer.assetsObjects.get(0).tileWidth * MapLayer.CHUNK_SIZE;
+			int chunkHeight = layer.assetsObjects.get(0).tileHeight * MapLayer.CHUNK_SIZE;
+			LayerTiles tiles = layers.computeIfAbsent(layer, l -> new LayerTiles());
+			tiles.capture(layer, Math.max(0, Math.floorDiv((int) left, chunkWidth)),
+					Math.max(0, Math.floorDiv((int) top, chunkHeight)),
+					Math.min(layer.getChunkColumns() - 1, Math.floorDiv((int) right, chunkWidth)),
+					Math.min(layer.getChunkRows() - 1, Math.floorDiv((int) bottom, chunkHeight)));
+		}
+	}
+
+	/**
+	 * Forget the captured level: the map is then drawn from its own layers.
+	 */
+	public void clear() {
+		level = null;
+	}
+
+	/**
+	 * @param layer a layer of the map.
+	 * @return the tiles of the layer to be drawn: their copy if captured, else
+	 *         the layer itself.
+	 */
+	TileGrid getTiles(MapLayer layer) {
+		LayerTiles tiles = level != null ? layers.get(layer) : null;
+		return tiles != null ? tiles : layer;
+	}
+}
@@ -0,0 +1,535 @@
+package core.map;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import core.map.MapLayer.LayerType;
+import core.map.MapReader.TileType;
+import core.math.Vector2D;
+import core.object.GameObject;
+import core.object.GameObject.GameAction;
+import core.object.Light;
+import core.object.Light.LightType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The MapStreamer keeps loaded only the chunks of a streamed
+ * {@link MapLevel} around the camera.
+ * <p>
+ * The chunks coming near the view are read and decoded from the compiled map
+ * by a background thread, then activated by {@link #update(double, double, int, int)}
+ * on the update thread: their tiles are bound to the layer and their objects
+ * are created. A chunk entering the view before being decoded is read at once.
+ * <p>
+ * When the estimated size of the loaded chunks (tiles, pre-rendered image and
+ * objects) exceeds the memory budget, the chunks far from the view are
+ * evicted, the farthest first. The tiles changed since the chunk has been
+ * loaded and the state of its objects are kept, to be restored when the chunk
+ * comes back.
+ * <p>
+ * The player and the ambient lights, which cover the whole view, are created
+ * on start wherever they are, and never evicted.
+ *
+ * <pre>
+ * MapReader reader = new MapReader(resourceManager, cachePath);
+ * MapLevel mapLevel = reader.open("/res/maps/map_2.json");
+ * MapStreamer streamer = new MapStreamer(reader, mapLevel, 16384, listener);
+ * streamer.start(viewport.width, viewport.height);
+ * // each tick:
+ * streamer.update(camera.pos.x, camera.pos.y, viewport.width, viewport.height);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapReader#open(String)
+ * @see MapFile#readChunk(MapLevel, MapLayer, int)
+ */
+@Slf4j
+public class MapStreamer implements Runnable {
+
+	/**
+	 * Chunks around the view, in chunks, read in advance.
+	 */
+	public static final int PRELOAD_CHUNKS = 1;
+	/**
+	 * Chunks around the view, in chunks, never evicted.
+	 */
+	public static final int KEEP_CHUNKS = 2;
+
+	// estimated size of a GameObject, its attributes and behaviors.
+	private static final int OBJECT_BYTES = 2048;
+	private static final long POLL_MILLIS = 100;
+
+	private static final byte UNLOADED = 0;
+	private static final byte REQUESTED = 1;
+	private static final byte LOADED = 2;
+
+	/**
+	 * Listener of the objects created and removed with the chunks.
+	 */
+	public interface StreamListener {
+		/**
+		 * An object of a chunk has been created, or restored.
+		 *
+		 * @param go the object to be added to the scene.
+		 */
+		void activated(GameObject go);
+
+		/**
+		 * An object of an evicted chunk has been saved.
+		 *
+		 * @param go the object to be removed from the scene.
+		 */
+		void evicted(GameObject go);
+	}
+
+	/**
+	 * A chunk read by the background thread.
+	 */
+	private static class Loaded {
+		final int layer;
+		final int chunk;
+		final MapFile.Chunk data;
+
+		Loaded(int layer, int chunk, MapFile.Chunk data) {
+			this.layer = layer;
+			this.chunk = chunk;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * An object created from a chunk, and its saved state while the chunk is
+	 * evicted.
+	 */
+	private static class Spawned {
+		final int layer;
+		final int ordinal;
+		final int object;
+		final int x;
+		final int y;
+		GameObject go;
+
+		Vector2D pos;
+		Vector2D vel;
+		Vector2D acc;
+		GameAction action;
+		int direction;
+		boolean enable;
+		boolean displayed;
+		Map<String, Object> attributes;
+		List<MapObject> items;
+
+		Spawned(int layer, int ordinal, int object, int x, int y) {
+			this.layer = layer;
+			this.ordinal = ordinal;
+			this.object = object;
+			this.x = x;
+			this.y = y;
+		}
+
+		void save() {
+			pos = go.pos;
+			vel = go.vel;
+			acc = go.acc;
+			action = go.action;
+			direction = go.direction;
+			enable = go.enable;
+			displayed = go.displayed;
+			attributes = go.attributes;
+			items = go.items;
+			go = null;
+		}
+
+		void restore(GameObject restored) {
+			go = restored;
+			go.pos = pos;
+			go.vel = vel;
+			go.acc = acc;
+			go.action = action;
+			go.direction = direction;
+			go.enable = enable;
+			go.displayed = displayed;
+			go.attributes = attributes;
+			go.items = items;
+		}
+	}
+
+	private final MapReader reader;
+	private final MapLevel mapLevel;
+	private final StreamListener listener;
+	private final long budget;
+
+	private final MapLayer[] layers;
+	private final int[] chunkBytes;
+	private final byte[][] states;
+	// chunks already activated once: their objects are created from the saved
+	// states, no more from the map.
+	private final boolean[][] visited;
+	// version of the chunks when activated, to detect their changed tiles.
+	private final int[][] versions;
+	// changed tiles of the evicted chunks.
+	private final List<Map<Integer, short[]>> savedBlocks = new ArrayList<>();
+	// saved objects of the evicted chunks.
+	private final List<Map<Integer, List<Spawned>>> savedObjects = new ArrayList<>();
+
+	// ordinals of the objects created on start and never evicted.
+	private final Set<Integer> pinned = new HashSet<>();
+
+	// loaded chunks, as (layer, chunk) pairs.
+	private final List<int[]> loaded = new ArrayList<>();
+	private final List<Spawned> spawned = new ArrayList<>();
+	private long residentBytes = 0;
+
+	private final BlockingQueue<int[]> requests = new LinkedBlockingQueue<>();
+	private final ConcurrentLinkedQueue<Loaded> results = new ConcurrentLinkedQueue<>();
+	private volatile boolean running = false;
+	private Thread thread;
+
+	private int activations = 0;
+	private int evictions = 0;
+
+	/**
+	 * Create the streamer of a level.
+	 *
+	 * @param reader   the MapReader the level has been opened with, creating the
+	 *                 objects of the chunks.
+	 * @param mapLevel a level opened with {@link MapReader#open(String)}.
+	 * @param budget   the memory budget of the loaded chunks, in KB.
+	 * @param listener the listener of the objects of the chunks.
+	 */
+	public MapStreamer(MapReader reader, MapLevel mapLevel, int budget, StreamListener listener) {
+		this.reader = reader;
+		this.mapLevel = mapLevel;
+		this.listener = listener;
+		this.budget = budget * 1024L;
+
+		List<MapLayer> tilemaps = new ArrayList<>();
+		for (MapLayer ml : mapLevel.layers.values()) {
+			if (ml.type == LayerType.LAYER_TILEMAP) {
+				tilemaps.add(ml);
+			}
+		}
+		layers = tilemaps.toArray(new MapLayer[0]);
+		chunkBytes = new int[layers.length];
+		states = new byte[layers.length][];
+		visited = new boolean[layers.length][];
+		versions = new int[layers.length][];
+		for (int i = 0; i < layers.length; i++) {
+			MapLayer ml = layers[i];
+			int chunks = ml.getChunkColumns() * ml.getChunkRows();
+			MapObjectAsset asset = ml.assetsObjects.get(0);
+			// the tile ids, and the image of the chunk in the MapRenderer.
+			chunkBytes[i] = MapLayer.CHUNK_SIZE * MapLayer.CHUNK_SIZE * (2 + asset.tileWidth * asset.tileHeight * 4);
+			states[i] = new byte[chunks];
+			visited[i] = new boolean[chunks];
+			versions[i] = new int[chunks];
+			savedBlocks.add(new HashMap<>());
+			savedObjects.add(new HashMap<>());
+		}
+	}
+
+	/**
+	 * Create the pinned objects, start the background thread, and load the
+	 * chunks around the initial position of the player.
+	 *
+	 * @param width  width of the view.
+	 * @param height height of the view.
+	 */
+	public void start(int width, int height) {
+		if (!running) {
+			createPinnedObjects();
+			running = true;
+			thread = new Thread(this, "map-streamer");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		update(mapLevel.playerInitialX - width / 2, mapLevel.playerInitialY - height / 2, width, height);
+	}
+
+	/**
+	 * Look for the pinned objects through the objects of all the chunks, and
+	 * create them.
+	 */
+	private void createPinnedObjects() {
+		for (int i = 0; i < layers.length; i++) {
+			MapLayer ml = layers[i];
+			int chunks = ml.getChunkColumns() * ml.getChunkRows();
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				int[] spawns = MapFile.readSpawns(mapLevel, ml, chunk);
+				for (int j = 0; j < spawns.length; j += 4) {
+					if (isPinned(ml, spawns[j + 1])) {
+						pinned.add(spawns[j]);
+						Spawned s = new Spawned(i, spawns[j], spawns[j + 1], spawns[j + 2], spawns[j + 3]);
+						s.go = reader.spawn(mapLevel, ml, s.ordinal, s.object, s.x, s.y);
+						add(s);
+					}
+				}
+			}
+		}
+		log.debug("{} objects pinned", pinned.size());
+	}
+
+	/**
+	 * @return true if the object is the player or an ambient light.
+	 */
+	private boolean isPinned(MapLayer ml, int object) {
+		MapObject mo = ml.getTileTable().getObject(object + 1);
+		return mo.type == TileType.PLAYER || (mo.type == TileType.LIGHT && mo.lightType == LightType.LIGHT_AMBIANT);
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				int[] request = requests.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (request != null) {
+					results.add(new Loaded(request[0], request[1],
+							MapFile.readChunk(mapLevel, layers[request[0]], request[1])));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (RuntimeException e) {
+				log.error("Unable to read a chunk of the map", e);
+			}
+		}
+	}
+
+	/**
+	 * Load the chunks around the view, activate the chunks read by the
+	 * background thread, and evict the far ones if over the budget. Must be
+	 * called from the update thread.
+	 *
+	 * @param x      horizontal position of the view in the level.
+	 * @param y      vertical position of the view in the level.
+	 * @param width  width of the view.
+	 * @param height height of the view.
+	 */
+	public void update(double x, double y, int width, int height) {
+		Loaded result;
+		while ((result = results.poll()) != null) {
+			if (states[result.layer][result.chunk] == REQUESTED) {
+				activate(result.layer, result.chunk, result.data);
+			}
+		}
+
+		for (int i = 0; i < layers.length; i++) {
+			MapLayer ml = layers[i];
+			int[] view = getChunkRange(i, x, y, width, height, 0);
+			int[] around = getChunkRange(i, x, y, width, height, PRELOAD_CHUNKS);
+			int columns = ml.getChunkColumns();
+			for (int cy = around[1]; cy <= around[3]; cy++) {
+				for (int cx = around[0]; cx <= around[2]; cx++) {
+					int chunk = cy * columns + cx;
+					boolean visible = cx >= view[0] && cx <= view[2] && cy >= view[1] && cy <= view[3];
+					if (visible && states[i][chunk] != LOADED) {
+						// can't wait for the background thread.
+						activate(i, chunk, MapFile.readChunk(mapLevel, ml, chunk));
+					} else if (states[i][chunk] == UNLOADED) {
+						states[i][chunk] = REQUESTED;
+						requests.add(new int[] { i, chunk });
+					}
+				}
+			}
+		}
+
+		if (residentBytes > budget) {
+			evict(x, y, width, height);
+		}
+	}
+
+	/**
+	 * @return the range of chunks (left, top, right, bottom) of a layer in the
+	 *         view extended by <code>margin</code> chunks, clamped to the layer.
+	 */
+	private int[] getChunkRange(int layer, double x, double y, int width, int height, int margin) {
+		MapLayer ml = layers[layer];
+		MapObjectAsset asset = ml.assetsObjects.get(0);
+		int chunkWidth = asset.tileWidth * MapLayer.CHUNK_SIZE;
+		int chunkHeight = asset.tileHeight * MapLayer.CHUNK_SIZE;
+		return new int[] { Math.max(0, Math.floorDiv((int) x, chunkWidth) - margin),
+				Math.max(0, Math.floorDiv((int) y, chunkHeight) - margin),
+				Math.min(ml.getChunkColumns() - 1, Math.floorDiv((int) x + width, chunkWidth) + margin),
+				Math.min(ml.getChunkRows() - 1, Math.floorDiv((int) y + height, chunkHeight) + margin) };
+	}
+
+	/**
+	 * Bind the tiles of a chunk to its layer, and create or restore its
+	 * objects.
+	 */
+	private void activate(int layer, int chunk, MapFile.Chunk data) {
+		MapLayer ml = layers[layer];
+		short[] saved = savedBlocks.get(layer).remove(chunk);
+		ml.setBlock(chunk, saved != null ? saved : data.block);
+		versions[layer][chunk] = ml.getChunkVersion(chunk);
+		states[layer][chunk] = LOADED;
+		loaded.add(new int[] { layer, chunk });
+		residentBytes += chunkBytes[layer];
+
+		if (!visited[layer][chunk]) {
+			visited[layer][chunk] = true;
+			for (int i = 0; i < data.spawns.length; i += 4) {
+				if (pinned.contains(data.spawns[i])) {
+					continue;
+				}
+				Spawned s = new Spawned(layer, data.spawns[i], data.spawns[i + 1], data.spawns[i + 2],
+						data.spawns[i + 3]);
+				s.go = reader.spawn(mapLevel, ml, s.ordinal, s.object, s.x, s.y);
+				add(s);
+			}
+		} else {
+			List<Spawned> objects = savedObjects.get(layer).remove(chunk);
+			if (objects != null) {
+				for (Spawned s : objects) {
+					GameObject go = reader.spawn(mapLevel, ml, s.ordinal, s.object, s.x, s.y);
+					if (go != null) {
+						s.restore(go);
+					}
+					add(s);
+				}
+				log.debug("chunk {} of layer {} activated, {} objects restored", chunk, ml.name, objects.size());
+			}
+		}
+		activations++;
+	}
+
+	private void add(Spawned s) {
+		if (s.go != null) {
+			spawned.add(s);
+			residentBytes += OBJECT_BYTES;
+			listener.activated(s.go);
+		}
+	}
+
+	/**
+	 * Evict the loaded chunks out of the kept area, the farthest first, until
+	 * the loaded chunks fit in the budget.
+	 */
+	private void evict(double x, double y, int width, int height) {
+		double centerX = x + width / 2;
+		double centerY = y + height / 2;
+		List<int[]> candidates = new ArrayList<>();
+		for (int[] lc : loaded) {
+			int[] kept = getChunkRange(lc[0], x, y, width, height, KEEP_CHUNKS);
+			int columns = layers[lc[0]].getChunkColumns();
+			int cx = lc[1] % columns;
+			int cy = lc[1] / columns;
+			if (cx < kept[0] || cx > kept[2] || cy < kept[1] || cy > kept[3]) {
+				candidates.add(lc);
+			}
+		}
+		candidates.sort((a, b) -> Double.compare(getDistance(b, centerX, centerY), getDistance(a, centerX, centerY)));
+		for (int i = 0; i < candidates.size() && residentBytes > budget; i++) {
+			evict(candidates.get(i)[0], candidates.get(i)[1]);
+			loaded.remove(candidates.get(i));
+		}
+	}
+
+	private double getDistance(int[] lc, double x, double y) {
+		MapLayer ml = layers[lc[0]];
+		MapObjectAsset asset = ml.assetsObjects.get(0);
+		int columns = ml.getChunkColumns();
+		double dx = ((lc[1] % columns) + 0.5) * asset.tileWidth * MapLayer.CHUNK_SIZE - x;
+		double dy = ((lc[1] / columns) + 0.5) * asset.tileHeight * MapLayer.CHUNK_SIZE - y;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Save and remove the objects standing in a chunk, then unload its tiles,
+	 * keeping them if changed.
+	 */
+	private void evict(int layer, int chunk) {
+		MapLayer ml = layers[layer];
+		MapObjectAsset asset = ml.assetsObjects.get(0);
+		int chunkWidth = asset.tileWidth * MapLayer.CHUNK_SIZE;
+		int chunkHeight = asset.tileHeight * MapLayer.CHUNK_SIZE;
+		int columns = ml.getChunkColumns();
+		List<Spawned> objects = null;
+		for (int i = spawned.size() - 1; i >= 0; i--) {
+			Spawned s = spawned.get(i);
+			if (s.layer != layer || pinned.contains(s.ordinal)) {
+				continue;
+			}
+			int cx = Math.min(columns - 1, Math.max(0, (int) s.go.pos.x / chunkWidth));
+			int cy = Math.min(ml.getChunkRows() - 1, Math.max(0, (int) s.go.pos.y / chunkHeight));
+			if (cy * columns + cx == chunk) {
+				GameObject go = s.go;
+				mapLevel.child.remove(go.name);
+				if (go instanceof Light) {
+					mapLevel.lights.remove(go);
+				}
+				listener.evicted(go);
+				s.save();
+				spawned.remove(i);
+				residentBytes -= OBJECT_BYTES;
+				if (objects == null) {
+					objects = new ArrayList<>();
+				}
+				objects.add(s);
+			}
+		}
+		if (objects != null) {
+			// objects may have moved from another chunk: restore them with it.
+			savedObjects.get(layer).computeIfAbsent(chunk, c -> new ArrayList<>()).addAll(objects);
+		}
+
+		if (ml.getChunkVersion(chunk) != versions[layer][chunk]) {
+			savedBlocks.get(layer).put(chunk, ml.getBlock(chunk));
+		}
+		ml.setBlock(chunk, null);
+		states[layer][chunk] = UNLOADED;
+		residentBytes -= chunkBytes[layer];
+		evictions++;
+		log.debug("chunk {} of layer {} evicted, {} objects saved", chunk, ml.name,
+				objects != null ? objects.size() : 0);
+	}
+
+	/**
+	 * Stop the background thread.
+	 */
+	public void dispose() {
+		running = false;
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+		requests.clear();
+		results.clear();
+	}
+
+	/**
+	 * @return the number of chunks loaded.
+	 */
+	public int getLoadedChunks() {
+		return loaded.size();
+	}
+
+	/**
+	 * @return the estimated size of the loaded chunks, in bytes.
+	 */
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+
+	/**
+	 * @return the number of chunks activated since the start.
+	 */
+	public int getActivations() {
+		return activations;
+	}
+
+	/**
+	 * @return the number of chunks evicted since the start.
+	 */
+	public int getEvictions() {
+		return evictions;
+	}
+}
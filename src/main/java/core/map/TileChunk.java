@@ -0,0 +1,41 @@
+package core.map;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A TileChunk is a square of {@link MapLayer#CHUNK_SIZE} tiles of a tilemap
+ * layer, pre-rendered into one image by the MapRenderer. The animated tiles
+ * are not part of the image: their positions are kept to be drawn over it at
+ * each frame.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapRenderer
+ */
+class TileChunk {
+
+	final int cx;
+	final int cy;
+
+	BufferedImage image;
+	// version of the MapLayer chunk the image has been rendered from.
+	int version = -1;
+
+	// positions (x,y) in the layer of the animated tiles, as pairs.
+	int[] animated = new int[16];
+	int animatedCount = 0;
+
+	TileChunk(int cx, int cy) {
+		this.cx = cx;
+		this.cy = cy;
+	}
+
+	void addAnimated(int x, int y) {
+		if (animatedCount * 2 == animated.length) {
+			animated = Arrays.copyOf(animated, animated.length * 2);
+		}
+		animated[animatedCount * 2] = x;
+		animated[animatedCount * 2 + 1] = y;
+		animatedCount++;
+	}
+}
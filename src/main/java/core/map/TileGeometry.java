@@ -0,0 +1,237 @@
+package core.map;
+
+import java.util.Arrays;
+
+/**
+ * The TileGeometry is the static collision geometry of a tilemap layer: the
+ * blocking tiles of each chunk merged into the fewest rectangles of a same
+ * tile, and the other tiles (collectibles, ladders, ...) kept as single cells,
+ * so that a span of tiles along a GameObject is tested against a few
+ * rectangles instead of each of the tiles it covers. A single tile, or a
+ * span of a few chunks, is read faster from the {@link MapLayer} itself.
+ * <p>
+ * The geometry of a chunk is merged again, on its next query, once the
+ * version of the chunk changed: a tile collected or removed, or the chunk
+ * loaded or unloaded by the {@link MapStreamer}.
+ *
+ * <pre>
+ * TileGeometry geometry = layer.getGeometry();
+ * int count = geometry.collect(x, y0, x, y1);
+ * for (int i = 0; i &lt; count; i++) {
+ * 	MapObject mo = layer.getTileTable().getObject(geometry.getHitId(i));
+ * }
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapLayer#getGeometry()
+ */
+public class TileGeometry {
+
+	private static final int[] NONE = new int[0];
+	private static final int SIZE = MapLayer.CHUNK_SIZE;
+
+	private final MapLayer layer;
+	private final TileTable tileTable;
+	private final int columns;
+	private final int rows;
+	private final int chunkColumns;
+
+	// merged blocking tiles of each chunk, as (x, y, width, height, id)
+	// quintuplets, in tiles.
+	private final int[][] rects;
+	// other tiles of each chunk, as (x, y, id) triplets.
+	private final int[][] cells;
+	// version of the chunk each geometry was merged from.
+	private final int[] versions;
+
+	// buffers of the chunk being merged.
+	private final boolean[] merged = new boolean[SIZE * SIZE];
+	private final int[] rectBuffer = new int[5 * SIZE * SIZE];
+	private final int[] cellBuffer = new int[3 * SIZE * SIZE];
+
+	// tiles found by the last collect, as (x, y, id) triplets, ordered by y
+	// then x.
+	private int[] hits = new int[3 * 8];
+	private int hitCount;
+
+	/**
+	 * Merge the geometry of all the chunks loaded in the layer.
+	 *
+	 * @param layer a tilemap layer, its tiles initialized.
+	 */
+	TileGeometry(MapLayer layer) {
+		this.layer = layer;
+		this.tileTable = layer.getTileTable();
+		this.columns = (int) layer.width;
+		this.rows = (int) layer.height;
+		this.chunkColumns = layer.getChunkColumns();
+		int chunks = chunkColumns * layer.getChunkRows();
+		rects = new int[chunks][];
+		cells = new int[chunks][];
+		versions = new int[chunks];
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			merge(chunk);
+		}
+	}
+
+	/**
+	 * Collect the tiles in the area from (x0,y0) to (x1,y1), bounds included:
+	 * one hit per merged rectangle, at its first tile in the area, and one hit
+	 * per other tile. The hits are ordered by y then x, as a row-major walk of
+	 * the area would find them.
+	 *
+	 * @return the number of hits, read through {@link #getHitX(int)},
+	 *         {@link #getHitY(int)} and {@link #getHitId(int)} until the next
+	 *         collect.
+	 */
+	public int collect(int x0, int y0, int x1, int y1) {
+		hitCount = 0;
+		x0 = Math.max(x0, 0);
+		y0 = Math.max(y0, 0);
+		x1 = Math.min(x1, columns - 1);
+		y1 = Math.min(y1, rows - 1);
+		for (int cy = y0 / SIZE; y0 <= y1 && cy <= y1 / SIZE; cy++) {
+			for (int cx = x0 / SIZE; x0 <= x1 && cx <= x1 / SIZE; cx++) {
+				int chunk = refresh(cx, cy);
+				int[] r = rects[chunk];
+				for (int i = 0; i < r.length; i += 5) {
+					if (r[i] <= x1 && r[i + 1] <= y1 && r[i] + r[i + 2] > x0 && r[i + 1] + r[i + 3] > y0) {
+						addHit(Math.max(r[i], x0), Math.max(r[i + 1], y0), r[i + 4]);
+					}
+				}
+				int[] c = cells[chunk];
+				for (int i = 0; i < c.length; i += 3) {
+					if (c[i] >= x0 && c[i] <= x1 && c[i + 1] >= y0 && c[i + 1] <= y1) {
+						addHit(c[i], c[i + 1], c[i + 2]);
+					}
+				}
+			}
+		}
+		return hitCount;
+	}
+
+	public int getHitX(int i) {
+		return hits[3 * i];
+	}
+
+	public int getHitY(int i) {
+		return hits[3 * i + 1];
+	}
+
+	public int getHitId(int i) {
+		return hits[3 * i + 2];
+	}
+
+	/**
+	 * @return the number of rectangles the blocking tiles of the loaded chunks
+	 *         are merged into.
+	 */
+	public int getRectCount() {
+		int count = 0;
+		for (int[] r : rects) {
+			count += r.length / 5;
+		}
+		return count;
+	}
+
+	/**
+	 * Insert a hit, keeping the hits ordered by y then x.
+	 */
+	private void addHit(int x, int y, int id) {
+		if (3 * (hitCount + 1) > hits.length) {
+			hits = Arrays.copyOf(hits, hits.length * 2);
+		}
+		int i = 3 * hitCount;
+		while (i > 0 && (hits[i - 2] > y || (hits[i - 2] == y && hits[i - 3] > x))) {
+			hits[i] = hits[i - 3];
+			hits[i + 1] = hits[i - 2];
+			hits[i + 2] = hits[i - 1];
+			i -= 3;
+		}
+		hits[i] = x;
+		hits[i + 1] = y;
+		hits[i + 2] = id;
+		hitCount++;
+	}
+
+	/**
+	 * Merge the geometry of a chunk again if its tiles changed.
+	 *
+	 * @return the index of the chunk.
+	 */
+	private int refresh(int cx, int cy) {
+		int chunk = cy * chunkColumns + cx;
+		if (versions[chunk] != layer.getChunkVersion(chunk)) {
+			merge(chunk);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Greedy merge of the blocking tiles of a chunk: from each tile not merged
+	 * yet, in row-major order, grow a run of the same tile to the right, then
+	 * grow it down while the whole run below is the same tile.
+	 * <p>
+	 * Collectible tiles are never merged, even if blocking: each one must be
+	 * collected on its own.
+	 */
+	private void merge(int chunk) {
+		versions[chunk] = layer.getChunkVersion(chunk);
+		short[] block = layer.getBlock(chunk);
+		if (block == null) {
+			rects[chunk] = NONE;
+			cells[chunk] = NONE;
+			return;
+		}
+		int ox = (chunk % chunkColumns) * SIZE;
+		int oy = (chunk / chunkColumns) * SIZE;
+		int rectCount = 0;
+		int cellCount = 0;
+		Arrays.fill(merged, false);
+		for (int i = 0; i < block.length; i++) {
+			int id = block[i];
+			if (id == 0 || merged[i]) {
+				continue;
+			}
+			int x = i % SIZE;
+			int y = i / SIZE;
+			if (!tileTable.is(id, TileTable.BLOCK) || tileTable.is(id, TileTable.COLLECTIBLE)) {
+				cellBuffer[cellCount++] = ox + x;
+				cellBuffer[cellCount++] = oy + y;
+				cellBuffer[cellCount++] = id;
+				continue;
+			}
+			int w = 1;
+			while (x + w < SIZE && block[i + w] == id && !merged[i + w]) {
+				w++;
+			}
+			int h = 1;
+			while (y + h < SIZE && isRun(block, i + h * SIZE, w, id)) {
+				h++;
+			}
+			for (int j = 0; j < h; j++) {
+				Arrays.fill(merged, i + j * SIZE, i + j * SIZE + w, true);
+			}
+			rectBuffer[rectCount++] = ox + x;
+			rectBuffer[rectCount++] = oy + y;
+			rectBuffer[rectCount++] = w;
+			rectBuffer[rectCount++] = h;
+			rectBuffer[rectCount++] = id;
+		}
+		rects[chunk] = rectCount > 0 ? Arrays.copyOf(rectBuffer, rectCount) : NONE;
+		cells[chunk] = cellCount > 0 ? Arrays.copyOf(cellBuffer, cellCount) : NONE;
+	}
+
+	/**
+	 * @return true if the <code>w</code> tiles from <code>i</code> are the tile
+	 *         <code>id</code>, not merged yet.
+	 */
+	private boolean isRun(short[] block, int i, int w, int id) {
+		for (int k = i; k < i + w; k++) {
+			if (block[k] != id || merged[k]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
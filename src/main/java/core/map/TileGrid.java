@@ -0,0 +1,34 @@
+package core.map;
+
+/**
+ * The tile ids of a tilemap layer, read by chunks: the layer itself, or the
+ * copy of its visible chunks kept by a {@link MapSnapshot}.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapRenderer
+ */
+interface TileGrid {
+
+	/**
+	 * @return the id of the tile at (x,y), 0 if none, out of the layer or in a
+	 *         chunk not loaded.
+	 */
+	int getTileId(int x, int y);
+
+	/**
+	 * @return the id of the tile at (x,y), in the layer, 0 if none or in a chunk
+	 *         not loaded.
+	 */
+	int getTileIdUnchecked(int x, int y);
+
+	/**
+	 * @return true if the tiles of the chunk are loaded.
+	 */
+	boolean isChunkLoaded(int cx, int cy);
+
+	/**
+	 * @return the version of the chunk, increased each time one of its tiles is
+	 *         changed.
+	 */
+	int getChunkVersion(int cx, int cy);
+}
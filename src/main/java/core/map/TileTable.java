@@ -0,0 +1,129 @@
+package core.map;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import core.gfx.Animation;
+import core.gfx.Sprite;
+import core.map.MapReader.TileType;
+
+/**
+ * The TileTable is the flyweight table of the tiles of a
+ * {@link MapObjectAsset}: a tilemap layer only stores the id of its tiles, and
+ * the table gives, for each id, the MapObject holding its properties, and the
+ * data read in the render and collision loops (image, animation, type, flags)
+ * in flat arrays.
+ * <p>
+ * Id 0 is no tile; id <code>n</code> is the n-th MapObject of the asset. The
+ * ids are stored as <code>short</code> in the layers: an asset holds at most
+ * {@link #MAX_ID} MapObjects.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see MapLayer#getTileId(int, int)
+ */
+public class TileTable {
+
+	public static final int BLOCK = 1;
+	public static final int COLLECTIBLE = 2;
+	public static final int CLIMBABLE = 4;
+	public static final int HIT = 8;
+	public static final int ANIMATED = 16;
+
+	/**
+	 * The highest tile id a layer can store.
+	 */
+	public static final int MAX_ID = Short.MAX_VALUE;
+
+	private final MapObject[] objects;
+	private final Map<MapObject, Integer> ids = new IdentityHashMap<>();
+	private final Sprite[] sprites;
+	private final Animation[] animations;
+	private final TileType[] types;
+	private final byte[] flags;
+
+	/**
+	 * Build the table of the MapObjects of an asset, once their images are
+	 * loaded.
+	 *
+	 * @param asset the asset.
+	 * @throws IllegalArgumentException if the asset holds more than
+	 *                                  {@link #MAX_ID} MapObjects.
+	 */
+	TileTable(MapObjectAsset asset) {
+		if (asset.objects.size() > MAX_ID) {
+			throw new IllegalArgumentException(
+					"The asset " + asset.name + " holds " + asset.objects.size() + " objects, more than " + MAX_ID);
+		}
+		int size = asset.objects.size() + 1;
+		objects = new MapObject[size];
+		sprites = new Sprite[size];
+		animations = new Animation[size];
+		types = new TileType[size];
+		flags = new byte[size];
+		int id = 1;
+		for (MapObject mo : asset.objects.values()) {
+			objects[id] = mo;
+			ids.put(mo, id);
+			sprites[id] = mo.sprite;
+			animations[id] = mo.animation;
+			types[id] = mo.type;
+			flags[id] = (byte) ((mo.block ? BLOCK : 0) | (mo.collectible ? COLLECTIBLE : 0)
+					| (mo.climbable ? CLIMBABLE : 0) | (mo.hit ? HIT : 0)
+					| (mo.frameSet != null && mo.frameSet.length > 0 ? ANIMATED : 0));
+			id++;
+		}
+	}
+
+	/**
+	 * @return the number of ids, id 0 included.
+	 */
+	public int size() {
+		return objects.length;
+	}
+
+	/**
+	 * @param id a tile id.
+	 * @return the MapObject of the tile, null for id 0.
+	 */
+	public MapObject getObject(int id) {
+		return objects[id];
+	}
+
+	/**
+	 * @param mo a MapObject of the asset, or null.
+	 * @return the id of the MapObject, 0 if null or not in the asset.
+	 */
+	public int getId(MapObject mo) {
+		Integer id = ids.get(mo);
+		return id != null ? id : 0;
+	}
+
+	public Sprite getSprite(int id) {
+		return sprites[id];
+	}
+
+	public Animation getAnimation(int id) {
+		return animations[id];
+	}
+
+	public TileType getType(int id) {
+		return types[id];
+	}
+
+	/**
+	 * @param id a tile id.
+	 * @return the flags of the tile (e.g. {@link #BLOCK}|{@link #ANIMATED}).
+	 */
+	public int getFlags(int id) {
+		return flags[id];
+	}
+
+	/**
+	 * @param id   a tile id.
+	 * @param flag one or more flags.
+	 * @return true if the tile has one of the flags.
+	 */
+	public boolean is(int id, int flag) {
+		return (flags[id] & flag) != 0;
+	}
+}
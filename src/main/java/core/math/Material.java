@@ -1,5 +1,7 @@
 package core.math;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * <p>
  * The {@link Material} class define some physic parameters for any object into
@@ -39,7 +41,7 @@ public class Material implements Cloneable {
         }
     }
 
-    public static int index = 0;
+    private static final AtomicInteger index = new AtomicInteger();
 
     /**
      * Rock Density : 0.6 Restitution : 0.1 Wood Density : 0.3 Restitution : 0.2
@@ -64,7 +66,7 @@ public class Material implements Cloneable {
     public double magnetism = 0.0f;
 
     public Material() {
-        name = String.format("noname_%03d", index++);
+        name = String.format("noname_%03d", index.getAndIncrement());
         elasticity = 0.0f;
         friction = 0.0f;
         density = 0.0f;
@@ -169,6 +169,13 @@ public class PhysicEngineSystem extends AbstractSystem {
 		}
 	}
 
+	/**
+	 * Remove a GameObject from the update system.
+	 */
+	public void remove(final GameObject o) {
+		objects.remove(o);
+	}
+
 	@Override
 	public void dispose() {
 
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import core.Game;
 import core.behaviors.Behavior;
@@ -14,6 +15,7 @@ import core.collision.Collidable;
 import core.collision.MapTileCollision;
 import core.gfx.Animation;
 import core.gfx.Renderer;
+import core.gfx.Sprite;
 import core.map.MapObject;
 import core.math.Material;
 import core.math.PhysicEngineSystem.PhysicType;
@@ -37,17 +39,24 @@ public class GameObject implements Collidable {
 
 	public GameAction action = GameAction.IDLE;
 
-	private static int goIndex = 0;
-	private final int id = (int) goIndex++;
+	private static final AtomicInteger goIndex = new AtomicInteger();
+	private final int id = goIndex.getAndIncrement();
 
 	public String name = "noname_" + id;
 
 	public BufferedImage image;
+	// the image of the object in a SpriteAtlas, drawn instead of image if set.
+	public Sprite sprite;
 
 	public boolean enable = true;
 
 	public Vector2D pos;
 	public Vector2D newPos;
+	/**
+	 * position at the start of the last update step, used to interpolate
+	 * rendering in the fixed time step loop.
+	 */
+	public Vector2D oldPos;
 	public Vector2D vel;
 
 	public Vector2D acc;
@@ -179,6 +188,39 @@ public class GameObject implements Collidable {
 		// default implementyation is doing nothing special.
 	}
 
+	/**
+	 * Keep the current position as the previous one, before a new update step.
+	 */
+	public void storePreviousPosition() {
+		if (oldPos == null) {
+			oldPos = new Vector2D();
+		}
+		oldPos.x = pos.x;
+		oldPos.y = pos.y;
+	}
+
+	/**
+	 * Compute the horizontal rendering position between the previous and the
+	 * current update steps.
+	 *
+	 * @param alpha the interpolation factor, from 0 (previous) to 1 (current).
+	 * @return the interpolated horizontal position.
+	 */
+	public double getRenderX(double alpha) {
+		return oldPos == null ? pos.x : oldPos.x + (pos.x - oldPos.x) * alpha;
+	}
+
+	/**
+	 * Compute the vertical rendering position between the previous and the
+	 * current update steps.
+	 *
+	 * @param alpha the interpolation factor, from 0 (previous) to 1 (current).
+	 * @return the interpolated vertical position.
+	 */
+	public double getRenderY(double alpha) {
+		return oldPos == null ? pos.y : oldPos.y + (pos.y - oldPos.y) * alpha;
+	}
+
 	public enum GameAction {
 		IDLE, IDLE2, WALK, RUN, FALL, JUMP, UP, DOWN, DEAD1, DEAD2;
 	}
@@ -4,19 +4,23 @@ import java.awt.image.BufferedImage;
 
 import core.Game;
 import core.gfx.Renderer;
+import core.gfx.Sprite;
+import core.gfx.SpriteAtlas;
 import core.map.MapObject;
 
 public class HudInventory extends GameObject {
 
     private GameObject player;
 
-    private BufferedImage itemHolderImg;
-    private BufferedImage itemHolderSelectedImg;
+    private Sprite itemHolderImg;
+    private Sprite itemHolderSelectedImg;
 
     private int offsetX = 0;
     private int offsetY = 0;
-    private double maxItems;
-    private double selectedItem;
+    private volatile double maxItems;
+    private volatile double selectedItem;
+    // the items of the player, captured for the rendering.
+    private volatile MapObject[] items = new MapObject[0];
 
     /**
      * initialiez the HUD inventory display.
@@ -33,11 +37,12 @@ public class HudInventory extends GameObject {
     /**
      * Load specific image resources from imageAsset.
      * 
+     * @param atlas      the atlas to pack the images into.
      * @param imageAsset the buffered image source of all display asset
      */
-    public void load(BufferedImage imageAsset) {
-        itemHolderSelectedImg = imageAsset.getSubimage((4 * 16), 16, 18, 18);
-        itemHolderImg = imageAsset.getSubimage((5 * 16) + 1, 16, 18, 18);
+    public void load(SpriteAtlas atlas, BufferedImage imageAsset) {
+        itemHolderSelectedImg = atlas.add(imageAsset, (4 * 16), 16, 18, 18);
+        itemHolderImg = atlas.add(imageAsset, (5 * 16) + 1, 16, 18, 18);
     }
 
     /**
@@ -51,19 +56,22 @@ public class HudInventory extends GameObject {
      * @param g  the Graphics API to render the object.
      */
     public void render(Game dg, Renderer r) {
+        MapObject[] items = this.items;
+        double maxItems = this.maxItems;
+        double selectedItem = this.selectedItem;
         // draw Items
         for (int itmNb = 1; itmNb <= maxItems; itmNb++) {
 
             int posX = (int) (maxItems - itmNb) * (itemHolderImg.getWidth() - 1);
             MapObject item = null;
-            if (player.items.size() > 0 && itmNb - 1 < player.items.size()) {
-                item = player.items.get(itmNb - 1);
+            if (items.length > 0 && itmNb - 1 < items.length) {
+                item = items[itmNb - 1];
             }
-            BufferedImage holder = switchItem(itmNb, item, selectedItem);
-            r.drawImage(holder, dg.config.screenWidth - offsetX - posX,
-                    dg.config.screenHeight - (holder.getHeight() + offsetY), holder.getWidth(), holder.getHeight());
+            Sprite holder = switchItem(itmNb, item, selectedItem);
+            r.drawSprite(holder, dg.config.screenWidth - offsetX - posX,
+                    dg.config.screenHeight - (holder.getHeight() + offsetY));
 
-            if (itmNb - 1 < player.items.size() && item != null) {
+            if (itmNb - 1 < items.length && item != null) {
                 r.renderMapObject(item, dg.config.screenWidth + 1 - offsetX - posX,
                         dg.config.screenHeight - (holder.getHeight() + offsetY));
             }
@@ -81,8 +89,25 @@ public class HudInventory extends GameObject {
         }
     }
 
-    private BufferedImage switchItem(int itmNb, MapObject item, double selectedItem) {
-        BufferedImage holder;
+    /**
+     * Capture the items of the player to be rendered, on the game loop thread.
+     * The captured array is only replaced when the items change.
+     */
+    public void capture() {
+        if (player != null) {
+            MapObject[] captured = items;
+            boolean changed = captured.length != player.items.size();
+            for (int i = 0; !changed && i < captured.length; i++) {
+                changed = captured[i] != player.items.get(i);
+            }
+            if (changed) {
+                items = player.items.toArray(new MapObject[0]);
+            }
+        }
+    }
+
+    private Sprite switchItem(int itmNb, MapObject item, double selectedItem) {
+        Sprite holder;
         if (((double) itmNb) == selectedItem && (item != null)) {
             holder = itemHolderSelectedImg;
         } else {
@@ -9,12 +9,22 @@
  */
 package core.object;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.gson.GsonBuilder;
+
 import core.Game;
 import core.behaviors.Behavior;
 import core.system.AbstractSystem;
@@ -275,6 +285,43 @@ public class ObjectManager extends AbstractSystem {
 		return objects.values();
 	}
 
+	/**
+	 * Write the state (position, velocity, action...) of all objects, sorted on
+	 * their name, to a JSON file. Used to compare the end of 2 replays of the same
+	 * input log.
+	 *
+	 * @param filename path of the JSON file to be written.
+	 */
+	public void saveState(String filename) {
+		List<Map<String, Object>> states = new ArrayList<>();
+		List<String> names = new ArrayList<>(objects.keySet());
+		Collections.sort(names);
+		for (String name : names) {
+			GameObject go = objects.get(name);
+			Map<String, Object> state = new LinkedHashMap<>();
+			state.put("name", go.name);
+			state.put("class", go.getClass().getSimpleName());
+			state.put("enable", go.enable);
+			state.put("pos", new double[] { go.pos.x, go.pos.y });
+			state.put("vel", new double[] { go.vel.x, go.vel.y });
+			state.put("action", go.action);
+			state.put("attributes", go.attributes);
+			states.add(state);
+		}
+		Path path = Paths.get(filename);
+		try {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+				new GsonBuilder().setPrettyPrinting().create().toJson(states, w);
+			}
+			log.info("State of {} objects written to {}", states.size(), path);
+		} catch (IOException e) {
+			log.error("Unable to write objects state to {}", path, e);
+		}
+	}
+
 	/**
 	 * Test if object management contains an object with the specific
 	 * <code>name</code>.
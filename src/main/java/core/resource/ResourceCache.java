@@ -0,0 +1,139 @@
+package core.resource;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.imageio.ImageIO;
+
+import core.gfx.CompatibleImage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The ResourceCache keeps, for the whole JVM, the decoded form of the
+ * resources that are never modified once loaded: images, fonts, JSON and LUA
+ * texts and raw audio data. Each resource is read and decoded only once, even
+ * if several games, running in parallel in the same process, ask for it at the
+ * same time.
+ * <p>
+ * Anything with a per game state (e.g. a SoundClip and its audio line) is
+ * built by the ResourceManager of each game from those shared data.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see ResourceManager
+ */
+@Slf4j
+public final class ResourceCache {
+
+	private static final Map<String, Object> cache = new ConcurrentHashMap<>();
+
+	private ResourceCache() {
+	}
+
+	/**
+	 * Retrieve the shared resource at <code>path</code>, reading and decoding it
+	 * if needed.
+	 *
+	 * @param path the resource path in the classpath.
+	 * @return the decoded resource, or null if it can't be read.
+	 */
+	public static Object get(String path) {
+		Object o = cache.get(path);
+		if (o == null) {
+			o = cache.computeIfAbsent(path, ResourceCache::load);
+		}
+		return o;
+	}
+
+	/**
+	 * Open a text resource to be parsed as a stream: from its shared text if
+	 * already read, else straight from the classpath, without keeping a copy of
+	 * it.
+	 *
+	 * @param path the resource path in the classpath.
+	 * @return a Reader on the resource, or null if it can't be found.
+	 */
+	public static Reader getReader(String path) {
+		Object o = cache.get(path);
+		if (o instanceof String) {
+			return new StringReader((String) o);
+		}
+		InputStream stream = ResourceCache.class.getResourceAsStream(path);
+		if (stream == null) {
+			log.error("Unable to find the resource : '{}'", path);
+			return null;
+		}
+		return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param path the resource path.
+	 * @return true if the resource has already been decoded.
+	 */
+	public static boolean contains(String path) {
+		return cache.containsKey(path);
+	}
+
+	/**
+	 * Remove all the shared resources.
+	 */
+	public static void clear() {
+		cache.clear();
+	}
+
+	private static Object load(String path) {
+		String ext = path.substring(path.lastIndexOf("."));
+		try (InputStream stream = ResourceCache.class.getResourceAsStream(path)) {
+			if (stream == null) {
+				log.error("Unable to find the resource : '{}'", path);
+				return null;
+			}
+			switch (ext) {
+				case ".jpg":
+				case ".png":
+					log.debug("'{}' decoded as an image resource", path);
+					return CompatibleImage.convert(ImageIO.read(stream));
+				case ".json":
+				case ".lua":
+					log.debug("'{}' read as a text resource", path);
+					return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)).lines()
+							.collect(Collectors.joining("\n"));
+				case ".wav":
+				case ".mp3":
+				case ".aiff":
+					log.debug("'{}' read as an audio resource", path);
+					return readAll(stream);
+				case ".ttf":
+					log.debug("'{}' read as a font resource", path);
+					return Font.createFont(Font.TRUETYPE_FONT, stream);
+				default:
+					log.error("Unknown file type {} in {}", ext, path);
+					return null;
+			}
+		} catch (IOException | FontFormatException e) {
+			log.error("Unable to read the resource : '{}'", path, e);
+			return null;
+		}
+	}
+
+	private static byte[] readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			baos.write(buffer, 0, read);
+		}
+		return baos.toByteArray();
+	}
+}
@@ -1,27 +1,26 @@
 package core.resource;
 
 import java.awt.Font;
-import java.awt.FontFormatException;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import core.Game;
 import core.audio.SoundClip;
 import core.system.AbstractSystem;
+import core.system.StartupProfiler;
+import core.system.StartupProfiler.Category;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The ResourceManager is the resource store where to load all needed resources.
+ * Each Game has its own ResourceManager; the decoded data are shared between
+ * all games through the {@link ResourceCache}.
  * <p>
  * Sample usage :
  * 
@@ -29,13 +28,13 @@ import lombok.extern.slf4j.Slf4j;
  * // in a next version you will be able to
  * // provide a listener to implement for example
  * // a Gauge to track loading status.
- * ResourceManager.addListener(new MyListener());
+ * game.resourceManager.addListener(new MyListener());
  * // at initialization time :
- * ResourceManager.add("MyFile.json");
- * ResourceManager.add("image.png");
+ * game.resourceManager.add("MyFile.json");
+ * game.resourceManager.add("image.png");
  * // later to use resource :
- * String str = ResourceManager.getString("MyFile.json");
- * BufferedImage img = ResourceManager.getString("image.png");
+ * String str = game.resourceManager.getString("MyFile.json");
+ * BufferedImage img = game.resourceManager.getImage("image.png");
  * </pre>
  * 
  * ```
@@ -43,9 +42,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ResourceManager extends AbstractSystem {
 
-    private static Map<String, Object> resources = new ConcurrentHashMap<>();
-    private static List<ProgressListener> listeners = new ArrayList<>();
-    private static List<String> resourcesNotPreloaded = new ArrayList<>();
+    // the systems built on the bootstrap threads can load resources at the
+    // same time.
+    private Map<String, Object> resources = new ConcurrentHashMap<>();
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<String> resourcesNotPreloaded = new CopyOnWriteArrayList<>();
 
     public ResourceManager(Game game) {
         super(game);
@@ -57,14 +58,14 @@ public class ResourceManager extends AbstractSystem {
      * @param path
      * @return
      */
-    public static BufferedImage getImage(String path) {
+    public BufferedImage getImage(String path) {
         addResourceIfNotPreloaded(path);
         return (BufferedImage) resources.get(path);
     }
 
-    private static void addResourceIfNotPreloaded(String path) {
+    private void addResourceIfNotPreloaded(String path) {
         if (!resources.containsKey(path)) {
-            log.info("Resource {} has not been preloaded", path);
+            log.info("Resource {} has not been preloaded", path);
             resourcesNotPreloaded.add(path);
             add(path);
         }
@@ -76,18 +77,34 @@ public class ResourceManager extends AbstractSystem {
      * @param path
      * @return
      */
-    public static String getString(String path) {
+    public String getString(String path) {
         addResourceIfNotPreloaded(path);
         return (String) resources.get(path);
     }
 
+    /**
+     * Open a JSON or text resource to be parsed as a stream: from its text if
+     * already loaded, else straight from the classpath, without keeping a copy
+     * of it.
+     *
+     * @param path
+     * @return a Reader on the resource, or null if it can't be found.
+     */
+    public Reader getReader(String path) {
+        Object o = resources.get(path);
+        if (o instanceof String) {
+            return new StringReader((String) o);
+        }
+        return ResourceCache.getReader(path);
+    }
+
     /**
      * Retrieve a resource as a SoundClip.
      *
      * @param path
      * @return
      */
-    public static SoundClip getSoundClip(String path) {
+    public SoundClip getSoundClip(String path) {
         addResourceIfNotPreloaded(path);
         return (SoundClip) resources.get(path);
     }
@@ -98,7 +115,7 @@ public class ResourceManager extends AbstractSystem {
      * @param paths
      * @see ResourceManager#add(String)
      */
-    public static void add(String[] paths) {
+    public void add(String[] paths) {
         float nbResources = paths.length, index = 0.0f;
         for (String path : paths) {
             add(path);
@@ -118,86 +135,25 @@ public class ResourceManager extends AbstractSystem {
      * <li><code>jpg</code>, <code>png</code> are loaded as image resource,</li>
      * <li><code>json</code> is loaded as String resource.</li>
      * </ul>
+     * The decoded data come from the shared ResourceCache; only the sound clips
+     * are created for this game.
      *
      * @param path the file path to the resource to be loaded and managed.
      */
-    public static void add(String path) {
+    public void add(String path) {
         log.debug("Add resource '{}'", path);
-        String ext = path.substring(path.lastIndexOf("."));
-        try (InputStream stream = ResourceManager.class.getResourceAsStream(path)) {
-
-            switch (ext) {
-                case ".jpg":
-                case ".png":
-                    loadImage(path, stream);
-                    break;
-                case ".json":
-                    loadJson(path, stream);
-                    break;
-                case ".lua":
-                    loadLuaScript(path, stream);
-                    break;
-                case ".wav":
-                case ".mp3":
-                case ".aiff":
-                    loadSound(path, stream);
-                    break;
-                case ".ttf":
-                    loadFont(path, stream);
-                    break;
-                default:
-                    log.error("Unknown file type {} in {}", ext, path);
-                    break;
-            }
-        } catch (IOException e) {
-            log.error("Unable to read the resource : '{}'", path, e);
+        StartupProfiler startup = game.sysMan.getStartupProfiler();
+        long start = startup.start();
+        Object o = ResourceCache.get(path);
+        if (o instanceof byte[]) {
+            // each game needs its own audio line.
+            o = new SoundClip(path, new ByteArrayInputStream((byte[]) o));
+            log.debug("'{}' added as an audio resource", path);
         }
-    }
-
-    private static void loadFont(String path, InputStream stream) {
-        // load a Font resource
-        try {
-            Font font = Font.createFont(Font.TRUETYPE_FONT, stream);
-            if (font != null) {
-                resources.put(path, font);
-            }
-        } catch (FontFormatException | IOException e) {
-            log.error("Unable to read font from " + path);
-        }
-    }
-
-    private static void loadSound(String path, InputStream stream) {
-        SoundClip sc = new SoundClip(path, stream);
-        if (sc != null) {
-            resources.put(path, sc);
-        }
-        log.debug("'{}' added as an audio resource", path);
-    }
-
-    private static void loadLuaScript(String path, InputStream stream) {
-        String luas = new BufferedReader(new InputStreamReader(stream)).lines().parallel()
-                .collect(Collectors.joining("\n"));
-        if (luas != null && !luas.equals("")) {
-            resources.put(path, luas);
-        }
-        log.debug("'{}' added as a LUA script resource", path);
-    }
-
-    private static void loadJson(String path, InputStream stream) {
-        String json = new BufferedReader(new InputStreamReader(stream)).lines().parallel()
-                .collect(Collectors.joining("\n"));
-        if (json != null && !json.equals("")) {
-            resources.put(path, json);
-        }
-        log.debug("'{}' added as a JSON resource", path);
-    }
-
-    private static void loadImage(String path, InputStream stream) throws IOException {
-        BufferedImage o = ImageIO.read(stream);
-        if (o != null) {
+        if (o != null && !"".equals(o)) {
             resources.put(path, o);
         }
-        log.debug("'{}' added as an image resource", path);
+        startup.stop(Category.RESOURCE, path, start);
     }
 
     /**
@@ -205,23 +161,23 @@ public class ResourceManager extends AbstractSystem {
      *
      * @param path the resource to be removed.
      */
-    public static void remove(String path) {
+    public void remove(String path) {
         if (resources.containsKey(path)) {
             resources.remove(path);
         }
     }
 
-    public static void addListener(ProgressListener pl) {
+    public void addListener(ProgressListener pl) {
         if (listeners != null) {
             listeners.add(pl);
         }
     }
 
-    public static void clear() {
+    public void clear() {
         resources.clear();
     }
 
-    public static Font getFont(String s) {
+    public Font getFont(String s) {
         if (!resources.containsKey(s)) {
             add(s);
             log.warn("Resource loading time can be optimized by adding this '{}' resource to the preload time", s);
@@ -248,7 +204,7 @@ public class ResourceManager extends AbstractSystem {
     @Override
     public int initialize(Game game) {
         resources = new ConcurrentHashMap<>();
-        listeners = new ArrayList<>();
+        listeners.clear();
         return 0;
     }
 
@@ -2,6 +2,8 @@ package core.scene;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -12,6 +14,7 @@ import core.io.InputHandler;
 import core.object.Camera;
 import core.object.GameObject;
 import core.object.ObjectManager;
+import core.system.Stage;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -36,6 +39,8 @@ public abstract class AbstractScene implements Scene, KeyListener {
 	protected ObjectManager objectManager;
 	protected InputHandler inputHandler;
 	protected SoundSystem soundSystem;
+	// the update stages of this scene.
+	protected List<Stage> stages = new ArrayList<>();
 
 	/**
 	 * the default constructor.
@@ -129,11 +134,24 @@ public abstract class AbstractScene implements Scene, KeyListener {
 		return camera;
 	}
 
+	/**
+	 * Nothing to capture by default: override it when the HUD is drawn from the
+	 * state of the objects.
+	 */
+	@Override
+	public void captureHUD(Game g) {
+	}
+
 	@Override
 	public ObjectManager getObjectManager() {
 		return objectManager;
 	}
 
+	@Override
+	public List<Stage> getStages() {
+		return stages;
+	}
+
 	/**
 	 * Define the parent Game.
 	 *
@@ -179,6 +197,14 @@ public abstract class AbstractScene implements Scene, KeyListener {
 			case KeyEvent.VK_F3:
 				r.saveScreenshot(game.config);
 				break;
+			case KeyEvent.VK_F4:
+				// switch between the Java2D and the raster blitter rendering.
+				game.config.rasterBlit = !game.config.rasterBlit;
+				break;
+			case KeyEvent.VK_F5:
+				// switch between the bitmap fonts and the TrueType text rendering.
+				game.config.bitmapFont = !game.config.bitmapFont;
+				break;
 			default:
 				break;
 		}
@@ -1,11 +1,13 @@
 package core.scene;
 
 import java.awt.Graphics2D;
+import java.util.List;
 
 import core.Game;
 import core.gfx.Renderer;
 import core.object.Camera;
 import core.object.ObjectManager;
+import core.system.Stage;
 
 
 /**
@@ -41,6 +43,14 @@ public interface Scene {
 
     void update(Game g, double elapsed);
 
+    /**
+     * The stages run by the StageScheduler after {@link #update(Game, double)}
+     * at each update step.
+     *
+     * @return the list of stages, in declaration order.
+     */
+    List<Stage> getStages();
+
     void render(Game g, Renderer r, double elapsed);
 
     void dispose(Game g);
@@ -51,6 +61,15 @@ public interface Scene {
 
     Camera getActiveCamera();
 
+    /**
+     * Capture, on the game loop thread, the state drawn by
+     * {@link #drawHUD(Game, Renderer, Graphics2D)}: the HUD can be drawn by the
+     * render thread while the next update step runs.
+     *
+     * @param g the parent game.
+     */
+    void captureHUD(Game g);
+
     void drawHUD(Game ga, Renderer r, Graphics2D g);
 
     void setGame(Game g);
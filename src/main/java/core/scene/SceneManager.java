@@ -1,17 +1,20 @@
 package core.scene;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 
 import core.Game;
 import core.gfx.Renderer;
-import core.resource.ResourceManager;
 import core.system.AbstractSystem;
+import core.system.StartupProfiler;
+import core.system.StartupProfiler.Category;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -48,25 +51,67 @@ public class SceneManager extends AbstractSystem {
 
     /**
      * Load all states configuration and definition from <code>game.json</code>
-     * file.
+     * file. With the parallel bootstrap, the scenes are only created on their
+     * first activation.
      *
      * @param path path to the game configuration JSON file.
      */
     public void loadFromFile(final String path) {
-        try {
-            final String gameScenes = ResourceManager.getString(path);
-            final Gson gs = new Gson();
-            scenesMap = gs.fromJson(gameScenes, ScenesMap.class);
-            for (final Entry<String, String> stateItem : scenesMap.scenes.entrySet()) {
-                final Class<?> cs = Class.forName(stateItem.getValue());
-                final Constructor<?> sceneConstructor = cs.getConstructor(new Class[] { Game.class });
-                final Scene s = (Scene) sceneConstructor.newInstance(game);
-                states.put(stateItem.getKey(), s);
-                log.info("load state {}", stateItem.getKey());
+        scenesMap = readScenesMap(path);
+        if (!game.config.parallelBootstrap) {
+            for (final String sceneName : scenesMap.scenes.keySet()) {
+                createScene(sceneName);
+            }
+        }
+    }
+
+    /**
+     * Parse the <code>game.json</code> file straight from its resource stream.
+     *
+     * @param path path to the game configuration JSON file.
+     * @return the scenes declared in the file, none if it can't be read.
+     */
+    private ScenesMap readScenesMap(final String path) {
+        final Reader reader = game.resourceManager.getReader(path);
+        if (reader != null) {
+            try (JsonReader in = new JsonReader(reader)) {
+                return new ScenesMapAdapter().read(in);
+            } catch (IOException | IllegalStateException | JsonParseException e) {
+                log.error("Unable to read the scenes from {}", path, e);
             }
+        }
+        final ScenesMap empty = new ScenesMap();
+        empty.scenes = new HashMap<>();
+        return empty;
+    }
+
+    /**
+     * Instantiate the scene <code>sceneName</code> from its class declared in
+     * <code>game.json</code>.
+     *
+     * @param sceneName name of the scene to be created.
+     * @return the created scene, or null if it can not be instantiated.
+     */
+    private Scene createScene(final String sceneName) {
+        final String className = scenesMap.scenes.get(sceneName);
+        if (className == null) {
+            return null;
+        }
+        final StartupProfiler startup = game.sysMan.getStartupProfiler();
+        final long start = startup.start();
+        try {
+            final Class<?> cs = Class.forName(className);
+            final Constructor<?> sceneConstructor = cs.getConstructor(new Class[] { Game.class });
+            final Scene s = (Scene) sceneConstructor.newInstance(game);
+            states.put(sceneName, s);
+            log.info("load state {}", sceneName);
+            return s;
         } catch (IllegalAccessException | InstantiationException | ClassNotFoundException | IllegalArgumentException
                 | InvocationTargetException | NoSuchMethodException | SecurityException e) {
             log.info("Unable to create class", e);
+            return null;
+        } finally {
+            startup.stop(Category.SCENE, sceneName, start);
         }
     }
 
@@ -80,9 +125,15 @@ public class SceneManager extends AbstractSystem {
             current.lostFocus(game);
         }
         current = states.get(sceneName);
+        if (current == null) {
+            current = createScene(sceneName);
+        }
         if (current != null && !current.isLoaded()) {
+            final StartupProfiler startup = game.sysMan.getStartupProfiler();
+            final long start = startup.start();
             current.load(game);
             current.initialize(game);
+            startup.stop(Category.SCENE, sceneName + " load", start);
             log.debug("activate state {}", sceneName);
         }
         if (current != null) {
@@ -161,4 +212,4 @@ public class SceneManager extends AbstractSystem {
         return current;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package core.scene;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The ScenesMapAdapter reads and writes the <code>game.json</code> file
+ * straight through a {@link JsonReader}, without reflection.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see ScenesMap
+ */
+public class ScenesMapAdapter extends TypeAdapter<ScenesMap> {
+
+    @Override
+    public void write(JsonWriter out, ScenesMap scenesMap) throws IOException {
+        if (scenesMap == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("defaultScene").value(scenesMap.defaultScene);
+        if (scenesMap.scenes != null) {
+            out.name("scenes").beginObject();
+            for (String name : scenesMap.scenes.keySet()) {
+                out.name(name).value(scenesMap.scenes.get(name));
+            }
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ScenesMap read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ScenesMap scenesMap = new ScenesMap();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+            case "defaultScene":
+                scenesMap.defaultScene = in.nextString();
+                break;
+            case "scenes":
+                scenesMap.scenes = new LinkedHashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    scenesMap.scenes.put(name, in.nextString());
+                }
+                in.endObject();
+                break;
+            default:
+                in.skipValue();
+                break;
+            }
+        }
+        in.endObject();
+        return scenesMap;
+    }
+}
@@ -18,7 +18,6 @@ import org.luaj.vm2.lib.jse.JsePlatform;
 import core.Game;
 import core.object.GameObject;
 import core.object.World;
-import core.resource.ResourceManager;
 import core.system.AbstractSystem;
 import lombok.extern.slf4j.Slf4j;
 
@@ -82,7 +81,7 @@ public class LuaScriptSystem extends AbstractSystem {
 	 * @throws IOException
 	 */
 	private void load(String path) throws IOException {
-		String f = ResourceManager.getString(path);
+		String f = game.resourceManager.getString(path);
 		scripts.put(path, f);
 		log.debug("load script {}", path);
 	}
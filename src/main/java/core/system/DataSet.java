@@ -0,0 +1,48 @@
+package core.system;
+
+/**
+ * The shared data a Stage can read or write during an update step. Two stages
+ * accessing the same DataSet, at least one of them for writing, are never run
+ * at the same time.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Stage
+ */
+public enum DataSet {
+	/**
+	 * key states of the InputHandler.
+	 */
+	INPUT,
+	/**
+	 * position, velocity, forces, action and attributes of the game objects.
+	 */
+	OBJECTS,
+	/**
+	 * colliders list and collision events of the CollidingSystem.
+	 */
+	COLLISIONS,
+	/**
+	 * tiles of the map level.
+	 */
+	TILES,
+	/**
+	 * state of the script engine.
+	 */
+	SCRIPTS,
+	/**
+	 * sound requests waiting to be played by the SoundSystem.
+	 */
+	AUDIO_QUEUE,
+	/**
+	 * camera and HUD objects.
+	 */
+	VIEW,
+	/**
+	 * current frame of the animations of the AnimationClock.
+	 */
+	ANIMATIONS;
+
+	int mask() {
+		return 1 << ordinal();
+	}
+}
@@ -0,0 +1,290 @@
+package core.system;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The FrameProfiler measures, with <code>System.nanoTime()</code>, the time
+ * spent in each phase of a frame and keeps the last samples in ring buffers to
+ * provide p50/p95/p99/max per phase.
+ * <p>
+ * The update phases are sampled per update step, closed by
+ * {@link #endStep()}, and the render phases per rendered frame, closed by
+ * {@link #endFrame()}: the game loop may run several update steps, or none,
+ * between two frames, and each phase is only compared with itself. A phase can
+ * be measured several times during a step or a frame (e.g. once per game
+ * object), the durations are summed up until it is closed. Measures can come
+ * from the game loop and from the render thread: the accumulators and the ring
+ * buffers are atomic arrays, no lock is ever taken.
+ *
+ * <pre>
+ * long start = profiler.start();
+ * physicEngine.update(g, go, elapsed);
+ * profiler.stop(Phase.PHYSIC, start);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see SystemManager#getProfiler()
+ */
+@Slf4j
+public class FrameProfiler {
+
+	/**
+	 * The measured phases of a frame.
+	 */
+	public enum Phase {
+		INPUT(false), PHYSIC(false), UPDATE(false), MAP_COLLISION(false), OBJECT_COLLISION(false), SCRIPTS(false),
+		AUDIO(false), RENDER(true), PRESENT(true);
+
+		/**
+		 * true for a phase sampled per rendered frame, false for a phase sampled
+		 * per update step.
+		 */
+		public final boolean render;
+
+		Phase(boolean render) {
+			this.render = render;
+		}
+	}
+
+	/**
+	 * Statistics of one phase over the samples kept in its ring buffer, in
+	 * milliseconds.
+	 */
+	public static class PhaseStats {
+		public String phase;
+		// number of update steps, or of frames for a render phase.
+		public long frames;
+		public double mean;
+		public double p50;
+		public double p95;
+		public double p99;
+		public double max;
+	}
+
+	/**
+	 * Default number of update steps, and of frames, kept in the ring buffers.
+	 */
+	public static final int DEFAULT_CAPACITY = 600;
+
+	private static final Phase[] PHASES = Phase.values();
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	// statistics are not computed again before this number of new samples.
+	private static final int STATS_REFRESH = 30;
+
+	private final int capacity;
+	private final AtomicLongArray current = new AtomicLongArray(PHASES.length);
+	// samples of the update steps, and of the rendered frames.
+	private final AtomicLongArray stepSamples;
+	private final AtomicLongArray frameSamples;
+	private final AtomicLong steps = new AtomicLong();
+	private final AtomicLong frames = new AtomicLong();
+
+	private volatile boolean enabled = true;
+
+	private Map<Phase, PhaseStats> statistics;
+	private long statisticsFrame = -STATS_REFRESH;
+
+	/**
+	 * Create a profiler keeping the last <code>capacity</code> update steps and
+	 * frames.
+	 *
+	 * @param capacity the number of update steps, and of frames, kept in the
+	 *                 ring buffers.
+	 */
+	public FrameProfiler(int capacity) {
+		this.capacity = capacity;
+		this.stepSamples = new AtomicLongArray(capacity * PHASES.length);
+		this.frameSamples = new AtomicLongArray(capacity * PHASES.length);
+	}
+
+	/**
+	 * Start a measure.
+	 *
+	 * @return the start time to be given to {@link #stop(Phase, long)}.
+	 */
+	public long start() {
+		return enabled ? java.lang.System.nanoTime() : 0;
+	}
+
+	/**
+	 * Stop a measure and add its duration to the phase of the current frame.
+	 *
+	 * @param phase the measured phase.
+	 * @param start the value returned by {@link #start()}.
+	 */
+	public void stop(Phase phase, long start) {
+		if (start != 0) {
+			current.addAndGet(phase.ordinal(), java.lang.System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Close the current update step: the durations of the update phases are
+	 * stored in their ring buffer and reset. Must always be called from the
+	 * game loop.
+	 */
+	public void endStep() {
+		if (enabled) {
+			close(false, stepSamples, steps);
+		}
+	}
+
+	/**
+	 * Close the current frame: the durations of the render phases are stored in
+	 * their ring buffer and reset. Must always be called from the same thread.
+	 */
+	public void endFrame() {
+		if (enabled) {
+			close(true, frameSamples, frames);
+		}
+	}
+
+	private void close(boolean render, AtomicLongArray samples, AtomicLong count) {
+		long sample = count.get();
+		int base = (int) (sample % capacity) * PHASES.length;
+		for (int i = 0; i < PHASES.length; i++) {
+			if (PHASES[i].render == render) {
+				samples.set(base + i, current.getAndSet(i, 0));
+			}
+		}
+		count.set(sample + 1);
+	}
+
+	/**
+	 * @return the number of update steps measured since the start.
+	 */
+	public long getSteps() {
+		return steps.get();
+	}
+
+	/**
+	 * @return the number of frames measured since the start.
+	 */
+	public long getFrames() {
+		return frames.get();
+	}
+
+	/**
+	 * Compute the statistics of each phase over the samples in its ring buffer.
+	 * The result is cached and refreshed every few frames, so this can be called
+	 * at each frame.
+	 *
+	 * @return the statistics per phase.
+	 */
+	public synchronized Map<Phase, PhaseStats> getStatistics() {
+		long count = steps.get() + frames.get();
+		if (statistics == null || count - statisticsFrame >= STATS_REFRESH) {
+			statistics = computeStatistics();
+			statisticsFrame = count;
+		}
+		return statistics;
+	}
+
+	private Map<Phase, PhaseStats> computeStatistics() {
+		Map<Phase, PhaseStats> stats = new EnumMap<>(Phase.class);
+		for (Phase phase : PHASES) {
+			AtomicLongArray samples = phase.render ? frameSamples : stepSamples;
+			int size = (int) Math.min(phase.render ? frames.get() : steps.get(), capacity);
+			long[] values = new long[size];
+			long sum = 0;
+			for (int f = 0; f < size; f++) {
+				values[f] = samples.get(f * PHASES.length + phase.ordinal());
+				sum += values[f];
+			}
+			Arrays.sort(values);
+			PhaseStats ps = new PhaseStats();
+			ps.phase = phase.name();
+			ps.frames = size;
+			if (size > 0) {
+				ps.mean = sum / (size * NANOS_PER_MILLI);
+				ps.p50 = percentile(values, 0.50);
+				ps.p95 = percentile(values, 0.95);
+				ps.p99 = percentile(values, 0.99);
+				ps.max = values[size - 1] / NANOS_PER_MILLI;
+			}
+			stats.put(phase, ps);
+		}
+		return stats;
+	}
+
+	/**
+	 * Nearest-rank percentile of sorted values, in milliseconds.
+	 */
+	private static double percentile(long[] sorted, double p) {
+		int rank = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, rank)] / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Dump the ring buffers to <code>prefix.csv</code> (one line per update step
+	 * then one line per frame, durations in nanoseconds, the phases of the other
+	 * kind left empty) and the statistics per phase to <code>prefix.json</code>.
+	 *
+	 * @param prefix path and file name prefix of the 2 files.
+	 */
+	public void dump(String prefix) {
+		Path csv = Paths.get(prefix + ".csv");
+		Path json = Paths.get(prefix + ".json");
+		try {
+			if (csv.getParent() != null) {
+				Files.createDirectories(csv.getParent());
+			}
+			try (Writer w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+				StringBuilder sb = new StringBuilder("kind,index");
+				for (Phase phase : PHASES) {
+					sb.append(',').append(phase.name());
+				}
+				w.write(sb.append('\n').toString());
+				writeSamples(w, sb, false, stepSamples, steps.get());
+				writeSamples(w, sb, true, frameSamples, frames.get());
+			}
+			Gson gson = new GsonBuilder().setPrettyPrinting().create();
+			try (Writer w = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+				gson.toJson(computeStatistics().values(), w);
+			}
+			log.info("Frame profile of {} update steps and {} frames written to {} and {}",
+					Math.min(steps.get(), capacity), Math.min(frames.get(), capacity), csv, json);
+		} catch (IOException e) {
+			log.error("Unable to write the frame profile to {}", prefix, e);
+		}
+	}
+
+	private void writeSamples(Writer w, StringBuilder sb, boolean render, AtomicLongArray samples, long count)
+			throws IOException {
+		for (long sample = Math.max(0, count - capacity); sample < count; sample++) {
+			int base = (int) (sample % capacity) * PHASES.length;
+			sb.setLength(0);
+			sb.append(render ? "frame" : "step").append(',').append(sample);
+			for (int i = 0; i < PHASES.length; i++) {
+				sb.append(',');
+				if (PHASES[i].render == render) {
+					sb.append(samples.get(base + i));
+				}
+			}
+			w.write(sb.append('\n').toString());
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+}
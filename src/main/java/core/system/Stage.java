@@ -0,0 +1,91 @@
+package core.system;
+
+import core.Game;
+import core.system.FrameProfiler.Phase;
+
+/**
+ * A Stage is one step of the update of a tick, declaring the DataSet it reads
+ * and writes, so that the StageScheduler can run independent stages in
+ * parallel.
+ *
+ * <pre>
+ * new Stage("scripts", Phase.SCRIPTS, (g, elapsed) -&gt; runScripts(g))
+ * 		.reads(DataSet.OBJECTS)
+ * 		.writes(DataSet.SCRIPTS);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see StageScheduler
+ */
+public class Stage {
+
+	/**
+	 * The processing of a stage.
+	 */
+	@FunctionalInterface
+	public interface Task {
+		void run(Game g, double elapsed);
+	}
+
+	public final String name;
+	public final Phase phase;
+	public final Task task;
+
+	private int reads;
+	private int writes;
+
+	/**
+	 * Create a new Stage.
+	 *
+	 * @param name  name of the stage (for logs).
+	 * @param phase the FrameProfiler phase the stage time is added to (can be
+	 *              null).
+	 * @param task  the processing of the stage.
+	 */
+	public Stage(String name, Phase phase, Task task) {
+		this.name = name;
+		this.phase = phase;
+		this.task = task;
+	}
+
+	/**
+	 * Declare the DataSet read by this stage.
+	 *
+	 * @param dataSets the read data.
+	 * @return this stage.
+	 */
+	public Stage reads(DataSet... dataSets) {
+		for (DataSet ds : dataSets) {
+			reads |= ds.mask();
+		}
+		return this;
+	}
+
+	/**
+	 * Declare the DataSet written by this stage.
+	 *
+	 * @param dataSets the written data.
+	 * @return this stage.
+	 */
+	public Stage writes(DataSet... dataSets) {
+		for (DataSet ds : dataSets) {
+			writes |= ds.mask();
+		}
+		return this;
+	}
+
+	/**
+	 * Two stages conflict if one writes a DataSet the other one reads or writes.
+	 *
+	 * @param other the stage to be checked.
+	 * @return true if the 2 stages can't be run at the same time.
+	 */
+	public boolean conflictsWith(Stage other) {
+		return (writes & (other.reads | other.writes)) != 0 || (reads & other.writes) != 0;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
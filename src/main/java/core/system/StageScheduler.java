@@ -0,0 +1,120 @@
+package core.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import core.Game;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The StageScheduler runs the stages of an update step. At each tick, a
+ * dependency graph is built from the declaration order and the DataSet
+ * accessed by each stage: a stage waits for all the previous stages it
+ * conflicts with. Stages without pending dependency are run in parallel on a
+ * ForkJoinPool.
+ * <p>
+ * With a single worker, the default, the stages are simply run one after
+ * another in declaration order, on the game loop thread.
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see Stage
+ * @see DataSet
+ */
+@Slf4j
+public class StageScheduler {
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Create the scheduler.
+	 *
+	 * @param workers number of worker threads (0 for one per available
+	 *                processor, 1 to run all stages on the caller thread).
+	 */
+	public StageScheduler(int workers) {
+		int parallelism = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		log.info("Stage scheduler started with {} worker(s)", parallelism);
+	}
+
+	/**
+	 * Run all the <code>stages</code> of the tick and wait for their end.
+	 *
+	 * @param g       the parent game.
+	 * @param stages  the stages, in declaration order.
+	 * @param elapsed the elapsed time of the update step.
+	 * @throws RuntimeException the first exception thrown by a stage, the
+	 *                          stages depending on it not being run.
+	 */
+	public void run(Game g, List<Stage> stages, double elapsed) {
+		int n = stages.size();
+		if (pool == null || n < 2) {
+			for (Stage stage : stages) {
+				execute(g, stage, elapsed);
+			}
+			return;
+		}
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+		List<CompletableFuture<?>> dependencies = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			Stage stage = stages.get(i);
+			dependencies.clear();
+			for (int j = 0; j < i; j++) {
+				if (stages.get(j).conflictsWith(stage)) {
+					dependencies.add(futures[j]);
+				}
+			}
+			Runnable r = () -> execute(g, stage, elapsed);
+			if (dependencies.isEmpty()) {
+				futures[i] = CompletableFuture.runAsync(r, pool);
+			} else if (dependencies.size() == 1) {
+				futures[i] = dependencies.get(0).thenRunAsync(r, pool);
+			} else {
+				futures[i] = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+						.thenRunAsync(r, pool);
+			}
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			Throwable cause = e;
+			while (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private void execute(Game g, Stage stage, double elapsed) {
+		FrameProfiler profiler = g.sysMan.getProfiler();
+		long start = profiler.start();
+		try {
+			stage.task.run(g, elapsed);
+		} catch (RuntimeException e) {
+			log.error("Unable to run stage {}", stage.name, e);
+			throw e;
+		} finally {
+			if (stage.phase != null) {
+				profiler.stop(stage.phase, start);
+			}
+		}
+	}
+
+	/**
+	 * Stop the worker threads.
+	 */
+	public void dispose() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package core.system;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The StartupProfiler records the timeline of the game startup: the time spent
+ * to build and initialize each system, to load each resource and to create and
+ * load each scene, up to the first rendered frame.
+ * <p>
+ * Measures can come from several threads when the systems are bootstrapped in
+ * parallel. Once the first frame has been rendered, the timeline is reported
+ * and nothing more is recorded.
+ *
+ * <pre>
+ * long start = startup.start();
+ * Renderer renderer = new Renderer(game);
+ * startup.stop(Category.SYSTEM, "Renderer", start);
+ * </pre>
+ *
+ * @author Frédéric Delorme<frederic.delorme@gmail.com>
+ * @see SystemManager#getStartupProfiler()
+ */
+@Slf4j
+public class StartupProfiler {
+
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	/**
+	 * The kind of work measured during startup.
+	 */
+	public enum Category {
+		SYSTEM, RESOURCE, SCENE, FRAME
+	}
+
+	/**
+	 * One measured step of the startup timeline, times in milliseconds since the
+	 * profiler creation.
+	 */
+	public static class Entry {
+		public String category;
+		public String name;
+		public String thread;
+		public double start;
+		public double duration;
+	}
+
+	private final long origin = java.lang.System.nanoTime();
+	private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean done = new AtomicBoolean(false);
+
+	private double timeToFirstFrame;
+
+	/**
+	 * Start a measure.
+	 *
+	 * @return the start time to be given to
+	 *         {@link #stop(Category, String, long)}.
+	 */
+	public long start() {
+		return done.get() ? 0 : java.lang.System.nanoTime();
+	}
+
+	/**
+	 * Stop a measure and add it to the timeline.
+	 *
+	 * @param category the kind of work measured.
+	 * @param name     the name of the system, resource or scene.
+	 * @param start    the value returned by {@link #start()}.
+	 */
+	public void stop(Category category, String name, long start) {
+		if (start != 0 && !done.get()) {
+			Entry e = new Entry();
+			e.category = category.name();
+			e.name = name;
+			e.thread = Thread.currentThread().getName();
+			e.start = (start - origin) / NANOS_PER_MILLI;
+			e.duration = (java.lang.System.nanoTime() - start) / NANOS_PER_MILLI;
+			entries.add(e);
+		}
+	}
+
+	/**
+	 * Close the timeline when the first frame has been rendered: the timeline is
+	 * logged and, if <code>prefix</code> is not empty, written to
+	 * <code>prefix-startup.json</code>. Only the first call has an effect.
+	 *
+	 * @param prefix path and file name prefix of the timeline file.
+	 */
+	public void firstFrame(String prefix) {
+		if (done.compareAndSet(false, true)) {
+			timeToFirstFrame = (java.lang.System.nanoTime() - origin) / NANOS_PER_MILLI;
+			Entry frame = new Entry();
+			frame.category = Category.FRAME.name();
+			frame.name = "first frame";
+			frame.thread = Thread.currentThread().getName();
+			frame.start = timeToFirstFrame;
+			entries.add(frame);
+			List<Entry> timeline = getTimeline();
+			for (Entry e : timeline) {
+				log.debug("startup {} {} on {}: +{} ms, {} ms", e.category, e.name, e.thread,
+						String.format("%.1f", e.start), String.format("%.1f", e.duration));
+			}
+			log.info("Time to first frame: {} ms ({} ms since JVM start)", String.format("%.1f", timeToFirstFrame),
+					ManagementFactory.getRuntimeMXBean().getUptime());
+			if (prefix != null && !prefix.isEmpty()) {
+				dump(prefix + "-startup.json", timeline);
+			}
+		}
+	}
+
+	private void dump(String filename, List<Entry> timeline) {
+		Path path = Paths.get(filename);
+		try {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			Gson gson = new GsonBuilder().setPrettyPrinting().create();
+			try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+				gson.toJson(timeline, w);
+			}
+			log.info("Startup timeline of {} steps written to {}", timeline.size(), path);
+		} catch (IOException e) {
+			log.error("Unable to write the startup timeline to {}", filename, e);
+		}
+	}
+
+	/**
+	 * @return the measured steps, sorted on their start time.
+	 */
+	public List<Entry> getTimeline() {
+		List<Entry> timeline = new ArrayList<>(entries);
+		timeline.sort(Comparator.comparingDouble(e -> e.start));
+		return timeline;
+	}
+
+	/**
+	 * @return the time between the profiler creation and the first frame, in
+	 *         milliseconds, or 0 if no frame has been rendered yet.
+	 */
+	public double getTimeToFirstFrame() {
+		return timeToFirstFrame;
+	}
+}
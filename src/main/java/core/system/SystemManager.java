@@ -7,10 +7,21 @@
 package core.system;
 
 import core.Game;
+import core.scene.Scene;
+import core.system.StartupProfiler.Category;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * <p>
@@ -27,14 +38,39 @@ import java.util.Map;
  */
 @Slf4j
 public class SystemManager {
+	// number of threads building the systems during a parallel bootstrap.
+	private static final int BOOTSTRAP_THREADS = 4;
+
 	/**
-	 * list of systems to be managed.
+	 * list of systems to be managed by this game.
 	 */
-	private static Map<Class<?>, AbstractSystem> systems = new HashMap<>();
+	private Map<Class<?>, AbstractSystem> systems = new ConcurrentHashMap<>();
 	/**
 	 * the parent game.
 	 */
 	private Game game;
+	/**
+	 * the per phase frame profiler.
+	 */
+	private FrameProfiler profiler = new FrameProfiler(FrameProfiler.DEFAULT_CAPACITY);
+	/**
+	 * the startup timeline, up to the first frame.
+	 */
+	private StartupProfiler startupProfiler = new StartupProfiler();
+	/**
+	 * the threads building the systems during a parallel bootstrap.
+	 */
+	private ExecutorService bootstrap;
+	private List<CompletableFuture<? extends AbstractSystem>> pending = new ArrayList<>();
+	/**
+	 * the scheduler running the update stages.
+	 */
+	private StageScheduler scheduler;
+	/**
+	 * the engine stages, run after the stages of the current scene.
+	 */
+	private List<Stage> stages = new CopyOnWriteArrayList<>();
+	private List<Stage> tickStages = new ArrayList<>();
 
 	/**
 	 * Start the Game System Manager.
@@ -43,6 +79,7 @@ public class SystemManager {
 	 */
 	private SystemManager(Game game) {
 		this.game = game;
+		this.scheduler = new StageScheduler(game.config.workers);
 	}
 
 	/**
@@ -55,30 +92,77 @@ public class SystemManager {
 		return new SystemManager(game);
 	}
 
-	/**
-	 * retrieve a System on its implementation class Name.
-	 *
-	 * @param <T>        the Type of the system to be retrieved.
-	 * @param systemName The name of the system to retrieve.
-	 * @return the <T> instalce for the systemName system.
-	 */
-	@SuppressWarnings("unchecked")
-	public static <T extends AbstractSystem> T get(Class<T> systemName) {
-		return (T) systems.get(systemName);
-	}
-
 	/**
 	 * Add a System to the manager.
 	 *
 	 * @param s the system to be managed.
 	 */
 	public void add(AbstractSystem s) {
+		add(s, startupProfiler.start());
+	}
+
+	private void add(AbstractSystem s, long start) {
 		if (s != null) {
 			Class<? extends AbstractSystem> systemType = s.getClass();
 			systems.put(systemType, s);
 			log.debug("Add system {}", s.getName());
 			s.initialize(game);
 			log.debug("System {} initialized.", s.getName());
+			startupProfiler.stop(Category.SYSTEM, systemType.getSimpleName(), start);
+		}
+	}
+
+	/**
+	 * Build, add and initialize a System not depending on the ones submitted
+	 * before it. With the parallel bootstrap, the system is built on a bootstrap
+	 * thread and the call returns immediately; otherwise it is built right away.
+	 *
+	 * @param <T>     the System implementation type
+	 * @param factory the System constructor.
+	 * @return the future System, to be retrieved after {@link #awaitBootstrap()}.
+	 */
+	public <T extends AbstractSystem> CompletableFuture<T> submit(Supplier<T> factory) {
+		CompletableFuture<T> future;
+		if (game.config.parallelBootstrap) {
+			if (bootstrap == null) {
+				AtomicInteger index = new AtomicInteger();
+				bootstrap = Executors.newFixedThreadPool(BOOTSTRAP_THREADS, r -> {
+					Thread t = new Thread(r, "bootstrap-" + index.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+			}
+			future = CompletableFuture.supplyAsync(() -> create(factory), bootstrap);
+		} else {
+			future = CompletableFuture.completedFuture(create(factory));
+		}
+		pending.add(future);
+		return future;
+	}
+
+	private <T extends AbstractSystem> T create(Supplier<T> factory) {
+		long start = startupProfiler.start();
+		T s = factory.get();
+		add(s, start);
+		return s;
+	}
+
+	/**
+	 * Wait for all the systems submitted with {@link #submit(Supplier)} to be
+	 * ready.
+	 */
+	public void awaitBootstrap() {
+		try {
+			CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			log.error("Unable to bootstrap the systems", e.getCause());
+			throw e;
+		} finally {
+			pending.clear();
+			if (bootstrap != null) {
+				bootstrap.shutdown();
+				bootstrap = null;
+			}
 		}
 	}
 
@@ -95,10 +179,59 @@ public class SystemManager {
 		return (T) systems.get(systemName);
 	}
 
+	/**
+	 * Add an engine Stage, run at each update step after the stages of the
+	 * current scene.
+	 *
+	 * @param stage the Stage to be added.
+	 */
+	public void addStage(Stage stage) {
+		stages.add(stage);
+	}
+
+	/**
+	 * Run the stages of the update step: the ones of the current
+	 * <code>scene</code> then the engine ones, in parallel where their declared
+	 * DataSet allow it.
+	 *
+	 * @param scene   the current scene.
+	 * @param elapsed the elapsed time of the update step.
+	 */
+	public void runStages(Scene scene, double elapsed) {
+		tickStages.clear();
+		if (scene != null && scene.isLoaded()) {
+			tickStages.addAll(scene.getStages());
+		}
+		tickStages.addAll(stages);
+		scheduler.run(game, tickStages, elapsed);
+	}
+
+	/**
+	 * Retrieve the frame profiler measuring each phase of the game loop.
+	 *
+	 * @return the FrameProfiler instance.
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Retrieve the profiler recording the startup timeline.
+	 *
+	 * @return the StartupProfiler instance.
+	 */
+	public StartupProfiler getStartupProfiler() {
+		return startupProfiler;
+	}
+
 	public void dispose() {
 		for (System s : systems.values()) {
 			log.debug("disposing system {}", s.getName());
 			s.dispose();
 		}
+		scheduler.dispose();
+		if (game.config.profile != null && !game.config.profile.isEmpty()) {
+			profiler.dump(game.config.profile);
+		}
 	}
 }
@@ -5,7 +5,6 @@ import core.audio.SoundSystem;
 import core.collision.CollisionEvent;
 import core.collision.OnCollision;
 import core.object.GameObject.GameAction;
-import core.system.SystemManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -20,7 +19,7 @@ public class ObjectCollisionResolver implements OnCollision {
 
     public ObjectCollisionResolver(Game g) {
         this.game = g;
-        soundSystem = SystemManager.get(SoundSystem.class);
+        soundSystem = g.sysMan.getSystem(SoundSystem.class);
     }
 
     /**
@@ -54,7 +53,7 @@ public class ObjectCollisionResolver implements OnCollision {
             double maxItems = (Double) e.a.attributes.get("maxItems");
             if (e.a.items.size() <= maxItems) {
                 e.a.items.add(e.m2);
-                e.map.tiles[e.mapX][e.mapY] = null;
+                e.map.setTile(e.mapX, e.mapY, null);
                 soundSystem.play("item-1", (float) game.config.attributes.get("sound_volume"));
                 log.debug("Collect {}:{} at {},{}", e.m2.type, e.m2.name, e.mapX, e.mapY);
             }
@@ -71,7 +70,7 @@ public class ObjectCollisionResolver implements OnCollision {
         if (e.m2.collectible && e.a.canCollect && e.m2.money > 0) {
             double value = (double) (e.a.attributes.get("coins"));
             e.a.attributes.put("coins", (double) e.m2.money + value);
-            e.map.tiles[e.mapX][e.mapY] = null;
+            e.map.setTile(e.mapX, e.mapY, null);
             soundSystem.play("coins", (float) game.config.attributes.get("sound_volume"));
             log.debug("Collect {}:{} at {},{}", e.m2.type, e.m2.money, e.mapX, e.mapY);
         }
@@ -6,6 +6,7 @@ import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -15,10 +16,14 @@ import core.Game;
 import core.audio.SoundSystem;
 import core.collision.CollidingSystem;
 import core.collision.MapCollidingSystem;
+import core.gfx.AnimationClock;
 import core.gfx.Renderer;
+import core.gfx.Sprite;
+import core.gfx.SpriteAtlas;
 import core.map.MapLayer;
 import core.map.MapLevel;
 import core.map.MapReader;
+import core.map.MapStreamer;
 import core.math.PhysicEngineSystem;
 import core.object.Camera;
 import core.object.GameObject;
@@ -27,10 +32,12 @@ import core.object.HudInventory;
 import core.object.TextObject;
 import core.object.TextObject.TextAlign;
 import core.resource.ProgressListener;
-import core.resource.ResourceManager;
 import core.scene.AbstractScene;
 import core.scene.Scene;
 import core.scripts.LuaScriptSystem;
+import core.system.DataSet;
+import core.system.FrameProfiler.Phase;
+import core.system.Stage;
 import demo.collision.ObjectCollisionResolver;
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,14 +60,19 @@ public class DemoScene extends AbstractScene {
 	public MapCollidingSystem mapCollider;
 
 	public MapLevel mapLevel;
+	private MapReader mapReader;
+	private MapStreamer mapStreamer;
 
 	public int score = 0;
 	public int life = 4;
 
-	private BufferedImage energyImg;
-	private BufferedImage manaImg;
-	private BufferedImage coinsImg;
-	private BufferedImage lifeImg;
+	private Sprite energyImg;
+	private Sprite manaImg;
+	private Sprite coinsImg;
+	private Sprite lifeImg;
+
+	// the values drawn by the HUD, captured at the end of each update step.
+	private volatile HudState hud;
 
 	private TextObject scoreText;
 	private TextObject welcomeText;
@@ -70,6 +82,27 @@ public class DemoScene extends AbstractScene {
 	private Font infoFont;
 	private Font messageFont;
 
+	/**
+	 * The values drawn by the HUD, replaced only when one of them changes.
+	 */
+	private static final class HudState {
+		final int life;
+		final double coins;
+		final double energy;
+		final double mana;
+
+		HudState(int life, double coins, double energy, double mana) {
+			this.life = life;
+			this.coins = coins;
+			this.energy = energy;
+			this.mana = mana;
+		}
+
+		boolean is(int life, double coins, double energy, double mana) {
+			return this.life == life && this.coins == coins && this.energy == energy && this.mana == mana;
+		}
+	}
+
 	public DemoScene() {
 	}
 
@@ -82,24 +115,31 @@ public class DemoScene extends AbstractScene {
 		g.config.attributes.put("sound_volume", 0.8f);
 		g.config.attributes.put("music_volume", 0.4f);
 
-		ResourceManager.clear();
-		ResourceManager.addListener(new ProgressListener() {
+		g.resourceManager.clear();
+		g.resourceManager.addListener(new ProgressListener() {
 			@Override
 			public void update(float value, String path) {
 				log.info("reading resources: {} : {}", value * 100.0f, path);
 			}
 		});
 
-		mapLevel = MapReader.readFromFile("/res/maps/map_2.json");
-		BufferedImage imageAsset = ResourceManager.getImage("/res/images/tileset-1.png");
+		mapReader = new MapReader(g.resourceManager, g.config.mapCache);
+		if (g.config.mapStreaming) {
+			mapLevel = mapReader.open("/res/maps/map_2.json");
+		} else {
+			mapLevel = mapReader.read("/res/maps/map_2.json");
+		}
+		BufferedImage imageAsset = g.resourceManager.getImage("/res/images/tileset-1.png");
 
-		energyImg = imageAsset.getSubimage(0, 0, 41, 9);
-		manaImg = imageAsset.getSubimage(0, 22, 41, 5);
-		lifeImg = imageAsset.getSubimage(8 * 16, 2 * 16, 16, 16);
-		coinsImg = imageAsset.getSubimage(10 * 16, 1 * 16, 16, 16);
+		// HUD images are packed with the sprites of the level.
+		SpriteAtlas atlas = mapLevel.atlas;
+		energyImg = atlas.add(imageAsset, 0, 0, 41, 9);
+		manaImg = atlas.add(imageAsset, 0, 22, 41, 5);
+		lifeImg = atlas.add(imageAsset, 8 * 16, 2 * 16, 16, 16);
+		coinsImg = atlas.add(imageAsset, 10 * 16, 1 * 16, 16, 16);
 
 		inventory = new HudInventory(20, 12);
-		inventory.load(imageAsset);
+		inventory.load(atlas, imageAsset);
 	}
 
 	@Override
@@ -109,9 +149,13 @@ public class DemoScene extends AbstractScene {
 		objectManager.clear();
 		g.sysMan.getSystem(Renderer.class).clear();
 
-		messageFont = ResourceManager.getFont("/res/fonts/Prince Valiant.ttf").deriveFont(16.0f);
+		AnimationClock animationClock = g.sysMan.getSystem(AnimationClock.class);
+		animationClock.clear();
+		animationClock.register(mapLevel);
+
+		messageFont = g.resourceManager.getFont("/res/fonts/Prince Valiant.ttf").deriveFont(16.0f);
 		scoreFont = messageFont.deriveFont(24.0f);
-		infoFont = ResourceManager.getFont("/res/fonts/lilliput steps.ttf").deriveFont(10.0f);
+		infoFont = g.resourceManager.getFont("/res/fonts/lilliput steps.ttf").deriveFont(10.0f);
 
 		mapCollider = g.sysMan.getSystem(MapCollidingSystem.class);
 
@@ -140,6 +184,11 @@ public class DemoScene extends AbstractScene {
 			// MapLevel and all its child GameObjects will be added.
 			addObject(mapLevel);
 
+			// a streamed MapLevel creates its objects with the chunks around the player.
+			if (mapLevel.isStreamed()) {
+				startMapStreamer(g);
+			}
+
 			// Add Score text on H.U.D. (fixed = true)
 			scoreText = new TextObject("score", g.config.screenWidth - 80, 40, Color.WHITE, Color.BLACK,
 					new Color(0.1f, 0.1f, 0.1f, 0.8f), scoreFont, true, 10, TextAlign.LEFT);
@@ -174,6 +223,8 @@ public class DemoScene extends AbstractScene {
 
 		}
 
+		createStages();
+
 		inputHandler.addListener(this);
 
 	}
@@ -266,27 +317,104 @@ public class DemoScene extends AbstractScene {
 			s.setText("%06d", this.score);
 		}
 
-		MapLayer frontLayer = mapLevel.layers.get("front");
+		// all objects are then updated by the stages declared in createStages().
+	}
 
-		// update all objects
-		for (GameObject go : objectManager.getAll()) {
-			if (!(go instanceof Camera) && !(go instanceof MapLevel)) {
+	/**
+	 * Start streaming the chunks of the MapLevel around the camera, adding and
+	 * removing their objects from the scene.
+	 *
+	 * @param g the parent Game.
+	 */
+	private void startMapStreamer(Game g) {
+		if (mapStreamer != null) {
+			mapStreamer.dispose();
+		}
+		mapStreamer = new MapStreamer(mapReader, mapLevel, g.config.mapBudget, new MapStreamer.StreamListener() {
+			@Override
+			public void activated(GameObject go) {
+				addObject(go);
+			}
+
+			@Override
+			public void evicted(GameObject go) {
+				objectManager.removeObject(go);
+				physicEngine.remove(go);
+			}
+		});
+		mapStreamer.start(g.config.screenWidth, g.config.screenHeight);
+	}
+
+	/**
+	 * Declare the update stages of all the objects, with the data they access,
+	 * so that the StageScheduler only runs in parallel the stages not accessing
+	 * the same data. The collisions and the scripts change the objects: they
+	 * are declared as writing them, so all the object stages run one after
+	 * another.
+	 */
+	private void createStages() {
+		stages.clear();
+		if (mapStreamer != null) {
+			stages.add(new Stage("map-streaming", Phase.UPDATE, (g, elapsed) -> {
+				if (camera != null) {
+					mapStreamer.update(camera.pos.x, camera.pos.y, camera.viewport.width, camera.viewport.height);
+				}
+			}).reads(DataSet.VIEW).writes(DataSet.OBJECTS, DataSet.TILES));
+		}
+
+		stages.add(new Stage("physic", Phase.PHYSIC, (g, elapsed) -> {
+			for (GameObject go : getUpdatableObjects()) {
 				physicEngine.update(g, go, elapsed);
-				objectManager.updateObject(game, go, elapsed);
+			}
+		}).writes(DataSet.OBJECTS));
+
+		stages.add(new Stage("behaviors", Phase.UPDATE, (g, elapsed) -> {
+			for (GameObject go : getUpdatableObjects()) {
+				objectManager.updateObject(g, go, elapsed);
+			}
+		}).reads(DataSet.INPUT).writes(DataSet.OBJECTS));
 
+		stages.add(new Stage("map-collision", Phase.MAP_COLLISION, (g, elapsed) -> {
+			MapLayer frontLayer = mapLevel.layers.get("front");
+			for (GameObject go : getUpdatableObjects()) {
 				mapCollider.checkCollision(frontLayer, 0, go);
 				mapLevel.constrainToMapLevel(frontLayer, 0, go);
+			}
+		}).writes(DataSet.OBJECTS, DataSet.TILES, DataSet.AUDIO_QUEUE));
+
+		stages.add(new Stage("object-collision", Phase.OBJECT_COLLISION, (g, elapsed) -> {
+			for (GameObject go : getUpdatableObjects()) {
 				collidingSystem.update(go, elapsed);
-				// execute any lua script attached to this object
+			}
+		}).writes(DataSet.OBJECTS, DataSet.COLLISIONS));
+
+		// execute any lua script attached to the objects
+		stages.add(new Stage("scripts", Phase.SCRIPTS, (g, elapsed) -> {
+			for (GameObject go : getUpdatableObjects()) {
 				executeScriptUpdate(g, go);
 			}
-		}
+		}).writes(DataSet.OBJECTS, DataSet.SCRIPTS));
+
+		stages.add(new Stage("view", Phase.UPDATE, (g, elapsed) -> {
+			// active core.object.Camera update
+			if (this.camera != null) {
+				((Camera) camera).update(g, elapsed);
+			}
+			inventory.update(g, elapsed);
+		}).reads(DataSet.OBJECTS).writes(DataSet.VIEW));
+	}
 
-		// active core.object.Camera update
-		if (this.camera != null) {
-			((Camera) camera).update(g, elapsed);
+	/**
+	 * @return the objects to be updated by the stages (all but cameras and map).
+	 */
+	private List<GameObject> getUpdatableObjects() {
+		List<GameObject> updatables = new ArrayList<>();
+		for (GameObject go : objectManager.getAll()) {
+			if (!(go instanceof Camera) && !(go instanceof MapLevel)) {
+				updatables.add(go);
+			}
 		}
-		inventory.update(g, elapsed);
+		return updatables;
 	}
 
 	/**
@@ -319,34 +447,54 @@ public class DemoScene extends AbstractScene {
 
 	@Override
 	public void dispose(Game g) {
-		ResourceManager.clear();
+		if (mapStreamer != null) {
+			mapStreamer.dispose();
+			mapStreamer = null;
+		}
+		g.resourceManager.clear();
 	}
 
-	public void drawHUD(Game ga, Renderer r, Graphics2D g) {
+	public void captureHUD(Game ga) {
 		GameObject player = objectManager.get("player");
-		if(player!=null){
+		if (player == null) {
+			hud = null;
+			return;
+		}
+		double coins = (double) (player.attributes.get("coins"));
+		double energy = (double) (player.attributes.get("energy"));
+		double mana = (double) (player.attributes.get("mana"));
+		HudState state = hud;
+		if (state == null || !state.is(life, coins, energy, mana)) {
+			hud = new HudState(life, coins, energy, mana);
+		}
+		inventory.capture();
+	}
+
+	@Override
+	public void drawHUD(Game ga, Renderer r, Graphics2D g) {
+		HudState state = hud;
+		if(state!=null){
 			int offsetX = 24;
 			int offsetY = 30;
 	
 			// draw Life
-			r.drawImage(lifeImg, offsetX, offsetY - 16);
-			r.drawOutLinedText(g, String.format("%d", life), offsetX + 9, offsetY + 1, Color.WHITE, Color.BLACK, infoFont);
+			r.drawSprite(lifeImg, offsetX, offsetY - 16);
+			r.drawOutLinedText(g, String.format("%d", state.life), offsetX + 9, offsetY + 1, Color.WHITE, Color.BLACK, infoFont);
 	
 			// draw Coins
-			g.drawImage(coinsImg, offsetX, offsetY, null);
-			double coins = (double) (player.attributes.get("coins"));
-			r.drawOutLinedText(g, String.format("%d", (int) coins), offsetX + 8, offsetY + 16, Color.WHITE, Color.BLACK,
+			coinsImg.draw(g, offsetX, offsetY);
+			r.drawOutLinedText(g, String.format("%d", (int) state.coins), offsetX + 8, offsetY + 16, Color.WHITE, Color.BLACK,
 					infoFont);
 	
 			// draw Mana
 			double nrjRatio = (energyImg.getWidth() / 100.0f);
-			double nrj = nrjRatio * ((double) (player.attributes.get("energy")));
-			g.drawImage(energyImg, offsetX + 24, offsetY - 12, (int) nrj, energyImg.getHeight(), null);
+			double nrj = nrjRatio * state.energy;
+			energyImg.draw(g, offsetX + 24, offsetY - 12, (int) nrj, energyImg.getHeight());
 	
 			// draw Energy
 			double manaRatio = (manaImg.getWidth() / 100.0f);
-			double mana = manaRatio * ((double) (player.attributes.get("mana")));
-			g.drawImage(manaImg, offsetX + 24, offsetY - 2, (int) mana, manaImg.getHeight(), null);
+			double mana = manaRatio * state.mana;
+			manaImg.draw(g, offsetX + 24, offsetY - 2, (int) mana, manaImg.getHeight());
 	
 			// draw Items
 			inventory.render(ga, r);	
@@ -11,10 +11,8 @@ import core.object.GameObject;
 import core.object.GameObjectType;
 import core.object.TextObject;
 import core.resource.ProgressListener;
-import core.resource.ResourceManager;
 import core.scene.AbstractScene;
 import core.scene.SceneManager;
-import core.system.SystemManager;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -31,15 +29,15 @@ public class TitleScene extends AbstractScene {
     @Override
     public void load(Game g) {
 
-        ResourceManager.clear();
-        ResourceManager.addListener(new ProgressListener() {
+        g.resourceManager.clear();
+        g.resourceManager.addListener(new ProgressListener() {
             @Override
             public void update(float value, String path) {
                 log.info("reading resources: {} : {}", value * 100.0f, path);
             }
         });
 
-        ResourceManager.add(new String[] { "/res/images/background-1.jpg", "/res/fonts/Prince Valiant.ttf",
+        g.resourceManager.add(new String[] { "/res/images/background-1.jpg", "/res/fonts/Prince Valiant.ttf",
                 "/res/fonts/lilliput steps.ttf" });
 
     }
@@ -56,8 +54,8 @@ public class TitleScene extends AbstractScene {
         objectManager.clear();
         g.sysMan.getSystem(Renderer.class).clear();
 
-        Font textFont = ResourceManager.getFont("/res/fonts/lilliput steps.ttf").deriveFont(9.0f);
-        Font titleFont = ResourceManager.getFont("/res/fonts/Prince Valiant.ttf").deriveFont(20.0f);
+        Font textFont = g.resourceManager.getFont("/res/fonts/lilliput steps.ttf").deriveFont(9.0f);
+        Font titleFont = g.resourceManager.getFont("/res/fonts/Prince Valiant.ttf").deriveFont(20.0f);
 
         soundSystem.load("music", "/res/audio/musics/once-around-the-kingdom.ogg");
         soundSystem.setMute(g.config.mute);
@@ -66,7 +64,7 @@ public class TitleScene extends AbstractScene {
             0.0f, (g.config.screenHeight / 5.0f) * 1.0f, 
             0, 0);
         background.type = GameObjectType.IMAGE;
-        background.setImage(ResourceManager.getImage("/res/images/background-1.jpg"));
+        background.setImage(g.resourceManager.getImage("/res/images/background-1.jpg"));
         background.layer = 0;
         addObject(background);
 
@@ -143,7 +141,7 @@ public class TitleScene extends AbstractScene {
     }
 
     private void loadDemo() {
-        SceneManager stm = SystemManager.get(SceneManager.class);
+        SceneManager stm = game.sysMan.getSystem(SceneManager.class);
 
         stm.activate("game");
     }
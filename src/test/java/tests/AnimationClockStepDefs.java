@@ -0,0 +1,48 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import core.Game;
+import core.gfx.Animation;
+import core.gfx.AnimationClock;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class AnimationClockStepDefs {
+
+    AnimationClock clock;
+    Animation animation;
+
+    @Given("^an AnimationClock at (\\d+) fps$")
+    public void anAnimationClockAtFps(int fps) {
+        clock = new AnimationClock(new Game(new String[] { "hl=true", "fps=" + fps }));
+    }
+
+    @And("^an animation with frames lasting \"([^\"]*)\" rendered frames$")
+    public void anAnimationWithFramesLasting(String frameTimes) {
+        animation = new Animation();
+        for (String frameTime : frameTimes.split(",")) {
+            animation.addFrame(null, Integer.parseInt(frameTime));
+        }
+        clock.register(animation);
+    }
+
+    @When("^the clock ticks (\\d+) times by (\\d+) ms$")
+    public void theClockTicks(int ticks, double time) {
+        for (int i = 0; i < ticks; i++) {
+            clock.tick(time);
+        }
+    }
+
+    @And("^the animation is reset$")
+    public void theAnimationIsReset() {
+        animation.reset();
+    }
+
+    @Then("^the animation shows the frame (\\d+)$")
+    public void theAnimationShowsTheFrame(int frame) {
+        assertEquals("Wrong frame", frame, animation.getFrameIndex());
+    }
+}
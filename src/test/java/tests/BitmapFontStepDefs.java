@@ -0,0 +1,53 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.HashMap;
+import java.util.Map;
+
+import core.gfx.BitmapFont;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class BitmapFontStepDefs {
+
+    BitmapFont.Cache cache;
+    Map<String, BitmapFont> built = new HashMap<>();
+
+    @Given("^a BitmapFont cache of (\\d+) fonts$")
+    public void aBitmapFontCacheOfFonts(int capacity) {
+        cache = new BitmapFont.Cache(capacity);
+        built.clear();
+    }
+
+    @When("^the font of size (\\d+) in \"([^\"]*)\" is used$")
+    public void theFontOfSizeInIsUsed(int size, String color) {
+        built.putIfAbsent(size + color, get(size, color));
+    }
+
+    @Then("^the cache holds (\\d+) fonts$")
+    public void theCacheHoldsFonts(int count) {
+        assertEquals(count, cache.size());
+    }
+
+    @And("^the font of size (\\d+) in \"([^\"]*)\" is the one built first$")
+    public void theFontOfSizeInIsTheOneBuiltFirst(int size, String color) {
+        assertSame(built.get(size + color), get(size, color));
+    }
+
+    @And("^the font of size (\\d+) in \"([^\"]*)\" is built again$")
+    public void theFontOfSizeInIsBuiltAgain(int size, String color) {
+        assertNotSame(built.get(size + color), get(size, color));
+    }
+
+    private BitmapFont get(int size, String color) {
+        return cache.get(new Font(Font.MONOSPACED, Font.PLAIN, size), "red".equals(color) ? Color.RED : Color.WHITE,
+                Color.BLACK, null, true);
+    }
+}
@@ -0,0 +1,164 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Image;
+import java.awt.RenderingHints.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import core.gfx.CommandBuffer;
+import core.gfx.DrawContext;
+import cucumber.api.DataTable;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class CommandBufferStepDefs {
+
+    private static final int SIZE = 16;
+
+    /**
+     * A DrawContext logging the items drawn, from the position of their
+     * rectangle.
+     */
+    private class LoggingContext implements DrawContext {
+
+        StringJoiner drawn = new StringJoiner(",");
+
+        @Override
+        public void translate(double x, double y) {
+        }
+
+        @Override
+        public void setColor(Color color) {
+        }
+
+        @Override
+        public void setFont(Font font) {
+        }
+
+        @Override
+        public Font getFont() {
+            return null;
+        }
+
+        @Override
+        public FontMetrics getFontMetrics(Font font) {
+            return null;
+        }
+
+        @Override
+        public void setRenderingHint(Key key, Object value) {
+        }
+
+        @Override
+        public Object getRenderingHint(Key key) {
+            return null;
+        }
+
+        @Override
+        public void setComposite(Composite composite) {
+        }
+
+        @Override
+        public Composite getComposite() {
+            return null;
+        }
+
+        @Override
+        public void drawImage(Image image, int x, int y) {
+        }
+
+        @Override
+        public void drawImage(Image image, int x, int y, int width, int height) {
+        }
+
+        @Override
+        public void drawImage(Image image, int x, int y, int width, int height, int sx, int sy, int sw, int sh) {
+        }
+
+        @Override
+        public void fillRect(int x, int y, int width, int height) {
+            drawn.add(items.get(x + "," + y));
+        }
+
+        @Override
+        public void drawRect(int x, int y, int width, int height) {
+        }
+
+        @Override
+        public void fillOval(int x, int y, int width, int height) {
+        }
+
+        @Override
+        public void drawString(String text, int x, int y) {
+        }
+    }
+
+    CommandBuffer buffer;
+    LoggingContext target;
+    // the items recorded, on the position of their rectangle.
+    Map<String, String> items = new HashMap<>();
+    // the state keys of the items, on their name.
+    Map<String, Object> states = new HashMap<>();
+
+    @Given("^an empty CommandBuffer$")
+    public void anEmptyCommandBuffer() {
+        buffer = new CommandBuffer();
+        target = new LoggingContext();
+        buffer.begin(target);
+    }
+
+    @When("^the items are recorded into the CommandBuffer:$")
+    public void theItemsAreRecordedIntoTheCommandBuffer(DataTable table) throws ReflectiveOperationException {
+        for (Map<String, String> row : table.asMaps(String.class, String.class)) {
+            if (row.get("item").equals("barrier")) {
+                buffer.barrier();
+            } else {
+                record(row.get("item"), Integer.parseInt(row.get("layer")), Integer.parseInt(row.get("priority")),
+                        row.get("state"), row.get("color"), Integer.parseInt(row.get("x")),
+                        Integer.parseInt(row.get("y")));
+            }
+        }
+    }
+
+    @When("^(\\d+) non-overlapping items alternating the states \"([^\"]*)\" are recorded into the CommandBuffer$")
+    public void nonOverlappingItemsAlternatingTheStatesAreRecorded(int count, String stateColors)
+            throws ReflectiveOperationException {
+        String[] pairs = stateColors.split(",");
+        for (int i = 0; i < count; i++) {
+            String[] pair = pairs[i % pairs.length].split(":");
+            record("item" + i, 1, 0, pair[0], pair[1], i * 2 * SIZE, 0);
+        }
+    }
+
+    @When("^the CommandBuffer is executed$")
+    public void theCommandBufferIsExecuted() {
+        buffer.execute(target);
+    }
+
+    @Then("^the CommandBuffer draw order is \"([^\"]*)\"$")
+    public void theCommandBufferDrawOrderIs(String order) {
+        assertEquals("Wrong drawing order", order, target.drawn.toString());
+    }
+
+    @Then("^the CommandBuffer made (\\d+) draw calls and (\\d+) state changes$")
+    public void theCommandBufferMadeDrawCallsAndStateChanges(int drawCalls, int stateChanges) {
+        assertEquals("Wrong number of draw calls", drawCalls, buffer.getDrawCalls());
+        assertEquals("Wrong number of state changes", stateChanges, buffer.getStateChanges());
+    }
+
+    private void record(String name, int layer, int priority, String state, String color, int x, int y)
+            throws ReflectiveOperationException {
+        buffer.beginItem(layer, priority, states.computeIfAbsent(state, s -> new Object()));
+        buffer.setColor((Color) Color.class.getField(color).get(null));
+        buffer.fillRect(x, y, SIZE, SIZE);
+        items.put(x + "," + y, name);
+    }
+}
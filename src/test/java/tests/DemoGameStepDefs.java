@@ -1,15 +1,26 @@
 package tests;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import core.Game;
+import core.io.SyntheticInputSource;
 import cucumber.api.java.en.And;
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DemoGameStepDefs {
     Game dg;
     String[] argc;
+    JsonElement finalState;
 
     @Given("^DemoGame is instantiated with \"([^\"]*)\"$")
     public void demoGameIsInstantiatedWith(String arguments) throws Throwable {
@@ -32,6 +43,12 @@ public class DemoGameStepDefs {
         assertEquals("The scale is not correctly set", scale, dg.config.screenScale,0.005);
     }
 
+    @And("^the DemoGame config is headless$")
+    public void theDemoGameConfigIsHeadless() {
+        assertTrue("The headless mode is not set", dg.config.headless);
+        assertTrue("The sound must be muted in headless mode", dg.config.mute);
+    }
+
     @Then("^the DemoGame instance initialized$")
     public void theDemoGameInstanceInitialized() {
         dg.initialize();
@@ -44,4 +61,42 @@ public class DemoGameStepDefs {
         assertEquals("screenBuffer height has not been set correctly to " + height, height,
                 dg.renderer.screenBuffer.getHeight());
     }
+
+    @When("^DemoGame is played headless for (\\d+) ticks with the inputs \"([^\"]*)\"$")
+    public void demoGameIsPlayedHeadlessWithTheInputs(int ticks, String script) throws Throwable {
+        Path state = Files.createTempFile("state", ".json");
+        try {
+            dg = new Game(new String[] { "hl=true", "tk=" + ticks, "in=" + script, "st=/res/game-demo.json", "so=" + state });
+            dg.play();
+            try (Reader r = Files.newBufferedReader(state)) {
+                finalState = new JsonParser().parse(r);
+            }
+        } finally {
+            Files.deleteIfExists(state);
+        }
+    }
+
+    @Then("^the final position of \"([^\"]*)\" is (at|right of|left of) x=(\\d+)$")
+    public void theFinalPositionOfIs(String name, String position, double x) {
+        for (JsonElement e : finalState.getAsJsonArray()) {
+            if (name.equals(e.getAsJsonObject().get("name").getAsString())) {
+                double finalX = e.getAsJsonObject().get("pos").getAsJsonArray().get(0).getAsDouble();
+                assertEquals(name + " is not " + position + " x=" + x + ": " + finalX,
+                        "at".equals(position) ? 0 : "right of".equals(position) ? 1 : -1,
+                        (int) Math.signum(finalX - x));
+                return;
+            }
+        }
+        fail("No " + name + " in the final state");
+    }
+
+    @Then("^the input script \"([^\"]*)\" is rejected$")
+    public void theInputScriptIsRejected(String script) {
+        try {
+            SyntheticInputSource.parse(script);
+            fail("The input script " + script + " has been accepted");
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+    }
 }
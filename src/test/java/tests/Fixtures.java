@@ -0,0 +1,59 @@
+package tests;
+
+import static org.junit.Assert.assertNotNull;
+
+import core.Game;
+import core.map.MapLayer;
+import core.map.MapLevel;
+import core.map.MapReader;
+import core.resource.ResourceManager;
+import core.system.SystemManager;
+
+/**
+ * The fixtures shared by the scenarios: a headless Game with only its
+ * SystemManager, and the ResourceManager the MapReader loads the images of a
+ * map with.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return a headless game, its SystemManager started but none of its
+     *         systems.
+     */
+    static Game headlessGame() {
+        Game game = new Game(new String[] { "hl=true" });
+        game.sysMan = SystemManager.initialize(game);
+        return game;
+    }
+
+    /**
+     * @return the ResourceManager of a new headless game.
+     */
+    static ResourceManager resourceManager() {
+        Game game = headlessGame();
+        ResourceManager resourceManager = new ResourceManager(game);
+        resourceManager.initialize(game);
+        return resourceManager;
+    }
+
+    /**
+     * Read a map from its JSON file, without any map cache.
+     */
+    static MapLevel readMap(String fileMap) {
+        MapLevel map = MapReader.readFromFile(resourceManager(), fileMap);
+        assertNotNull("The map " + fileMap + " has not been read", map);
+        return map;
+    }
+
+    /**
+     * Read a map from its JSON file, and return one of its layers.
+     */
+    static MapLayer readLayer(String fileMap, String layerName) {
+        MapLayer layer = readMap(fileMap).layers.get(layerName);
+        assertNotNull("No layer " + layerName + " in " + fileMap, layer);
+        return layer;
+    }
+}
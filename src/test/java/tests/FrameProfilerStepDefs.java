@@ -0,0 +1,66 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import core.system.FrameProfiler;
+import core.system.FrameProfiler.Phase;
+import core.system.FrameProfiler.PhaseStats;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class FrameProfilerStepDefs {
+
+    // the time spent in the profiler itself, in milliseconds.
+    private static final double TOLERANCE = 0.5;
+
+    FrameProfiler profiler;
+
+    @Given("^a FrameProfiler keeping (\\d+) samples$")
+    public void aFrameProfilerKeepingSamples(int capacity) {
+        profiler = new FrameProfiler(capacity);
+    }
+
+    @When("^(\\d+) update steps last from 1 to (\\d+) ms in the ([A-Z_]+) phase$")
+    public void updateStepsLastFromTo(int steps, int max, Phase phase) {
+        for (int i = 0; i < steps; i++) {
+            measure(phase, 1 + i * (max - 1) / Math.max(steps - 1, 1));
+            profiler.endStep();
+        }
+    }
+
+    @When("^(\\d+) frames last (\\d+) ms in the ([A-Z_]+) phase, each after (\\d+) update steps of (\\d+) ms in the ([A-Z_]+) phase$")
+    public void framesLastAfterUpdateSteps(int frames, int frameTime, Phase renderPhase, int steps, int stepTime,
+            Phase updatePhase) {
+        for (int f = 0; f < frames; f++) {
+            for (int s = 0; s < steps; s++) {
+                measure(updatePhase, stepTime);
+                profiler.endStep();
+            }
+            measure(renderPhase, frameTime);
+            profiler.endFrame();
+        }
+    }
+
+    @Then("^the ([A-Z_]+) phase has (\\d+) samples$")
+    public void thePhaseHasSamples(Phase phase, long samples) {
+        assertEquals("Wrong number of samples for " + phase, samples, profiler.getStatistics().get(phase).frames);
+    }
+
+    @And("^the ([A-Z_]+) phase has p50=(\\d+) p95=(\\d+) p99=(\\d+) max=(\\d+) ms$")
+    public void thePhaseHasPercentiles(Phase phase, double p50, double p95, double p99, double max) {
+        PhaseStats ps = profiler.getStatistics().get(phase);
+        assertEquals("Wrong p50 for " + phase, p50, ps.p50, TOLERANCE);
+        assertEquals("Wrong p95 for " + phase, p95, ps.p95, TOLERANCE);
+        assertEquals("Wrong p99 for " + phase, p99, ps.p99, TOLERANCE);
+        assertEquals("Wrong max for " + phase, max, ps.max, TOLERANCE);
+    }
+
+    /**
+     * Add a measure of <code>ms</code> milliseconds to a phase, without waiting.
+     */
+    private void measure(Phase phase, long ms) {
+        profiler.stop(phase, System.nanoTime() - ms * 1_000_000L);
+    }
+}
@@ -0,0 +1,131 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import core.io.InputHandler;
+import core.io.InputRecorder;
+import core.io.ReplayInputSource;
+import core.io.SyntheticInputSource;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class InputReplayStepDefs {
+
+    String log;
+    InputHandler handler;
+    InputRecorder recorder;
+    // key events to be fired while recording, as (tick, id, keyCode, modifiers).
+    List<int[]> events = new ArrayList<>();
+
+    ReplayInputSource replay;
+    // key states of each replayed tick, and the replayed pressed events.
+    List<boolean[]> states = new ArrayList<>();
+    List<int[]> pressed = new ArrayList<>();
+
+    @Given("^an input log is recorded at (\\d+) UPS with seed (\\d+)$")
+    public void anInputLogIsRecorded(int ups, long seed) throws Throwable {
+        log = Files.createTempFile("inputs", ".bin").toString();
+        handler = new InputHandler(null);
+        recorder = new InputRecorder(log, ups, seed);
+        handler.setRecorder(recorder);
+    }
+
+    @When("^the key \"([^\"]*)\" is pressed at tick (\\d+)$")
+    public void theKeyIsPressedAtTick(String key, int tick) throws Throwable {
+        events.add(new int[] { tick, KeyEvent.KEY_PRESSED, keyCode(key), 0 });
+    }
+
+    @When("^the key \"([^\"]*)\" is pressed with \"([^\"]*)\" at tick (\\d+)$")
+    public void theKeyIsPressedWithAtTick(String key, String modifiers, int tick) throws Throwable {
+        events.add(new int[] { tick, KeyEvent.KEY_PRESSED, keyCode(key), modifiers(modifiers) });
+    }
+
+    @And("^the key \"([^\"]*)\" is released at tick (\\d+)$")
+    public void theKeyIsReleasedAtTick(String key, int tick) throws Throwable {
+        events.add(new int[] { tick, KeyEvent.KEY_RELEASED, keyCode(key), 0 });
+    }
+
+    @And("^the recording stops after tick (\\d+)$")
+    public void theRecordingStopsAfterTick(int last) throws Throwable {
+        for (int tick = 0; tick <= last; tick++) {
+            for (int[] e : events) {
+                if (e[0] == tick) {
+                    SyntheticInputSource.fire(handler, e[1], e[2], e[3]);
+                }
+            }
+            handler.poll(tick);
+        }
+        recorder.close();
+    }
+
+    @Then("^the input log is replayed at (\\d+) UPS with seed (\\d+) over (\\d+) ticks$")
+    public void theInputLogIsReplayed(int ups, long seed, long length) throws Throwable {
+        replay = new ReplayInputSource(log);
+        assertEquals("Wrong UPS", ups, replay.getUps());
+        assertEquals("Wrong seed", seed, replay.getSeed());
+        assertEquals("Wrong length", length, replay.getLength());
+
+        InputHandler player = new InputHandler(null);
+        player.setInputSource(replay);
+        long[] current = new long[1];
+        player.addListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                pressed.add(new int[] { (int) current[0], e.getKeyCode(), e.getModifiersEx() });
+            }
+        });
+        for (current[0] = 0; current[0] < length; current[0]++) {
+            player.poll(current[0]);
+            states.add(player.keys.clone());
+        }
+        assertTrue("The replay is not finished", replay.isFinished());
+        Files.deleteIfExists(Paths.get(log));
+    }
+
+    @And("^the replayed key \"([^\"]*)\" is down from tick (\\d+) to tick (\\d+)$")
+    public void theReplayedKeyIsDownFromTo(String key, int from, int to) throws Throwable {
+        int keyCode = keyCode(key);
+        for (int tick = 0; tick < states.size(); tick++) {
+            assertEquals("Wrong state of " + key + " at tick " + tick, tick >= from && tick <= to,
+                    states.get(tick)[keyCode]);
+        }
+    }
+
+    @And("^the replayed key \"([^\"]*)\" is pressed with \"([^\"]*)\" at tick (\\d+)$")
+    public void theReplayedKeyIsPressedWith(String key, String modifiers, int tick) throws Throwable {
+        for (int[] p : pressed) {
+            if (p[1] == keyCode(key)) {
+                assertEquals("Wrong tick for " + key, tick, p[0]);
+                assertEquals("Wrong modifiers for " + key, modifiers(modifiers), p[2]);
+                return;
+            }
+        }
+        throw new AssertionError("The key " + key + " has not been replayed");
+    }
+
+    private static int keyCode(String key) throws ReflectiveOperationException {
+        return KeyEvent.class.getField("VK_" + key).getInt(null);
+    }
+
+    /**
+     * @return the extended modifiers of a <code>"CTRL+SHIFT"</code> like string.
+     */
+    private static int modifiers(String modifiers) throws ReflectiveOperationException {
+        int mask = 0;
+        for (String m : modifiers.split("\\+")) {
+            mask |= InputEvent.class.getField(m + "_DOWN_MASK").getInt(null);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,90 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import core.map.MapCompiler;
+import core.map.MapLayer;
+import core.map.MapLayer.LayerType;
+import core.map.MapLevel;
+import core.map.MapObject;
+import core.map.MapReader;
+import core.object.GameObject;
+import core.resource.ResourceManager;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class MapFileStepDefs {
+
+    ResourceManager resourceManager;
+    Path cacheDir;
+    MapLevel parsed;
+    MapLevel compiled;
+
+    @Given("^an empty map cache directory$")
+    public void anEmptyMapCacheDirectory() throws IOException {
+        resourceManager = Fixtures.resourceManager();
+        cacheDir = Files.createTempDirectory("maps");
+    }
+
+    @When("^the map \"([^\"]*)\" is read through the map cache$")
+    public void theMapIsReadThroughTheMapCache(String fileMap) {
+        parsed = MapReader.readFromFile(resourceManager, fileMap, cacheDir.toString());
+        assertNotNull("The map has not been read", parsed);
+    }
+
+    @Then("^the map \"([^\"]*)\" is compiled in the map cache$")
+    public void theMapIsCompiledInTheMapCache(String fileMap) {
+        Path compiledPath = MapCompiler.getCompiledPath(cacheDir.toFile(), fileMap);
+        assertTrue("The map has not been compiled to " + compiledPath, Files.isRegularFile(compiledPath));
+    }
+
+    @When("^the map \"([^\"]*)\" is read again through the map cache$")
+    public void theMapIsReadAgainThroughTheMapCache(String fileMap) throws IOException {
+        compiled = MapReader.readFromFile(resourceManager, fileMap, cacheDir.toString());
+        assertNotNull("The compiled map has not been read", compiled);
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Then("^both maps have the same layers, tiles and objects$")
+    public void bothMapsHaveTheSameLayersTilesAndObjects() {
+        assertEquals("Wrong layers", parsed.layers.keySet(), compiled.layers.keySet());
+        for (MapLayer expected : parsed.layers.values()) {
+            MapLayer actual = compiled.layers.get(expected.name);
+            assertEquals("Wrong type of " + expected.name, expected.type, actual.type);
+            assertEquals("Wrong width of " + expected.name, expected.width, actual.width, 0);
+            assertEquals("Wrong height of " + expected.name, expected.height, actual.height, 0);
+            if (expected.type == LayerType.LAYER_TILEMAP) {
+                for (int y = 0; y < expected.height; y++) {
+                    for (int x = 0; x < expected.width; x++) {
+                        assertEquals("Wrong tile at (" + x + "," + y + ")", name(expected.getTile(x, y)),
+                                name(actual.getTile(x, y)));
+                    }
+                }
+            }
+        }
+        assertEquals("Wrong player position", parsed.playerInitialX, compiled.playerInitialX, 0);
+        assertEquals("Wrong player position", parsed.playerInitialY, compiled.playerInitialY, 0);
+        assertEquals("Wrong objects", parsed.child.keySet(), compiled.child.keySet());
+        for (GameObject go : parsed.child.values()) {
+            GameObject other = compiled.child.get(go.name);
+            assertEquals("Wrong position of " + go.name, go.pos.x, other.pos.x, 0);
+            assertEquals("Wrong position of " + go.name, go.pos.y, other.pos.y, 0);
+        }
+        assertEquals("Wrong number of lights", parsed.lights.size(), compiled.lights.size());
+    }
+
+    private static String name(MapObject mo) {
+        return mo != null ? mo.name : null;
+    }
+}
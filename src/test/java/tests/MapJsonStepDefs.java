@@ -0,0 +1,178 @@
+package tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import core.map.MapLayer;
+import core.map.MapLevel;
+import core.map.MapObject;
+import core.map.MapObjectAsset;
+import cucumber.api.DataTable;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+public class MapJsonStepDefs {
+
+    MapLevel map;
+
+    @Given("^the map \"([^\"]*)\" read from its JSON file$")
+    public void theMapReadFromItsJsonFile(String fileMap) {
+        map = Fixtures.readMap(fileMap);
+    }
+
+    @Then("^the layers of the map are, in order:$")
+    public void theLayersOfTheMapAreInOrder(DataTable table) {
+        List<Map<String, String>> expected = table.asMaps(String.class, String.class);
+        List<String> names = new ArrayList<>(map.layers.keySet());
+        assertEquals("Wrong number of layers", expected.size(), names.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Map<String, String> row = expected.get(i);
+            MapLayer layer = map.layers.get(names.get(i));
+            assertEquals("Wrong layer " + i, row.get("name"), names.get(i));
+            assertEquals("Wrong name of " + names.get(i), row.get("name"), layer.name);
+            assertEquals("Wrong index of " + layer.name, Integer.parseInt(row.get("index")), layer.index);
+            assertEquals("Wrong type of " + layer.name, row.get("type"), layer.type.name());
+        }
+    }
+
+    @Then("^the level attributes are those of \"([^\"]*)\"$")
+    public void theLevelAttributesAreThoseOf(String fileMap) throws IOException {
+        JsonObject json = readJson(fileMap);
+        assertEquals("Wrong name", string(json, "name"), map.name);
+        assertEquals("Wrong description", string(json, "description"), map.description);
+        assertEquals("Wrong next level", string(json, "nextLevel"), map.nextLevel);
+        for (Entry<String, JsonElement> entry : json.getAsJsonObject("layers").entrySet()) {
+            JsonObject expected = entry.getValue().getAsJsonObject();
+            MapLayer layer = map.layers.get(entry.getKey());
+            assertNotNull("No layer " + entry.getKey(), layer);
+            assertEquals("Wrong background of " + layer.name, string(expected, "background"), layer.background);
+            assertEquals("Wrong assets of " + layer.name, strings(expected, "assets"), layer.assets);
+        }
+    }
+
+    @Then("^the asset of the layer \"([^\"]*)\" is \"([^\"]*)\"$")
+    public void theAssetOfTheLayerIs(String layerName, String fileAsset) throws IOException {
+        JsonObject json = readJson(fileAsset);
+        MapObjectAsset asset = map.layers.get(layerName).assetsObjects.get(0);
+        assertEquals("Wrong name", string(json, "name"), asset.name);
+        assertEquals("Wrong image", string(json, "image"), asset.image);
+        assertEquals("Wrong tile width", json.get("tileWidth").getAsInt(), asset.tileWidth);
+        assertEquals("Wrong tile height", json.get("tileHeight").getAsInt(), asset.tileHeight);
+    }
+
+    @Then("^each object of the asset of the layer \"([^\"]*)\" is the one of \"([^\"]*)\"$")
+    public void eachObjectOfTheAssetOfTheLayerIsTheOneOf(String layerName, String fileAsset) throws IOException {
+        JsonObject objects = readJson(fileAsset).getAsJsonObject("objects");
+        MapObjectAsset asset = map.layers.get(layerName).assetsObjects.get(0);
+        assertEquals("Wrong objects", objects.keySet(), asset.objects.keySet());
+        for (Entry<String, JsonElement> entry : objects.entrySet()) {
+            assertObject(entry.getKey(), entry.getValue().getAsJsonObject(), asset.objects.get(entry.getKey()));
+        }
+    }
+
+    private void assertObject(String key, JsonObject expected, MapObject mo) {
+        String m = "Wrong %s of the object " + key;
+        assertEquals(String.format(m, "id"), string(expected, "id"), mo.id);
+        assertEquals(String.format(m, "type"), string(expected, "type"), mo.type != null ? mo.type.name() : null);
+        assertEquals(String.format(m, "name"), string(expected, "name"), mo.name);
+        assertEquals(String.format(m, "class"), string(expected, "clazz"), mo.clazz);
+        assertEquals(String.format(m, "priority"), integer(expected, "priority"), mo.priority);
+        assertEquals(String.format(m, "layer"), integer(expected, "layer"), mo.layer);
+        assertEquals(String.format(m, "friction"), decimal(expected, "friction"), mo.friction, 0.0);
+        assertArrayEquals(String.format(m, "offset"), ints(expected, "offset"), new int[] { mo.offsetX, mo.offsetY });
+        assertArrayEquals(String.format(m, "size"), ints(expected, "size"), new int[] { mo.sizeX, mo.sizeY });
+        assertEquals(String.format(m, "block"), bool(expected, "block"), mo.block);
+        assertEquals(String.format(m, "collectible"), bool(expected, "collectible"), mo.collectible);
+        assertEquals(String.format(m, "canCollect"), bool(expected, "canCollect"), mo.canCollect);
+        assertEquals(String.format(m, "climbable"), bool(expected, "climbable"), mo.climbable);
+        assertEquals(String.format(m, "hit"), bool(expected, "hit"), mo.hit);
+        assertEquals(String.format(m, "levelOutput"), bool(expected, "levelOutput"), mo.levelOutput);
+        assertEquals(String.format(m, "money"), integer(expected, "money"), mo.money);
+        assertEquals(String.format(m, "damage"), integer(expected, "damage"), mo.damage);
+        assertEquals(String.format(m, "energy"), integer(expected, "energy"), mo.energy);
+        assertEquals(String.format(m, "next level"), string(expected, "nextLevel"), mo.nextLevel);
+        assertEquals(String.format(m, "description"), string(expected, "description"), mo.description);
+        assertEquals(String.format(m, "usage"), string(expected, "usage"), mo.usage);
+        assertArrayEquals(String.format(m, "frames"), frames(expected), mo.frameSet);
+        if (expected.has("bbox")) {
+            JsonObject bbox = expected.getAsJsonObject("bbox");
+            assertEquals(String.format(m, "bbox top"), decimal(bbox, "top"), mo.bbox.top, 0.0);
+            assertEquals(String.format(m, "bbox bottom"), decimal(bbox, "bottom"), mo.bbox.bottom, 0.0);
+            assertEquals(String.format(m, "bbox left"), decimal(bbox, "left"), mo.bbox.left, 0.0);
+            assertEquals(String.format(m, "bbox right"), decimal(bbox, "right"), mo.bbox.right, 0.0);
+        }
+        if (expected.has("attributes")) {
+            assertEquals(String.format(m, "attributes"), expected.getAsJsonObject("attributes").keySet(),
+                    mo.attributes.keySet());
+        }
+    }
+
+    private JsonObject readJson(String path) throws IOException {
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream(path), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    private static String string(JsonObject json, String name) {
+        return json.has(name) ? json.get(name).getAsString() : null;
+    }
+
+    private static List<String> strings(JsonObject json, String name) {
+        if (!json.has(name)) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        json.getAsJsonArray(name).forEach(e -> values.add(e.getAsString()));
+        return values;
+    }
+
+    private static int integer(JsonObject json, String name) {
+        return json.has(name) ? json.get(name).getAsInt() : 0;
+    }
+
+    private static double decimal(JsonObject json, String name) {
+        return json.has(name) ? json.get(name).getAsDouble() : 0.0;
+    }
+
+    private static boolean bool(JsonObject json, String name) {
+        return json.has(name) && json.get(name).getAsBoolean();
+    }
+
+    private static int[] ints(JsonObject json, String name) {
+        if (!json.has(name)) {
+            return new int[2];
+        }
+        String[] values = json.get(name).getAsString().split(",");
+        return new int[] { Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()) };
+    }
+
+    private static int[] frames(JsonObject json) {
+        if (!json.has("frameSet")) {
+            return new int[0];
+        }
+        JsonArray frameSet = json.getAsJsonArray("frameSet");
+        int[] frames = new int[3 * frameSet.size()];
+        for (int i = 0; i < frameSet.size(); i++) {
+            String[] values = frameSet.get(i).getAsString().split(",");
+            for (int j = 0; j < 3; j++) {
+                frames[3 * i + j] = Integer.parseInt(values[j].trim());
+            }
+        }
+        return frames;
+    }
+}
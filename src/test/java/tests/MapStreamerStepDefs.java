@@ -0,0 +1,171 @@
+package tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import core.map.MapLayer;
+import core.map.MapLevel;
+import core.map.MapReader;
+import core.map.MapStreamer;
+import core.object.GameObject;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class MapStreamerStepDefs {
+
+    MapLevel map;
+    MapStreamer streamer;
+    int viewWidth;
+    int viewHeight;
+
+    // objects in the scene, as told by the StreamListener.
+    List<GameObject> active = new ArrayList<>();
+    List<GameObject> evicted = new ArrayList<>();
+
+    int[] removedTile;
+    int[][] remembered;
+
+    GameObject object;
+    double savedX;
+    double savedY;
+
+    @Given("^the map \"([^\"]*)\" streamed under a budget of (\\d+) KB with a view of (\\d+)x(\\d+)$")
+    public void theMapStreamedUnderABudget(String fileMap, int budget, int width, int height) {
+        MapReader reader = new MapReader(Fixtures.resourceManager());
+        map = reader.open(fileMap);
+        assertTrue("The map is not streamed", map.isStreamed());
+        viewWidth = width;
+        viewHeight = height;
+        streamer = new MapStreamer(reader, map, budget, new MapStreamer.StreamListener() {
+            @Override
+            public void activated(GameObject go) {
+                active.add(go);
+            }
+
+            @Override
+            public void evicted(GameObject go) {
+                active.remove(go);
+                evicted.add(go);
+            }
+        });
+        streamer.start(width, height);
+    }
+
+    @After
+    public void disposeStreamer() {
+        if (streamer != null) {
+            streamer.dispose();
+        }
+    }
+
+    @Given("^the streamed view (?:is at|moves to) (-?\\d+),(-?\\d+)$")
+    public void theStreamedViewMovesTo(int x, int y) {
+        streamer.update(x, y, viewWidth, viewHeight);
+    }
+
+    @Then("^the chunk (\\d+),(\\d+) of the streamed layer \"([^\"]*)\" is loaded$")
+    public void theChunkOfTheStreamedLayerIsLoaded(int cx, int cy, String layerName) {
+        assertTrue("The chunk " + cx + "," + cy + " is not loaded", layer(layerName).isChunkLoaded(cx, cy));
+    }
+
+    @Then("^the chunk (\\d+),(\\d+) of the streamed layer \"([^\"]*)\" is not loaded$")
+    public void theChunkOfTheStreamedLayerIsNotLoaded(int cx, int cy, String layerName) {
+        assertFalse("The chunk " + cx + "," + cy + " is still loaded", layer(layerName).isChunkLoaded(cx, cy));
+    }
+
+    @Then("^some chunks have been evicted$")
+    public void someChunksHaveBeenEvicted() {
+        assertTrue("No chunk has been evicted", streamer.getEvictions() > 0);
+    }
+
+    @When("^the first tile of the chunk (\\d+),(\\d+) of the streamed layer \"([^\"]*)\" is removed$")
+    public void theFirstTileOfTheChunkIsRemoved(int cx, int cy, String layerName) {
+        MapLayer ml = layer(layerName);
+        for (int y = cy * MapLayer.CHUNK_SIZE; removedTile == null && y < (cy + 1) * MapLayer.CHUNK_SIZE; y++) {
+            for (int x = cx * MapLayer.CHUNK_SIZE; removedTile == null && x < (cx + 1) * MapLayer.CHUNK_SIZE; x++) {
+                if (ml.getTileId(x, y) != 0) {
+                    removedTile = new int[] { x, y };
+                }
+            }
+        }
+        assertNotNull("No tile in the chunk " + cx + "," + cy, removedTile);
+        ml.setTile(removedTile[0], removedTile[1], null);
+    }
+
+    @When("^the tiles of the chunks (\\d+),(\\d+) and (\\d+),(\\d+) of the streamed layer \"([^\"]*)\" are remembered$")
+    public void theTilesOfTheChunksAreRemembered(int cx0, int cy0, int cx1, int cy1, String layerName) {
+        remembered = new int[][] { chunkTiles(layer(layerName), cx0, cy0), chunkTiles(layer(layerName), cx1, cy1) };
+    }
+
+    @Then("^the tiles of the chunks (\\d+),(\\d+) and (\\d+),(\\d+) of the streamed layer \"([^\"]*)\" are the remembered ones$")
+    public void theTilesOfTheChunksAreTheRememberedOnes(int cx0, int cy0, int cx1, int cy1, String layerName) {
+        MapLayer ml = layer(layerName);
+        assertTrue("The chunks have not been evicted", streamer.getEvictions() > 0);
+        assertEquals("The tile (" + removedTile[0] + "," + removedTile[1] + ") is back", 0,
+                ml.getTileId(removedTile[0], removedTile[1]));
+        assertArrayEquals("Wrong tiles in the chunk " + cx0 + "," + cy0, remembered[0], chunkTiles(ml, cx0, cy0));
+        assertArrayEquals("Wrong tiles in the chunk " + cx1 + "," + cy1, remembered[1], chunkTiles(ml, cx1, cy1));
+    }
+
+    @When("^an object of the chunk (\\d+),(\\d+) with an attribute \"([^\"]*)\" is moved by (-?\\d+),(-?\\d+) and its \"([^\"]*)\" set to (\\d+)$")
+    public void anObjectOfTheChunkIsMoved(int cx, int cy, String attribute, int dx, int dy, String name, int value) {
+        int chunkWidth = map.layers.get("front").assetsObjects.get(0).tileWidth * MapLayer.CHUNK_SIZE;
+        int chunkHeight = map.layers.get("front").assetsObjects.get(0).tileHeight * MapLayer.CHUNK_SIZE;
+        for (GameObject go : active) {
+            if ((int) go.pos.x / chunkWidth == cx && (int) go.pos.y / chunkHeight == cy && go.attributes != null
+                    && go.attributes.containsKey(attribute)) {
+                object = go;
+                break;
+            }
+        }
+        assertNotNull("No object with " + attribute + " in the chunk " + cx + "," + cy, object);
+        object.pos.x += dx;
+        object.pos.y += dy;
+        object.attributes.put(name, value);
+        savedX = object.pos.x;
+        savedY = object.pos.y;
+    }
+
+    @Then("^the object has been evicted$")
+    public void theObjectHasBeenEvicted() {
+        assertTrue(object.name + " has not been evicted", evicted.contains(object));
+        assertFalse(object.name + " is still active", active.contains(object));
+    }
+
+    @Then("^the object is restored moved by (-?\\d+),(-?\\d+) with its \"([^\"]*)\" at (\\d+)$")
+    public void theObjectIsRestored(int dx, int dy, String name, int value) {
+        GameObject restored = null;
+        for (GameObject go : active) {
+            if (go.name.equals(object.name)) {
+                restored = go;
+            }
+        }
+        assertNotNull(object.name + " has not been restored", restored);
+        assertEquals("Wrong x of " + object.name, savedX, restored.pos.x, 0.0);
+        assertEquals("Wrong y of " + object.name, savedY, restored.pos.y, 0.0);
+        assertEquals("Wrong " + name + " of " + object.name, value, restored.attributes.get(name));
+    }
+
+    private MapLayer layer(String layerName) {
+        MapLayer ml = map.layers.get(layerName);
+        assertNotNull("No layer " + layerName, ml);
+        return ml;
+    }
+
+    private static int[] chunkTiles(MapLayer ml, int cx, int cy) {
+        int[] tiles = new int[MapLayer.CHUNK_SIZE * MapLayer.CHUNK_SIZE];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = ml.getTileId(cx * MapLayer.CHUNK_SIZE + i % MapLayer.CHUNK_SIZE,
+                    cy * MapLayer.CHUNK_SIZE + i / MapLayer.CHUNK_SIZE);
+        }
+        return tiles;
+    }
+}
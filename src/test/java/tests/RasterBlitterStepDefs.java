@@ -0,0 +1,71 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import core.gfx.RasterBlitter;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class RasterBlitterStepDefs {
+
+    // alpha of the source pixels, cycling along each row.
+    private static final int[] ALPHAS = { 0xFF, 0x00, 0x40, 0x80, 0xC0, 0xFF, 0x01, 0xFE };
+
+    BufferedImage target;
+    BufferedImage reference;
+    BufferedImage source;
+
+    @Given("^a (\\d+)x(\\d+) TYPE_INT_RGB blitter target$")
+    public void aTypeIntRgbBlitterTarget(int width, int height) {
+        target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        reference = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = ((x * 4) << 16) | ((y * 5) << 8) | ((x + y) * 2);
+                target.setRGB(x, y, rgb);
+                reference.setRGB(x, y, rgb);
+            }
+        }
+    }
+
+    @Given("^a (\\d+)x(\\d+) (INT_RGB|INT_ARGB|INT_ARGB_PRE) source image$")
+    public void aSourceImage(int width, int height, String type) throws ReflectiveOperationException {
+        source = new BufferedImage(width, height, BufferedImage.class.getField("TYPE_" + type).getInt(null));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int a = ALPHAS[(x + y) % ALPHAS.length];
+                source.setRGB(x, y, (a << 24) | ((255 - x * 9) << 16) | ((y * 20) << 8) | ((x * 7 + y * 3) & 0xFF));
+            }
+        }
+    }
+
+    @When("^the source area (\\d+),(\\d+) (\\d+)x(\\d+) is drawn at (-?\\d+),(-?\\d+) mirrored (true|false) by the blitter and by Java2D$")
+    public void theSourceAreaIsDrawn(int sx, int sy, int sw, int sh, int x, int y, boolean flip) {
+        Graphics2D g = target.createGraphics();
+        assertTrue("The blitter refused the image", new RasterBlitter(target).draw(g, source, sx, sy, sw, sh, x, y, flip));
+        g.dispose();
+
+        Graphics2D r = reference.createGraphics();
+        if (flip) {
+            r.drawImage(source, x + sw, y, x, y + sh, sx, sy, sx + sw, sy + sh, null);
+        } else {
+            r.drawImage(source, x, y, x + sw, y + sh, sx, sy, sx + sw, sy + sh, null);
+        }
+        r.dispose();
+    }
+
+    @Then("^the blitter target is the Java2D one$")
+    public void theBlitterTargetIsTheJava2DOne() {
+        for (int y = 0; y < target.getHeight(); y++) {
+            for (int x = 0; x < target.getWidth(); x++) {
+                assertEquals(String.format("Wrong pixel at (%d,%d)", x, y), Integer.toHexString(reference.getRGB(x, y)),
+                        Integer.toHexString(target.getRGB(x, y)));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import core.gfx.RenderQueue;
+import core.object.GameObject;
+import cucumber.api.DataTable;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class RenderQueueStepDefs {
+
+    RenderQueue queue;
+    Map<String, GameObject> objects = new HashMap<>();
+
+    @Given("^an empty RenderQueue$")
+    public void anEmptyRenderQueue() {
+        queue = new RenderQueue();
+    }
+
+    @When("^the objects are added to the RenderQueue:$")
+    public void theObjectsAreAddedToTheRenderQueue(DataTable table) {
+        for (Map<String, String> row : table.asMaps(String.class, String.class)) {
+            GameObject go = new GameObject(row.get("name"), 0, 0, 16, 16);
+            go.layer = Integer.parseInt(row.get("layer"));
+            go.priority = Integer.parseInt(row.get("priority"));
+            objects.put(go.name, go);
+            queue.add(go);
+        }
+    }
+
+    @And("^the object \"([^\"]*)\" is removed from the RenderQueue$")
+    public void theObjectIsRemovedFromTheRenderQueue(String name) {
+        assertTrue(name + " is not in the RenderQueue", queue.remove(objects.get(name)));
+        assertTrue(name + " is still in the RenderQueue", !queue.contains(objects.get(name)));
+    }
+
+    @When("^the object \"([^\"]*)\" is moved to the layer (\\d+) of the RenderQueue$")
+    public void theObjectIsMovedToTheLayer(String name, int layer) {
+        GameObject go = objects.get(name);
+        go.layer = layer;
+        queue.add(go);
+    }
+
+    @Then("^the RenderQueue order is \"([^\"]*)\"$")
+    public void theRenderQueueOrderIs(String order) {
+        StringJoiner names = new StringJoiner(",");
+        for (RenderQueue.Entry e : queue) {
+            names.add(e.object.name);
+        }
+        assertEquals("Wrong rendering order", order, names.toString());
+    }
+
+    @And("^the RenderQueue contains (\\d+) objects$")
+    public void theRenderQueueContainsObjects(int size) {
+        assertEquals("Wrong RenderQueue size", size, queue.size());
+    }
+}
@@ -0,0 +1,83 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import core.gfx.Sprite;
+import core.gfx.SpriteAtlas;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class SpriteAtlasStepDefs {
+
+    SpriteAtlas atlas;
+    BufferedImage source;
+    Map<String, Sprite> sprites = new HashMap<>();
+
+    @Given("^a SpriteAtlas with pages of (\\d+) pixels$")
+    public void aSpriteAtlasWithPagesOf(int pageSize) {
+        atlas = new SpriteAtlas(pageSize);
+    }
+
+    @And("^a source image of (\\d+)x(\\d+) distinct pixels$")
+    public void aSourceImageOfDistinctPixels(int width, int height) {
+        source = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                source.setRGB(x, y, 0xFF000000 | (x << 8) | y);
+            }
+        }
+    }
+
+    @When("^the area \\((\\d+),(\\d+)\\) (\\d+)x(\\d+) of the source image is packed as \"([^\"]*)\"$")
+    public void theAreaIsPacked(int x, int y, int width, int height, String name) {
+        sprites.put(name, atlas.add(source, x, y, width, height));
+    }
+
+    @When("^the area \\((\\d+),(\\d+)\\) (\\d+)x(\\d+) of the source image is packed and mirrored as \"([^\"]*)\"$")
+    public void theAreaIsPackedAndMirrored(int x, int y, int width, int height, String name) {
+        sprites.put(name, atlas.addMirrored(source, x, y, width, height));
+    }
+
+    @Then("^the sprites \"([^\"]*)\" and \"([^\"]*)\" are the same$")
+    public void theSpritesAreTheSame(String first, String second) {
+        assertSame("The area has been packed twice", sprites.get(first), sprites.get(second));
+    }
+
+    @And("^the SpriteAtlas holds (\\d+) sprites on (\\d+) pages$")
+    public void theSpriteAtlasHolds(int count, int pages) {
+        assertEquals("Wrong number of sprites", count, atlas.getSpriteCount());
+        assertEquals("Wrong number of pages", pages, atlas.getPages().size());
+    }
+
+    @And("^the sprite \"([^\"]*)\" draws the area \\((\\d+),(\\d+)\\) (\\d+)x(\\d+) of the source image$")
+    public void theSpriteDrawsTheArea(String name, int x, int y, int width, int height) {
+        assertArea(sprites.get(name), x, y, width, height, false);
+    }
+
+    @And("^the mirrored sprite of \"([^\"]*)\" draws the area \\((\\d+),(\\d+)\\) (\\d+)x(\\d+) of the source image mirrored$")
+    public void theMirroredSpriteDrawsTheAreaMirrored(String name, int x, int y, int width, int height) {
+        Sprite sprite = sprites.get(name);
+        assertSame("The mirrored sprite is not linked back", sprite, sprite.getMirrored().getMirrored());
+        assertArea(sprite.getMirrored(), x, y, width, height, true);
+    }
+
+    private void assertArea(Sprite sprite, int x, int y, int width, int height, boolean mirrored) {
+        assertEquals("Wrong sprite width", width, sprite.getWidth());
+        assertEquals("Wrong sprite height", height, sprite.getHeight());
+        BufferedImage page = sprite.getAtlas();
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                int sx = x + (mirrored ? width - 1 - i : i);
+                assertEquals("Wrong pixel at (" + i + "," + j + ")", source.getRGB(sx, y + j),
+                        page.getRGB(sprite.getX() + i, sprite.getY() + j));
+            }
+        }
+    }
+}
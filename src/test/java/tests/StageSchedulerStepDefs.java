@@ -0,0 +1,150 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import core.Game;
+import core.system.DataSet;
+import core.system.Stage;
+import core.system.StageScheduler;
+import cucumber.api.java.en.And;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class StageSchedulerStepDefs {
+
+    Game game;
+    StageScheduler scheduler;
+    // declared stages, as (name, reading, data sets).
+    List<Object[]> declared = new ArrayList<>();
+    Set<String> failing = new HashSet<>();
+    RuntimeException failure;
+
+    AtomicInteger sequence = new AtomicInteger();
+    Map<String, Integer> starts = new ConcurrentHashMap<>();
+    Map<String, Integer> ends = new ConcurrentHashMap<>();
+    AtomicBoolean together = new AtomicBoolean(true);
+
+    @Given("^a StageScheduler with (\\d+) workers$")
+    public void aStageSchedulerWithWorkers(int workers) {
+        game = Fixtures.headlessGame();
+        scheduler = new StageScheduler(workers);
+    }
+
+    @And("^a stage \"([^\"]*)\" (reading|writing) \"([^\"]*)\"$")
+    public void aStageAccessing(String name, String access, String dataSets) {
+        declared.add(new Object[] { name, access.equals("reading"), dataSets });
+    }
+
+    @And("^a failing stage \"([^\"]*)\" (reading|writing) \"([^\"]*)\"$")
+    public void aFailingStageAccessing(String name, String access, String dataSets) {
+        aStageAccessing(name, access, dataSets);
+        failing.add(name);
+    }
+
+    @When("^the stages are run$")
+    public void theStagesAreRun() {
+        run((g, elapsed) -> sleep(20));
+    }
+
+    @When("^the stages are run, each one waiting for the other$")
+    public void theStagesAreRunEachOneWaitingForTheOther() {
+        CyclicBarrier barrier = new CyclicBarrier(declared.size());
+        run((g, elapsed) -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                together.set(false);
+            }
+        });
+    }
+
+    @When("^the stages are run until the failure$")
+    public void theStagesAreRunUntilTheFailure() {
+        try {
+            run((g, elapsed) -> sleep(5));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    @Then("^the failure of the stage \"([^\"]*)\" is thrown$")
+    public void theFailureOfTheStageIsThrown(String name) {
+        assertNotNull("No failure has been thrown", failure);
+        assertEquals("Wrong failure", "failure of " + name, failure.getMessage());
+    }
+
+    @Then("^the stage \"([^\"]*)\" has run$")
+    public void theStageHasRun(String name) {
+        assertTrue(name + " has not run", ends.containsKey(name));
+    }
+
+    @Then("^the stage \"([^\"]*)\" has not run$")
+    public void theStageHasNotRun(String name) {
+        assertFalse(name + " has run", starts.containsKey(name));
+    }
+
+    @Then("^the stage \"([^\"]*)\" ends before the stage \"([^\"]*)\" starts$")
+    public void theStageEndsBeforeTheStageStarts(String first, String second) {
+        assertTrue(first + " has not ended before " + second + " started", ends.get(first) < starts.get(second));
+    }
+
+    @Then("^the stages have run at the same time$")
+    public void theStagesHaveRunAtTheSameTime() {
+        assertTrue("The stages have not run at the same time", together.get());
+    }
+
+    /**
+     * Run the declared stages once, each one running <code>task</code> between
+     * its start and its end.
+     */
+    private void run(Stage.Task task) {
+        List<Stage> stages = new ArrayList<>();
+        for (Object[] d : declared) {
+            String name = (String) d[0];
+            Stage stage = new Stage(name, null, (g, elapsed) -> {
+                starts.put(name, sequence.incrementAndGet());
+                task.run(g, elapsed);
+                if (failing.contains(name)) {
+                    throw new IllegalStateException("failure of " + name);
+                }
+                ends.put(name, sequence.incrementAndGet());
+            });
+            for (String ds : ((String) d[2]).split(",")) {
+                if ((Boolean) d[1]) {
+                    stage.reads(DataSet.valueOf(ds));
+                } else {
+                    stage.writes(DataSet.valueOf(ds));
+                }
+            }
+            stages.add(stage);
+        }
+        try {
+            scheduler.run(game, stages, 16);
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import core.map.MapLayer;
+import core.map.TileGeometry;
+import core.map.TileTable;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class TileGeometryStepDefs {
+
+    MapLayer layer;
+    TileTable tileTable;
+    TileGeometry geometry;
+
+    @Given("^the geometry of the layer \"([^\"]*)\" of the map \"([^\"]*)\"$")
+    public void theGeometryOfTheLayerOfTheMap(String layerName, String fileMap) {
+        layer = Fixtures.readLayer(fileMap, layerName);
+        tileTable = layer.getTileTable();
+        geometry = layer.getGeometry();
+    }
+
+    @Then("^a collect on each cell of the layer finds the tile of the cell only$")
+    public void aCollectOnEachCellOfTheLayerFindsTheTileOfTheCellOnly() {
+        for (int y = 0; y < layer.height; y++) {
+            for (int x = 0; x < layer.width; x++) {
+                int id = layer.getTileId(x, y);
+                int count = geometry.collect(x, y, x, y);
+                assertEquals("Wrong hits at (" + x + "," + y + ")", id != 0 ? 1 : 0, count);
+                if (id != 0) {
+                    assertEquals("Wrong hit x at (" + x + "," + y + ")", x, geometry.getHitX(0));
+                    assertEquals("Wrong hit y at (" + x + "," + y + ")", y, geometry.getHitY(0));
+                    assertEquals("Wrong hit id at (" + x + "," + y + ")", id, geometry.getHitId(0));
+                }
+            }
+        }
+    }
+
+    @Then("^the blocking tiles of the layer are merged into fewer rectangles$")
+    public void theBlockingTilesOfTheLayerAreMergedIntoFewerRectangles() {
+        int blocking = 0;
+        for (int y = 0; y < layer.height; y++) {
+            for (int x = 0; x < layer.width; x++) {
+                int id = layer.getTileId(x, y);
+                if (tileTable.is(id, TileTable.BLOCK) && !tileTable.is(id, TileTable.COLLECTIBLE)) {
+                    blocking++;
+                }
+            }
+        }
+        int rects = geometry.getRectCount();
+        assertTrue("No rectangle", rects > 0);
+        assertTrue(blocking + " blocking tiles merged into " + rects + " rectangles", rects < blocking);
+    }
+
+    @Then("^the hits of a collect on the whole layer are ordered by y then x$")
+    public void theHitsOfACollectOnTheWholeLayerAreOrderedByYThenX() {
+        int count = geometry.collect(0, 0, (int) layer.width - 1, (int) layer.height - 1);
+        assertTrue("No hit", count > 1);
+        for (int i = 1; i < count; i++) {
+            int previous = geometry.getHitY(i - 1) * (int) layer.width + geometry.getHitX(i - 1);
+            int current = geometry.getHitY(i) * (int) layer.width + geometry.getHitX(i);
+            assertTrue("Hit " + i + " out of order", previous < current);
+        }
+    }
+
+    @When("^the chunk at (\\d+),(\\d+) is emptied$")
+    public void theChunkAtIsEmptied(int cx, int cy) {
+        for (int y = 0; y < MapLayer.CHUNK_SIZE; y++) {
+            for (int x = 0; x < MapLayer.CHUNK_SIZE; x++) {
+                layer.setTileId(cx * MapLayer.CHUNK_SIZE + x, cy * MapLayer.CHUNK_SIZE + y, 0);
+            }
+        }
+    }
+
+    @When("^a blocking tile fills the area from (\\d+),(\\d+) to (\\d+),(\\d+)$")
+    public void aBlockingTileFillsTheAreaFromTo(int x0, int y0, int x1, int y1) {
+        int id = blockingId();
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                layer.setTileId(x, y, id);
+            }
+        }
+    }
+
+    @When("^the blocking tile at (\\d+),(\\d+) is removed$")
+    public void theBlockingTileAtIsRemoved(int x, int y) {
+        layer.setTileId(x, y, 0);
+    }
+
+    @Then("^a collect from (\\d+),(\\d+) to (\\d+),(\\d+) finds the hits \"([^\"]*)\"$")
+    public void aCollectFromToFindsTheHits(int x0, int y0, int x1, int y1, String hits) {
+        int count = geometry.collect(x0, y0, x1, y1);
+        StringBuilder found = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            found.append(i > 0 ? " " : "").append(geometry.getHitX(i)).append(",").append(geometry.getHitY(i));
+        }
+        assertEquals("Wrong hits", hits, found.toString());
+    }
+
+    /**
+     * @return the id of the first blocking tile, merged by the geometry.
+     */
+    private int blockingId() {
+        for (int id = 1; id < tileTable.size(); id++) {
+            if (tileTable.is(id, TileTable.BLOCK) && !tileTable.is(id, TileTable.COLLECTIBLE)) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("No blocking tile in the layer " + layer.name);
+    }
+}
@@ -0,0 +1,132 @@
+package tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import core.map.MapLayer;
+import core.map.MapObject;
+import core.map.TileTable;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+public class TileTableStepDefs {
+
+    MapLayer layer;
+    TileTable tileTable;
+    int version;
+
+    @Given("^the layer \"([^\"]*)\" of the map \"([^\"]*)\"$")
+    public void theLayerOfTheMap(String layerName, String fileMap) {
+        layer = Fixtures.readLayer(fileMap, layerName);
+        tileTable = layer.getTileTable();
+    }
+
+    @Then("^each tile of the layer is found by its id in the tile table$")
+    public void eachTileOfTheLayerIsFoundByItsIdInTheTileTable() {
+        int tiles = 0;
+        for (int y = 0; y < layer.height; y++) {
+            for (int x = 0; x < layer.width; x++) {
+                int id = layer.getTileId(x, y);
+                MapObject mo = layer.getTile(x, y);
+                assertSame("Wrong tile at (" + x + "," + y + ")", tileTable.getObject(id), mo);
+                assertEquals("Wrong id of the tile at (" + x + "," + y + ")", id, tileTable.getId(mo));
+                tiles += id != 0 ? 1 : 0;
+            }
+        }
+        assertTrue("The layer has no tile", tiles > 0);
+    }
+
+    @Then("^the flags of each id are those of its MapObject$")
+    public void theFlagsOfEachIdAreThoseOfItsMapObject() {
+        assertEquals("Wrong flags of the id 0", 0, tileTable.getFlags(0));
+        for (int id = 1; id < tileTable.size(); id++) {
+            MapObject mo = tileTable.getObject(id);
+            assertEquals("Wrong block flag of " + mo.id, mo.block, tileTable.is(id, TileTable.BLOCK));
+            assertEquals("Wrong collectible flag of " + mo.id, mo.collectible,
+                    tileTable.is(id, TileTable.COLLECTIBLE));
+            assertEquals("Wrong climbable flag of " + mo.id, mo.climbable, tileTable.is(id, TileTable.CLIMBABLE));
+        }
+    }
+
+    @Then("^the tiles out of the layer are empty$")
+    public void theTilesOutOfTheLayerAreEmpty() {
+        int width = (int) layer.width;
+        int height = (int) layer.height;
+        assertEquals(0, layer.getTileId(-1, 0));
+        assertEquals(0, layer.getTileId(0, -1));
+        assertEquals(0, layer.getTileId(width, 0));
+        assertEquals(0, layer.getTileId(0, height));
+        assertNull(layer.getTile(width, height));
+    }
+
+    @When("^the tile at (\\d+),(\\d+) is replaced by the tile id (\\d+)$")
+    public void theTileAtIsReplacedByTheTileId(int x, int y, int id) {
+        version = chunkVersion(x, y);
+        layer.setTile(x, y, tileTable.getObject(id));
+    }
+
+    @When("^the tile at (\\d+),(\\d+) is removed$")
+    public void theTileAtIsRemoved(int x, int y) {
+        version = chunkVersion(x, y);
+        layer.setTile(x, y, null);
+    }
+
+    @Then("^the tile at (\\d+),(\\d+) has the id (\\d+)$")
+    public void theTileAtHasTheId(int x, int y, int id) {
+        assertEquals("Wrong id", id, layer.getTileId(x, y));
+        assertSame("Wrong tile", tileTable.getObject(id), layer.getTile(x, y));
+    }
+
+    @Then("^the chunk of the tile at (\\d+),(\\d+) has a new version$")
+    public void theChunkOfTheTileAtHasANewVersion(int x, int y) {
+        assertTrue("The version of the chunk has not changed", chunkVersion(x, y) > version);
+    }
+
+    @Then("^the tile id (-?\\d+) is rejected at (\\d+),(\\d+)$")
+    public void theTileIdIsRejectedAt(int id, int x, int y) {
+        assertRejected(id, x, y);
+    }
+
+    @Then("^the tile id past the tile table is rejected at (\\d+),(\\d+)$")
+    public void theTileIdPastTheTileTableIsRejectedAt(int x, int y) {
+        assertRejected(tileTable.size(), x, y);
+    }
+
+    @Then("^the tile position (-?\\d+),(-?\\d+) is rejected$")
+    public void theTilePositionIsRejected(int x, int y) {
+        int[] versions = chunkVersions();
+        try {
+            layer.setTileId(x, y, 1);
+            fail("The tile position (" + x + "," + y + ") has been accepted");
+        } catch (IndexOutOfBoundsException e) {
+            assertArrayEquals("A chunk has changed", versions, chunkVersions());
+        }
+    }
+
+    private void assertRejected(int id, int x, int y) {
+        int before = layer.getTileId(x, y);
+        try {
+            layer.setTileId(x, y, id);
+            fail("The tile id " + id + " has been accepted");
+        } catch (IllegalArgumentException e) {
+            assertEquals("The tile has changed", before, layer.getTileId(x, y));
+        }
+    }
+
+    private int[] chunkVersions() {
+        int[] versions = new int[layer.getChunkColumns() * layer.getChunkRows()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = layer.getChunkVersion(i % layer.getChunkColumns(), i / layer.getChunkColumns());
+        }
+        return versions;
+    }
+
+    private int chunkVersion(int x, int y) {
+        return layer.getChunkVersion(x / MapLayer.CHUNK_SIZE, y / MapLayer.CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,27 @@
+Feature: AnimationClock frame timing
+
+  The AnimationClock advances the registered animations once per update step, and carries
+  the time left over when a frame ends to the next one.
+
+  Scenario Outline: Frames follow the elapsed time, the remaining time carried over
+    Given an AnimationClock at 60 fps
+    And an animation with frames lasting "6,6,12" rendered frames
+    When the clock ticks <ticks> times by <time> ms
+    Then the animation shows the frame <frame>
+
+    Examples:
+      | ticks | time | frame |
+      | 3     | 30   | 0     |
+      | 4     | 30   | 1     |
+      | 6     | 30   | 1     |
+      | 7     | 30   | 2     |
+      | 14    | 30   | 0     |
+      | 1     | 250  | 2     |
+
+  Scenario: An animation restarts from its first frame
+    Given an AnimationClock at 60 fps
+    And an animation with frames lasting "6,6,12" rendered frames
+    When the clock ticks 5 times by 30 ms
+    And the animation is reset
+    And the clock ticks 3 times by 30 ms
+    Then the animation shows the frame 0
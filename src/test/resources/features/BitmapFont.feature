@@ -0,0 +1,21 @@
+Feature: BitmapFont cache
+
+  A Renderer keeps its BitmapFonts in a cache, on their font, colors and antialiasing.
+  Only the most recently used ones are kept.
+
+  Scenario: The same font and colors share one BitmapFont
+    Given a BitmapFont cache of 2 fonts
+    When the font of size 12 in "white" is used
+    And the font of size 12 in "white" is used
+    Then the cache holds 1 fonts
+    And the font of size 12 in "white" is the one built first
+
+  Scenario: The least recently used font is dropped
+    Given a BitmapFont cache of 2 fonts
+    When the font of size 12 in "white" is used
+    And the font of size 14 in "white" is used
+    And the font of size 12 in "white" is used
+    And the font of size 16 in "red" is used
+    Then the cache holds 2 fonts
+    And the font of size 12 in "white" is the one built first
+    And the font of size 14 in "white" is built again
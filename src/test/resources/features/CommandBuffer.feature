@@ -0,0 +1,55 @@
+Feature: CommandBuffer reordering
+
+  The CommandBuffer draws the runs of non-overlapping items of a same layer and
+  priority sorted on their state, and only sets the state changes needed.
+
+  Scenario: Non-overlapping items are drawn grouped by state
+    Given an empty CommandBuffer
+    When the items are recorded into the CommandBuffer:
+      | item | layer | priority | state | color | x   | y |
+      | a    | 1     | 0        | S1    | red   | 0   | 0 |
+      | b    | 1     | 0        | S2    | blue  | 100 | 0 |
+      | c    | 1     | 0        | S1    | red   | 200 | 0 |
+    And the CommandBuffer is executed
+    Then the CommandBuffer draw order is "a,c,b"
+    And the CommandBuffer made 3 draw calls and 2 state changes
+
+  Scenario: Overlapping items keep their recording order
+    Given an empty CommandBuffer
+    When the items are recorded into the CommandBuffer:
+      | item | layer | priority | state | color | x  | y  |
+      | a    | 1     | 0        | S1    | red   | 0  | 0  |
+      | b    | 1     | 0        | S2    | blue  | 8  | 8  |
+      | c    | 1     | 0        | S1    | red   | 16 | 16 |
+    And the CommandBuffer is executed
+    Then the CommandBuffer draw order is "a,b,c"
+    And the CommandBuffer made 3 draw calls and 3 state changes
+
+  Scenario: No item is moved across a barrier
+    Given an empty CommandBuffer
+    When the items are recorded into the CommandBuffer:
+      | item    | layer | priority | state | color | x   | y |
+      | a       | 1     | 0        | S1    | red   | 0   | 0 |
+      | b       | 1     | 0        | S2    | blue  | 100 | 0 |
+      | barrier |       |          |       |       |     |   |
+      | c       | 1     | 0        | S1    | red   | 200 | 0 |
+    And the CommandBuffer is executed
+    Then the CommandBuffer draw order is "a,b,c"
+    And the CommandBuffer made 3 draw calls and 3 state changes
+
+  Scenario: No item is moved across a layer or a priority
+    Given an empty CommandBuffer
+    When the items are recorded into the CommandBuffer:
+      | item | layer | priority | state | color | x   | y |
+      | a    | 1     | 0        | S1    | red   | 0   | 0 |
+      | b    | 1     | 1        | S2    | blue  | 100 | 0 |
+      | c    | 2     | 0        | S1    | red   | 200 | 0 |
+    And the CommandBuffer is executed
+    Then the CommandBuffer draw order is "a,b,c"
+    And the CommandBuffer made 3 draw calls and 3 state changes
+
+  Scenario: A run sorted on state holds at most 64 commands
+    Given an empty CommandBuffer
+    When 66 non-overlapping items alternating the states "S1:red,S2:blue" are recorded into the CommandBuffer
+    And the CommandBuffer is executed
+    Then the CommandBuffer made 66 draw calls and 4 state changes
@@ -9,3 +9,30 @@ Feature: DemoGame command line arguments
     And the DemoGame config has height=200
     And the DemoGame config has scale=2
     And the DemoGame screenBuffer is width=320 and height=200
+
+  Scenario: Headless mode
+    Given DemoGame is instantiated with "w=320 h=200 hl=true"
+    Then the DemoGame instance initialized
+    And the DemoGame config is headless
+    And the DemoGame screenBuffer is width=320 and height=200
+
+  Scenario Outline: Scripted inputs drive a headless game
+    When DemoGame is played headless for 400 ticks with the inputs "<script>"
+    Then the final position of "player" is <position> x=192
+
+    Examples:
+      | script                 | position |
+      | ENTER@1                | at       |
+      | ENTER@1,RIGHT@100-300  | right of |
+      | ENTER@1,LEFT@100-300   | left of  |
+
+  Scenario Outline: A malformed input script is rejected
+    Then the input script "<script>" is rejected
+
+    Examples:
+      | script      |
+      | RIGHT       |
+      | FOO@1       |
+      | RIGHT@5-2   |
+      | RIGHT@a-b   |
+      | RIGHT@1-2-3 |
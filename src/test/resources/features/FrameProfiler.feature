@@ -0,0 +1,18 @@
+Feature: FrameProfiler phase statistics
+
+  The FrameProfiler samples the update phases per update step and the render phases per frame,
+  and provides their p50/p95/p99/max durations.
+
+  Scenario: Percentiles of an update phase
+    Given a FrameProfiler keeping 100 samples
+    When 100 update steps last from 1 to 100 ms in the UPDATE phase
+    Then the UPDATE phase has 100 samples
+    And the UPDATE phase has p50=50 p95=95 p99=99 max=100 ms
+
+  Scenario: Update steps without a frame are not added to the render phases
+    Given a FrameProfiler keeping 100 samples
+    When 10 frames last 2 ms in the RENDER phase, each after 3 update steps of 1 ms in the PHYSIC phase
+    Then the PHYSIC phase has 30 samples
+    And the PHYSIC phase has p50=1 p95=1 p99=1 max=1 ms
+    And the RENDER phase has 10 samples
+    And the RENDER phase has p50=2 p95=2 p99=2 max=2 ms
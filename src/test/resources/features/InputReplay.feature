@@ -0,0 +1,20 @@
+Feature: Record and replay the inputs
+
+  The InputRecorder logs the key changes of each update step, and the ReplayInputSource
+  replays them at the same update steps.
+
+  Scenario: Replay a recorded session
+    Given an input log is recorded at 60 UPS with seed 42
+    When the key "RIGHT" is pressed at tick 2
+    And the key "RIGHT" is released at tick 8
+    And the recording stops after tick 10
+    Then the input log is replayed at 60 UPS with seed 42 over 11 ticks
+    And the replayed key "RIGHT" is down from tick 2 to tick 7
+
+  Scenario: Replay modifier combinations
+    Given an input log is recorded at 60 UPS with seed 7
+    When the key "S" is pressed with "CTRL+SHIFT" at tick 3
+    And the key "S" is released at tick 4
+    And the recording stops after tick 5
+    Then the input log is replayed at 60 UPS with seed 7 over 6 ticks
+    And the replayed key "S" is pressed with "CTRL+SHIFT" at tick 3
@@ -0,0 +1,11 @@
+Feature: Compiled map cache
+
+  With a map cache directory, the MapReader compiles a level the first time it is read,
+  and reads the compiled file the next times.
+
+  Scenario: A compiled map is read back as the JSON map
+    Given an empty map cache directory
+    When the map "/res/maps/map_2.json" is read through the map cache
+    Then the map "/res/maps/map_2.json" is compiled in the map cache
+    When the map "/res/maps/map_2.json" is read again through the map cache
+    Then both maps have the same layers, tiles and objects
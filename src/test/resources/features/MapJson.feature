@@ -0,0 +1,21 @@
+Feature: Reading the JSON files of a map
+
+  The MapReader reads a level and its assets from their JSON files into the
+  MapLevel, MapLayer and MapObjectAsset classes.
+
+  Background:
+    Given the map "/res/maps/map_2.json" read from its JSON file
+
+  Scenario: The layers are read in the order of the file
+    Then the layers of the map are, in order:
+      | name       | index | type                   |
+      | background | 1     | LAYER_BACKGROUND_IMAGE |
+      | mid        | 2     | LAYER_TILEMAP          |
+      | front      | 3     | LAYER_TILEMAP          |
+
+  Scenario: The level attributes are those of the JSON file
+    Then the level attributes are those of "/res/maps/map_2.json"
+
+  Scenario: The asset objects are those of the JSON file
+    Then the asset of the layer "front" is "/res/assets/asset-2.json"
+    And each object of the asset of the layer "front" is the one of "/res/assets/asset-2.json"
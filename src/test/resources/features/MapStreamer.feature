@@ -0,0 +1,32 @@
+Feature: Streaming the chunks of a map
+
+  The MapStreamer keeps loaded the chunks of a map around the view, evicts the
+  far ones when over its memory budget, and restores their changed tiles and
+  their objects when they come back.
+
+  Background:
+    Given the map "/res/maps/map_2.json" streamed under a budget of 1 KB with a view of 256x256
+    And the streamed view is at 0,0
+
+  Scenario: The chunks far from the view are evicted and loaded again
+    Then the chunk 0,0 of the streamed layer "front" is loaded
+    When the streamed view moves to 1024,0
+    Then the chunk 0,0 of the streamed layer "front" is not loaded
+    And the chunk 4,0 of the streamed layer "front" is loaded
+    And some chunks have been evicted
+    When the streamed view moves to 0,0
+    Then the chunk 0,0 of the streamed layer "front" is loaded
+
+  Scenario: A removed tile stays removed once its chunk is loaded again
+    When the first tile of the chunk 0,0 of the streamed layer "front" is removed
+    And the tiles of the chunks 0,0 and 1,0 of the streamed layer "front" are remembered
+    And the streamed view moves to 1024,0
+    And the streamed view moves to 0,0
+    Then the tiles of the chunks 0,0 and 1,0 of the streamed layer "front" are the remembered ones
+
+  Scenario: The objects of an evicted chunk are restored with their state
+    When an object of the chunk 0,1 with an attribute "energy" is moved by 8,0 and its "energy" set to 42
+    And the streamed view moves to 1024,0
+    Then the object has been evicted
+    When the streamed view moves to 0,0
+    Then the object is restored moved by 8,0 with its "energy" at 42
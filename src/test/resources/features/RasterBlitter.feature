@@ -0,0 +1,38 @@
+Feature: RasterBlitter drawing
+
+  The RasterBlitter copies the pixels of an image into a TYPE_INT_RGB image as
+  Graphics2D.drawImage does: clipped to the target, optionally mirrored, and
+  blending the partially transparent pixels with the same rounding.
+
+  Scenario Outline: An image is drawn as Graphics2D.drawImage draws it
+    Given a 64x48 TYPE_INT_RGB blitter target
+    And a 20x12 <type> source image
+    When the source area 0,0 20x12 is drawn at <x>,<y> mirrored <flip> by the blitter and by Java2D
+    Then the blitter target is the Java2D one
+
+    Examples:
+      | type         | x   | y  | flip  |
+      | INT_RGB      | 5   | 7  | false |
+      | INT_RGB      | 5   | 7  | true  |
+      | INT_RGB      | -6  | -3 | false |
+      | INT_RGB      | 54  | 40 | true  |
+      | INT_RGB      | -30 | 0  | false |
+      | INT_ARGB     | 5   | 7  | false |
+      | INT_ARGB     | 5   | 7  | true  |
+      | INT_ARGB     | -6  | -3 | true  |
+      | INT_ARGB     | 54  | 40 | false |
+      | INT_ARGB_PRE | 5   | 7  | false |
+      | INT_ARGB_PRE | -6  | 44 | true  |
+      | INT_ARGB_PRE | 60  | -5 | false |
+
+  Scenario Outline: An area of an image is drawn as Graphics2D.drawImage draws it
+    Given a 64x48 TYPE_INT_RGB blitter target
+    And a 20x12 <type> source image
+    When the source area 4,2 10x8 is drawn at <x>,<y> mirrored <flip> by the blitter and by Java2D
+    Then the blitter target is the Java2D one
+
+    Examples:
+      | type         | x  | y  | flip  |
+      | INT_RGB      | 3  | 3  | true  |
+      | INT_ARGB     | -2 | 43 | true  |
+      | INT_ARGB_PRE | 58 | -1 | false |
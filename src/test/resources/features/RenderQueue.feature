@@ -0,0 +1,28 @@
+Feature: RenderQueue ordering
+
+  The RenderQueue keeps the GameObjects sorted on their layer, then their priority,
+  then their insertion order.
+
+  Scenario: Objects are rendered by layer, priority, then insertion order
+    Given an empty RenderQueue
+    When the objects are added to the RenderQueue:
+      | name       | layer | priority |
+      | hud        | 10    | 0        |
+      | enemy_1    | 1     | 2        |
+      | player     | 1     | 1        |
+      | enemy_2    | 1     | 2        |
+      | background | 0     | 0        |
+    Then the RenderQueue order is "background,player,enemy_1,enemy_2,hud"
+
+  Scenario: Remove and move objects
+    Given an empty RenderQueue
+    When the objects are added to the RenderQueue:
+      | name | layer | priority |
+      | a    | 1     | 0        |
+      | b    | 1     | 0        |
+      | c    | 1     | 0        |
+    And the object "b" is removed from the RenderQueue
+    Then the RenderQueue order is "a,c"
+    When the object "a" is moved to the layer 2 of the RenderQueue
+    Then the RenderQueue order is "c,a"
+    And the RenderQueue contains 2 objects
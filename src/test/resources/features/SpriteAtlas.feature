@@ -0,0 +1,31 @@
+Feature: SpriteAtlas packing
+
+  The SpriteAtlas packs the areas of the level images into a few pages, each area only once.
+
+  Scenario: An area already packed returns the same sprite
+    Given a SpriteAtlas with pages of 64 pixels
+    And a source image of 64x32 distinct pixels
+    When the area (16,0) 16x16 of the source image is packed as "coin"
+    And the area (16,0) 16x16 of the source image is packed as "coin_again"
+    And the area (32,16) 16x16 of the source image is packed as "key"
+    Then the sprites "coin" and "coin_again" are the same
+    And the SpriteAtlas holds 2 sprites on 1 pages
+    And the sprite "key" draws the area (32,16) 16x16 of the source image
+
+  Scenario: A mirrored area is packed once, next to its sprite
+    Given a SpriteAtlas with pages of 64 pixels
+    And a source image of 64x32 distinct pixels
+    When the area (0,0) 16x32 of the source image is packed and mirrored as "player"
+    And the area (0,0) 16x32 of the source image is packed and mirrored as "player_again"
+    Then the sprites "player" and "player_again" are the same
+    And the SpriteAtlas holds 2 sprites on 1 pages
+    And the sprite "player" draws the area (0,0) 16x32 of the source image
+    And the mirrored sprite of "player" draws the area (0,0) 16x32 of the source image mirrored
+
+  Scenario: A sprite bigger than a page gets a page of its own
+    Given a SpriteAtlas with pages of 32 pixels
+    And a source image of 64x32 distinct pixels
+    When the area (0,0) 8x8 of the source image is packed as "small"
+    And the area (0,0) 48x16 of the source image is packed as "large"
+    Then the SpriteAtlas holds 2 sprites on 2 pages
+    And the sprite "large" draws the area (0,0) 48x16 of the source image
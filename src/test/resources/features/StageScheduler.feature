@@ -0,0 +1,40 @@
+Feature: StageScheduler ordering
+
+  The StageScheduler runs the stages of an update step in parallel, a stage waiting
+  for the previous stages it conflicts with.
+
+  Scenario: Conflicting stages run in declaration order
+    Given a StageScheduler with 4 workers
+    And a stage "physic" writing "OBJECTS"
+    And a stage "camera" reading "OBJECTS"
+    And a stage "collisions" writing "OBJECTS,COLLISIONS"
+    When the stages are run
+    Then the stage "physic" ends before the stage "camera" starts
+    And the stage "camera" ends before the stage "collisions" starts
+
+  Scenario Outline: Stages without conflict run at the same time
+    Given a StageScheduler with 2 workers
+    And a stage "a" <access1> "<data1>"
+    And a stage "b" <access2> "<data2>"
+    When the stages are run, each one waiting for the other
+    Then the stages have run at the same time
+
+    Examples:
+      | access1 | data1       | access2 | data2      |
+      | reading | OBJECTS     | reading | OBJECTS    |
+      | writing | AUDIO_QUEUE | writing | ANIMATIONS |
+
+  Scenario Outline: A failing stage stops the update step
+    Given a StageScheduler with <workers> workers
+    And a stage "physic" writing "OBJECTS"
+    And a failing stage "scripts" writing "OBJECTS"
+    And a stage "view" reading "OBJECTS"
+    When the stages are run until the failure
+    Then the failure of the stage "scripts" is thrown
+    And the stage "physic" has run
+    And the stage "view" has not run
+
+    Examples:
+      | workers |
+      | 1       |
+      | 4       |
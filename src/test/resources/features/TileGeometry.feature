@@ -0,0 +1,27 @@
+Feature: Collision geometry of a tilemap layer
+
+  The TileGeometry merges the blocking tiles of each chunk of a layer into
+  rectangles, and collects the tiles of an area ordered by y then x.
+
+  Background:
+    Given the geometry of the layer "front" of the map "/res/maps/map_2.json"
+
+  Scenario: A collect on a single cell finds the tile of the cell
+    Then a collect on each cell of the layer finds the tile of the cell only
+    And the blocking tiles of the layer are merged into fewer rectangles
+
+  Scenario: The hits of a collect are ordered by y then x
+    Then the hits of a collect on the whole layer are ordered by y then x
+
+  Scenario: A block of a same blocking tile is merged into one rectangle
+    When the chunk at 0,0 is emptied
+    And a blocking tile fills the area from 2,3 to 6,5
+    Then a collect from 0,0 to 15,15 finds the hits "2,3"
+    And a collect from 4,4 to 15,15 finds the hits "4,4"
+    And a collect from 7,0 to 15,15 finds the hits ""
+
+  Scenario: The geometry of a chunk is merged again once a tile is removed
+    When the chunk at 0,0 is emptied
+    And a blocking tile fills the area from 2,3 to 6,5
+    And the blocking tile at 2,3 is removed
+    Then a collect from 0,0 to 15,15 finds the hits "3,3 2,4"
@@ -0,0 +1,36 @@
+Feature: Tiles of a tilemap layer
+
+  A tilemap layer stores the id of each of its tiles, and its TileTable maps
+  each id to the MapObject of the tile and its flags.
+
+  Background:
+    Given the layer "front" of the map "/res/maps/map_2.json"
+
+  Scenario: Each tile id is the id of its MapObject in the tile table
+    Then each tile of the layer is found by its id in the tile table
+    And the flags of each id are those of its MapObject
+    And the tiles out of the layer are empty
+
+  Scenario: Replacing a tile changes its id and the version of its chunk
+    When the tile at 3,5 is replaced by the tile id 1
+    Then the tile at 3,5 has the id 1
+    And the chunk of the tile at 3,5 has a new version
+
+  Scenario: Removing a tile clears its id
+    When the tile at 3,5 is removed
+    Then the tile at 3,5 has the id 0
+    And the chunk of the tile at 3,5 has a new version
+
+  Scenario: A tile id out of the tile table is rejected
+    Then the tile id -1 is rejected at 3,5
+    And the tile id past the tile table is rejected at 3,5
+
+  Scenario Outline: A position out of the layer is rejected
+    Then the tile position <x>,<y> is rejected
+
+    Examples:
+      | x  | y  |
+      | -1 | 0  |
+      | 0  | -1 |
+      | 80 | 0  |
+      | 0  | 40 |